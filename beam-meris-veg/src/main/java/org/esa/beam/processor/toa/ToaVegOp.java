@@ -59,6 +59,9 @@ import java.net.URL;
                   description = "Computes LAI from MERIS products.")
 public class ToaVegOp extends PixelOperator {
 
+    private static final String RADIANCE_BAND_NAME_PREFIX = "radiance_";
+    private static final String REFLECTANCE_BAND_NAME_PREFIX = "reflec_";
+
     @Parameter(defaultValue = "false", label = "If set to true, Lai will be multiplied by 10000 and written as int")
     private boolean outputLaiAsInt = false;
 
@@ -85,6 +88,8 @@ public class ToaVegOp extends PixelOperator {
 
     private final transient ToaVegAlgorithm algorithm = new ToaVegAlgorithm();
     private final float[] solarSpecFlux = new float[ToaVegConstants.NUM_BANDS];
+    // Whether the source product contains the reflectances computed by the MERIS reflectance operator
+    private transient boolean reflectancesPresent;
 
     @Override
     protected void computePixel(int x, int y, Sample[] sourceSamples, WritableSample[] targetSamples) {
@@ -138,7 +143,11 @@ public class ToaVegOp extends PixelOperator {
         sampleConfigurer.defineSample(6, ToaVegConstants.VAA_TIEPOINT_NAME);
         sampleConfigurer.defineSample(7, ToaVegConstants.PRESS_TIEPOINT_NAME);
         for (int i = 0; i < ToaVegConstants.REFLEC_BAND_NAMES.length; i++) {
-            sampleConfigurer.defineSample(8 + i, ToaVegConstants.REFLEC_BAND_NAMES[i]);
+            if (reflectancesPresent) {
+                sampleConfigurer.defineSample(8 + i, getReflectanceBandName(ToaVegConstants.REFLEC_BAND_NAMES[i]));
+            } else {
+                sampleConfigurer.defineSample(8 + i, ToaVegConstants.REFLEC_BAND_NAMES[i]);
+            }
         }
     }
 
@@ -162,6 +171,8 @@ public class ToaVegOp extends PixelOperator {
         for (int n=0; n < ToaVegConstants.NUM_BANDS; n++) {
             solarSpecFlux[n] = sourceProduct.getBand(ToaVegConstants.REFLEC_BAND_NAMES[n]).getSolarFlux();
         }
+        reflectancesPresent = containsReflectanceBands(sourceProduct);
+        algorithm.setReflectanceInput(reflectancesPresent);
 
         productConfigurer.copyTiePointGrids();
         productConfigurer.copyBands(new ProductNodeFilter<Band>() {
@@ -238,6 +249,28 @@ public class ToaVegOp extends PixelOperator {
          solarSpecFlux[n] = value;
     }
 
+    void setReflectancesPresent(boolean value) {
+        reflectancesPresent = value;
+        algorithm.setReflectanceInput(value);
+    }
+
+    /**
+     * Returns the name of the reflectance band computed for a radiance band by the MERIS reflectance
+     * operator (Meris.Reflectance), <code>reflec_n</code> for <code>radiance_n</code>.
+     */
+    static String getReflectanceBandName(String radianceBandName) {
+        return REFLECTANCE_BAND_NAME_PREFIX + radianceBandName.substring(RADIANCE_BAND_NAME_PREFIX.length());
+    }
+
+    static boolean containsReflectanceBands(Product product) {
+        for (String bandName : ToaVegConstants.REFLEC_BAND_NAMES) {
+            if (!product.containsBand(getReflectanceBandName(bandName))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected void loadAuxiliaryData() {
 
         // TODO - allow for parameter for aux data location
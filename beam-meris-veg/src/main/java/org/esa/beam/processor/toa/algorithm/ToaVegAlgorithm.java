@@ -18,7 +18,7 @@ package org.esa.beam.processor.toa.algorithm;
 
 
 import org.esa.beam.util.Guardian;
-import org.esa.beam.util.math.RsMathUtils;
+import org.esa.beam.util.math.MathUtils;
 import org.esa.beam.processor.toa.ToaVegConstants;
 import org.esa.beam.processor.toa.auxdata.ToaVegInputStatisticsAccess;
 import org.esa.beam.processor.common.auxdata.VegUncertaintyModelAccess;
@@ -60,6 +60,7 @@ public class ToaVegAlgorithm {
     float _sigma_fapar;
     float _sigma_fcover;
     float _sigma_laixcab;
+    boolean _reflectanceInput;
 
     /**
      * creates several variables
@@ -136,6 +137,16 @@ public class ToaVegAlgorithm {
         return -1;
     }
 
+    /**
+     * Sets whether the bands of the input pixels are reflectances instead of radiances, e.g. computed by
+     * the MERIS reflectance operator. The radiances are converted into reflectances otherwise.
+     *
+     * @param reflectanceInput true if the input bands are reflectances
+     */
+    public void setReflectanceInput(boolean reflectanceInput) {
+        _reflectanceInput = reflectanceInput;
+    }
+
     /**
      * Sets the interface for the input statistics retrieval.
      *
@@ -345,9 +356,16 @@ public class ToaVegAlgorithm {
 
 
 
+         // The cosine of the sun zenith is shared by all bands, the reflectances are identical to
+         // those of RsMathUtils.radianceToReflectance()
+         final double cosSza = Math.cos(input.getBand_Sza() * MathUtils.DTOR);
          for (int b = 0; b < ToaVegConstants.NUM_BANDS; b++) {
-            solarSpecFlux = input.getBand_SolarSpecFlux(b);
-            reflec = RsMathUtils.radianceToReflectance(input.getBand(b), input.getBand_Sza(), solarSpecFlux);
+            if (_reflectanceInput) {
+                reflec = input.getBand(b);
+            } else {
+                solarSpecFlux = input.getBand_SolarSpecFlux(b);
+                reflec = (float) ((input.getBand(b) * Math.PI) / (solarSpecFlux * cosSza));
+            }
             _inputNN[numInputNN] = inputNormalisation(reflec,
                                                       getR_Min(b),
                                                       getR_Max(b));
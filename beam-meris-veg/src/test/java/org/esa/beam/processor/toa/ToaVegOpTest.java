@@ -2,6 +2,7 @@ package org.esa.beam.processor.toa;
 
 import org.esa.beam.framework.datamodel.RasterDataNode;
 import org.esa.beam.framework.gpf.pointop.WritableSample;
+import org.esa.beam.util.math.RsMathUtils;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -76,6 +77,60 @@ public class ToaVegOpTest {
         assertEquals(0, targetSamples[8].getInt());
     }
 
+    @Test
+    public void testToaVegOpWithReflectances() throws Exception {
+        final float[] geometry = {37.036976f, 76.98884f, 4.858894f, 104.1936f};
+        final float[] radiances = {
+                69.1f, 63.21793f, 52.071564f, 48.635902f, 43.334785f, 36.944813f, 34.617016f,
+                33.69079f, 43.28586f, 60.045914f, 58.957314f, 54.879032f, 54.268143f
+        };
+        final float[] solarFluxes = {
+                1775.2848f, 1945.2028f, 1996.392f, 1997.0122f, 1866.7103f, 1709.0328f, 1585.6805f,
+                1524.1238f, 1457.6317f, 1310.724f, 1218.8073f, 992.2085f, 962.6538f
+        };
+        final float[] reflectances = new float[radiances.length];
+        for (int n = 0; n < radiances.length; n++) {
+            reflectances[n] = RsMathUtils.radianceToReflectance(radiances[n], geometry[0], solarFluxes[n]);
+        }
+
+        final MyWritableSample[] expected = computePixel(geometry, radiances, solarFluxes, false);
+        final MyWritableSample[] actual = computePixel(geometry, reflectances, solarFluxes, true);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getDouble(), actual[i].getDouble(), 0.0);
+        }
+    }
+
+    private MyWritableSample[] computePixel(float[] geometry, float[] bands, float[] solarFluxes,
+                                            boolean reflectancesPresent) {
+        final MyWritableSample[] sourceSamples = new MyWritableSample[8 + bands.length];
+        for (int i = 0; i < sourceSamples.length; ++i) {
+            sourceSamples[i] = new MyWritableSample();
+        }
+        sourceSamples[0].set(1);
+        sourceSamples[1].set(-36.75359f);
+        sourceSamples[2].set(139.91522f);
+        for (int i = 0; i < geometry.length; i++) {
+            sourceSamples[3 + i].set(geometry[i]);
+        }
+        sourceSamples[7].set(1017.6813f);
+        for (int n = 0; n < bands.length; n++) {
+            sourceSamples[8 + n].set(bands[n]);
+        }
+        final MyWritableSample[] targetSamples = new MyWritableSample[9];
+        for (int i = 0; i < targetSamples.length; ++i) {
+            targetSamples[i] = new MyWritableSample();
+        }
+
+        final ToaVegOp op = new ToaVegOp();
+        op.loadAuxiliaryData();
+        for (int n = 0; n < solarFluxes.length; n++) {
+            op.setSolarSpecFlux(solarFluxes[n], n);
+        }
+        op.setReflectancesPresent(reflectancesPresent);
+        op.computePixel(0, 0, sourceSamples, targetSamples);
+        return targetSamples;
+    }
+
     class MyWritableSample implements WritableSample {
         double value;
 
@@ -0,0 +1,101 @@
+package wew.water.gpf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recall of the chlorophyll and the atmospheric correction network, in ns per pixel.
+ * <p/>
+ * Each invocation recalls the networks for {@link #NUM_PIXELS} pixels, in rows of
+ * {@link #width} pixels. A width of 1 corresponds to the pixel based FUB.Water operator,
+ * larger widths to tile rows. The input ranges are checked as done by the operators.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkBenchmark {
+
+    static final int NUM_PIXELS = 4480;
+
+    @Param({"1", "64", "1120"})
+    int width;
+
+    private float[][][] chlInput;
+    private float[][][] atmCorrInput;
+    private float[][] chlOutput;
+    private float[][] atmCorrOutput;
+    private int[] mask;
+    private float[] a;
+    private NN_Workspace workspace;
+
+    @Setup
+    public void setUp() {
+        chlInput = split(SyntheticMerisInput.createNetworkInput(NN_CHL.getNet(), NUM_PIXELS, 1), width);
+        atmCorrInput = split(SyntheticMerisInput.createNetworkInput(NN_AtmCorr.getNet(), NUM_PIXELS, 2), width);
+        chlOutput = new float[NN_CHL.getNet().getNumOutputs()][width];
+        atmCorrOutput = new float[NN_AtmCorr.getNet().getNumOutputs()][width];
+        mask = new int[width];
+        a = new float[width];
+        workspace = new NN_Workspace();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void chl(Blackhole blackhole) {
+        final int numInputs = chlInput[0].length;
+        final int numOutputs = chlOutput.length;
+        for (float[][] in : chlInput) {
+            resetStatus();
+            NN_CHL.compute(in, numInputs, chlOutput, numOutputs, width, mask, 0, a, workspace);
+            blackhole.consume(chlOutput);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void atmCorr(Blackhole blackhole) {
+        final int numInputs = atmCorrInput[0].length;
+        final int numOutputs = atmCorrOutput.length;
+        for (float[][] in : atmCorrInput) {
+            resetStatus();
+            NN_AtmCorr.compute(in, numInputs, atmCorrOutput, numOutputs, width, mask, 0, a, workspace);
+            blackhole.consume(atmCorrOutput);
+        }
+    }
+
+    private void resetStatus() {
+        for (int x = 0; x < width; x++) {
+            mask[x] = 0;
+            a[x] = -1.0f;
+        }
+    }
+
+    /*
+     * Splits the input vectors into rows of the given width, in[row][node][x].
+     */
+    private static float[][][] split(float[][] in, int width) {
+        final float[][][] rows = new float[in[0].length / width][in.length][width];
+        for (int r = 0; r < rows.length; r++) {
+            for (int i = 0; i < in.length; i++) {
+                System.arraycopy(in[i], r * width, rows[r][i], 0, width);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,82 @@
+package wew.water.gpf;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.GPF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.media.jai.JAI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pixel based FUB.Water operator against the tile based FUB.Water.Tiled operator, in ns per pixel.
+ * <p/>
+ * Each invocation creates the target product of the selected operator for a synthetic MERIS scene
+ * held in memory and computes all of its output bands, tile by tile, on the calling thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperatorBenchmark {
+
+    private static final int SCENE_WIDTH = 1120;
+    private static final int SCENE_HEIGHT = 64;
+
+    @Param({"FUB.Water", "FUB.Water.Tiled"})
+    String operatorAlias;
+
+    private Product sourceProduct;
+    private Map<String, Object> parameters;
+    private String[] targetBandNames;
+
+    @Setup
+    public void setUp() {
+        GPF.getDefaultInstance().getOperatorSpiRegistry().loadOperatorSpis();
+        sourceProduct = SyntheticMerisInput.createProduct(SCENE_WIDTH, SCENE_HEIGHT);
+        sourceProduct.setPreferredTileSize(SCENE_WIDTH, 16);
+        parameters = new HashMap<String, Object>();
+        parameters.put("expression", "");
+        parameters.put("checkWhetherSuspectIsValid", false);
+        final String[] outputBandNames = WaterProcessorOp.getOutputBandNames(true, true, true, true);
+        targetBandNames = new String[outputBandNames.length + 1];
+        System.arraycopy(outputBandNames, 0, targetBandNames, 0, outputBandNames.length);
+        targetBandNames[outputBandNames.length] = "result_flags";
+    }
+
+    @TearDown
+    public void tearDown() {
+        sourceProduct.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCENE_WIDTH * SCENE_HEIGHT)
+    public void computeScene(Blackhole blackhole) {
+        final Product targetProduct = GPF.createProduct(operatorAlias, parameters, sourceProduct);
+        // The tiles of all target bands are computed together, the first band triggers the computation
+        for (String bandName : targetBandNames) {
+            final Band band = targetProduct.getBand(bandName);
+            blackhole.consume(band.getSourceImage().getData());
+        }
+        targetProduct.dispose();
+        JAI.getDefaultInstance().getTileCache().flush();
+    }
+}
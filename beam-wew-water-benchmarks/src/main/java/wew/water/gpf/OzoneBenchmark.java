@@ -0,0 +1,45 @@
+package wew.water.gpf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ozone extinction coefficient lookup, in ns per MERIS band.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OzoneBenchmark {
+
+    // Not final, so that the JIT cannot fold the lookups
+    private double[] wavelengths;
+
+    public OzoneBenchmark() {
+        wavelengths = new double[SyntheticMerisInput.WAVELENGTHS.length];
+        for (int i = 0; i < wavelengths.length; i++) {
+            wavelengths[i] = SyntheticMerisInput.WAVELENGTHS[i];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(15)
+    public void o3excoeff(Blackhole blackhole) {
+        for (double wavelength : wavelengths) {
+            blackhole.consume(WaterProcessorOzone.O3excoeff(wavelength));
+        }
+    }
+}
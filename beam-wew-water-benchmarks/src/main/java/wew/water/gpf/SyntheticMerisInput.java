@@ -0,0 +1,164 @@
+package wew.water.gpf;
+
+import org.esa.beam.dataio.envisat.EnvisatConstants;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.TiePointGrid;
+
+import java.util.Random;
+
+/**
+ * Deterministic synthetic MERIS L1b like input for the benchmarks. The TOA radiances,
+ * geometries and meteorological data are drawn from ranges typical for case II waters.
+ */
+final class SyntheticMerisInput {
+
+    static final float[] WAVELENGTHS = {
+            412.5f, 442.5f, 490.0f, 510.0f, 560.0f, 620.0f, 665.0f, 681.25f,
+            708.75f, 753.75f, 760.625f, 778.75f, 865.0f, 885.0f, 900.0f
+    };
+    static final float[] SOLAR_FLUXES = {
+            1670.5964f, 1824.1444f, 1874.9883f, 1877.6682f, 1754.7749f, 1606.6401f, 1490.0026f, 1431.8726f,
+            1369.2035f, 1231.7164f, 1220.0767f, 1144.9675f, 932.3497f, 904.8193f, 871.0908f
+    };
+
+    // Number of source samples of a FUB.Water pixel: 15 radiances, l1_flags and 8 tie-point values
+    static final int NUM_SOURCE_SAMPLES = 24;
+
+    private SyntheticMerisInput() {
+    }
+
+    /**
+     * Creates input vectors which are uniformly distributed within the input limits of the given network.
+     *
+     * @param net       the network
+     * @param numPixels the number of input vectors
+     * @param seed      the seed of the random numbers
+     *
+     * @return the input vectors, <code>in[node][x]</code>
+     */
+    static float[][] createNetworkInput(FeedForwardNet net, int numPixels, long seed) {
+        final Random random = new Random(seed);
+        final double[] limits = net.getInputLimits();
+        final float[][] in = new float[net.getNumInputs()][numPixels];
+        for (int x = 0; x < numPixels; x++) {
+            for (int i = 0; i < in.length; i++) {
+                in[i][x] = (float) (limits[2 * i] + (limits[2 * i + 1] - limits[2 * i]) * random.nextDouble());
+            }
+        }
+        return in;
+    }
+
+    /**
+     * Creates the source sample values of FUB.Water pixels, in the order of the source samples of the
+     * {@link WaterProcessorOp}.
+     *
+     * @param numPixels the number of pixels
+     * @param seed      the seed of the random numbers
+     *
+     * @return the source sample values, <code>samples[index][x]</code>
+     */
+    static float[][] createSourceSamples(int numPixels, long seed) {
+        final Random random = new Random(seed);
+        final float[][] samples = new float[NUM_SOURCE_SAMPLES][numPixels];
+        for (int x = 0; x < numPixels; x++) {
+            for (int i = 0; i < WAVELENGTHS.length; i++) {
+                final double reflectance = 0.002 + 0.08 * random.nextDouble() * (1.0 - i / 20.0);
+                samples[i][x] = (float) (reflectance * SOLAR_FLUXES[i] * (0.95 + 0.1 * random.nextDouble()));
+            }
+            samples[15][x] = 0.0f;
+            samples[16][x] = (float) (20.0 + 50.0 * random.nextDouble());
+            samples[17][x] = (float) (360.0 * random.nextDouble() - 180.0);
+            samples[18][x] = (float) (40.0 * random.nextDouble());
+            samples[19][x] = (float) (360.0 * random.nextDouble() - 180.0);
+            samples[20][x] = (float) (10.0 * random.nextGaussian());
+            samples[21][x] = (float) (10.0 * random.nextGaussian());
+            samples[22][x] = (float) (990.0 + 40.0 * random.nextDouble());
+            samples[23][x] = (float) (250.0 + 150.0 * random.nextDouble());
+        }
+        return samples;
+    }
+
+    /**
+     * Fills the given row with the source samples of the pixels <code>x0 ... x0 + width - 1</code>,
+     * all pixels are valid.
+     *
+     * @param row     the row
+     * @param samples the source samples as created by {@link #createSourceSamples(int, long)}
+     * @param x0      the index of the first pixel
+     * @param width   the number of pixels
+     */
+    static void fillRow(WaterProcessorAlgorithm.Row row, float[][] samples, int x0, int width) {
+        final int[] bandIndices = WaterProcessorSpectralConstants.NN_BAND_INDICES;
+        for (int i = 0; i < bandIndices.length; i++) {
+            System.arraycopy(samples[bandIndices[i]], x0, row.toaRadiance[i], 0, width);
+        }
+        System.arraycopy(samples[16], x0, row.sza, 0, width);
+        System.arraycopy(samples[17], x0, row.saa, 0, width);
+        System.arraycopy(samples[18], x0, row.vza, 0, width);
+        System.arraycopy(samples[19], x0, row.vaa, 0, width);
+        System.arraycopy(samples[20], x0, row.zonalWind, 0, width);
+        System.arraycopy(samples[21], x0, row.meridWind, 0, width);
+        System.arraycopy(samples[22], x0, row.pressure, 0, width);
+        System.arraycopy(samples[23], x0, row.ozone, 0, width);
+        for (int x = 0; x < width; x++) {
+            row.valid[x] = true;
+        }
+    }
+
+    /**
+     * @return the spectral constants of a MERIS product with the nominal wavelengths and solar fluxes
+     */
+    static WaterProcessorSpectralConstants createSpectralConstants() {
+        final Band[] bands = new Band[WAVELENGTHS.length];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = createRadianceBand(i, 1, 1);
+        }
+        return WaterProcessorSpectralConstants.create(bands, SOLAR_FLUXES);
+    }
+
+    /**
+     * Creates a MERIS L1b product which holds the synthetic source samples as raster data.
+     * The tie-point grids vary randomly within the ranges of the source samples.
+     *
+     * @param width  the scene width
+     * @param height the scene height
+     *
+     * @return the product
+     */
+    static Product createProduct(int width, int height) {
+        final Product product = new Product("synthetic", EnvisatConstants.MERIS_RR_L1B_PRODUCT_TYPE_NAME, width, height);
+        final float[][] samples = createSourceSamples(width * height, 4);
+        for (int i = 0; i < WAVELENGTHS.length; i++) {
+            final Band band = createRadianceBand(i, width, height);
+            band.setRasterData(ProductData.createInstance(samples[i]));
+            product.addBand(band);
+        }
+        final Band flagsBand = product.addBand(EnvisatConstants.MERIS_L1B_FLAGS_DS_NAME, ProductData.TYPE_UINT8);
+        flagsBand.setRasterData(ProductData.createInstance(ProductData.TYPE_UINT8, width * height));
+
+        final int gridWidth = width / 16 + 2;
+        final int gridHeight = height / 16 + 2;
+        final String[] gridNames = EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES;
+        for (int t = 0; t < gridNames.length; t++) {
+            // sun_zenith ... ozone are source samples 16 ... 23, the other grids are not used
+            final float[] values = t >= 6 && t < 14 ? samples[t + 10] : samples[15];
+            final float[] tiePoints = new float[gridWidth * gridHeight];
+            for (int i = 0; i < tiePoints.length; i++) {
+                tiePoints[i] = values[i % values.length];
+            }
+            product.addTiePointGrid(new TiePointGrid(gridNames[t], gridWidth, gridHeight, 0.5f, 0.5f, 16.0f, 16.0f,
+                                                     tiePoints));
+        }
+        return product;
+    }
+
+    private static Band createRadianceBand(int index, int width, int height) {
+        final Band band = new Band("radiance_" + (index + 1), ProductData.TYPE_FLOAT32, width, height);
+        band.setSpectralBandIndex(index);
+        band.setSpectralWavelength(WAVELENGTHS[index]);
+        band.setSolarFlux(SOLAR_FLUXES[index]);
+        return band;
+    }
+}
@@ -0,0 +1,189 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.RasterDataNode;
+import org.esa.beam.framework.gpf.pointop.Sample;
+import org.esa.beam.framework.gpf.pointop.WritableSample;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The complete FUB.Water retrieval with all networks enabled, in ns per pixel.
+ * <p/>
+ * {@link #computePixel} measures <code>WaterProcessorOp.computePixel()</code> of an initialised
+ * operator, {@link #computeRow} the row based {@link WaterProcessorAlgorithm} used by the tiled
+ * operator in rows of {@link #width} pixels. Each invocation processes
+ * {@link NetworkBenchmark#NUM_PIXELS} pixels. Reading the source tiles is not included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaterProcessorBenchmark {
+
+    private static final int NUM_PIXELS = NetworkBenchmark.NUM_PIXELS;
+    private static final int SCENE_WIDTH = 1120;
+
+    @Param({"1", "64", "1120"})
+    int width;
+
+    private float[][] sourceSamples;
+    private Product sourceProduct;
+    private WaterProcessorOp op;
+    private BenchmarkSample[] sources;
+    private BenchmarkSample[] targets;
+    private WaterProcessorAlgorithm algorithm;
+    private WaterProcessorAlgorithm.Row row;
+
+    @Setup
+    public void setUp() {
+        sourceSamples = SyntheticMerisInput.createSourceSamples(NUM_PIXELS, 3);
+
+        sourceProduct = SyntheticMerisInput.createProduct(SCENE_WIDTH, NUM_PIXELS / SCENE_WIDTH);
+        op = new WaterProcessorOp();
+        op.setSourceProduct(sourceProduct);
+        op.setParameter("expression", "");
+        op.setParameter("checkWhetherSuspectIsValid", false);
+        // initialises the operator
+        op.getTargetProduct();
+        sources = createSamples(SyntheticMerisInput.NUM_SOURCE_SAMPLES);
+        targets = createSamples(WaterProcessorOp.getOutputBandNames(true, true, true, true).length + 1);
+
+        algorithm = new WaterProcessorAlgorithm(SyntheticMerisInput.createSpectralConstants(),
+                                                true, true, true, true, false, false);
+        row = algorithm.createRow(width);
+    }
+
+    @TearDown
+    public void tearDown() {
+        op.dispose();
+        sourceProduct.dispose();
+    }
+
+    /*
+     * Independent of the width parameter.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void computePixel(Blackhole blackhole) {
+        for (int p = 0; p < NUM_PIXELS; p++) {
+            for (int i = 0; i < sources.length; i++) {
+                sources[i].value = sourceSamples[i][p];
+            }
+            op.computePixel(p % SCENE_WIDTH, p / SCENE_WIDTH, sources, targets);
+            blackhole.consume(targets[0].value);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void computeRow(Blackhole blackhole) {
+        for (int x0 = 0; x0 < NUM_PIXELS; x0 += width) {
+            SyntheticMerisInput.fillRow(row, sourceSamples, x0, width);
+            blackhole.consume(algorithm.compute(row, width));
+        }
+    }
+
+    private static BenchmarkSample[] createSamples(int count) {
+        final BenchmarkSample[] samples = new BenchmarkSample[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = new BenchmarkSample(i);
+        }
+        return samples;
+    }
+
+    /*
+     * Minimal sample as passed by the point operator framework.
+     */
+    private static final class BenchmarkSample implements WritableSample {
+
+        private final int index;
+        private double value;
+
+        private BenchmarkSample(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public RasterDataNode getNode() {
+            return null;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int getDataType() {
+            return 0;
+        }
+
+        @Override
+        public boolean getBit(int bitIndex) {
+            return (((int) value) & (1 << bitIndex)) != 0;
+        }
+
+        @Override
+        public boolean getBoolean() {
+            return value != 0.0;
+        }
+
+        @Override
+        public int getInt() {
+            return (int) value;
+        }
+
+        @Override
+        public float getFloat() {
+            return (float) value;
+        }
+
+        @Override
+        public double getDouble() {
+            return value;
+        }
+
+        @Override
+        public void set(int bitIndex, boolean v) {
+            final int bits = (int) value;
+            value = v ? bits | (1 << bitIndex) : bits & ~(1 << bitIndex);
+        }
+
+        @Override
+        public void set(boolean v) {
+            value = v ? 1.0 : 0.0;
+        }
+
+        @Override
+        public void set(int v) {
+            value = v;
+        }
+
+        @Override
+        public void set(float v) {
+            value = v;
+        }
+
+        @Override
+        public void set(double v) {
+            value = v;
+        }
+    }
+}
@@ -0,0 +1,671 @@
+package wew.water.gpf;
+
+/**
+ * Generic evaluator for the FUB/WeW feed forward networks.
+ * <p/>
+ * All four WeW networks (NN_CHL, NN_YellowSubstance, NN_TSM and NN_AtmCorr) share the same
+ * topology: an input range check, an input scale layer, an input PCA layer, one sigmoid hidden
+ * layer with bias, a sigmoid output layer with bias, an output scale layer and an output range
+ * check. They only differ in their dimensions and coefficients.
+ * <p/>
+ * All coefficient tables are stored as flat, row-major arrays. Pixels are processed in blocks of
+ * {@link NN_Workspace#BLOCK_SIZE} so that the layer products become small matrix products whose
+ * innermost loop runs contiguously over the pixels of a block. The accumulation order per pixel
+ * is the same as in the original per-pixel implementation, hence the results are bit-identical.
+ * <p/>
+ * Optionally the layers are evaluated in single precision, see {@link #withSinglePrecision(boolean)}.
+ * <p/>
+ * Instances are immutable and thread safe, all scratch memory is provided by the caller in an
+ * {@link NN_Workspace}. The variants of a network are created once and shared by all callers.
+ */
+public final class FeedForwardNet {
+
+    private final String name;
+    private final int numInputs;
+    private final int numHidden;
+    private final int numOutputs;
+
+    // {min, max} per input node
+    private final double[] inputLimits;
+    // {intercept, slope} per input node
+    private final double[] inputScale;
+    private final double[] inputScaleOffsets;
+    private final int[] inputScaleFlags;
+    // [numPcaInputs][numPcaInputs], eigenvectors columnwise, only for the leading inputs with scale flag 1
+    private final int numPcaInputs;
+    private final double[] pcaEigenvectors;
+    // [numInputs + 1][numHidden], last row holds the bias weights
+    private final double[] hiddenWeights;
+    // [numHidden + 1][numOutputs], last row holds the bias weights
+    private final double[] outputWeights;
+    // {intercept, slope} per output node
+    private final double[] outputScale;
+    private final double[] outputScaleOffsets;
+    private final int[] outputScaleFlags;
+    // {min, max} per output node
+    private final double[] outputLimits;
+
+    private final double inputTemperature;
+    private final double hiddenTemperature;
+
+    // Whether the hidden layer uses the SigmoidTable approximation
+    private final boolean fastSigmoid;
+    // Whether the layers are evaluated in single precision, then the float copies of the tables are set
+    private final boolean singlePrecision;
+    private final float[] pcaEigenvectorsF;
+    private final float[] hiddenWeightsF;
+    private final float[] outputWeightsF;
+    private final float inputTemperatureF;
+    // The variants with the other sigmoid and precision mode, created on first request and shared
+    private volatile FeedForwardNet otherSigmoidVariant;
+    private volatile FeedForwardNet otherPrecisionVariant;
+
+    public FeedForwardNet(String name,
+                          int numInputs, int numHidden, int numOutputs,
+                          double[] inputLimits,
+                          double[] inputScale,
+                          double[] inputScaleOffsets,
+                          int[] inputScaleFlags,
+                          double[] pcaEigenvectors,
+                          double[] hiddenWeights,
+                          double[] outputWeights,
+                          double[] outputScale,
+                          double[] outputScaleOffsets,
+                          int[] outputScaleFlags,
+                          double[] outputLimits) {
+        if (numInputs > NN_Workspace.MAX_NODES_INPUT
+            || numHidden > NN_Workspace.MAX_NODES_HIDDEN
+            || numOutputs > NN_Workspace.MAX_NODES_OUTPUT) {
+            throw new IllegalArgumentException("Network " + name + " exceeds the supported dimensions.");
+        }
+        checkLength(name, "inputLimits", inputLimits, 2 * numInputs);
+        checkLength(name, "inputScale", inputScale, 2 * numInputs);
+        checkLength(name, "inputScaleOffsets", inputScaleOffsets, numInputs);
+        checkLength(name, "inputScaleFlags", inputScaleFlags.length, numInputs);
+        int numPcaInputs = 0;
+        for (int flag : inputScaleFlags) {
+            if (flag == 1) {
+                numPcaInputs++;
+            }
+        }
+        checkLength(name, "pcaEigenvectors", pcaEigenvectors, numPcaInputs * numPcaInputs);
+        checkLength(name, "hiddenWeights", hiddenWeights, (numInputs + 1) * numHidden);
+        checkLength(name, "outputWeights", outputWeights, (numHidden + 1) * numOutputs);
+        checkLength(name, "outputScale", outputScale, 2 * numOutputs);
+        checkLength(name, "outputScaleOffsets", outputScaleOffsets, numOutputs);
+        checkLength(name, "outputScaleFlags", outputScaleFlags.length, numOutputs);
+        checkLength(name, "outputLimits", outputLimits, 2 * numOutputs);
+
+        this.name = name;
+        this.numInputs = numInputs;
+        this.numHidden = numHidden;
+        this.numOutputs = numOutputs;
+        this.inputLimits = inputLimits;
+        this.inputScale = inputScale;
+        this.inputScaleOffsets = inputScaleOffsets;
+        this.inputScaleFlags = inputScaleFlags;
+        this.numPcaInputs = numPcaInputs;
+        this.pcaEigenvectors = pcaEigenvectors;
+        this.hiddenWeights = hiddenWeights;
+        this.outputWeights = outputWeights;
+        this.outputScale = outputScale;
+        this.outputScaleOffsets = outputScaleOffsets;
+        this.outputScaleFlags = outputScaleFlags;
+        this.outputLimits = outputLimits;
+
+        final double temperature = 1.0;
+        inputTemperature = temperature / (double) numInputs;
+        hiddenTemperature = temperature / (double) numHidden;
+        fastSigmoid = false;
+        singlePrecision = false;
+        pcaEigenvectorsF = null;
+        hiddenWeightsF = null;
+        outputWeightsF = null;
+        inputTemperatureF = (float) inputTemperature;
+    }
+
+    private FeedForwardNet(FeedForwardNet net, boolean fastSigmoid, boolean singlePrecision) {
+        name = net.name;
+        numInputs = net.numInputs;
+        numHidden = net.numHidden;
+        numOutputs = net.numOutputs;
+        inputLimits = net.inputLimits;
+        inputScale = net.inputScale;
+        inputScaleOffsets = net.inputScaleOffsets;
+        inputScaleFlags = net.inputScaleFlags;
+        numPcaInputs = net.numPcaInputs;
+        pcaEigenvectors = net.pcaEigenvectors;
+        hiddenWeights = net.hiddenWeights;
+        outputWeights = net.outputWeights;
+        outputScale = net.outputScale;
+        outputScaleOffsets = net.outputScaleOffsets;
+        outputScaleFlags = net.outputScaleFlags;
+        outputLimits = net.outputLimits;
+        inputTemperature = net.inputTemperature;
+        hiddenTemperature = net.hiddenTemperature;
+        this.fastSigmoid = fastSigmoid;
+        this.singlePrecision = singlePrecision;
+        pcaEigenvectorsF = singlePrecision ? toFloat(pcaEigenvectors) : null;
+        hiddenWeightsF = singlePrecision ? toFloat(hiddenWeights) : null;
+        outputWeightsF = singlePrecision ? toFloat(outputWeights) : null;
+        inputTemperatureF = net.inputTemperatureF;
+    }
+
+    /**
+     * Returns a variant of this network which evaluates the sigmoid of the hidden layer either exactly or
+     * by the table based approximation of {@link SigmoidTable}, whose absolute error is below
+     * {@link SigmoidTable#MAX_ABS_ERROR}. Both variants share the coefficient tables.
+     *
+     * @param fastSigmoid whether the approximation shall be used
+     *
+     * @return the network variant
+     */
+    public FeedForwardNet withFastSigmoid(boolean fastSigmoid) {
+        if (fastSigmoid == this.fastSigmoid) {
+            return this;
+        }
+        FeedForwardNet variant = otherSigmoidVariant;
+        if (variant == null) {
+            // A concurrent caller may create an equal variant, one of them is kept
+            variant = new FeedForwardNet(this, fastSigmoid, singlePrecision);
+            otherSigmoidVariant = variant;
+        }
+        return variant;
+    }
+
+    public boolean isFastSigmoid() {
+        return fastSigmoid;
+    }
+
+    /**
+     * Returns a variant of this network which evaluates the PCA, hidden and output layers either in
+     * double precision, bit-identical to the original implementation, or entirely in single precision.
+     * In single precision the weights are held in float tables of half the size and the layer products
+     * are float multiply-add loops over the pixels of a block, which HotSpot can vectorise.
+     *
+     * @param singlePrecision whether the layers shall be evaluated in single precision
+     *
+     * @return the network variant
+     */
+    public FeedForwardNet withSinglePrecision(boolean singlePrecision) {
+        if (singlePrecision == this.singlePrecision) {
+            return this;
+        }
+        FeedForwardNet variant = otherPrecisionVariant;
+        if (variant == null) {
+            // A concurrent caller may create an equal variant, one of them is kept
+            variant = new FeedForwardNet(this, fastSigmoid, singlePrecision);
+            otherPrecisionVariant = variant;
+        }
+        return variant;
+    }
+
+    public boolean isSinglePrecision() {
+        return singlePrecision;
+    }
+
+    /**
+     * Returns a network which only evaluates the given output nodes of this network. The input stage and
+     * the hidden layer are the same, output <code>j</code> of the returned network is bit-identical to
+     * output <code>outputs[j]</code> of this network. The output range check of the returned network is
+     * restricted to the selected outputs. The sigmoid and precision modes are kept.
+     *
+     * @param outputs the indices of the output nodes to be evaluated, in the order of the returned outputs
+     *
+     * @return the network, this network if all outputs are selected in their original order
+     *
+     * @throws IllegalArgumentException if no output or an invalid output index is given
+     */
+    public FeedForwardNet selectOutputs(int... outputs) {
+        if (outputs.length == 0) {
+            throw new IllegalArgumentException("At least one output of network " + name + " must be selected.");
+        }
+        boolean identity = outputs.length == numOutputs;
+        for (int j = 0; j < outputs.length; j++) {
+            if (outputs[j] < 0 || outputs[j] >= numOutputs) {
+                throw new IllegalArgumentException("Network " + name + " has no output " + outputs[j] + ".");
+            }
+            identity &= outputs[j] == j;
+        }
+        if (identity) {
+            return this;
+        }
+        final int numSelected = outputs.length;
+        final double[] selectedWeights = new double[(numHidden + 1) * numSelected];
+        final double[] selectedScale = new double[2 * numSelected];
+        final double[] selectedScaleOffsets = new double[numSelected];
+        final int[] selectedScaleFlags = new int[numSelected];
+        final double[] selectedLimits = new double[2 * numSelected];
+        for (int j = 0; j < numSelected; j++) {
+            final int i = outputs[j];
+            for (int h = 0; h <= numHidden; h++) {
+                selectedWeights[h * numSelected + j] = outputWeights[h * numOutputs + i];
+            }
+            selectedScale[2 * j] = outputScale[2 * i];
+            selectedScale[2 * j + 1] = outputScale[2 * i + 1];
+            selectedScaleOffsets[j] = outputScaleOffsets[i];
+            selectedScaleFlags[j] = outputScaleFlags[i];
+            selectedLimits[2 * j] = outputLimits[2 * i];
+            selectedLimits[2 * j + 1] = outputLimits[2 * i + 1];
+        }
+        final FeedForwardNet selection = new FeedForwardNet(name, numInputs, numHidden, numSelected,
+                                                            inputLimits, inputScale, inputScaleOffsets, inputScaleFlags,
+                                                            pcaEigenvectors, hiddenWeights,
+                                                            selectedWeights, selectedScale, selectedScaleOffsets,
+                                                            selectedScaleFlags, selectedLimits);
+        return selection.withFastSigmoid(fastSigmoid).withSinglePrecision(singlePrecision);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getNumInputs() {
+        return numInputs;
+    }
+
+    public int getNumHidden() {
+        return numHidden;
+    }
+
+    public int getNumOutputs() {
+        return numOutputs;
+    }
+
+    double[] getInputLimits() {
+        return inputLimits;
+    }
+
+    int[] getInputScaleFlags() {
+        return inputScaleFlags;
+    }
+
+    double[] getInputScale() {
+        return inputScale;
+    }
+
+    double[] getInputScaleOffsets() {
+        return inputScaleOffsets;
+    }
+
+    double[] getPcaEigenvectors() {
+        return pcaEigenvectors;
+    }
+
+    double[] getHiddenWeights() {
+        return hiddenWeights;
+    }
+
+    double[] getOutputWeights() {
+        return outputWeights;
+    }
+
+    double[] getOutputScale() {
+        return outputScale;
+    }
+
+    double[] getOutputScaleOffsets() {
+        return outputScaleOffsets;
+    }
+
+    int[] getOutputScaleFlags() {
+        return outputScaleFlags;
+    }
+
+    double[] getOutputLimits() {
+        return outputLimits;
+    }
+
+    /**
+     * Recalls the network for <code>width</code> pixels.
+     * <p/>
+     * The semantics are those of the original WeW network recall: pixels with a non-zero
+     * <code>mask</code> value are skipped. If <code>a[x]</code> is negative on entry the input and
+     * output ranges of pixel <code>x</code> are checked. On return <code>a[x]</code> is
+     * <code>1</code> on success, <code>-2</code> on an input range failure, <code>-19</code> on an
+     * output range failure and <code>-22</code> if both failed, in which case
+     * <code>errmask</code> is also or-ed into <code>mask[x]</code>. Contrary to the original
+     * implementation the input array is not modified.
+     *
+     * @param in        the input vectors, <code>in[node][x]</code>
+     * @param out       the output vectors, <code>out[node][x]</code>
+     * @param width     the number of pixels
+     * @param mask      the pixel mask
+     * @param errmask   the value or-ed into the mask on range failures
+     * @param a         the range check switch and status
+     * @param workspace the scratch memory
+     */
+    public void compute(float[][] in, float[][] out, int width, int[] mask, int errmask, float[] a,
+                        NN_Workspace workspace) {
+        for (int x0 = 0; x0 < width; x0 += NN_Workspace.BLOCK_SIZE) {
+            computeBlock(in, null, out, x0, Math.min(NN_Workspace.BLOCK_SIZE, width - x0), mask, errmask, a, workspace);
+        }
+    }
+
+    /**
+     * Recalls the network for <code>width</code> pixels whose input vectors have already been
+     * checked and transformed by a shared input stage. Apart from that, the semantics are those of
+     * {@link #compute(float[][], float[][], int, int[], int, float[], NN_Workspace)}.
+     *
+     * @param input     the prepared input, must feed this network
+     * @param out       the output vectors, <code>out[node][x]</code>
+     * @param width     the number of pixels
+     * @param mask      the pixel mask
+     * @param errmask   the value or-ed into the mask on range failures
+     * @param a         the range check switch and status
+     * @param workspace the scratch memory
+     */
+    public void compute(FeedForwardNetInput input, float[][] out, int width, int[] mask, int errmask, float[] a,
+                        NN_Workspace workspace) {
+        final float[][] values = input.getValues();
+        final boolean[] inRange = input.getInRange(this);
+        for (int x0 = 0; x0 < width; x0 += NN_Workspace.BLOCK_SIZE) {
+            computeBlock(values, inRange, out, x0, Math.min(NN_Workspace.BLOCK_SIZE, width - x0), mask, errmask, a, workspace);
+        }
+    }
+
+    /*
+     * If 'inRange' is null, 'in' holds the raw input vectors which still have to be checked and
+     * transformed, else 'in' holds the transformed input vectors and 'inRange' the range check result.
+     */
+    private void computeBlock(float[][] in, boolean[] inRange, float[][] out, int x0, int n, int[] mask, int errmask,
+                              float[] a, NN_Workspace workspace) {
+        final int bs = NN_Workspace.BLOCK_SIZE;
+        final boolean[] active = workspace.active;
+        final boolean[] rcheck = workspace.rcheck;
+        final float[] vin = workspace.vin;
+        final float[] vo = workspace.vo;
+
+        int numActive = 0;
+        for (int k = 0; k < n; k++) {
+            final int x = x0 + k;
+            // Range check ??
+            rcheck[k] = a[x] < 0.0f;
+            a[x] = 1.0f;
+            active[k] = mask[x] == 0;
+            if (active[k]) {
+                numActive++;
+            }
+        }
+        if (numActive == 0) {
+            return;
+        }
+
+        // Check input range
+        for (int k = 0; k < n; k++) {
+            final int x = x0 + k;
+            if (active[k] && rcheck[k]) {
+                if (inRange == null) {
+                    for (int i = 0; i < numInputs && a[x] > 0.0f; i++) {
+                        if ((in[i][x] < (float) inputLimits[2 * i]) || (in[i][x] > (float) inputLimits[2 * i + 1])) {
+                            a[x] -= 3.0f;
+                        }
+                    }
+                } else if (!inRange[x]) {
+                    a[x] -= 3.0f;
+                }
+                if (a[x] < 0.0f) {
+                    mask[x] |= errmask;
+                }
+            }
+        }
+
+        // Apply input transformation and input scale layer parameters
+        for (int i = 0; i < numInputs; i++) {
+            final float[] inRow = in[i];
+            // inputs prepared by a shared input stage are already transformed
+            final int flag = inRange == null ? inputScaleFlags[i] : 0;
+            final float off = (float) inputScaleOffsets[i];
+            final float intercept = (float) inputScale[2 * i];
+            final float slope = (float) inputScale[2 * i + 1];
+            final int row = i * bs;
+            for (int k = 0; k < n; k++) {
+                final float v = transform(inRow[x0 + k], flag);
+                vin[row + k] = off + (v - intercept) / slope;
+            }
+        }
+
+        if (singlePrecision) {
+            computeLayersSinglePrecision(n, workspace);
+        } else {
+            computeLayers(n, workspace);
+        }
+
+        // Pump through sigmoid and apply output scale layer parameters and output transformation
+        for (int i = 0; i < numOutputs; i++) {
+            final float[] outRow = out[i];
+            final int flag = outputScaleFlags[i];
+            final float off = (float) outputScaleOffsets[i];
+            final float intercept = (float) outputScale[2 * i];
+            final float slope = (float) outputScale[2 * i + 1];
+            final int row = i * bs;
+            for (int k = 0; k < n; k++) {
+                if (active[k]) {
+                    float v = (float) (1.0 / (1.0 + Math.exp(-hiddenTemperature * vo[row + k])));
+                    v = intercept + (v - off) * slope;
+                    if (flag == -1) {
+                        v = (float) Math.log((double) v);
+                    }
+                    if (flag == -2) {
+                        v = (float) Math.exp((double) v);
+                    }
+                    outRow[x0 + k] = v;
+                }
+            }
+        }
+
+        // Check output range
+        for (int k = 0; k < n; k++) {
+            final int x = x0 + k;
+            if (active[k] && rcheck[k]) {
+                for (int i = 0; i < numOutputs && a[x] >= -2.0f; i++) {
+                    if ((out[i][x] < (float) outputLimits[2 * i]) || (out[i][x] > (float) outputLimits[2 * i + 1])) {
+                        a[x] -= 20.0f;
+                    }
+                }
+                if (a[x] < 0.0f) {
+                    mask[x] |= errmask;
+                }
+            }
+        }
+    }
+
+    /*
+     * Pushes the scaled inputs of a block (vin) through the PCA, hidden and output layers,
+     * the output layer activations before the sigmoid are left in vo.
+     */
+    private void computeLayers(int n, NN_Workspace workspace) {
+        final int bs = NN_Workspace.BLOCK_SIZE;
+        final float[] vin = workspace.vin;
+        final double[] vt = workspace.vt;
+        final double[] vt1 = workspace.vt1;
+        final float[] vo = workspace.vo;
+
+        // Apply input PCA layer parameters
+        for (int i = 0; i < numInputs; i++) {
+            final int row = i * bs;
+            if (inputScaleFlags[i] == 1) {
+                for (int k = 0; k < n; k++) {
+                    vt[row + k] = 0.0;
+                }
+                for (int j = 0; j < numInputs; j++) {
+                    if (inputScaleFlags[j] == 1) {
+                        final double evec = pcaEigenvectors[j * numPcaInputs + i];
+                        final int inRow = j * bs;
+                        for (int k = 0; k < n; k++) {
+                            vt[row + k] += (double) vin[inRow + k] * evec;
+                        }
+                    }
+                }
+                for (int k = 0; k < n; k++) {
+                    vt[row + k] = (double) (float) vt[row + k];
+                }
+            } else {
+                for (int k = 0; k < n; k++) {
+                    vt[row + k] = (double) vin[row + k];
+                }
+            }
+        }
+        // Bias node of the first layer
+        for (int k = 0; k < n; k++) {
+            vt[numInputs * bs + k] = 1.0;
+        }
+
+        // Pump through the first layer
+        for (int i = 0; i < numHidden; i++) {
+            final int row = i * bs;
+            for (int k = 0; k < n; k++) {
+                vt1[row + k] = 0.0;
+            }
+            for (int j = 0; j <= numInputs; j++) {
+                final double w = hiddenWeights[j * numHidden + i];
+                final int inRow = j * bs;
+                for (int k = 0; k < n; k++) {
+                    vt1[row + k] += vt[inRow + k] * w;
+                }
+            }
+            // Pump through sigmoid
+            if (fastSigmoid) {
+                for (int k = 0; k < n; k++) {
+                    vt1[row + k] = SigmoidTable.sigmoid(inputTemperature * vt1[row + k]);
+                }
+            } else {
+                for (int k = 0; k < n; k++) {
+                    vt1[row + k] = 1.0 / (1.0 + Math.exp(-inputTemperature * vt1[row + k]));
+                }
+            }
+        }
+        // Bias node of the second layer
+        for (int k = 0; k < n; k++) {
+            vt1[numHidden * bs + k] = 1.0;
+        }
+
+        // Pump through the second layer
+        for (int i = 0; i < numOutputs; i++) {
+            final int row = i * bs;
+            for (int k = 0; k < n; k++) {
+                vo[row + k] = 0.0f;
+            }
+            for (int j = 0; j <= numHidden; j++) {
+                final double w = outputWeights[j * numOutputs + i];
+                final int inRow = j * bs;
+                for (int k = 0; k < n; k++) {
+                    vo[row + k] += (float) (vt1[inRow + k] * w);
+                }
+            }
+        }
+    }
+
+    /*
+     * Same as computeLayers(), but weights, activations and sums are all floats.
+     */
+    private void computeLayersSinglePrecision(int n, NN_Workspace workspace) {
+        final int bs = NN_Workspace.BLOCK_SIZE;
+        final float[] vin = workspace.vin;
+        final float[] vt = workspace.vtF;
+        final float[] vt1 = workspace.vt1F;
+        final float[] vo = workspace.vo;
+
+        // Apply input PCA layer parameters
+        for (int i = 0; i < numInputs; i++) {
+            final int row = i * bs;
+            if (inputScaleFlags[i] == 1) {
+                for (int k = 0; k < n; k++) {
+                    vt[row + k] = 0.0f;
+                }
+                for (int j = 0; j < numInputs; j++) {
+                    if (inputScaleFlags[j] == 1) {
+                        final float evec = pcaEigenvectorsF[j * numPcaInputs + i];
+                        final int inRow = j * bs;
+                        for (int k = 0; k < n; k++) {
+                            vt[row + k] += vin[inRow + k] * evec;
+                        }
+                    }
+                }
+            } else {
+                System.arraycopy(vin, row, vt, row, n);
+            }
+        }
+        // Bias node of the first layer
+        for (int k = 0; k < n; k++) {
+            vt[numInputs * bs + k] = 1.0f;
+        }
+
+        // Pump through the first layer
+        for (int i = 0; i < numHidden; i++) {
+            final int row = i * bs;
+            for (int k = 0; k < n; k++) {
+                vt1[row + k] = 0.0f;
+            }
+            for (int j = 0; j <= numInputs; j++) {
+                final float w = hiddenWeightsF[j * numHidden + i];
+                final int inRow = j * bs;
+                for (int k = 0; k < n; k++) {
+                    vt1[row + k] += vt[inRow + k] * w;
+                }
+            }
+            // Pump through sigmoid
+            if (fastSigmoid) {
+                for (int k = 0; k < n; k++) {
+                    vt1[row + k] = (float) SigmoidTable.sigmoid(inputTemperatureF * vt1[row + k]);
+                }
+            } else {
+                for (int k = 0; k < n; k++) {
+                    vt1[row + k] = (float) (1.0 / (1.0 + Math.exp(-inputTemperatureF * vt1[row + k])));
+                }
+            }
+        }
+        // Bias node of the second layer
+        for (int k = 0; k < n; k++) {
+            vt1[numHidden * bs + k] = 1.0f;
+        }
+
+        // Pump through the second layer
+        for (int i = 0; i < numOutputs; i++) {
+            final int row = i * bs;
+            for (int k = 0; k < n; k++) {
+                vo[row + k] = 0.0f;
+            }
+            for (int j = 0; j <= numHidden; j++) {
+                final float w = outputWeightsF[j * numOutputs + i];
+                final int inRow = j * bs;
+                for (int k = 0; k < n; k++) {
+                    vo[row + k] += vt1[inRow + k] * w;
+                }
+            }
+        }
+    }
+
+    /*
+     * Applies the input transformation selected by the given input scale flag.
+     */
+    static float transform(float v, int flag) {
+        if (flag == -1) {
+            return (float) Math.log((double) v);
+        }
+        if (flag == -2) {
+            return (float) Math.exp((double) v);
+        }
+        return v;
+    }
+
+    private static float[] toFloat(double[] table) {
+        final float[] floatTable = new float[table.length];
+        for (int i = 0; i < table.length; i++) {
+            floatTable[i] = (float) table[i];
+        }
+        return floatTable;
+    }
+
+    private static void checkLength(String name, String tableName, double[] table, int expectedLength) {
+        checkLength(name, tableName, table.length, expectedLength);
+    }
+
+    private static void checkLength(String name, String tableName, int length, int expectedLength) {
+        if (length != expectedLength) {
+            throw new IllegalArgumentException(
+                    String.format("Network %s: table '%s' has %d elements, expected %d.",
+                                  name, tableName, length, expectedLength));
+        }
+    }
+}
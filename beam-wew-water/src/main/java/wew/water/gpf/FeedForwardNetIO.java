@@ -0,0 +1,242 @@
+package wew.water.gpf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Reads and writes {@link FeedForwardNet}s in the binary WeW network format.
+ * <p/>
+ * A network file is a big-endian sequence of
+ * <pre>
+ *   magic               4 bytes "WENN"
+ *   version             int32   1
+ *   element type        int32   8 for IEEE float64, 4 for IEEE float32 coefficients
+ *   name length         int32   followed by the UTF-8 encoded network name
+ *   numInputs           int32
+ *   numHidden           int32
+ *   numOutputs          int32
+ *   inputScaleFlags     int32[numInputs]
+ *   outputScaleFlags    int32[numOutputs]
+ *   inputLimits         real[2 * numInputs]                {min, max} per input
+ *   inputScale          real[2 * numInputs]                {intercept, slope} per input
+ *   inputScaleOffsets   real[numInputs]
+ *   pcaEigenvectors     real[numPcaInputs * numPcaInputs]  row-major, numPcaInputs = number of input scale flags == 1
+ *   hiddenWeights       real[(numInputs + 1) * numHidden]  row-major, last row holds the bias weights
+ *   outputWeights       real[(numHidden + 1) * numOutputs] row-major, last row holds the bias weights
+ *   outputScale         real[2 * numOutputs]               {intercept, slope} per output
+ *   outputScaleOffsets  real[numOutputs]
+ *   outputLimits        real[2 * numOutputs]               {min, max} per output
+ * </pre>
+ * The WeW networks are stored with float64 coefficients, which reproduces the original
+ * coefficient tables exactly. Files on the local file system are memory-mapped.
+ */
+public final class FeedForwardNetIO {
+
+    public static final int ELEMENT_TYPE_FLOAT32 = 4;
+    public static final int ELEMENT_TYPE_FLOAT64 = 8;
+
+    private static final byte[] MAGIC = {'W', 'E', 'N', 'N'};
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private FeedForwardNetIO() {
+    }
+
+    /**
+     * Reads a network from the given file by memory-mapping it.
+     *
+     * @param file the network file
+     *
+     * @return the network
+     *
+     * @throws IOException if the file cannot be read or is not a valid network file
+     */
+    public static FeedForwardNet read(File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file.getPath());
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Reads a network from the given URL. Files are memory-mapped, other resources,
+     * e.g. entries of a JAR file, are read into memory.
+     *
+     * @param url the location of the network file
+     *
+     * @return the network
+     *
+     * @throws IOException if the network cannot be read or is not a valid network file
+     */
+    public static FeedForwardNet read(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return read(new File(url.toURI()));
+            } catch (URISyntaxException e) {
+                // fall back to reading the stream
+            }
+        }
+        final InputStream stream = url.openStream();
+        try {
+            return read(ByteBuffer.wrap(readFully(stream)), url.toString());
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Writes a network.
+     *
+     * @param net         the network
+     * @param stream      the stream to write to, not closed by this method
+     * @param elementType either {@link #ELEMENT_TYPE_FLOAT64} or {@link #ELEMENT_TYPE_FLOAT32}
+     *
+     * @throws IOException if the network cannot be written
+     */
+    public static void write(FeedForwardNet net, OutputStream stream, int elementType) throws IOException {
+        if (elementType != ELEMENT_TYPE_FLOAT32 && elementType != ELEMENT_TYPE_FLOAT64) {
+            throw new IllegalArgumentException("Unsupported element type " + elementType);
+        }
+        final DataOutputStream out = new DataOutputStream(stream);
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(elementType);
+        final byte[] name = net.getName().getBytes(UTF_8);
+        out.writeInt(name.length);
+        out.write(name);
+        out.writeInt(net.getNumInputs());
+        out.writeInt(net.getNumHidden());
+        out.writeInt(net.getNumOutputs());
+        writeInts(out, net.getInputScaleFlags());
+        writeInts(out, net.getOutputScaleFlags());
+        writeReals(out, net.getInputLimits(), elementType);
+        writeReals(out, net.getInputScale(), elementType);
+        writeReals(out, net.getInputScaleOffsets(), elementType);
+        writeReals(out, net.getPcaEigenvectors(), elementType);
+        writeReals(out, net.getHiddenWeights(), elementType);
+        writeReals(out, net.getOutputWeights(), elementType);
+        writeReals(out, net.getOutputScale(), elementType);
+        writeReals(out, net.getOutputScaleOffsets(), elementType);
+        writeReals(out, net.getOutputLimits(), elementType);
+        out.flush();
+    }
+
+    static FeedForwardNet read(ByteBuffer buffer, String source) throws IOException {
+        try {
+            final byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    throw new IOException(source + ": not a WeW network file.");
+                }
+            }
+            final int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("%s: unsupported format version %d.", source, version));
+            }
+            final int elementType = buffer.getInt();
+            if (elementType != ELEMENT_TYPE_FLOAT32 && elementType != ELEMENT_TYPE_FLOAT64) {
+                throw new IOException(String.format("%s: unsupported element type %d.", source, elementType));
+            }
+            final byte[] name = new byte[checkSize(buffer.getInt(), source)];
+            buffer.get(name);
+            final int numInputs = checkSize(buffer.getInt(), source);
+            final int numHidden = checkSize(buffer.getInt(), source);
+            final int numOutputs = checkSize(buffer.getInt(), source);
+            final int[] inputScaleFlags = readInts(buffer, numInputs);
+            final int[] outputScaleFlags = readInts(buffer, numOutputs);
+            int numPcaInputs = 0;
+            for (int flag : inputScaleFlags) {
+                if (flag == 1) {
+                    numPcaInputs++;
+                }
+            }
+            final double[] inputLimits = readReals(buffer, 2 * numInputs, elementType);
+            final double[] inputScale = readReals(buffer, 2 * numInputs, elementType);
+            final double[] inputScaleOffsets = readReals(buffer, numInputs, elementType);
+            final double[] pcaEigenvectors = readReals(buffer, numPcaInputs * numPcaInputs, elementType);
+            final double[] hiddenWeights = readReals(buffer, (numInputs + 1) * numHidden, elementType);
+            final double[] outputWeights = readReals(buffer, (numHidden + 1) * numOutputs, elementType);
+            final double[] outputScale = readReals(buffer, 2 * numOutputs, elementType);
+            final double[] outputScaleOffsets = readReals(buffer, numOutputs, elementType);
+            final double[] outputLimits = readReals(buffer, 2 * numOutputs, elementType);
+            return new FeedForwardNet(new String(name, UTF_8), numInputs, numHidden, numOutputs,
+                                      inputLimits, inputScale, inputScaleOffsets, inputScaleFlags,
+                                      pcaEigenvectors, hiddenWeights, outputWeights,
+                                      outputScale, outputScaleOffsets, outputScaleFlags, outputLimits);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(source + ": unexpected end of network file.", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int checkSize(int size, String source) throws IOException {
+        if (size < 0 || size > 0xffff) {
+            throw new IOException(String.format("%s: invalid size %d.", source, size));
+        }
+        return size;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int length) {
+        final int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * length);
+        return values;
+    }
+
+    private static double[] readReals(ByteBuffer buffer, int length, int elementType) {
+        final double[] values = new double[length];
+        if (elementType == ELEMENT_TYPE_FLOAT64) {
+            buffer.asDoubleBuffer().get(values);
+        } else {
+            final float[] floats = new float[length];
+            buffer.asFloatBuffer().get(floats);
+            for (int i = 0; i < length; i++) {
+                values[i] = floats[i];
+            }
+        }
+        buffer.position(buffer.position() + elementType * length);
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeReals(DataOutputStream out, double[] values, int elementType) throws IOException {
+        for (double value : values) {
+            if (elementType == ELEMENT_TYPE_FLOAT64) {
+                out.writeDouble(value);
+            } else {
+                out.writeFloat((float) value);
+            }
+        }
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        final byte[] chunk = new byte[8192];
+        int n;
+        while ((n = stream.read(chunk)) != -1) {
+            bytes.write(chunk, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+}
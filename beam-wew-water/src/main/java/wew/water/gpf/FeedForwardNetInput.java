@@ -0,0 +1,121 @@
+package wew.water.gpf;
+
+import java.util.Arrays;
+
+/**
+ * Input stage shared by several {@link FeedForwardNet}s recalled on the same input vectors.
+ * <p/>
+ * The input range check and the log/exp input transformation of the WeW networks only depend
+ * on the input limits and the input scale flags, not on the individual network. This stage
+ * applies the transformation once and evaluates the range check once per distinct limit table,
+ * each network then only applies its own input scaling and PCA projection.
+ * <p/>
+ * Instances hold the prepared values of up to {@link #getCapacity()} pixels and are not thread safe.
+ */
+public final class FeedForwardNetInput {
+
+    private final int numInputs;
+    private final int[] inputScaleFlags;
+    private final FeedForwardNet[] nets;
+    // index of the limit table used by each of the nets
+    private final int[] limitIndices;
+    private final double[][] limitTables;
+
+    // transformed input values, values[node][x]
+    private final float[][] values;
+    // result of the range check, inRange[limitTable][x]
+    private final boolean[][] inRange;
+
+    /**
+     * Creates an input stage for the given networks.
+     *
+     * @param capacity the maximum number of pixels prepared at once
+     * @param nets     the networks which shall be fed by this stage
+     *
+     * @throws IllegalArgumentException if the networks differ in their number of inputs or input scale flags
+     */
+    public FeedForwardNetInput(int capacity, FeedForwardNet... nets) {
+        if (nets.length == 0) {
+            throw new IllegalArgumentException("At least one network is required.");
+        }
+        numInputs = nets[0].getNumInputs();
+        inputScaleFlags = nets[0].getInputScaleFlags();
+        this.nets = nets.clone();
+        limitIndices = new int[nets.length];
+        double[][] tables = new double[0][];
+        for (int n = 0; n < nets.length; n++) {
+            final FeedForwardNet net = nets[n];
+            if (net.getNumInputs() != numInputs || !Arrays.equals(net.getInputScaleFlags(), inputScaleFlags)) {
+                throw new IllegalArgumentException(String.format("Network %s does not share the input stage of network %s.",
+                                                                 net.getName(), nets[0].getName()));
+            }
+            int index = 0;
+            while (index < tables.length && !Arrays.equals(tables[index], net.getInputLimits())) {
+                index++;
+            }
+            if (index == tables.length) {
+                tables = Arrays.copyOf(tables, index + 1);
+                tables[index] = net.getInputLimits();
+            }
+            limitIndices[n] = index;
+        }
+        limitTables = tables;
+        values = new float[numInputs][capacity];
+        inRange = new boolean[limitTables.length][capacity];
+    }
+
+    public int getCapacity() {
+        return values[0].length;
+    }
+
+    /**
+     * Checks and transforms the input vectors of <code>width</code> pixels. Pixels with a non-zero
+     * <code>mask</code> value are skipped, the mask may only gain bits until the networks have been recalled.
+     *
+     * @param in    the input vectors, <code>in[node][x]</code>
+     * @param width the number of pixels
+     * @param mask  the pixel mask
+     */
+    public void prepare(float[][] in, int width, int[] mask) {
+        for (int t = 0; t < limitTables.length; t++) {
+            final double[] limits = limitTables[t];
+            final boolean[] tableInRange = inRange[t];
+            for (int x = 0; x < width; x++) {
+                tableInRange[x] = true;
+            }
+            for (int i = 0; i < numInputs; i++) {
+                final float[] inRow = in[i];
+                final float min = (float) limits[2 * i];
+                final float max = (float) limits[2 * i + 1];
+                for (int x = 0; x < width; x++) {
+                    if ((inRow[x] < min) || (inRow[x] > max)) {
+                        tableInRange[x] = false;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < numInputs; i++) {
+            final float[] inRow = in[i];
+            final float[] valueRow = values[i];
+            final int flag = inputScaleFlags[i];
+            for (int x = 0; x < width; x++) {
+                if (mask[x] == 0) {
+                    valueRow[x] = FeedForwardNet.transform(inRow[x], flag);
+                }
+            }
+        }
+    }
+
+    float[][] getValues() {
+        return values;
+    }
+
+    boolean[] getInRange(FeedForwardNet net) {
+        for (int n = 0; n < nets.length; n++) {
+            if (nets[n] == net) {
+                return inRange[limitIndices[n]];
+            }
+        }
+        throw new IllegalArgumentException(String.format("Network %s is not fed by this input stage.", net.getName()));
+    }
+}
@@ -1,7 +1,17 @@
 package wew.water.gpf;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
 public class NN_General {
 
+    /*
+     * The input scaling shared by the networks shipped with the processor. The networks are loaded with
+     * the input scaling stored in their network files, FeedForwardNetIOTest checks that it equals these
+     * values.
+     */
+
     // Input limits (min/max) from training data set
     public final static double[][] NODES_INPUT_SCALE_LIMITS = new double[][]{
                 {+1.702400e-02, +8.136440e-02,},
@@ -39,6 +49,44 @@ public class NN_General {
                 +1, +1, +0, +0, +0, +0, +0, +0,
     };
 
+    /**
+     * System property naming a directory with network files which replace the networks shipped with the
+     * processor. Only the networks found in the directory are replaced.
+     */
+    public static final String NETWORK_DIR_PROPERTY = "wew.water.nnDir";
+
+    private static final String NETWORK_RESOURCE_PATH = "/auxdata/nn/";
+    private static final String NETWORK_FILE_EXTENSION = ".wewnn";
+
+    /**
+     * Loads one of the WeW networks, either from the directory given by {@link #NETWORK_DIR_PROPERTY}
+     * or from the networks shipped with the processor.
+     *
+     * @param name the name of the network, e.g. "run46_C2_100_nn"
+     *
+     * @return the network
+     *
+     * @throws IllegalStateException if the network cannot be loaded
+     */
+    static FeedForwardNet loadNet(String name) {
+        final String fileName = name + NETWORK_FILE_EXTENSION;
+        try {
+            final String networkDir = System.getProperty(NETWORK_DIR_PROPERTY);
+            if (networkDir != null) {
+                final File file = new File(networkDir, fileName);
+                if (file.isFile()) {
+                    return FeedForwardNetIO.read(file);
+                }
+            }
+            final URL resource = NN_General.class.getResource(NETWORK_RESOURCE_PATH + fileName);
+            if (resource == null) {
+                throw new IllegalStateException("Missing network resource " + NETWORK_RESOURCE_PATH + fileName);
+            }
+            return FeedForwardNetIO.read(resource);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load network " + name, e);
+        }
+    }
 
     /*-------------------------------------------------------------------------*/
 
@@ -0,0 +1,41 @@
+package wew.water.gpf;
+
+/**
+ * Scratch buffers for the NN_* network recalls.
+ * <p/>
+ * The networks process pixels in blocks of {@link #BLOCK_SIZE}, the buffers hold the layer
+ * activations of one block, node by node. An instance is sized once for the largest of the
+ * four networks and can be reused for any number of subsequent recalls of any width.
+ * Instances are not thread safe, each thread has to use its own workspace.
+ */
+public class NN_Workspace {
+
+    // Number of pixels pushed through a network at once, small enough to keep a block in the L1/L2 cache
+    static final int BLOCK_SIZE = 64;
+
+    // Largest layers of all WeW networks (NN_CHL has 100 hidden nodes, NN_AtmCorr has 12 outputs)
+    static final int MAX_NODES_INPUT = NN_General.NODES_INPUT_SCALE_FLAG.length;
+    static final int MAX_NODES_HIDDEN = 100;
+    static final int MAX_NODES_OUTPUT = 12;
+
+    final boolean[] active;
+    final boolean[] rcheck;
+    final float[] vin;
+    final double[] vt;
+    final double[] vt1;
+    final float[] vo;
+    // Single precision layer activations
+    final float[] vtF;
+    final float[] vt1F;
+
+    public NN_Workspace() {
+        active = new boolean[BLOCK_SIZE];
+        rcheck = new boolean[BLOCK_SIZE];
+        vin = new float[MAX_NODES_INPUT * BLOCK_SIZE];
+        vt = new double[(MAX_NODES_INPUT + 1) * BLOCK_SIZE];
+        vt1 = new double[(MAX_NODES_HIDDEN + 1) * BLOCK_SIZE];
+        vo = new float[MAX_NODES_OUTPUT * BLOCK_SIZE];
+        vtF = new float[(MAX_NODES_INPUT + 1) * BLOCK_SIZE];
+        vt1F = new float[(MAX_NODES_HIDDEN + 1) * BLOCK_SIZE];
+    }
+}
@@ -0,0 +1,158 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.OperatorException;
+
+/**
+ * The data type in which the retrieved concentrations, AOTs and reflectances are written.
+ * <p/>
+ * Besides 32 bit floating point values, the results can be written as scaled 16 bit integers, which
+ * halves the size of the target bands. The scaling of each band maps the output limits of its network
+ * output into the integer range, of which one value is reserved as no-data value for the masked pixels.
+ * Results outside of the output limits, which are flagged by the output failure flags, are clamped.
+ * <p/>
+ * The scaling factors are powers of two and the offsets multiples of them, so that the geophysical value
+ * of a raw value is exact and the inverse scaling of a band maps it back onto the raw value exactly.
+ */
+final class OutputEncoding {
+
+    static final String FLOAT32 = "float32";
+    static final String INT16 = "int16";
+    static final String UINT16 = "uint16";
+
+    private final int dataType;
+    private final int rawMin;
+    private final int rawMax;
+    private final int rawNoData;
+    private final double[] scalingFactors;
+    private final double[] scalingOffsets;
+
+    private OutputEncoding(int dataType, int rawMin, int rawMax, int rawNoData, double[] resultLimits) {
+        this.dataType = dataType;
+        this.rawMin = rawMin;
+        this.rawMax = rawMax;
+        this.rawNoData = rawNoData;
+        final int numPlanes = resultLimits.length / 2;
+        scalingFactors = new double[numPlanes];
+        scalingOffsets = new double[numPlanes];
+        for (int n = 0; n < numPlanes; n++) {
+            if (dataType == ProductData.TYPE_FLOAT32) {
+                scalingFactors[n] = 1.0;
+                scalingOffsets[n] = 0.0;
+            } else {
+                final double min = resultLimits[2 * n];
+                final double max = resultLimits[2 * n + 1];
+                // The smallest power of two not below the step which maps the limits onto the integer range
+                final double step = (max - min) / (rawMax - rawMin);
+                double factor = Math.scalb(1.0, Math.getExponent(step));
+                if (factor < step) {
+                    factor *= 2.0;
+                }
+                scalingFactors[n] = factor;
+                scalingOffsets[n] = (Math.floor(min / factor + 0.5) - rawMin) * factor;
+            }
+        }
+    }
+
+    /**
+     * @param name         the name of the encoding, one of {@link #FLOAT32}, {@link #INT16} and {@link #UINT16}
+     * @param resultLimits the output limits {min, max} of each result plane, see
+     *                     {@link WaterProcessorAlgorithm#getResultLimits()}
+     *
+     * @return the encoding
+     *
+     * @throws OperatorException if the name is unknown
+     */
+    static OutputEncoding create(String name, double[] resultLimits) throws OperatorException {
+        if (name == null || FLOAT32.equals(name)) {
+            return new OutputEncoding(ProductData.TYPE_FLOAT32, 0, 0, 0, resultLimits);
+        } else if (INT16.equals(name)) {
+            return new OutputEncoding(ProductData.TYPE_INT16, Short.MIN_VALUE + 1, Short.MAX_VALUE, Short.MIN_VALUE,
+                                      resultLimits);
+        } else if (UINT16.equals(name)) {
+            return new OutputEncoding(ProductData.TYPE_UINT16, 0, 0xfffe, 0xffff, resultLimits);
+        }
+        throw new OperatorException(String.format("Unknown output data type '%s'.", name));
+    }
+
+    int getDataType() {
+        return dataType;
+    }
+
+    /**
+     * @return whether the results are written as scaled integers
+     */
+    boolean isScaled() {
+        return dataType != ProductData.TYPE_FLOAT32;
+    }
+
+    double getScalingFactor(int plane) {
+        return scalingFactors[plane];
+    }
+
+    double getScalingOffset(int plane) {
+        return scalingOffsets[plane];
+    }
+
+    /**
+     * Creates the target band of a result plane with the data type, scaling and no-data value of this encoding.
+     *
+     * @param bandName    the band name
+     * @param sceneWidth  the scene width
+     * @param sceneHeight the scene height
+     * @param plane       the result plane
+     *
+     * @return the band
+     */
+    Band createBand(String bandName, int sceneWidth, int sceneHeight, int plane) {
+        final Band band = new Band(bandName, dataType, sceneWidth, sceneHeight);
+        band.setScalingOffset(scalingOffsets[plane]);
+        band.setScalingFactor(scalingFactors[plane]);
+        band.setNoDataValue(isScaled() ? rawNoData : WaterProcessorOp.result_mask_value);
+        band.setNoDataValueUsed(true);
+        return band;
+    }
+
+    /**
+     * @param plane the result plane
+     * @param value the result, possibly the mask value
+     *
+     * @return the nearest raw value, the no-data value for the mask value
+     */
+    int encode(int plane, float value) {
+        if (value == WaterProcessorOp.result_mask_value || Float.isNaN(value)) {
+            return rawNoData;
+        }
+        final double raw = Math.floor((value - scalingOffsets[plane]) / scalingFactors[plane] + 0.5);
+        return (int) Math.max(rawMin, Math.min(rawMax, raw));
+    }
+
+    /**
+     * Encodes the results of a row.
+     *
+     * @param plane  the result plane
+     * @param values the results
+     * @param raw    receives the raw values, starting at the given offset
+     * @param offset the offset
+     * @param width  the number of results
+     */
+    void encode(int plane, float[] values, short[] raw, int offset, int width) {
+        for (int x = 0; x < width; x++) {
+            raw[offset + x] = (short) encode(plane, values[x]);
+        }
+    }
+
+    /**
+     * Returns the geophysical value of the raw value of a result. It is set on the target samples of
+     * pixel operators, which apply the inverse scaling of the band to any value set.
+     *
+     * @param plane the result plane
+     * @param value the result, possibly the mask value
+     *
+     * @return the geophysical value
+     */
+    double toGeophysical(int plane, float value) {
+        return scalingOffsets[plane] + encode(plane, value) * scalingFactors[plane];
+    }
+}
@@ -0,0 +1,248 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.MetadataAttribute;
+import org.esa.beam.framework.datamodel.MetadataElement;
+import org.esa.beam.framework.datamodel.ProductData;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Counts how often each of the result flags is raised while a product is processed.
+ * <p/>
+ * The counting threads never synchronise: each thread counts into its own {@link Counter},
+ * a stripe which is only registered once. A counter publishes its counts once per tile, not per
+ * pixel. The stripes are summed up when the statistics are exported, which is done once after the
+ * processing has finished.
+ * <p/>
+ * A tile is computed again if it has been evicted from the tile cache and is requested once more.
+ * The operators claim each tile by {@link #claimTile(int, int)} before counting it, so that the
+ * pixels of a tile are only counted once.
+ */
+final class ResultFlagStatistics {
+
+    static final String METADATA_ELEMENT_NAME = "Result_Flag_Statistics";
+
+    private final String[] flagNames;
+    private final String[] flagDescriptions;
+    private final int[] flagValues;
+    private final ConcurrentLinkedQueue<Counter> counters;
+    private final Set<Long> countedTiles;
+
+    /**
+     * @param flagNames        the flag names
+     * @param flagDescriptions the flag descriptions
+     * @param flagValues       the flag values, each of them a single bit
+     */
+    ResultFlagStatistics(String[] flagNames, String[] flagDescriptions, int[] flagValues) {
+        for (int flagValue : flagValues) {
+            if (Integer.bitCount(flagValue) != 1) {
+                throw new IllegalArgumentException(String.format("Flag value 0x%x is not a single bit.", flagValue));
+            }
+        }
+        this.flagNames = flagNames;
+        this.flagDescriptions = flagDescriptions;
+        this.flagValues = flagValues;
+        counters = new ConcurrentLinkedQueue<Counter>();
+        countedTiles = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+    }
+
+    /**
+     * Claims the tile at the given position for counting.
+     *
+     * @param x the x-coordinate of the upper left pixel of the tile
+     * @param y the y-coordinate of the upper left pixel of the tile
+     *
+     * @return true if the tile has not been claimed before and its result flags shall be counted
+     */
+    boolean claimTile(int x, int y) {
+        return countedTiles.add(((long) y << 32) | (x & 0xffffffffL));
+    }
+
+    /**
+     * Creates a new counter. A counter must only be used by a single thread.
+     *
+     * @return the counter
+     */
+    Counter createCounter() {
+        final Counter counter = new Counter();
+        counters.add(counter);
+        return counter;
+    }
+
+    /**
+     * @return the number of pixels counted by all counters
+     */
+    long getNumPixels() {
+        long numPixels = 0;
+        for (Counter counter : counters) {
+            numPixels += counter.numPixels;
+        }
+        return numPixels;
+    }
+
+    /**
+     * @return the number of counted pixels for which each of the flags is raised, in the order of the flag names
+     */
+    long[] getFlagCounts() {
+        final long[] bitCounts = new long[Integer.SIZE];
+        for (Counter counter : counters) {
+            // Reading the volatile pixel count first makes the bit counts visible up to that count
+            if (counter.numPixels > 0) {
+                for (int bit = 0; bit < bitCounts.length; bit++) {
+                    bitCounts[bit] += counter.bitCounts[bit];
+                }
+            }
+        }
+        final long[] flagCounts = new long[flagValues.length];
+        for (int i = 0; i < flagValues.length; i++) {
+            flagCounts[i] = bitCounts[Integer.numberOfTrailingZeros(flagValues[i])];
+        }
+        return flagCounts;
+    }
+
+    /**
+     * Creates a metadata element with the number of pixels, and for each flag the number of
+     * pixels for which it is raised and their percentage.
+     *
+     * @return the metadata element
+     */
+    MetadataElement createMetadataElement() {
+        final long numPixels = getNumPixels();
+        final long[] flagCounts = getFlagCounts();
+        final MetadataElement element = new MetadataElement(METADATA_ELEMENT_NAME);
+        element.addAttribute(new MetadataAttribute("num_pixels",
+                                                   ProductData.createInstance(new long[]{numPixels}),
+                                                   true));
+        for (int i = 0; i < flagNames.length; i++) {
+            final MetadataAttribute countAttribute =
+                    new MetadataAttribute(flagNames[i], ProductData.createInstance(new long[]{flagCounts[i]}), true);
+            countAttribute.setDescription(flagDescriptions[i]);
+            element.addAttribute(countAttribute);
+            final MetadataAttribute percentageAttribute =
+                    new MetadataAttribute(flagNames[i] + "_percentage",
+                                          ProductData.createInstance(new double[]{percentage(flagCounts[i], numPixels)}),
+                                          true);
+            percentageAttribute.setUnit("%");
+            element.addAttribute(percentageAttribute);
+        }
+        return element;
+    }
+
+    /**
+     * Writes the statistics as JSON object to the given file.
+     *
+     * @param file        the file
+     * @param operator    the operator alias
+     * @param productName the name of the processed product
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void writeJson(File file, String operator, String productName) throws IOException {
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writeJson(writer, operator, productName);
+        } finally {
+            writer.close();
+        }
+    }
+
+    void writeJson(Writer writer, String operator, String productName) throws IOException {
+        final long numPixels = getNumPixels();
+        final long[] flagCounts = getFlagCounts();
+        writer.write("{\n");
+        writer.write(String.format("  \"operator\": \"%s\",\n", escape(operator)));
+        writer.write(String.format("  \"product\": \"%s\",\n", escape(productName)));
+        writer.write(String.format("  \"num_pixels\": %d,\n", numPixels));
+        writer.write("  \"flags\": {\n");
+        for (int i = 0; i < flagNames.length; i++) {
+            writer.write(String.format(Locale.ENGLISH, "    \"%s\": {\"value\": %d, \"count\": %d, \"percentage\": %.4f}%s\n",
+                                       escape(flagNames[i]), flagValues[i], flagCounts[i],
+                                       percentage(flagCounts[i], numPixels), i < flagNames.length - 1 ? "," : ""));
+        }
+        writer.write("  }\n");
+        writer.write("}\n");
+    }
+
+    private static double percentage(long count, long numPixels) {
+        return numPixels > 0 ? 100.0 * count / numPixels : 0.0;
+    }
+
+    private static String escape(String s) {
+        final StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The counts of a single thread.
+     */
+    static final class Counter {
+
+        private final long[] bitCounts = new long[Integer.SIZE];
+        // The pixels counted, but not yet published
+        private long numCountedPixels;
+        // Written last, publishes the bit counts to the thread exporting the statistics
+        private volatile long numPixels;
+
+        private Counter() {
+        }
+
+        /**
+         * Counts the result flags of a single pixel. The pixel is published by the next call
+         * of {@link #publish()}.
+         *
+         * @param flags the result flags
+         */
+        void count(int flags) {
+            countBits(flags);
+            numCountedPixels++;
+        }
+
+        /**
+         * Counts the result flags of several pixels and publishes them.
+         *
+         * @param flags     the result flags
+         * @param offset    the index of the first pixel
+         * @param numPixels the number of pixels
+         */
+        void count(int[] flags, int offset, int numPixels) {
+            for (int i = offset; i < offset + numPixels; i++) {
+                countBits(flags[i]);
+            }
+            numCountedPixels += numPixels;
+            publish();
+        }
+
+        /**
+         * Publishes the pixels counted so far to the thread exporting the statistics.
+         */
+        void publish() {
+            numPixels = numCountedPixels;
+        }
+
+        private void countBits(int flags) {
+            while (flags != 0) {
+                bitCounts[Integer.numberOfTrailingZeros(flags)]++;
+                flags &= flags - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package wew.water.gpf;
+
+/**
+ * Table based approximation of the logistic sigmoid <code>1 / (1 + exp(-t))</code>.
+ * <p/>
+ * The sigmoid is tabulated on [-{@link #RANGE}, +{@link #RANGE}] with a step of
+ * 1/{@link #STEPS_PER_UNIT} and linearly interpolated in between, outside of the table it is
+ * clamped to 0 and 1. The interpolation error is bounded by <code>h^2/8 * max|s''| = 2.9E-6</code>
+ * for the step <code>h</code>, the clamping error by <code>s(-RANGE) = 1.1E-7</code>, hence the
+ * absolute error never exceeds {@link #MAX_ABS_ERROR}.
+ */
+final class SigmoidTable {
+
+    /**
+     * The maximum absolute error of {@link #sigmoid(double)}.
+     */
+    static final double MAX_ABS_ERROR = 3.0e-6;
+
+    static final double RANGE = 16.0;
+    static final int STEPS_PER_UNIT = 64;
+
+    // 2049 entries, 16 kB
+    private static final double[] TABLE = createTable();
+
+    private SigmoidTable() {
+    }
+
+    /**
+     * @param t the argument
+     *
+     * @return the approximated sigmoid of <code>t</code>, NaN for a NaN argument
+     */
+    static double sigmoid(double t) {
+        if (t <= -RANGE) {
+            return 0.0;
+        }
+        if (t >= RANGE) {
+            return 1.0;
+        }
+        if (t != t) {
+            return Double.NaN;
+        }
+        final double pos = (t + RANGE) * STEPS_PER_UNIT;
+        final int i = (int) pos;
+        // Arguments just below RANGE round to the last entry
+        if (i >= TABLE.length - 1) {
+            return TABLE[TABLE.length - 1];
+        }
+        final double frac = pos - i;
+        return TABLE[i] + frac * (TABLE[i + 1] - TABLE[i]);
+    }
+
+    private static double[] createTable() {
+        final int n = (int) (2 * RANGE * STEPS_PER_UNIT);
+        final double[] table = new double[n + 1];
+        for (int i = 0; i <= n; i++) {
+            final double t = -RANGE + (double) i / STEPS_PER_UNIT;
+            table[i] = 1.0 / (1.0 + Math.exp(-t));
+        }
+        return table;
+    }
+}
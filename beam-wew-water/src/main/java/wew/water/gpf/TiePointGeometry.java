@@ -0,0 +1,125 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.TiePointGrid;
+
+/**
+ * The air mass factor and the geometry inputs of the WeW networks, computed on the tie-point
+ * nodes of the MERIS geometry grids and bilinearly interpolated per pixel.
+ * <p/>
+ * The sun and view angles of MERIS are tie-point grids, hence the per pixel angles are interpolated
+ * anyway. Computing the derived quantities on the nodes replaces the eight trigonometric calls per
+ * pixel by a bilinear interpolation of five values. Contrary to the angles, the derived quantities are
+ * continuous across the 180 degree jump of the view azimuth at nadir. The difference to the per pixel
+ * computation is the interpolation error of the derived quantities, which is of the order of 5.0E-5
+ * for MERIS RR geometries and well below the accuracy of the networks (see TiePointGeometryTest).
+ * <p/>
+ * Instances are immutable and thread safe.
+ */
+final class TiePointGeometry {
+
+    // air mass factor, cos(sza), obs_x, obs_y, obs_z
+    private static final int NUM_QUANTITIES = 1 + WaterProcessorAlgorithm.NUM_GEOMETRY;
+
+    private final int gridWidth;
+    private final int gridHeight;
+    private final double offsetX;
+    private final double offsetY;
+    private final double subSamplingX;
+    private final double subSamplingY;
+    // nodes[quantity][j * gridWidth + i]
+    private final float[][] nodes;
+
+    /**
+     * @param sza the sun zenith tie-point grid
+     * @param saa the sun azimuth tie-point grid
+     * @param vza the view zenith tie-point grid
+     * @param vaa the view azimuth tie-point grid
+     *
+     * @throws IllegalArgumentException if the grids differ in their layout
+     */
+    TiePointGeometry(TiePointGrid sza, TiePointGrid saa, TiePointGrid vza, TiePointGrid vaa) {
+        gridWidth = sza.getRasterWidth();
+        gridHeight = sza.getRasterHeight();
+        offsetX = sza.getOffsetX();
+        offsetY = sza.getOffsetY();
+        subSamplingX = sza.getSubSamplingX();
+        subSamplingY = sza.getSubSamplingY();
+        for (TiePointGrid grid : new TiePointGrid[]{saa, vza, vaa}) {
+            if (grid.getRasterWidth() != gridWidth || grid.getRasterHeight() != gridHeight
+                || grid.getOffsetX() != offsetX || grid.getOffsetY() != offsetY
+                || grid.getSubSamplingX() != subSamplingX || grid.getSubSamplingY() != subSamplingY) {
+                throw new IllegalArgumentException(String.format("Tie-point grid '%s' differs in its layout from '%s'.",
+                                                                 grid.getName(), sza.getName()));
+            }
+        }
+        if (gridWidth < 2 || gridHeight < 2) {
+            throw new IllegalArgumentException(String.format("Tie-point grid '%s' has less than 2 x 2 nodes.",
+                                                             sza.getName()));
+        }
+
+        final float[] szaNodes = sza.getTiePoints();
+        final float[] saaNodes = saa.getTiePoints();
+        final float[] vzaNodes = vza.getTiePoints();
+        final float[] vaaNodes = vaa.getTiePoints();
+        final int numNodes = gridWidth * gridHeight;
+        nodes = new float[NUM_QUANTITIES][numNodes];
+        final double[] geometry = new double[WaterProcessorAlgorithm.NUM_GEOMETRY];
+        for (int n = 0; n < numNodes; n++) {
+            nodes[0][n] = (float) WaterProcessorAlgorithm.computeAirMass(szaNodes[n], vzaNodes[n]);
+            WaterProcessorAlgorithm.computeGeometry(szaNodes[n], saaNodes[n], vzaNodes[n], vaaNodes[n], geometry);
+            for (int g = 0; g < geometry.length; g++) {
+                nodes[1 + g][n] = (float) geometry[g];
+            }
+        }
+    }
+
+    /**
+     * Interpolates the air mass factors and geometry inputs of the pixels <code>x0 ... x0 + width - 1</code>
+     * of the scan line <code>y</code> into the row and marks its geometry as interpolated. The pixels are
+     * located like the pixels of a {@link TiePointGrid}, outside of the grid the values are extrapolated.
+     *
+     * @param x0    the x coordinate of the first pixel
+     * @param y     the y coordinate of the pixels
+     * @param width the number of pixels
+     * @param row   the row
+     */
+    void interpolate(int x0, int y, int width, WaterProcessorAlgorithm.Row row) {
+        final double fj = (y + 0.5 - offsetY) / subSamplingY;
+        final int j0 = clamp((int) Math.floor(fj), gridHeight);
+        final float wj = (float) (fj - j0);
+        final int rowOffset = j0 * gridWidth;
+        for (int x = 0; x < width; x++) {
+            final double fi = (x0 + x + 0.5 - offsetX) / subSamplingX;
+            final int i0 = clamp((int) Math.floor(fi), gridWidth);
+            final float wi = (float) (fi - i0);
+            final int n00 = rowOffset + i0;
+            final int n01 = n00 + gridWidth;
+            row.airMass[x] = interpolate(nodes[0], n00, n01, wi, wj);
+            for (int g = 0; g < WaterProcessorAlgorithm.NUM_GEOMETRY; g++) {
+                row.geometry[g][x] = interpolate(nodes[1 + g], n00, n01, wi, wj);
+            }
+        }
+        row.geometryInterpolated = true;
+    }
+
+    private static float interpolate(float[] values, int n00, int n01, float wi, float wj) {
+        final float v00 = values[n00];
+        final float v10 = values[n00 + 1];
+        final float v01 = values[n01];
+        final float v11 = values[n01 + 1];
+        return v00 + wi * (v10 - v00) + wj * (v01 - v00) + wi * wj * (v11 + v00 - v01 - v10);
+    }
+
+    /*
+     * Limits the index of the lower node to 0 ... size - 2, so that the border cells extrapolate.
+     */
+    private static int clamp(int i, int size) {
+        if (i < 0) {
+            return 0;
+        }
+        if (i > size - 2) {
+            return size - 2;
+        }
+        return i;
+    }
+}
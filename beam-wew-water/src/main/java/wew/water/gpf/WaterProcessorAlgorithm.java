@@ -0,0 +1,497 @@
+package wew.water.gpf;
+
+import java.util.Arrays;
+
+import static wew.water.gpf.WaterProcessorOp.RESULT_ERROR_VALUES;
+
+/**
+ * The FUB/WeW water retrieval for a row of pixels.
+ * <p/>
+ * The source values of up to {@link Row#getCapacity()} pixels are filled into a {@link Row},
+ * {@link #compute(Row, int)} then feeds all of them through each of the enabled networks in a
+ * single recall and leaves the retrieved values and the result flags in the row.
+ * Instances are immutable and may be shared between threads, the rows must not.
+ */
+final class WaterProcessorAlgorithm {
+
+    // If set to -1.0f : NN input and output ranges are checked
+    // If set to +1.0f : NN input and output ranges are NOT checked
+    private static final float aset = -1.0f;
+
+    private static final double D2R = Math.acos(-1.0) / 180.0;
+    private static final double TOTAL_OZONE_DU_MOMO = 344.0;
+
+    // Number of water leaving reflectances and aerosol optical thicknesses computed by the atm.corr. network
+    private static final int NUM_MSL = 8;
+    private static final int NUM_AOT = 4;
+    /**
+     * Number of result planes of the atm.corr. network, the aots come first, followed by the reflectances
+     */
+    static final int NUM_ATM_CORR_PLANES = NUM_AOT + NUM_MSL;
+    // Number of geometry inputs of the networks: cos(sza), obs_x, obs_y, obs_z
+    static final int NUM_GEOMETRY = 4;
+
+    private final WaterProcessorSpectralConstants spectralConstants;
+    private final boolean computeCHL;
+    private final boolean computeYS;
+    private final boolean computeTSM;
+    private final boolean computeAtmCorr;
+
+    private final int numInputNodes;
+    // Number of output nodes of the implicit (CHL, YS, TSM) and explicit atm.corr. networks, they differ !!
+    private final int numOutputNodes;
+    private final int numAtmCorrOutputNodes;
+    private final int numOutputPlanes;
+    private final FeedForwardNet chlNet;
+    private final FeedForwardNet ysNet;
+    private final FeedForwardNet tsmNet;
+    private final FeedForwardNet atmCorrNet;
+    // The enabled networks, all of them are fed by the same input stage
+    private final FeedForwardNet[] nets;
+
+    /**
+     * @param spectralConstants the spectral constants of the source product
+     * @param computeCHL        whether the chlorophyll network shall be recalled
+     * @param computeYS         whether the yellow substance network shall be recalled
+     * @param computeTSM        whether the total suspended matter network shall be recalled
+     * @param computeAtmCorr    whether the atmospheric correction network shall be recalled
+     * @param fastSigmoid       whether the networks shall use the approximated sigmoid of {@link SigmoidTable}
+     * @param singlePrecision   whether the network layers shall be evaluated in single precision
+     */
+    WaterProcessorAlgorithm(WaterProcessorSpectralConstants spectralConstants,
+                            boolean computeCHL, boolean computeYS, boolean computeTSM, boolean computeAtmCorr,
+                            boolean fastSigmoid, boolean singlePrecision) {
+        this(spectralConstants, computeCHL, computeYS, computeTSM, computeAtmCorr ? getAllAtmCorrPlanes() : new int[0],
+             fastSigmoid, singlePrecision);
+    }
+
+    /**
+     * @param spectralConstants the spectral constants of the source product
+     * @param computeCHL        whether the chlorophyll network shall be recalled
+     * @param computeYS         whether the yellow substance network shall be recalled
+     * @param computeTSM        whether the total suspended matter network shall be recalled
+     * @param atmCorrPlanes     the ascending indices of the atm.corr. result planes to be computed, see
+     *                          {@link #NUM_ATM_CORR_PLANES}. Only the corresponding output nodes of the
+     *                          atm.corr. network are evaluated and range checked, the network is not
+     *                          recalled at all if the array is empty.
+     * @param fastSigmoid       whether the networks shall use the approximated sigmoid of {@link SigmoidTable}
+     * @param singlePrecision   whether the network layers shall be evaluated in single precision
+     */
+    WaterProcessorAlgorithm(WaterProcessorSpectralConstants spectralConstants,
+                            boolean computeCHL, boolean computeYS, boolean computeTSM, int[] atmCorrPlanes,
+                            boolean fastSigmoid, boolean singlePrecision) {
+        this.spectralConstants = spectralConstants;
+        this.computeCHL = computeCHL;
+        this.computeYS = computeYS;
+        this.computeTSM = computeTSM;
+        this.computeAtmCorr = atmCorrPlanes.length > 0;
+
+        final float[][] ipixel = new float[1][1];
+        final float[][] opixel = new float[1][1];
+        final int[] mask = new int[1];
+        final float[] a = new float[1];
+        // Get the number of I/O nodes in advance
+        numInputNodes = NN_YellowSubstance.compute(ipixel, -1, opixel, 1, 1, mask, 0, a);
+        // implicit atm.corr.
+        numOutputNodes = NN_YellowSubstance.compute(ipixel, 1, opixel, -1, 1, mask, 0, a);
+
+        int planes = 0;
+        if (computeCHL) {
+            planes++;
+        }
+        if (computeYS) {
+            planes++;
+        }
+        if (computeTSM) {
+            planes++;
+        }
+        planes += atmCorrPlanes.length;
+        numOutputPlanes = planes;
+
+        chlNet = NN_CHL.getNet().withFastSigmoid(fastSigmoid).withSinglePrecision(singlePrecision);
+        ysNet = NN_YellowSubstance.getNet().withFastSigmoid(fastSigmoid).withSinglePrecision(singlePrecision);
+        tsmNet = NN_TSM.getNet().withFastSigmoid(fastSigmoid).withSinglePrecision(singlePrecision);
+        // explicit atm.corr., only the output nodes of the requested planes
+        final FeedForwardNet fullAtmCorrNet = NN_AtmCorr.getNet().withFastSigmoid(fastSigmoid).withSinglePrecision(singlePrecision);
+        atmCorrNet = computeAtmCorr ? fullAtmCorrNet.selectOutputs(getAtmCorrOutputNodes(atmCorrPlanes)) : fullAtmCorrNet;
+        numAtmCorrOutputNodes = atmCorrNet.getNumOutputs();
+
+        FeedForwardNet[] enabledNets = new FeedForwardNet[0];
+        if (computeCHL) {
+            enabledNets = addNet(enabledNets, chlNet);
+        }
+        if (computeYS) {
+            enabledNets = addNet(enabledNets, ysNet);
+        }
+        if (computeTSM) {
+            enabledNets = addNet(enabledNets, tsmNet);
+        }
+        if (computeAtmCorr) {
+            enabledNets = addNet(enabledNets, atmCorrNet);
+        }
+        nets = enabledNets;
+    }
+
+    private static int[] getAllAtmCorrPlanes() {
+        final int[] planes = new int[NUM_ATM_CORR_PLANES];
+        for (int i = 0; i < planes.length; i++) {
+            planes[i] = i;
+        }
+        return planes;
+    }
+
+    /*
+     * Maps the atm.corr. result planes (aots first) to the output nodes of the network (reflectances first).
+     */
+    private static int[] getAtmCorrOutputNodes(int[] atmCorrPlanes) {
+        final int[] outputNodes = new int[atmCorrPlanes.length];
+        for (int j = 0; j < atmCorrPlanes.length; j++) {
+            final int plane = atmCorrPlanes[j];
+            if (plane < 0 || plane >= NUM_ATM_CORR_PLANES || (j > 0 && plane <= atmCorrPlanes[j - 1])) {
+                throw new IllegalArgumentException("Invalid atm.corr. planes " + Arrays.toString(atmCorrPlanes));
+            }
+            outputNodes[j] = plane < NUM_AOT ? NUM_MSL + plane : plane - NUM_AOT;
+        }
+        return outputNodes;
+    }
+
+    private static FeedForwardNet[] addNet(FeedForwardNet[] nets, FeedForwardNet net) {
+        final FeedForwardNet[] extended = Arrays.copyOf(nets, nets.length + 1);
+        extended[nets.length] = net;
+        return extended;
+    }
+
+    /**
+     * @return the number of retrieved values per pixel, i.e. the number of result planes of a row
+     */
+    int getNumOutputPlanes() {
+        return numOutputPlanes;
+    }
+
+    /**
+     * @return the output limits {min, max} of the network output of each result plane, results outside
+     *         of them are flagged by the output failure flag of the respective network
+     */
+    double[] getResultLimits() {
+        final double[] limits = new double[2 * numOutputPlanes];
+        int offset = 0;
+        for (FeedForwardNet net : nets) {
+            final double[] outputLimits = net.getOutputLimits();
+            System.arraycopy(outputLimits, 0, limits, offset, outputLimits.length);
+            offset += outputLimits.length;
+        }
+        return limits;
+    }
+
+    /**
+     * Creates the buffers for processing up to {@code capacity} pixels at once.
+     *
+     * @param capacity the maximum row width
+     *
+     * @return a new row
+     */
+    Row createRow(int capacity) {
+        return new Row(capacity);
+    }
+
+    /**
+     * Processes the first {@code width} pixels of the given row. Invalid pixels are skipped, they
+     * neither pass the ozone correction nor the networks and only receive the mask value and the
+     * invalid pixel flag. If the whole row is invalid, the networks are not called at all.
+     *
+     * @param row   the row holding the source values, receives the results
+     * @param width the number of pixels to process
+     *
+     * @return the number of skipped invalid pixels
+     */
+    int compute(Row row, int width) {
+        final int[] resultFlags = row.resultFlags;
+        final int[] resultFlagsNN = row.resultFlagsNN;
+        final float[][] ipixel = row.ipixel;
+        final float[][] result = row.result;
+
+        // Exclude pixels from processing if the valid pixel expression is false
+        int numSkipped = 0;
+        for (int x = 0; x < width; x++) {
+            resultFlagsNN[x] = 0;
+            if (row.valid[x]) {
+                resultFlags[x] = 0;
+            } else {
+                resultFlags[x] = RESULT_ERROR_VALUES[0];
+                numSkipped++;
+            }
+        }
+        if (numSkipped == width) {
+            fillMasked(row, width);
+            return numSkipped;
+        }
+
+        // *********************
+        // * STAGE 0
+        // *********************
+        final int numToa = spectralConstants.getNumToaBands();
+        for (int x = 0; x < width; x++) {
+            if (resultFlags[x] != 0) {
+                continue;
+            }
+            final float zw = row.zonalWind[x];
+            final float mw = row.meridWind[x];
+
+            // Get the toa reflectances for selected bands
+            // and normalize ozone
+            //
+            final double airMass = row.geometryInterpolated ? row.airMass[x] : computeAirMass(row.sza[x], row.vza[x]);
+            final double ozoneAirMass = (row.ozone[x] - TOTAL_OZONE_DU_MOMO) * airMass;
+            int l;
+            for (l = 0; l < numToa; l++) {
+                ipixel[l][x] = spectralConstants.toOzoneNormalizedReflectance(l, row.toaRadiance[l][x], ozoneAirMass);
+            }
+
+            // Get the wind speed
+            ipixel[l++][x] = (float) Math.sqrt((double) (zw * zw + mw * mw));
+            // Get the pressure
+            ipixel[l++][x] = row.pressure[x];
+
+            // Get cos(sunzen) and the observation direction in cartesian coordinates
+            if (row.geometryInterpolated) {
+                for (int g = 0; g < NUM_GEOMETRY; g++) {
+                    ipixel[l + g][x] = row.geometry[g][x];
+                }
+            } else {
+                computeGeometry(row.sza[x], row.saa[x], row.vza[x], row.vaa[x], row.pixelGeometry);
+                for (int g = 0; g < NUM_GEOMETRY; g++) {
+                    ipixel[l + g][x] = (float) row.pixelGeometry[g];
+                }
+            }
+        }
+
+        // *********************
+        // * STAGE 1-4
+        // *********************
+
+        // The input range check and the input transformation are done once for all networks,
+        // range failures are reported by the network recall because a[x] is set to 'aset' and
+        // translated into the 'RESULT_ERROR_VALUES[]' of the respective stage.
+        if (row.netInput != null) {
+            row.netInput.prepare(ipixel, width, resultFlags);
+        }
+        int resultCounter = 0;
+        if (computeCHL) {
+            // Run the 1-step chlorophyll network
+            final int stage = 1;
+            resetStatus(row.a, width);
+            chlNet.compute(row.netInput, row.opixel, width, resultFlags, 0, row.a, row.nnWorkspace);
+            collectResults(row, stage, row.opixel[0], result[resultCounter++], width);
+        }
+        if (computeYS) {
+            // Run the 1-step yellow substance network
+            final int stage = 2;
+            resetStatus(row.a, width);
+            ysNet.compute(row.netInput, row.opixel, width, resultFlags, 0, row.a, row.nnWorkspace);
+            collectResults(row, stage, row.opixel[0], result[resultCounter++], width);
+        }
+        if (computeTSM) {
+            // Run the 1-step total suspended matter network
+            final int stage = 3;
+            resetStatus(row.a, width);
+            tsmNet.compute(row.netInput, row.opixel, width, resultFlags, 0, row.a, row.nnWorkspace);
+            collectResults(row, stage, row.opixel[0], result[resultCounter++], width);
+        }
+        if (computeAtmCorr) {
+            // Run part 1 of the 2-step atm.corr. network
+            final int stage = 4;
+            final float[][] opixel = row.opixelAtmCorr;
+            resetStatus(row.a, width);
+            atmCorrNet.compute(row.netInput, opixel, width, resultFlags, 0, row.a, row.nnWorkspace);
+            for (int x = 0; x < width; x++) {
+                resultFlagsNN[x] |= getNNResultFlags(row.a[x], stage);
+            }
+            // The network outputs are already ordered like the result planes
+            for (int i = 0; i < numAtmCorrOutputNodes; i++) {
+                System.arraycopy(opixel[i], 0, result[resultCounter + i], 0, width);
+            }
+        }
+
+        for (int x = 0; x < width; x++) {
+            // Now check for error flags !
+            // If set, set output vector to mask value !
+            if (resultFlags[x] != 0) {
+                for (int n = 0; n < numOutputPlanes; n++) {
+                    result[n][x] = WaterProcessorOp.result_mask_value;
+                }
+            }
+            // Combine result flags
+            resultFlags[x] |= resultFlagsNN[x];
+        }
+        return numSkipped;
+    }
+
+    /**
+     * Sets the results of the first {@code width} pixels of the given row to the mask value
+     * and their result flags to the invalid pixel flag, as computed for rows without valid pixels.
+     *
+     * @param row   the row
+     * @param width the number of pixels
+     */
+    void fillMasked(Row row, int width) {
+        for (int n = 0; n < numOutputPlanes; n++) {
+            Arrays.fill(row.result[n], 0, width, WaterProcessorOp.result_mask_value);
+        }
+        Arrays.fill(row.resultFlags, 0, width, RESULT_ERROR_VALUES[0]);
+    }
+
+    /**
+     * @param sza the sun zenith angle in degree
+     * @param vza the view zenith angle in degree
+     *
+     * @return the air mass factor of the ozone correction
+     */
+    static double computeAirMass(float sza, float vza) {
+        return 1.0 / Math.cos((double) vza * D2R) + 1.0 / Math.cos((double) sza * D2R);
+    }
+
+    /**
+     * Computes the geometry inputs of the networks.
+     *
+     * @param sza      the sun zenith angle in degree
+     * @param saa      the sun azimuth angle in degree
+     * @param vza      the view zenith angle in degree
+     * @param vaa      the view azimuth angle in degree
+     * @param geometry receives cos(sza), obs_x, obs_y and obs_z
+     */
+    static void computeGeometry(float sza, float saa, float vza, float vaa, double[] geometry) {
+        final float dazi = adjustAzimuthDifference(saa, vaa);
+        geometry[0] = Math.cos((double) sza * D2R);
+        geometry[1] = Math.sin((double) vza * D2R) * Math.cos((double) dazi * D2R);
+        geometry[2] = Math.sin((double) vza * D2R) * Math.sin((double) dazi * D2R);
+        geometry[3] = Math.cos((double) vza * D2R);
+    }
+
+    /*
+     * Returns the azimuth difference as expected by the networks.
+     */
+    private static float adjustAzimuthDifference(float saa, float vaa) {
+        float dazi = vaa - saa;
+        while (dazi <= -180.0f) {
+            dazi += 360.0f;
+        }
+        while (dazi > 180.0f) {
+            dazi -= 360.0f;
+        }
+        float tmp = dazi;
+        if (tmp >= 0.0f) {
+            dazi = +180.0f - dazi;
+        }
+        if (tmp < 0.0f) {
+            dazi = -180.0f - dazi;
+        }
+        return dazi;
+    }
+
+    private static void resetStatus(float[] a, int width) {
+        for (int x = 0; x < width; x++) {
+            a[x] = aset;
+        }
+    }
+
+    private static void collectResults(Row row, int stage, float[] output, float[] result, int width) {
+        for (int x = 0; x < width; x++) {
+            row.resultFlagsNN[x] |= getNNResultFlags(row.a[x], stage);
+        }
+        System.arraycopy(output, 0, result, 0, width);
+    }
+
+    /*
+     * Translates the status value 'a' returned by a network recall into the
+     * input and output failure flags of the given stage.
+     */
+    private static int getNNResultFlags(float a, int stage) {
+        int flags = 0;
+        // Input range failure
+        if ((a > -2.1) && (a < -1.9)) {
+            flags |= RESULT_ERROR_VALUES[2 * stage - 1];
+        }
+        // Output range failure
+        if ((a > -19.1) && (a < -18.9)) {
+            flags |= RESULT_ERROR_VALUES[2 * stage];
+        }
+        // Input AND Output range failure
+        if ((a > -22.1) && (a < -21.9)) {
+            flags |= RESULT_ERROR_VALUES[2 * stage - 1];
+            flags |= RESULT_ERROR_VALUES[2 * stage];
+        }
+        return flags;
+    }
+
+    /**
+     * Source values, results and scratch buffers of a row of pixels, indexed by the
+     * pixel position within the row. Rows are not thread safe.
+     */
+    final class Row {
+
+        // Source values, to be filled by the caller
+        /**
+         * TOA radiances of the MERIS bands used by the networks, see {@link WaterProcessorSpectralConstants#NN_BAND_INDICES}
+         */
+        final float[][] toaRadiance;
+        final float[] sza;
+        final float[] saa;
+        final float[] vza;
+        final float[] vaa;
+        final float[] zonalWind;
+        final float[] meridWind;
+        final float[] pressure;
+        final float[] ozone;
+        final boolean[] valid;
+        /**
+         * If set, the air mass factors and the geometry inputs (cos(sza), obs_x, obs_y, obs_z) are
+         * taken from {@link #airMass} and {@link #geometry}, the angles are not used.
+         */
+        boolean geometryInterpolated;
+        final float[] airMass;
+        final float[][] geometry;
+
+        // Results, ordered like the target bands
+        final float[][] result;
+        final int[] resultFlags;
+
+        // Network input, output and status
+        private final float[][] ipixel;
+        private final float[][] opixel;
+        private final float[][] opixelAtmCorr;
+        private final float[] a;
+        private final int[] resultFlagsNN;
+        private final double[] pixelGeometry;
+        private final FeedForwardNetInput netInput;
+        private final NN_Workspace nnWorkspace;
+
+        private Row(int capacity) {
+            toaRadiance = new float[WaterProcessorSpectralConstants.NN_BAND_INDICES.length][capacity];
+            sza = new float[capacity];
+            saa = new float[capacity];
+            vza = new float[capacity];
+            vaa = new float[capacity];
+            zonalWind = new float[capacity];
+            meridWind = new float[capacity];
+            pressure = new float[capacity];
+            ozone = new float[capacity];
+            valid = new boolean[capacity];
+            airMass = new float[capacity];
+            geometry = new float[NUM_GEOMETRY][capacity];
+            result = new float[numOutputPlanes][capacity];
+            resultFlags = new int[capacity];
+            ipixel = new float[numInputNodes][capacity];
+            opixel = new float[numOutputNodes][capacity];
+            opixelAtmCorr = new float[numAtmCorrOutputNodes][capacity];
+            a = new float[capacity];
+            resultFlagsNN = new int[capacity];
+            pixelGeometry = new double[NUM_GEOMETRY];
+            netInput = nets.length > 0 ? new FeedForwardNetInput(capacity, nets) : null;
+            nnWorkspace = new NN_Workspace();
+        }
+
+        int getCapacity() {
+            return a.length;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package wew.water.gpf;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.beam.dataio.dimap.DimapProductConstants;
+import org.esa.beam.framework.dataio.ProductIO;
+import org.esa.beam.framework.dataio.ProductIOPlugInManager;
+import org.esa.beam.framework.dataio.ProductWriter;
+import org.esa.beam.framework.dataio.ProductWriterPlugIn;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.GPF;
+import org.esa.beam.framework.gpf.annotations.Parameter;
+import org.esa.beam.util.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Processes a batch of MERIS L1b products with the FUB.Water.Tiled operator within a single JVM.
+ * <p/>
+ * The networks, their fast sigmoid and single precision variants and the algorithm instances derived
+ * from the ozone extinction and solar fluxes of a product are immutable and shared by all products
+ * with the same spectral constants, so they are set up only once per batch. The products are computed
+ * by a bounded pool of workers, while the workers are busy the next product is read and its operator
+ * is initialised by a separate reader thread. At most one product per worker plus the one read ahead
+ * are open at the same time.
+ * <p/>
+ * The result flag statistics of a product are only known once it has been written. The header of
+ * BEAM-DIMAP products is written again with the statistics added to the metadata, the statistics of
+ * products of other formats are only available as JSON file.
+ * <p/>
+ * Usage: <code>WaterProcessorBatch [-o &lt;output dir&gt;] [-f &lt;format&gt;] [-w &lt;workers&gt;] [-s]
+ * [-P&lt;name&gt;=&lt;value&gt;]... &lt;input&gt;...</code>
+ * <p/>
+ * An input is a product file or a glob pattern of product files, e.g. <code>/data/MER_RR__1P*.N1</code>.
+ */
+public class WaterProcessorBatch {
+
+    public static final String OPERATOR_ALIAS = "FUB.Water.Tiled";
+    public static final String DEFAULT_FORMAT_NAME = "BEAM-DIMAP";
+
+    private static final String OUTPUT_SUFFIX = "_WATER";
+    private static final String STATISTICS_SUFFIX = "_flags.json";
+    private static final String USAGE =
+            "Usage: WaterProcessorBatch [options] <input>...\n" +
+            "  <input>            a MERIS L1b product file or a glob pattern of product files\n" +
+            "Options:\n" +
+            "  -o <dir>           the output directory, default is the current directory\n" +
+            "  -f <format>        the output format, default is " + DEFAULT_FORMAT_NAME + "\n" +
+            "  -w <workers>       the number of products computed concurrently, default is 1\n" +
+            "  -s                 writes the result flag statistics of each product as JSON file\n" +
+            "  -P<name>=<value>   sets a parameter of the " + OPERATOR_ALIAS + " operator, array values are\n" +
+            "                     separated by commas\n";
+
+    private final File outputDir;
+    private final String formatName;
+    private final int numWorkers;
+    private final boolean writeStatistics;
+    private final Map<String, Object> parameters;
+    private final Logger logger;
+
+    /**
+     * @param outputDir       the output directory
+     * @param formatName      the name of the output format
+     * @param numWorkers      the number of products computed concurrently
+     * @param writeStatistics whether the result flag statistics of each product shall be written as JSON file
+     * @param parameters      the operator parameters
+     */
+    public WaterProcessorBatch(File outputDir, String formatName, int numWorkers, boolean writeStatistics,
+                               Map<String, Object> parameters) {
+        if (numWorkers < 1) {
+            throw new IllegalArgumentException("The number of workers must be positive.");
+        }
+        this.outputDir = outputDir;
+        this.formatName = formatName;
+        this.numWorkers = numWorkers;
+        this.writeStatistics = writeStatistics;
+        this.parameters = new HashMap<String, Object>(parameters);
+        logger = Logger.getLogger(WaterProcessorBatch.class.getName());
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        File outputDir = new File(".");
+        String formatName = DEFAULT_FORMAT_NAME;
+        int numWorkers = 1;
+        boolean writeStatistics = false;
+        final Map<String, Object> parameters = new HashMap<String, Object>();
+        final List<String> inputs = new ArrayList<String>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                final String arg = args[i];
+                if (arg.equals("-o") && i + 1 < args.length) {
+                    outputDir = new File(args[++i]);
+                } else if (arg.equals("-f") && i + 1 < args.length) {
+                    formatName = args[++i];
+                } else if (arg.equals("-w") && i + 1 < args.length) {
+                    numWorkers = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-s")) {
+                    writeStatistics = true;
+                } else if (arg.startsWith("-P") && arg.indexOf('=') > 2) {
+                    final String name = arg.substring(2, arg.indexOf('='));
+                    parameters.put(name, parseParameter(name, arg.substring(arg.indexOf('=') + 1)));
+                } else if (arg.startsWith("-")) {
+                    throw new IllegalArgumentException("Unknown option '" + arg + "'.");
+                } else {
+                    inputs.add(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(1);
+        }
+        final List<File> inputFiles = expandInputs(inputs);
+        if (inputFiles.isEmpty()) {
+            System.err.println("No input products.");
+            System.err.print(USAGE);
+            System.exit(1);
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Failed to create the output directory " + outputDir);
+        }
+
+        GPF.getDefaultInstance().getOperatorSpiRegistry().loadOperatorSpis();
+        final WaterProcessorBatch batch = new WaterProcessorBatch(outputDir, formatName, numWorkers, writeStatistics,
+                                                                  parameters);
+        final int numFailed = batch.process(inputFiles);
+        if (numFailed > 0) {
+            System.err.printf("%d of %d products failed.%n", numFailed, inputFiles.size());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Processes the given products. A product which cannot be processed is logged and skipped.
+     *
+     * @param inputFiles the product files
+     *
+     * @return the number of products which could not be processed
+     *
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public int process(List<File> inputFiles) throws InterruptedException {
+        final ExecutorService reader = Executors.newSingleThreadExecutor();
+        final ExecutorService workers = Executors.newFixedThreadPool(numWorkers);
+        // Products opened but not yet written: one per worker and the one read ahead
+        final Semaphore openProducts = new Semaphore(numWorkers + 1);
+        final List<Future<?>> results = new ArrayList<Future<?>>(inputFiles.size());
+        try {
+            for (final File inputFile : inputFiles) {
+                openProducts.acquire();
+                final Future<Job> job = reader.submit(new Callable<Job>() {
+                    @Override
+                    public Job call() throws IOException {
+                        return open(inputFile);
+                    }
+                });
+                results.add(workers.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        try {
+                            compute(getResult(job));
+                        } finally {
+                            openProducts.release();
+                        }
+                        return null;
+                    }
+                }));
+            }
+            int numFailed = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    numFailed++;
+                    logger.log(Level.SEVERE, "Failed to process " + inputFiles.get(i) + ": " + e.getCause().getMessage(),
+                               e.getCause());
+                }
+            }
+            return numFailed;
+        } finally {
+            reader.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    /*
+     * Reads the product and initialises its operator, done by the reader thread.
+     */
+    private Job open(File inputFile) throws IOException {
+        final Product sourceProduct = ProductIO.readProduct(inputFile);
+        if (sourceProduct == null) {
+            throw new IOException("No reader found for " + inputFile);
+        }
+        try {
+            final String baseName = FileUtils.getFilenameWithoutExtension(inputFile);
+            final Map<String, Object> productParameters = new HashMap<String, Object>(parameters);
+            if (writeStatistics) {
+                productParameters.put("statisticsFile", new File(outputDir, baseName + STATISTICS_SUFFIX));
+            }
+            final WaterProcessorTileOp operator = new WaterProcessorTileOp();
+            operator.setSourceProduct(sourceProduct);
+            for (Map.Entry<String, Object> entry : productParameters.entrySet()) {
+                operator.setParameter(entry.getKey(), entry.getValue());
+            }
+            final Product targetProduct = operator.getTargetProduct();
+            final File outputFile = new File(outputDir, baseName + OUTPUT_SUFFIX + getOutputExtension(formatName));
+            return new Job(inputFile, sourceProduct, operator, targetProduct, outputFile);
+        } catch (RuntimeException e) {
+            sourceProduct.dispose();
+            throw e;
+        }
+    }
+
+    /*
+     * Computes and writes the target product, done by a worker.
+     */
+    private void compute(Job job) throws IOException {
+        final long startTime = System.currentTimeMillis();
+        try {
+            GPF.writeProduct(job.targetProduct, job.outputFile, formatName, false, ProgressMonitor.NULL);
+            job.operator.exportResultFlagStatistics();
+            if (DimapProductConstants.DIMAP_FORMAT_NAME.equals(formatName)) {
+                writeHeader(job.targetProduct, job.outputFile);
+            }
+        } finally {
+            job.targetProduct.dispose();
+            job.sourceProduct.dispose();
+        }
+        logger.info(String.format("%s processed in %.1f s, written to %s", job.inputFile,
+                                  (System.currentTimeMillis() - startTime) / 1000.0, job.outputFile));
+    }
+
+    /*
+     * Writes the header of a BEAM-DIMAP product again, the band data already written is kept.
+     */
+    private static void writeHeader(Product product, File outputFile) throws IOException {
+        final ProductWriter writer = ProductIO.getProductWriter(DimapProductConstants.DIMAP_FORMAT_NAME);
+        try {
+            writer.writeProductNodes(product, outputFile);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static Job getResult(Future<Job> job) throws Exception {
+        try {
+            return job.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static String getOutputExtension(String formatName) {
+        final Iterator<ProductWriterPlugIn> writerPlugIns = ProductIOPlugInManager.getInstance().getWriterPlugIns(formatName);
+        if (writerPlugIns.hasNext()) {
+            final String[] extensions = writerPlugIns.next().getDefaultFileExtensions();
+            if (extensions != null && extensions.length > 0) {
+                return extensions[0];
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Expands the given inputs into product files. An input containing one of the characters
+     * <code>*?[{</code> in its file name is a glob pattern, the matching files of its directory
+     * are added in alphabetical order. Other inputs are added as they are.
+     *
+     * @param inputs the product files and glob patterns
+     *
+     * @return the product files
+     *
+     * @throws IOException if the directory of a glob pattern cannot be listed
+     */
+    static List<File> expandInputs(List<String> inputs) throws IOException {
+        final List<File> inputFiles = new ArrayList<File>();
+        for (String input : inputs) {
+            final File file = new File(input);
+            final String pattern = file.getName();
+            if (!pattern.matches(".*[*?\\[{].*")) {
+                inputFiles.add(file);
+                continue;
+            }
+            final Path dir = file.getParentFile() != null ? file.getParentFile().toPath() : Paths.get(".");
+            final List<File> matches = new ArrayList<File>();
+            final DirectoryStream<Path> stream = Files.newDirectoryStream(dir, pattern);
+            try {
+                for (Path path : stream) {
+                    matches.add(path.toFile());
+                }
+            } finally {
+                stream.close();
+            }
+            Collections.sort(matches);
+            inputFiles.addAll(matches);
+        }
+        return inputFiles;
+    }
+
+    /**
+     * Converts the text value of an operator parameter into the type of the parameter.
+     *
+     * @param name the parameter name
+     * @param text the parameter value as text
+     *
+     * @return the parameter value
+     *
+     * @throws IllegalArgumentException if the operator has no such parameter or the value cannot be converted
+     */
+    static Object parseParameter(String name, String text) {
+        final Field field;
+        try {
+            field = WaterProcessorTileOp.class.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("Unknown parameter '" + name + "'.");
+        }
+        if (field.getAnnotation(Parameter.class) == null) {
+            throw new IllegalArgumentException("Unknown parameter '" + name + "'.");
+        }
+        final Class<?> type = field.getType();
+        if (type == String.class) {
+            return text;
+        } else if (type == String[].class) {
+            return text.split(",");
+        } else if (type == File.class) {
+            return new File(text);
+        } else if (type == boolean.class) {
+            if (!text.equalsIgnoreCase("true") && !text.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("Parameter '" + name + "' must be 'true' or 'false'.");
+            }
+            return Boolean.valueOf(text);
+        }
+        throw new IllegalArgumentException("Parameter '" + name + "' of type " + type.getSimpleName() + " is not supported.");
+    }
+
+    private static final class Job {
+
+        private final File inputFile;
+        private final Product sourceProduct;
+        private final WaterProcessorTileOp operator;
+        private final Product targetProduct;
+        private final File outputFile;
+
+        private Job(File inputFile, Product sourceProduct, WaterProcessorTileOp operator, Product targetProduct,
+                    File outputFile) {
+            this.inputFile = inputFile;
+            this.sourceProduct = sourceProduct;
+            this.operator = operator;
+            this.targetProduct = targetProduct;
+            this.outputFile = outputFile;
+        }
+    }
+}
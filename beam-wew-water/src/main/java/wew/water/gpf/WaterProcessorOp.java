@@ -9,6 +9,7 @@ import org.esa.beam.framework.datamodel.MetadataElement;
 import org.esa.beam.framework.datamodel.Product;
 import org.esa.beam.framework.datamodel.ProductData;
 import org.esa.beam.framework.datamodel.ProductNodeGroup;
+import org.esa.beam.framework.datamodel.TiePointGrid;
 import org.esa.beam.framework.gpf.OperatorException;
 import org.esa.beam.framework.gpf.OperatorSpi;
 import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
@@ -27,8 +28,16 @@ import org.esa.beam.util.StringUtils;
 import javax.media.jai.PlanarImage;
 import javax.media.jai.operator.ConstantDescriptor;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.image.Raster;
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @OperatorMetadata(alias = "FUB.Water", authors = "Thomas Schroeder, Michael Schaale",
                   copyright = "Institute for Space Sciences (WeW), Freie Universitaet Berlin",
@@ -57,8 +66,10 @@ public class WaterProcessorOp extends PixelOperator {
             "reflec_7",
             "reflec_9"
     };
-    private static final String SUSPECT_FLAG_NAME = "l1_flags.SUSPECT";
-    private static final String SUSPECT_EXPRESSION_TERM = "and not " + SUSPECT_FLAG_NAME;
+    static final String SUSPECT_FLAG_NAME = "l1_flags.SUSPECT";
+    static final String SUSPECT_EXPRESSION_TERM = "and not " + SUSPECT_FLAG_NAME;
+    static final String DEFAULT_EXPRESSION =
+            "not l1_flags.GLINT_RISK and not l1_flags.BRIGHT and not l1_flags.INVALID " + SUSPECT_EXPRESSION_TERM;
 
     private static String[] output_concentration_band_descriptions = {
             "Chlorophyll 2 content",
@@ -127,7 +138,7 @@ public class WaterProcessorOp extends PixelOperator {
     private static final String result_flags_name = "result_flags";
 
     // Mask value to be written if inversion fails
-    private static final float result_mask_value = 5.0f;
+    static final float result_mask_value = 5.0f;
 
     private static final String[] result_error_texts = {
             "Pixel was a priori masked out",
@@ -211,10 +222,24 @@ public class WaterProcessorOp extends PixelOperator {
     private static final int source_sample_index_atm_press = 22;
     private static final int source_sample_index_ozone = 23;
 
-    private float[] solarFlux;
+    // The algorithms are immutable, operators on products with the same spectral constants and network
+    // parameters share them. Least recently used first, guarded by itself.
+    private static final int algorithm_cache_size = 16;
+    private static final Map<List<Object>, WaterProcessorAlgorithm> algorithm_cache =
+            new LinkedHashMap<List<Object>, WaterProcessorAlgorithm>(algorithm_cache_size, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, WaterProcessorAlgorithm> eldest) {
+                    return size() > algorithm_cache_size;
+                }
+            };
 
-    private Band[] inputBands = new Band[EnvisatConstants.MERIS_L1B_NUM_SPECTRAL_BANDS];
-    private Raster validMaskData;
+    private int[] atmCorrPlanes;
+    private WaterProcessorAlgorithm algorithm;
+    private OutputEncoding encoding;
+    private PlanarImage validMaskImage;
+    private TiePointGeometry tiePointGeometry;
+    private ResultFlagStatistics resultFlagStatistics;
+    private transient ThreadLocal<PixelWorkspace> workspace;
 
     @SourceProduct(label = "Source product",
                    description = "The MERIS L1b or L1P source product used for the processing.")
@@ -236,6 +261,13 @@ public class WaterProcessorOp extends PixelOperator {
                label = "Compute water leaving reflectances and AOT bands")
     private boolean computeAtmCorr;
 
+    @Parameter(description = "The names of the AOT and water leaving reflectance bands to be computed, if the atmospheric " +
+                             "correction bands are computed. If not given, all of them are computed. Only the selected " +
+                             "outputs of the atmospheric correction network are evaluated and range checked, hence " +
+                             "the ATM_OUT flag only refers to them.",
+               label = "Atmospheric correction bands")
+    private String[] atmCorrBandNames;
+
     @Parameter(description = "Expert parameter. Performs a check whether the '" + SUSPECT_FLAG_NAME + "' shall be considered in an expression." +
                              "This parameter is only considered when the expression contains the term '" + SUSPECT_EXPRESSION_TERM + "'",
                defaultValue = "true", label = "Check whether '" + SUSPECT_FLAG_NAME + "' is valid")
@@ -243,349 +275,158 @@ public class WaterProcessorOp extends PixelOperator {
 
     @Parameter(description = "Band maths expression which defines valid pixels. If the expression is empty," +
                              "all pixels will be considered.",
-               defaultValue = "not l1_flags.GLINT_RISK and not l1_flags.BRIGHT and not l1_flags.INVALID " + SUSPECT_EXPRESSION_TERM,
+               defaultValue = DEFAULT_EXPRESSION,
                label = "Use valid pixel expression")
     private String expression;
 
+    @Parameter(description = "Expert parameter. Replaces the exact sigmoid of the hidden network layers by a table based " +
+                             "approximation with a maximum absolute error of 3.0E-6. Speeds up the processing " +
+                             "at the cost of slightly different results.",
+               defaultValue = "false", label = "Use fast sigmoid approximation")
+    private boolean useFastSigmoid;
+
+    @Parameter(description = "Expert parameter. Evaluates the network layers entirely in single precision instead of " +
+                             "double precision. Speeds up the processing at the cost of slightly different results.",
+               defaultValue = "false", label = "Use single precision networks")
+    private boolean useSinglePrecision;
+
+    @Parameter(description = "Expert parameter. Computes the air mass factor and the geometry inputs of the networks " +
+                             "on the tie-point grid nodes and interpolates them per pixel, instead of computing them " +
+                             "from the interpolated angles of each pixel. The results differ slightly.",
+               defaultValue = "false", label = "Interpolate geometry from tie-points")
+    private boolean useTiePointGeometry;
+
+    @Parameter(description = "File to which the result flag statistics are written as JSON when the processing has " +
+                             "finished. The statistics are also added to the metadata of the target product when the " +
+                             "processing has finished, hence after its header has been written. Only the batch " +
+                             "processor writes the header of BEAM-DIMAP products again to include them.",
+               label = "Result flag statistics file")
+    private File statisticsFile;
+
+    @Parameter(description = "The data type of the concentration, AOT and reflectance bands. The 16 bit integer types " +
+                             "are scaled to the output limits of the networks, results outside of them are clamped.",
+               valueSet = {OutputEncoding.FLOAT32, OutputEncoding.INT16, OutputEncoding.UINT16},
+               defaultValue = OutputEncoding.FLOAT32, label = "Output data type")
+    private String outputDataType;
+
     @Override
     protected void computePixel(final int xpos, final int ypos, Sample[] sourceSamples, WritableSample[] targetSamples) {
-
-        // If set to -1.0f : NN input and output ranges are checked
-        // If set to +1.0f : NN input and output ranges are NOT checked
-        float aset = -1.0f;
-
-        int width = 1;
-        int nbands = inputBands.length;
-
-        // allocate memory for a multispectral scan line
-        float[] toa = new float[nbands];
-
-        // allocate memory for the flags
-        int[] resultFlags = new int[width];
-
-        // Ozone data
-        double[] wavelength = new double[nbands];
-        double[] exO3 = new double[nbands];
-
-        // local variables
-        double d2r;
-        float dazi;
-        int k;
-        int l;
-        int ls = 0;
-        int n;
-        float[] a = new float[width];
-
-        int inodes;
-        int onodes;
-        int onodes_1;
-        int onodes_2;
-        int stage;
-
-        float[][] ipixel = new float[2][1];
-        float[][] ipixels = new float[2][1];
-        float[][] opixel = new float[2][1];
-
-        // Load the wavelengths and ozone spectral extinction coefficients
-        //
-        for (int i = 0; i < nbands; i++) {
-            wavelength[i] = inputBands[i].getSpectralWavelength();
-            exO3[i] = WaterProcessorOzone.O3excoeff(wavelength[i]);
+        final PixelWorkspace ws = workspace.get();
+        final WaterProcessorAlgorithm.Row row = ws.row;
+        final int x = 0;
+        final int numOutputPlanes = algorithm.getNumOutputPlanes();
+
+        // Invalid pixels are not fed into the networks
+        if (!ws.isValid(xpos, ypos)) {
+            for (int n = 0; n < numOutputPlanes; n++) {
+                if (encoding.isScaled()) {
+                    targetSamples[n].set(encoding.toGeophysical(n, result_mask_value));
+                } else {
+                    targetSamples[n].set(result_mask_value);
+                }
+            }
+            targetSamples[numOutputPlanes].set(RESULT_ERROR_VALUES[0]);
+            ws.count(xpos, ypos, RESULT_ERROR_VALUES[0]);
+            return;
         }
 
-        d2r = Math.acos(-1.0) / 180.0;
-
-        // Get the number of I/O nodes in advance
-        inodes = NN_YellowSubstance.compute(ipixel, -1, opixel, 1, width, resultFlags, 0, a);
-        // implicit atm.corr.
-        onodes_1 = NN_YellowSubstance.compute(ipixel, 1, opixel, -1, width, resultFlags, 0, a);
-        // explicit atm.corr.
-        onodes_2 = NN_AtmCorr.compute(ipixel, 1, opixel, -1, width, resultFlags, 0, a);
-
-        int num_toa = 12;
-        int output_planes = 0;
-        if (computeCHL) {
-            output_planes++;
-        }
-        if (computeYS) {
-            output_planes++;
+        final int numToa = WaterProcessorSpectralConstants.NN_BAND_INDICES.length;
+        for (int l = 0; l < numToa; l++) {
+            row.toaRadiance[l][x] = sourceSamples[WaterProcessorSpectralConstants.NN_BAND_INDICES[l]].getFloat();
         }
-        if (computeTSM) {
-            output_planes++;
-        }
-        if (computeAtmCorr) {
-            output_planes += OUTPUT_OPTICAL_DEPTH_BAND_NAMES.length + OUTPUT_REFLECTANCE_BAND_NAMES.length;
-        }
-        float[] top = new float[num_toa];
-        float[] tops = new float[num_toa];
-        double[] o3f = new double[num_toa];
-        float[] sof = new float[num_toa];
-        float[] aux = new float[2];
-        float[] geo = new float[4];
-        float[] result = new float[output_planes];
-
-        // First the TOA radiances
-        for (n = 0; n < inputBands.length; n++) {
-            toa[n] = sourceSamples[n].getFloat();
-        } // n
-
-        // Second the auxiliary data
-        float sza = sourceSamples[source_sample_index_sun_zenith].getFloat();
-        float saa = sourceSamples[source_sample_index_sun_azimuth].getFloat();
-        float vza = sourceSamples[source_sample_index_view_zenith].getFloat();
-        float vaa = sourceSamples[source_sample_index_view_azimuth].getFloat();
-        float zw = sourceSamples[source_sample_index_zonal_wind].getFloat();
-        float mw = sourceSamples[source_sample_index_merid_wind].getFloat();
-        float press = sourceSamples[source_sample_index_atm_press].getFloat();
-        float o3 = sourceSamples[source_sample_index_ozone].getFloat();
-
-        final int x = 0;
-
-        resultFlags[x] = 0;
-        int resultFlagsNN = 0;
-
-        // Exclude pixels from processing if the following l1flags mask becomes true
-        if (validMaskData.getSample(xpos, ypos, 0) == 0) {
-            resultFlags[x] = RESULT_ERROR_VALUES[0];
+        if (tiePointGeometry != null) {
+            tiePointGeometry.interpolate(xpos, ypos, 1, row);
+        } else {
+            row.sza[x] = sourceSamples[source_sample_index_sun_zenith].getFloat();
+            row.saa[x] = sourceSamples[source_sample_index_sun_azimuth].getFloat();
+            row.vza[x] = sourceSamples[source_sample_index_view_zenith].getFloat();
+            row.vaa[x] = sourceSamples[source_sample_index_view_azimuth].getFloat();
         }
+        row.zonalWind[x] = sourceSamples[source_sample_index_zonal_wind].getFloat();
+        row.meridWind[x] = sourceSamples[source_sample_index_merid_wind].getFloat();
+        row.pressure[x] = sourceSamples[source_sample_index_atm_press].getFloat();
+        row.ozone[x] = sourceSamples[source_sample_index_ozone].getFloat();
+        row.valid[x] = true;
 
-        // *********************
-        // * STAGE 0
-        // *********************
+        algorithm.compute(row, 1);
 
-        // Get the toa reflectances for selected bands
-        // and normalize ozone
-        //
-        l = 0;
-        final double TOTAL_OZONE_DU_MOMO = 344.0;
-        for (n = 0; n <= 6; n++, l++) {
-            tops[l] = toa[n];
-            sof[l] = solarFlux[n];
-            top[l] = toa[n] / solarFlux[n];
-            o3f[l] = Math.exp(-(TOTAL_OZONE_DU_MOMO - o3) * exO3[n] / 1000.0 * (1.0 / Math.cos(
-                    (double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
-            top[l] *= o3f[l];
-        }
-        for (n = 8; n <= 9; n++, l++) {
-            tops[l] = toa[n];
-            sof[l] = solarFlux[n];
-            top[l] = toa[n] / solarFlux[n];
-            o3f[l] = Math.exp(-(TOTAL_OZONE_DU_MOMO - o3) * exO3[n] / 1000.0 * (1.0 / Math.cos(
-                    (double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
-            top[l] *= o3f[l];
-        }
-        for (n = 11; n <= 13; n++, l++) {
-            tops[l] = toa[n];
-            sof[l] = solarFlux[n];
-            top[l] = toa[n] / solarFlux[n];
-            o3f[l] = Math.exp(-(TOTAL_OZONE_DU_MOMO - o3) * exO3[n] / 1000.0 * (1.0 / Math.cos(
-                    (double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
-            top[l] *= o3f[l];
-        }
-
-        // Get the wind speed
-        aux[0] = (float) Math.sqrt((double) (zw * zw + mw * mw));
-        // Get the pressure
-        aux[1] = press;
-
-        // Adjust the azimuth difference
-        dazi = vaa - saa;
-
-        while (dazi <= -180.0f) {
-            dazi += 360.0f;
-        }
-        while (dazi > 180.0f) {
-            dazi -= 360.0f;
-        }
-        float tmp = dazi;
-        if (tmp >= 0.0f) {
-            dazi = +180.0f - dazi;
-        }
-        if (tmp < 0.0f) {
-            dazi = -180.0f - dazi;
-        }
-
-        // Get cos(sunzen)
-        geo[0] = (float) Math.cos((double) sza * d2r);
-
-        // And now transform into cartesian coordinates
-        geo[1] = (float) (Math.sin((double) vza * d2r) * Math.cos((double) dazi * d2r)); // obs_x
-        geo[2] = (float) (Math.sin((double) vza * d2r) * Math.sin((double) dazi * d2r)); // obs_y
-        geo[3] = (float) (Math.cos((double) vza * d2r));                            // obs_z
-
-        // *********************
-        // * STAGE 1-4
-        // *********************
-
-        onodes = onodes_1; // They differ !!
-
-        ipixel = new float[inodes][width];
-        ipixels = new float[inodes][width];
-        opixel = new float[onodes][width];
-
-        // load the TOA reflectances
-        for (l = 0; l < num_toa; l++) {
-            ipixel[l][x] = top[l];
-        }
-
-        // get the wind speed and pressure
-        ipixel[l++][x] = aux[0];
-        ipixel[l++][x] = aux[1];
-
-        // get cos(sunzen), x, yPos, z
-        ipixel[l++][x] = geo[0];
-        ipixel[l++][x] = geo[1];
-        ipixel[l++][x] = geo[2];
-        ipixel[l++][x] = geo[3];
-
-        // Check against range limits inside the network
-        // recall if the value of a[x] is set to -1.0f.
+        // Set sample values in target product
         //
-        // This results in the application of the flag
-        // 'RESULT_ERROR_VALUE[]' to the 'resultFlagsNN'
-        a[x] = aset;
-
-        // Save input pixel
-        ls = l;
-        for (l = 0; l < ls; l++) {
-            ipixels[l][x] = ipixel[l][x];
-        }
-
-        int resultCounter = 0;
-
-        if (computeCHL) {
-            // Run the 1-step chlorophyll network;
-            stage = 1;
-            NN_CHL.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
-
-            // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-            }
-            // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
-            }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
+        for (int n = 0; n < numOutputPlanes; n++) {
+            if (encoding.isScaled()) {
+                targetSamples[n].set(encoding.toGeophysical(n, row.result[n][x]));
+            } else {
+                targetSamples[n].set(row.result[n][x]);
             }
-            result[resultCounter++] = opixel[0][x];
         }
-        if (computeYS) {
-            // Run the 1-step yellow substance network;
-            stage = 2;
-            // reload the pixel
-            for (l = 0; l < ls; l++) {
-                ipixel[l][x] = ipixels[l][x];
-            }
-            a[x] = aset;
-
-            NN_YellowSubstance.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+        targetSamples[numOutputPlanes].set(row.resultFlags[x]);
+        ws.count(xpos, ypos, row.resultFlags[x]);
+    }
 
-            // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-            }
-            // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
-            }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
-            }
-            result[resultCounter++] = opixel[0][x];
+    @Override
+    public void dispose() {
+        if (resultFlagStatistics != null) {
+            exportResultFlagStatistics(resultFlagStatistics, getTargetProduct(), statisticsFile, "FUB.Water", getLogger());
+            resultFlagStatistics = null;
         }
-        if (computeTSM) {
-            // Run the 1-step total suspended matter network;
-            stage = 3;
-
-            // reload the pixel
-            for (l = 0; l < ls; l++) {
-                ipixel[l][x] = ipixels[l][x];
-            }
-            a[x] = aset;
-
-            NN_TSM.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+        super.dispose();
+    }
 
-            // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-            }
-            // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
-            }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
+    /*
+     * Returns the geometry of the source product computed on its tie-point nodes, or null if
+     * the angles are not given by tie-point grids of the same layout.
+     */
+    static TiePointGeometry createTiePointGeometry(Product sourceProduct, Logger logger) {
+        final TiePointGrid[] grids = new TiePointGrid[4];
+        for (int i = 0; i < grids.length; i++) {
+            final String gridName = EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[6 + i];
+            grids[i] = sourceProduct.getTiePointGrid(gridName);
+            if (grids[i] == null) {
+                logger.warning(String.format("'%s' is not a tie-point grid, the geometry is computed per pixel.", gridName));
+                return null;
             }
-            result[resultCounter++] = opixel[0][x];
         }
-        if (computeAtmCorr) {
-            // Run part 1 of the 2-step atm.corr. network;
-            stage = 4;
-            onodes = onodes_2;
-            opixel = new float[onodes][width];
-
-            // reload the pixel
-            for (l = 0; l < ls; l++) {
-                ipixel[l][x] = ipixels[l][x];
-            }
-            a[x] = aset;
-
-            NN_AtmCorr.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+        try {
+            return new TiePointGeometry(grids[0], grids[1], grids[2], grids[3]);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage() + " The geometry is computed per pixel.");
+            return null;
+        }
+    }
 
-            // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-            }
-            // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
-            }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= RESULT_ERROR_VALUES[2 * stage];
-            }
-            //System.out.println(" --> " + resultFlagsNN[x]);
+    static ResultFlagStatistics createResultFlagStatistics() {
+        return new ResultFlagStatistics(result_error_names, result_error_texts, RESULT_ERROR_VALUES);
+    }
 
-            // The aots
-            final int num_msl = 8;
-            for (int i = num_msl; i < onodes; i++) {
-                result[resultCounter + i - num_msl] = opixel[i][x];
-            }
-            for (int i = 0; i < num_msl; i++) {
-                final int numOfSpectralAerosolOpticalDepths = 4;
-                result[resultCounter + numOfSpectralAerosolOpticalDepths + i] = opixel[i][x];
-            }
+    /*
+     * Adds the result flag statistics to the metadata of the target product and writes them to the
+     * statistics file, if given. Nothing is exported if no pixel has been processed.
+     */
+    static void exportResultFlagStatistics(ResultFlagStatistics statistics, Product targetProduct, File statisticsFile,
+                                           String operatorAlias, Logger logger) {
+        final long numPixels = statistics.getNumPixels();
+        if (numPixels == 0) {
+            return;
         }
-        // Now check for error flags !
-        // If set, set output vector to mask value !
-        if (resultFlags[x] != 0) {
-            for (n = 0; n < output_planes; n++) {
-                result[n] = result_mask_value;
+        targetProduct.getMetadataRoot().addElement(statistics.createMetadataElement());
+        logger.info(String.format("%s: %d pixels processed, result flag counts %s", operatorAlias, numPixels,
+                                  Arrays.toString(statistics.getFlagCounts())));
+        if (statisticsFile != null) {
+            try {
+                statistics.writeJson(statisticsFile, operatorAlias, targetProduct.getName());
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write the result flag statistics to " + statisticsFile, e);
             }
         }
-        // Combine result flags
-        resultFlags[x] |= resultFlagsNN;
-
-        // Set sample values in target product
-        //
-        for (n = 0; n < output_planes; n++) {
-            targetSamples[n].set(result[n]);
-        }
-        targetSamples[output_planes].set(resultFlags[0]);
     }
 
-    private void checkWhetherSuspectIsValid() {
+    /*
+     * Returns the given valid pixel expression, relaxed by the suspect term if the
+     * suspect flag of the source product is not trustworthy.
+     */
+    static String checkWhetherSuspectIsValid(Product sourceProduct, String expression) {
         if (!expression.contains(SUSPECT_EXPRESSION_TERM)) {
-            return;
+            return expression;
         }
         final int height = sourceProduct.getSceneRasterHeight();
         final int width = sourceProduct.getSceneRasterWidth();
@@ -597,14 +438,7 @@ public class WaterProcessorOp extends PixelOperator {
         // in the mask mask_to_be_used.
 
         // Grab a line in the middle of the scene
-        final Band l1FlagsInputBand = sourceProduct.getBand(EnvisatConstants.MERIS_L1B_FLAGS_DS_NAME);
-        int[] l1Flags = new int[width];
         final int halfHeight = height / 2;
-        try {
-            l1FlagsInputBand.readPixels(0, halfHeight, width, 1, l1Flags);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
         // The input type pattern for ICOL products
         final String ICOL_PATTERN = "MER_.*1N";
         boolean icolMode = sourceProduct.getProductType().matches(ICOL_PATTERN);
@@ -613,8 +447,8 @@ public class WaterProcessorOp extends PixelOperator {
             System.out.println("--- Input product is of type icol ---");
             System.out.println("--- Switching to relaxed mask. ---");
         } else {
-            final PlanarImage validMaskImage = createValidMaskImage(sourceProduct, SUSPECT_FLAG_NAME);
-            final Raster validData = validMaskImage.getData();
+            final PlanarImage suspectMaskImage = createValidMaskImage(sourceProduct, SUSPECT_FLAG_NAME);
+            final Raster validData = suspectMaskImage.getData(new Rectangle(0, halfHeight, width, 1));
             k = 0;
             // Now sum up the cases which signal a suspect behaviour
             for (int i = 0; i < width; i++) {
@@ -632,6 +466,7 @@ public class WaterProcessorOp extends PixelOperator {
                 System.out.println("--- Switching to relaxed mask. ---");
             }
         }
+        return expression;
     }
 
     /*
@@ -641,7 +476,7 @@ public class WaterProcessorOp extends PixelOperator {
     * show heavy variations over the year or for slight wavelength
     * shifts we do use some defaults if necessary.
     */
-    private float[] getSolarFlux(Product product, Band[] bands) {
+    static float[] getSolarFlux(Product product, Band[] bands) {
         float[] dsf = getSolarFluxFromMetadata(product);
         if (dsf == null) {
             dsf = new float[bands.length];
@@ -663,7 +498,7 @@ public class WaterProcessorOp extends PixelOperator {
         return dsf;
     }
 
-    private float[] getSolarFluxFromMetadata(Product product) {
+    private static float[] getSolarFluxFromMetadata(Product product) {
         MetadataElement metadataRoot = product.getMetadataRoot();
         MetadataElement gadsElem = metadataRoot.getElement("Scaling_Factor_GADS");
         if (gadsElem != null) {
@@ -678,6 +513,64 @@ public class WaterProcessorOp extends PixelOperator {
     @Override
     protected void prepareInputs() throws OperatorException {
         super.prepareInputs();
+        atmCorrPlanes = getAtmCorrPlanes(computeAtmCorr, atmCorrBandNames);
+        algorithm = createAlgorithm(sourceProduct, computeCHL, computeYS, computeTSM, atmCorrPlanes, useFastSigmoid,
+                                    useSinglePrecision);
+        encoding = OutputEncoding.create(outputDataType, algorithm.getResultLimits());
+        if (checkWhetherSuspectIsValid) {
+            expression = checkWhetherSuspectIsValid(sourceProduct, expression);
+        }
+        // The mask is not computed here, its tiles are computed on demand while the pixels are processed
+        validMaskImage = createValidMaskImage(sourceProduct, expression);
+        tiePointGeometry = useTiePointGeometry ? createTiePointGeometry(sourceProduct, getLogger()) : null;
+        resultFlagStatistics = createResultFlagStatistics();
+        workspace = new ThreadLocal<PixelWorkspace>() {
+            @Override
+            protected PixelWorkspace initialValue() {
+                // The target images are created after the initialisation, the workspaces are created by the
+                // computing threads
+                final PlanarImage resultFlagsImage = getTargetProduct().getBand(result_flags_name).getSourceImage();
+                return new PixelWorkspace(algorithm.createRow(1), validMaskImage, resultFlagsImage,
+                                          resultFlagStatistics);
+            }
+        };
+    }
+
+    /*
+     * Returns the indices of the atm.corr. result planes of the given band names, in ascending order. All
+     * planes if no band name is given, none if the atmospheric correction bands are not computed.
+     */
+    static int[] getAtmCorrPlanes(boolean computeAtmCorr, String[] atmCorrBandNames) throws OperatorException {
+        if (!computeAtmCorr) {
+            return new int[0];
+        }
+        final String[] allBandNames = StringUtils.addArrays(OUTPUT_OPTICAL_DEPTH_BAND_NAMES, OUTPUT_REFLECTANCE_BAND_NAMES);
+        final boolean[] selected = new boolean[allBandNames.length];
+        if (atmCorrBandNames == null || atmCorrBandNames.length == 0) {
+            Arrays.fill(selected, true);
+        } else {
+            for (String bandName : atmCorrBandNames) {
+                final int index = StringUtils.indexOf(allBandNames, bandName);
+                if (index < 0) {
+                    throw new OperatorException(String.format("'%s' is not an atmospheric correction band.", bandName));
+                }
+                selected[index] = true;
+            }
+        }
+        int[] planes = new int[0];
+        for (int i = 0; i < selected.length; i++) {
+            if (selected[i]) {
+                planes = Arrays.copyOf(planes, planes.length + 1);
+                planes[planes.length - 1] = i;
+            }
+        }
+        return planes;
+    }
+
+    static WaterProcessorAlgorithm createAlgorithm(Product sourceProduct, boolean computeCHL, boolean computeYS,
+                                                   boolean computeTSM, int[] atmCorrPlanes,
+                                                   boolean fastSigmoid, boolean singlePrecision) throws OperatorException {
+        final Band[] inputBands = new Band[EnvisatConstants.MERIS_L1B_NUM_SPECTRAL_BANDS];
         for (int i = 0; i < inputBands.length; i++) {
             String radianceBandName = "radiance_" + (i + 1);
             Band radianceBand = sourceProduct.getBand(radianceBandName);
@@ -689,12 +582,19 @@ public class WaterProcessorOp extends PixelOperator {
             }
             inputBands[i] = radianceBand;
         }
-        solarFlux = getSolarFlux(sourceProduct, inputBands);
-        if (checkWhetherSuspectIsValid) {
-            checkWhetherSuspectIsValid();
+        final WaterProcessorSpectralConstants spectralConstants =
+                WaterProcessorSpectralConstants.create(inputBands, getSolarFlux(sourceProduct, inputBands));
+        final List<Object> key = Arrays.<Object>asList(spectralConstants, computeCHL, computeYS, computeTSM,
+                                                       Arrays.toString(atmCorrPlanes), fastSigmoid, singlePrecision);
+        synchronized (algorithm_cache) {
+            WaterProcessorAlgorithm algorithm = algorithm_cache.get(key);
+            if (algorithm == null) {
+                algorithm = new WaterProcessorAlgorithm(spectralConstants, computeCHL, computeYS, computeTSM, atmCorrPlanes,
+                                                        fastSigmoid, singlePrecision);
+                algorithm_cache.put(key, algorithm);
+            }
+            return algorithm;
         }
-        final PlanarImage validMaskImage = createValidMaskImage(sourceProduct, expression);
-        validMaskData = validMaskImage.getData();
     }
 
     @Override
@@ -704,24 +604,9 @@ public class WaterProcessorOp extends PixelOperator {
         final Product sourceProduct = productConfigurer.getSourceProduct();
         final Product targetProduct = productConfigurer.getTargetProduct();
 
-        targetProduct.setProductType(getOutputProductType());
+        targetProduct.setProductType(getOutputProductType(sourceProduct));
 
-        int sceneWidth = sourceProduct.getSceneRasterWidth();
-        int sceneHeight = sourceProduct.getSceneRasterHeight();
-
-        if (computeCHL) {
-            addConcentrationBand(targetProduct, sceneWidth, sceneHeight, 0);
-        }
-        if (computeYS) {
-            addConcentrationBand(targetProduct, sceneWidth, sceneHeight, 1);
-        }
-        if (computeTSM) {
-            addConcentrationBand(targetProduct, sceneWidth, sceneHeight, 2);
-        }
-        if (computeAtmCorr) {
-            addOpticalDepthBands(targetProduct, sceneWidth, sceneHeight);
-            addReflectanceBands(targetProduct, sceneWidth, sceneHeight);
-        }
+        addOutputBands(targetProduct, computeCHL, computeYS, computeTSM, atmCorrPlanes, encoding);
 
         ProductUtils.copyFlagBands(sourceProduct, targetProduct, true);
 
@@ -733,19 +618,52 @@ public class WaterProcessorOp extends PixelOperator {
         }
         productConfigurer.copyBands(EnvisatConstants.MERIS_AMORGOS_L1B_ALTIUDE_BAND_NAME);
 
+        addResultFlagsBand(targetProduct);
+
+        productConfigurer.copyMasks();
+
+        addMasksToTargetProduct(targetProduct);
+    }
+
+    /*
+     * Adds the retrieved concentration, optical depth and reflectance bands in the order of
+     * the result planes computed by the WaterProcessorAlgorithm.
+     */
+    static void addOutputBands(Product targetProduct, boolean computeCHL, boolean computeYS,
+                               boolean computeTSM, int[] atmCorrPlanes, OutputEncoding encoding) {
+        int plane = 0;
+        if (computeCHL) {
+            addConcentrationBand(targetProduct, encoding, plane++, 0);
+        }
+        if (computeYS) {
+            addConcentrationBand(targetProduct, encoding, plane++, 1);
+        }
+        if (computeTSM) {
+            addConcentrationBand(targetProduct, encoding, plane++, 2);
+        }
+        // Only the selected atm.corr. bands are allocated
+        for (int atmCorrPlane : atmCorrPlanes) {
+            if (atmCorrPlane < OUTPUT_OPTICAL_DEPTH_BAND_NAMES.length) {
+                addOpticalDepthBand(targetProduct, encoding, plane++, atmCorrPlane);
+            } else {
+                addReflectanceBand(targetProduct, encoding, plane++, atmCorrPlane - OUTPUT_OPTICAL_DEPTH_BAND_NAMES.length);
+            }
+        }
+    }
+
+    static Band addResultFlagsBand(Product targetProduct) {
         FlagCoding resultFlagCoding = createResultFlagCoding();
         targetProduct.getFlagCodingGroup().add(resultFlagCoding);
         final Band resultFlagsOutputBand = targetProduct.addBand(result_flags_name, ProductData.TYPE_UINT16);
         resultFlagsOutputBand.setDescription("FUB/WeW WATER plugin specific flags");
         resultFlagsOutputBand.setSampleCoding(resultFlagCoding);
-
-        productConfigurer.copyMasks();
-
-        String flagNamePrefix = result_flags_name + ".";
-        addMasksToTargetProduct(targetProduct, sceneWidth, sceneHeight, flagNamePrefix);
+        return resultFlagsOutputBand;
     }
 
-    private void addMasksToTargetProduct(Product targetProduct, int sceneWidth, int sceneHeight, String flagNamePrefix) {
+    static void addMasksToTargetProduct(Product targetProduct) {
+        int sceneWidth = targetProduct.getSceneRasterWidth();
+        int sceneHeight = targetProduct.getSceneRasterHeight();
+        String flagNamePrefix = result_flags_name + ".";
         ProductNodeGroup<Mask> maskGroup = targetProduct.getMaskGroup();
         Color[] colors = new Color[]{
                 Color.cyan, Color.green, Color.green, Color.yellow, Color.yellow,
@@ -759,46 +677,36 @@ public class WaterProcessorOp extends PixelOperator {
         }
     }
 
-    private void addReflectanceBands(Product targetProduct, int sceneWidth, int sceneHeight) {
-        for (int i = 0; i < OUTPUT_REFLECTANCE_BAND_NAMES.length; i++) {
-            final Band band = createBand(OUTPUT_REFLECTANCE_BAND_NAMES[i], sceneWidth, sceneHeight);
-            band.setDescription(output_reflectance_band_descriptions[i]);
-            band.setUnit(output_reflectance_band_units[i]);
-            band.setSpectralWavelength(rho_w_lambda[i]);
-            band.setSpectralBandwidth(rho_w_bandw[i]);
-            band.setSpectralBandIndex(i);
-            band.setNoDataValue(result_mask_value);
-            band.setNoDataValueUsed(true);
-            targetProduct.addBand(band);
-        }
+    private static void addReflectanceBand(Product targetProduct, OutputEncoding encoding, int plane, int i) {
+        final Band band = createBand(targetProduct, OUTPUT_REFLECTANCE_BAND_NAMES[i], encoding, plane);
+        band.setDescription(output_reflectance_band_descriptions[i]);
+        band.setUnit(output_reflectance_band_units[i]);
+        band.setSpectralWavelength(rho_w_lambda[i]);
+        band.setSpectralBandwidth(rho_w_bandw[i]);
+        band.setSpectralBandIndex(i);
+        targetProduct.addBand(band);
     }
 
-    private void addOpticalDepthBands(Product targetProduct, int sceneWidth, int sceneHeight) {
-        for (int i = 0; i < OUTPUT_OPTICAL_DEPTH_BAND_NAMES.length; i++) {
-            final Band band = createBand(OUTPUT_OPTICAL_DEPTH_BAND_NAMES[i], sceneWidth, sceneHeight);
-            band.setDescription(output_optical_depth_band_descriptions[i]);
-            band.setUnit(output_optical_depth_band_units[i]);
-            band.setSpectralWavelength(tau_lambda[i]);
-            band.setSpectralBandIndex(i);
-            band.setNoDataValue(result_mask_value);
-            band.setNoDataValueUsed(true);
-            targetProduct.addBand(band);
-        }
+    private static void addOpticalDepthBand(Product targetProduct, OutputEncoding encoding, int plane, int i) {
+        final Band band = createBand(targetProduct, OUTPUT_OPTICAL_DEPTH_BAND_NAMES[i], encoding, plane);
+        band.setDescription(output_optical_depth_band_descriptions[i]);
+        band.setUnit(output_optical_depth_band_units[i]);
+        band.setSpectralWavelength(tau_lambda[i]);
+        band.setSpectralBandIndex(i);
+        targetProduct.addBand(band);
     }
 
-    private void addConcentrationBand(Product targetProduct, int sceneWidth, int sceneHeight, int concentrationBandIndex) {
-        final Band band = createBand(OUTPUT_CONCENTRATION_BAND_NAMES[concentrationBandIndex], sceneWidth, sceneHeight);
+    private static void addConcentrationBand(Product targetProduct, OutputEncoding encoding, int plane,
+                                             int concentrationBandIndex) {
+        final Band band = createBand(targetProduct, OUTPUT_CONCENTRATION_BAND_NAMES[concentrationBandIndex], encoding, plane);
         band.setDescription(output_concentration_band_descriptions[concentrationBandIndex]);
         band.setUnit(output_concentration_band_units[concentrationBandIndex]);
-        band.setNoDataValueUsed(true);
-        band.setNoDataValue(5.0);
         targetProduct.addBand(band);
     }
 
-    private Band createBand(String bandName, int sceneWidth, int sceneHeight) {
-        final Band band = new Band(bandName, ProductData.TYPE_FLOAT32, sceneWidth, sceneHeight);
-        band.setScalingOffset(0.0);
-        band.setScalingFactor(1.0);
+    private static Band createBand(Product targetProduct, String bandName, OutputEncoding encoding, int plane) {
+        final Band band = encoding.createBand(bandName, targetProduct.getSceneRasterWidth(),
+                                              targetProduct.getSceneRasterHeight(), plane);
         band.setSpectralBandIndex(0);
         return band;
     }
@@ -810,6 +718,20 @@ public class WaterProcessorOp extends PixelOperator {
 
     @Override
     protected void configureTargetSamples(SampleConfigurer sampleConfigurer) throws OperatorException {
+        String[] bandNames = getOutputBandNames(computeCHL, computeYS, computeTSM, atmCorrPlanes);
+        bandNames = StringUtils.addToArray(bandNames, result_flags_name);
+        configureSamples(sampleConfigurer, bandNames);
+    }
+
+    static String[] getOutputBandNames(boolean computeCHL, boolean computeYS, boolean computeTSM, boolean computeAtmCorr) {
+        return getOutputBandNames(computeCHL, computeYS, computeTSM, getAtmCorrPlanes(computeAtmCorr, null));
+    }
+
+    /*
+     * Returns the names of the retrieved bands in the order of the result planes computed by the WaterProcessorAlgorithm.
+     */
+    static String[] getOutputBandNames(boolean computeCHL, boolean computeYS, boolean computeTSM, int[] atmCorrPlanes) {
+        final String[] atmCorrBandNames = StringUtils.addArrays(OUTPUT_OPTICAL_DEPTH_BAND_NAMES, OUTPUT_REFLECTANCE_BAND_NAMES);
         String[] bandNames = new String[0];
         if (computeCHL) {
             bandNames = StringUtils.addToArray(bandNames, OUTPUT_CONCENTRATION_BAND_NAMES[0]);
@@ -820,12 +742,10 @@ public class WaterProcessorOp extends PixelOperator {
         if (computeTSM) {
             bandNames = StringUtils.addToArray(bandNames, OUTPUT_CONCENTRATION_BAND_NAMES[2]);
         }
-        if (computeAtmCorr) {
-            bandNames = StringUtils.addArrays(bandNames, OUTPUT_OPTICAL_DEPTH_BAND_NAMES);
-            bandNames = StringUtils.addArrays(bandNames, OUTPUT_REFLECTANCE_BAND_NAMES);
+        for (int plane : atmCorrPlanes) {
+            bandNames = StringUtils.addToArray(bandNames, atmCorrBandNames[plane]);
         }
-        bandNames = StringUtils.addToArray(bandNames, result_flags_name);
-        configureSamples(sampleConfigurer, bandNames);
+        return bandNames;
     }
 
     private void configureSamples(SampleConfigurer sampleConfigurer, String[] bandNames) {
@@ -846,6 +766,72 @@ public class WaterProcessorOp extends PixelOperator {
         return resultFlagCoding;
     }
 
+    /*
+     * Per-thread buffers for a single pixel recall, allocated once so that computePixel()
+     * does not create any garbage. The tile of the valid mask image containing the last
+     * pixel is kept, the next tile is only requested when a pixel outside of it is processed.
+     * The result flags of the processed pixels are counted by the counter of the thread, tile
+     * by tile of the result flags image: the pixels of a tile are processed row by row by the
+     * same thread, its counts are published with its last pixel.
+     */
+    private static final class PixelWorkspace {
+
+        private final WaterProcessorAlgorithm.Row row;
+        private final PlanarImage validMaskImage;
+        private final PlanarImage resultFlagsImage;
+        private final ResultFlagStatistics statistics;
+        private final ResultFlagStatistics.Counter counter;
+        private Raster validMaskTile;
+        private int tileMinX;
+        private int tileMinY;
+        private int tileMaxX = -1;
+        private int tileMaxY = -1;
+        private boolean countTile;
+        private int countTileMinX;
+        private int countTileMinY;
+        private int countTileMaxX = -1;
+        private int countTileMaxY = -1;
+
+        private PixelWorkspace(WaterProcessorAlgorithm.Row row, PlanarImage validMaskImage,
+                               PlanarImage resultFlagsImage, ResultFlagStatistics statistics) {
+            this.row = row;
+            this.validMaskImage = validMaskImage;
+            this.resultFlagsImage = resultFlagsImage;
+            this.statistics = statistics;
+            counter = statistics.createCounter();
+        }
+
+        private void count(int x, int y, int resultFlags) {
+            if (x < countTileMinX || x > countTileMaxX || y < countTileMinY || y > countTileMaxY) {
+                final Rectangle tileRect = resultFlagsImage.getTileRect(resultFlagsImage.XToTileX(x),
+                                                                        resultFlagsImage.YToTileY(y));
+                countTileMinX = tileRect.x;
+                countTileMinY = tileRect.y;
+                countTileMaxX = tileRect.x + tileRect.width - 1;
+                countTileMaxY = tileRect.y + tileRect.height - 1;
+                // A tile computed again is not counted again
+                countTile = statistics.claimTile(tileRect.x, tileRect.y);
+            }
+            if (countTile) {
+                counter.count(resultFlags);
+                if (x == countTileMaxX && y == countTileMaxY) {
+                    counter.publish();
+                }
+            }
+        }
+
+        private boolean isValid(int x, int y) {
+            if (x < tileMinX || x > tileMaxX || y < tileMinY || y > tileMaxY) {
+                validMaskTile = validMaskImage.getTile(validMaskImage.XToTileX(x), validMaskImage.YToTileY(y));
+                tileMinX = validMaskTile.getMinX();
+                tileMinY = validMaskTile.getMinY();
+                tileMaxX = tileMinX + validMaskTile.getWidth() - 1;
+                tileMaxY = tileMinY + validMaskTile.getHeight() - 1;
+            }
+            return validMaskTile.getSample(x, y, 0) != 0;
+        }
+    }
+
     public static class Spi extends OperatorSpi {
 
         public Spi() {
@@ -853,7 +839,7 @@ public class WaterProcessorOp extends PixelOperator {
         }
     }
 
-    private String getOutputProductType() throws OperatorException {
+    static String getOutputProductType(Product sourceProduct) throws OperatorException {
         String sourceType = sourceProduct.getProductType();
         if (sourceType != null) {
             return String.format("%s_FLH_MCI", sourceType);
@@ -862,7 +848,7 @@ public class WaterProcessorOp extends PixelOperator {
         }
     }
 
-    private PlanarImage createValidMaskImage(Product product, String expression) {
+    static PlanarImage createValidMaskImage(Product product, String expression) {
         if (StringUtils.isNullOrEmpty(expression)) {
             return createEmptyMask(product);
         }
@@ -874,7 +860,7 @@ public class WaterProcessorOp extends PixelOperator {
         }
     }
 
-    private PlanarImage createEmptyMask(Product product) {
+    private static PlanarImage createEmptyMask(Product product) {
         return ConstantDescriptor.create((float) product.getSceneRasterWidth(),
                                          (float) product.getSceneRasterHeight(),
                                          new Byte[]{-1}, null);
@@ -0,0 +1,93 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.Band;
+
+import java.util.Arrays;
+
+/**
+ * Spectral constants of a MERIS L1b product needed by the FUB/WeW networks.
+ * <p/>
+ * The ozone extinction coefficients and the solar fluxes depend only on the band
+ * wavelengths of the source product, so they are resolved once per product and
+ * the per-pixel reflectance and ozone normalisation reduces to plain arithmetic.
+ * Instances are immutable and may be shared between threads and products with the
+ * same spectral characteristics, they are equal if the wavelengths and solar fluxes
+ * of the network input bands are equal.
+ */
+final class WaterProcessorSpectralConstants {
+
+    /**
+     * Zero-based indices of the 12 MERIS L1b bands used as TOA reflectance input
+     * of the networks (bands 8, 11 and 15 are not used).
+     */
+    static final int[] NN_BAND_INDICES = {0, 1, 2, 3, 4, 5, 6, 8, 9, 11, 12, 13};
+
+    private final float[] wavelengths;
+    private final float[] inverseSolarFluxes;
+    private final double[] ozoneExtinctionPerDU;
+
+    private WaterProcessorSpectralConstants(float[] wavelengths, float[] solarFluxes) {
+        final int numToa = NN_BAND_INDICES.length;
+        this.wavelengths = new float[numToa];
+        inverseSolarFluxes = new float[numToa];
+        ozoneExtinctionPerDU = new double[numToa];
+        for (int i = 0; i < numToa; i++) {
+            final int band = NN_BAND_INDICES[i];
+            this.wavelengths[i] = wavelengths[band];
+            inverseSolarFluxes[i] = (float) (1.0 / solarFluxes[band]);
+            // extinction coefficients are given in 1/cm, the ozone content in DU = 1/1000 cm
+            ozoneExtinctionPerDU[i] = WaterProcessorOzone.O3excoeff(wavelengths[band]) / 1000.0;
+        }
+    }
+
+    /**
+     * Creates the spectral constants for the given MERIS L1b radiance bands.
+     *
+     * @param radianceBands the 15 radiance bands, ordered by band index
+     * @param solarFluxes   the solar fluxes of the 15 bands
+     *
+     * @return the spectral constants
+     */
+    static WaterProcessorSpectralConstants create(Band[] radianceBands, float[] solarFluxes) {
+        final float[] wavelengths = new float[radianceBands.length];
+        for (int i = 0; i < radianceBands.length; i++) {
+            wavelengths[i] = radianceBands[i].getSpectralWavelength();
+        }
+        return new WaterProcessorSpectralConstants(wavelengths, solarFluxes);
+    }
+
+    int getNumToaBands() {
+        return NN_BAND_INDICES.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WaterProcessorSpectralConstants)) {
+            return false;
+        }
+        final WaterProcessorSpectralConstants other = (WaterProcessorSpectralConstants) o;
+        // The ozone extinction is a function of the wavelength
+        return Arrays.equals(wavelengths, other.wavelengths) && Arrays.equals(inverseSolarFluxes, other.inverseSolarFluxes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(wavelengths) + Arrays.hashCode(inverseSolarFluxes);
+    }
+
+    /**
+     * Converts a TOA radiance into an ozone normalised TOA reflectance as used as network input.
+     *
+     * @param i              the index of the network input band
+     * @param toaRadiance    the TOA radiance of the corresponding MERIS band
+     * @param ozoneAirMass   the ozone deviation from the standard atmosphere (in DU) times the air mass factor
+     *
+     * @return the ozone normalised TOA reflectance
+     */
+    float toOzoneNormalizedReflectance(int i, float toaRadiance, double ozoneAirMass) {
+        return (float) (toaRadiance * inverseSolarFluxes[i] * Math.exp(ozoneAirMass * ozoneExtinctionPerDU[i]));
+    }
+}
@@ -0,0 +1,435 @@
+package wew.water.gpf;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.beam.dataio.envisat.EnvisatConstants;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.RasterDataNode;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.esa.beam.framework.gpf.OperatorSpi;
+import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
+import org.esa.beam.framework.gpf.annotations.Parameter;
+import org.esa.beam.framework.gpf.annotations.SourceProduct;
+import org.esa.beam.framework.gpf.annotations.TargetProduct;
+import org.esa.beam.util.ProductUtils;
+
+import javax.media.jai.PlanarImage;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tile based variant of the {@link WaterProcessorOp}.
+ * <p/>
+ * Instead of recalling the networks pixel by pixel, each row of a tile is fed through each
+ * of the networks in one call and all target bands of the tile are written in one pass.
+ * The source samples are fetched as primitive arrays, one per source raster and tile, and each
+ * target tile is written from a primitive array in a single call, so that no sample passes through
+ * the per-pixel {@code Sample} indirection of the point operators. The operator has the same
+ * parameters and creates the same target product with identical values as the pixel based operator.
+ */
+@OperatorMetadata(alias = "FUB.Water.Tiled", authors = "Thomas Schroeder, Michael Schaale",
+                  copyright = "Institute for Space Sciences (WeW), Freie Universitaet Berlin",
+                  version = "2.2",
+                  description = "FUB/WeW WATER Processor to retrieve case II water properties and atmospheric properties, " +
+                                "processing whole tile rows at once")
+public class WaterProcessorTileOp extends Operator {
+
+    private static final String[] geometry_raster_names = {
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[6],   // sun_zenith
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[7],   // sun_azimuth
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[8],   // view_zenith
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[9],   // view_azimuth
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[10],  // zonal_wind
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[11],  // merid_wind
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[12],  // atm_press
+            EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[13]   // ozone
+    };
+    // Number of angles at the start of the geometry rasters
+    private static final int NUM_ANGLES = 4;
+
+    @SourceProduct(label = "Source product",
+                   description = "The MERIS L1b or L1P source product used for the processing.")
+    private Product sourceProduct;
+
+    @TargetProduct
+    private Product targetProduct;
+
+    @Parameter(description = "Whether chlorophyll-a concentration band shall be computed", defaultValue = "true",
+               label = "Compute chlorophyll-a concentration band")
+    private boolean computeCHL;
+
+    @Parameter(description = "Whether yellow substances band shall be computed", defaultValue = "true",
+               label = "Compute yellow substances band")
+    private boolean computeYS;
+
+    @Parameter(description = "Whether total suspended matter band shall be computed", defaultValue = "true",
+               label = "Compute total suspended matter band")
+    private boolean computeTSM;
+
+    @Parameter(description = "Whether atmospheric correction bands shall be computed", defaultValue = "true",
+               label = "Compute water leaving reflectances and AOT bands")
+    private boolean computeAtmCorr;
+
+    @Parameter(description = "The names of the AOT and water leaving reflectance bands to be computed, if the atmospheric " +
+                             "correction bands are computed. If not given, all of them are computed. Only the selected " +
+                             "outputs of the atmospheric correction network are evaluated and range checked, hence " +
+                             "the ATM_OUT flag only refers to them.",
+               label = "Atmospheric correction bands")
+    private String[] atmCorrBandNames;
+
+    @Parameter(description = "Expert parameter. Performs a check whether the '" + WaterProcessorOp.SUSPECT_FLAG_NAME + "' shall be considered in an expression." +
+                             "This parameter is only considered when the expression contains the term '" + WaterProcessorOp.SUSPECT_EXPRESSION_TERM + "'",
+               defaultValue = "true", label = "Check whether '" + WaterProcessorOp.SUSPECT_FLAG_NAME + "' is valid")
+    private boolean checkWhetherSuspectIsValid;
+
+    @Parameter(description = "Band maths expression which defines valid pixels. If the expression is empty," +
+                             "all pixels will be considered.",
+               defaultValue = WaterProcessorOp.DEFAULT_EXPRESSION,
+               label = "Use valid pixel expression")
+    private String expression;
+
+    @Parameter(description = "Expert parameter. Replaces the exact sigmoid of the hidden network layers by a table based " +
+                             "approximation with a maximum absolute error of 3.0E-6. Speeds up the processing " +
+                             "at the cost of slightly different results.",
+               defaultValue = "false", label = "Use fast sigmoid approximation")
+    private boolean useFastSigmoid;
+
+    @Parameter(description = "Expert parameter. Evaluates the network layers entirely in single precision instead of " +
+                             "double precision. Speeds up the processing at the cost of slightly different results.",
+               defaultValue = "false", label = "Use single precision networks")
+    private boolean useSinglePrecision;
+
+    @Parameter(description = "Expert parameter. Computes the air mass factor and the geometry inputs of the networks " +
+                             "on the tie-point grid nodes and interpolates them per pixel, instead of computing them " +
+                             "from the interpolated angles of each pixel. The results differ slightly.",
+               defaultValue = "false", label = "Interpolate geometry from tie-points")
+    private boolean useTiePointGeometry;
+
+    @Parameter(description = "File to which the result flag statistics are written as JSON when the processing has " +
+                             "finished. The statistics are also added to the metadata of the target product when the " +
+                             "processing has finished, hence after its header has been written. Only the batch " +
+                             "processor writes the header of BEAM-DIMAP products again to include them.",
+               label = "Result flag statistics file")
+    private File statisticsFile;
+
+    @Parameter(description = "The data type of the concentration, AOT and reflectance bands. The 16 bit integer types " +
+                             "are scaled to the output limits of the networks, results outside of them are clamped.",
+               valueSet = {OutputEncoding.FLOAT32, OutputEncoding.INT16, OutputEncoding.UINT16},
+               defaultValue = OutputEncoding.FLOAT32, label = "Output data type")
+    private String outputDataType;
+
+    private int[] atmCorrPlanes;
+    private WaterProcessorAlgorithm algorithm;
+    private OutputEncoding encoding;
+    private PlanarImage validMaskImage;
+    private TiePointGeometry tiePointGeometry;
+    private ResultFlagStatistics resultFlagStatistics;
+    private boolean resultFlagStatisticsExported;
+    private RasterDataNode[] radianceRasters;
+    private RasterDataNode[] geometryRasters;
+    private Band[] outputBands;
+    private Band resultFlagsBand;
+    private transient ThreadLocal<TileBuffers> tileBuffers;
+
+    @Override
+    public void initialize() throws OperatorException {
+        atmCorrPlanes = WaterProcessorOp.getAtmCorrPlanes(computeAtmCorr, atmCorrBandNames);
+        algorithm = WaterProcessorOp.createAlgorithm(sourceProduct, computeCHL, computeYS, computeTSM, atmCorrPlanes, useFastSigmoid,
+                                                     useSinglePrecision);
+        encoding = OutputEncoding.create(outputDataType, algorithm.getResultLimits());
+        tileBuffers = new ThreadLocal<TileBuffers>();
+        resultFlagStatistics = WaterProcessorOp.createResultFlagStatistics();
+
+        final int[] bandIndices = WaterProcessorSpectralConstants.NN_BAND_INDICES;
+        radianceRasters = new RasterDataNode[bandIndices.length];
+        for (int i = 0; i < bandIndices.length; i++) {
+            radianceRasters[i] = sourceProduct.getBand("radiance_" + (bandIndices[i] + 1));
+        }
+        geometryRasters = new RasterDataNode[geometry_raster_names.length];
+        for (int i = 0; i < geometry_raster_names.length; i++) {
+            geometryRasters[i] = sourceProduct.getRasterDataNode(geometry_raster_names[i]);
+            if (geometryRasters[i] == null) {
+                throw new OperatorException(String.format("Missing input raster '%s'.", geometry_raster_names[i]));
+            }
+        }
+
+        if (checkWhetherSuspectIsValid) {
+            expression = WaterProcessorOp.checkWhetherSuspectIsValid(sourceProduct, expression);
+        }
+        validMaskImage = WaterProcessorOp.createValidMaskImage(sourceProduct, expression);
+        if (useTiePointGeometry) {
+            tiePointGeometry = WaterProcessorOp.createTiePointGeometry(sourceProduct, getLogger());
+        }
+
+        createTargetProduct();
+    }
+
+    private void createTargetProduct() {
+        final int sceneWidth = sourceProduct.getSceneRasterWidth();
+        final int sceneHeight = sourceProduct.getSceneRasterHeight();
+        targetProduct = new Product(sourceProduct.getName(), WaterProcessorOp.getOutputProductType(sourceProduct),
+                                    sceneWidth, sceneHeight);
+        targetProduct.setStartTime(sourceProduct.getStartTime());
+        targetProduct.setEndTime(sourceProduct.getEndTime());
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
+
+        WaterProcessorOp.addOutputBands(targetProduct, computeCHL, computeYS, computeTSM, atmCorrPlanes, encoding);
+        final String[] outputBandNames = WaterProcessorOp.getOutputBandNames(computeCHL, computeYS, computeTSM, atmCorrPlanes);
+        outputBands = new Band[outputBandNames.length];
+        for (int i = 0; i < outputBandNames.length; i++) {
+            outputBands[i] = targetProduct.getBand(outputBandNames[i]);
+        }
+
+        ProductUtils.copyFlagBands(sourceProduct, targetProduct, true);
+
+        copyBandIfAbsent(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LONGITUDE_BAND_NAME);
+        copyBandIfAbsent(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LATITUDE_BAND_NAME);
+        copyBandIfAbsent(EnvisatConstants.MERIS_AMORGOS_L1B_ALTIUDE_BAND_NAME);
+
+        resultFlagsBand = WaterProcessorOp.addResultFlagsBand(targetProduct);
+
+        ProductUtils.copyMasks(sourceProduct, targetProduct);
+
+        WaterProcessorOp.addMasksToTargetProduct(targetProduct);
+    }
+
+    private void copyBandIfAbsent(String bandName) {
+        if (sourceProduct.containsBand(bandName) && !targetProduct.containsBand(bandName)) {
+            ProductUtils.copyBand(bandName, sourceProduct, targetProduct, true);
+        }
+    }
+
+    @Override
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        pm.beginTask("Processing FUB/WeW water retrieval...", targetRectangle.height);
+        try {
+            final int width = targetRectangle.width;
+            final int height = targetRectangle.height;
+            final TileBuffers buffers = getTileBuffers(width, height);
+            final WaterProcessorAlgorithm.Row row = buffers.row;
+
+            // The valid mask is evaluated first, the source tiles of a tile without any valid
+            // pixel are not requested at all
+            final int[] validMask = validMaskImage.getData(targetRectangle).getSamples(targetRectangle.x, targetRectangle.y,
+                                                                                        width, height, 0, buffers.validMask);
+            if (!containsValidPixel(validMask, width * height)) {
+                algorithm.fillMasked(row, width);
+                for (int j = 0; j < height; j++) {
+                    copyResults(row, buffers, j * width, width);
+                }
+                pm.worked(height);
+                countResultFlags(targetRectangle, buffers);
+                writeTiles(targetTiles, buffers);
+                logSkippedPixels(targetRectangle, width * height);
+                return;
+            }
+
+            // All source samples of the tile as geophysical values, row by row
+            final float[][] radiances = getSourceSamples(radianceRasters, targetRectangle, 0);
+            // The angles are not needed if the geometry is interpolated from the tie-points
+            final float[][] geometries = getSourceSamples(geometryRasters, targetRectangle,
+                                                          tiePointGeometry != null ? NUM_ANGLES : 0);
+            int numSkipped = 0;
+            for (int j = 0; j < height; j++) {
+                checkForCancellation();
+                final int offset = j * width;
+                boolean rowContainsValidPixel = false;
+                for (int x = 0; x < width; x++) {
+                    row.valid[x] = validMask[offset + x] != 0;
+                    rowContainsValidPixel |= row.valid[x];
+                }
+                if (rowContainsValidPixel) {
+                    for (int i = 0; i < radiances.length; i++) {
+                        System.arraycopy(radiances[i], offset, row.toaRadiance[i], 0, width);
+                    }
+                    if (tiePointGeometry != null) {
+                        tiePointGeometry.interpolate(targetRectangle.x, targetRectangle.y + j, width, row);
+                    } else {
+                        System.arraycopy(geometries[0], offset, row.sza, 0, width);
+                        System.arraycopy(geometries[1], offset, row.saa, 0, width);
+                        System.arraycopy(geometries[2], offset, row.vza, 0, width);
+                        System.arraycopy(geometries[3], offset, row.vaa, 0, width);
+                    }
+                    System.arraycopy(geometries[4], offset, row.zonalWind, 0, width);
+                    System.arraycopy(geometries[5], offset, row.meridWind, 0, width);
+                    System.arraycopy(geometries[6], offset, row.pressure, 0, width);
+                    System.arraycopy(geometries[7], offset, row.ozone, 0, width);
+                    numSkipped += algorithm.compute(row, width);
+                } else {
+                    algorithm.fillMasked(row, width);
+                    numSkipped += width;
+                }
+                copyResults(row, buffers, offset, width);
+                pm.worked(1);
+            }
+            countResultFlags(targetRectangle, buffers);
+            writeTiles(targetTiles, buffers);
+            logSkippedPixels(targetRectangle, numSkipped);
+        } finally {
+            pm.done();
+        }
+    }
+
+    /*
+     * Returns the samples of the given rasters, those of the first 'skip' rasters are not fetched.
+     */
+    private float[][] getSourceSamples(RasterDataNode[] rasters, Rectangle rectangle, int skip) {
+        final float[][] samples = new float[rasters.length][];
+        for (int i = skip; i < rasters.length; i++) {
+            samples[i] = getSourceTile(rasters[i], rectangle).getSamplesFloat();
+        }
+        return samples;
+    }
+
+    /*
+     * Counts the result flags of the tile, unless it has been counted before.
+     */
+    private void countResultFlags(Rectangle rectangle, TileBuffers buffers) {
+        if (resultFlagStatistics.claimTile(rectangle.x, rectangle.y)) {
+            buffers.counter.count(buffers.resultFlags, 0, rectangle.width * rectangle.height);
+        }
+    }
+
+    /**
+     * Adds the result flag statistics to the metadata of the target product and writes them to the
+     * statistics file, if given. Called when all tiles of the target product have been computed, the
+     * statistics are only exported once. Otherwise they are exported when the operator is disposed.
+     */
+    void exportResultFlagStatistics() {
+        if (resultFlagStatistics != null && !resultFlagStatisticsExported) {
+            resultFlagStatisticsExported = true;
+            WaterProcessorOp.exportResultFlagStatistics(resultFlagStatistics, targetProduct, statisticsFile,
+                                                        "FUB.Water.Tiled", getLogger());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        exportResultFlagStatistics();
+        super.dispose();
+    }
+
+    private static boolean containsValidPixel(int[] validMask, int numPixels) {
+        for (int i = 0; i < numPixels; i++) {
+            if (validMask[i] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void copyResults(WaterProcessorAlgorithm.Row row, TileBuffers buffers, int offset, int width) {
+        for (int n = 0; n < outputBands.length; n++) {
+            if (encoding.isScaled()) {
+                encoding.encode(n, row.result[n], buffers.rawResults[n], offset, width);
+            } else {
+                System.arraycopy(row.result[n], 0, buffers.results[n], offset, width);
+            }
+        }
+        System.arraycopy(row.resultFlags, 0, buffers.resultFlags, offset, width);
+    }
+
+    /*
+     * Writes all target tiles, each of them in one call.
+     */
+    private void writeTiles(Map<Band, Tile> targetTiles, TileBuffers buffers) {
+        for (int n = 0; n < outputBands.length; n++) {
+            final Tile outputTile = targetTiles.get(outputBands[n]);
+            if (outputTile != null) {
+                if (encoding.isScaled()) {
+                    outputTile.setRawSamples(ProductData.createInstance(encoding.getDataType(), buffers.rawResults[n]));
+                } else {
+                    outputTile.setSamples(buffers.results[n]);
+                }
+            }
+        }
+        final Tile resultFlagsTile = targetTiles.get(resultFlagsBand);
+        if (resultFlagsTile != null) {
+            resultFlagsTile.setSamples(buffers.resultFlags);
+        }
+    }
+
+    private void logSkippedPixels(Rectangle rectangle, int numSkipped) {
+        final Logger logger = getLogger();
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine(String.format("FUB.Water tile [x=%d, y=%d, w=%d, h=%d]: %d of %d pixels skipped as invalid",
+                                      rectangle.x, rectangle.y, rectangle.width, rectangle.height,
+                                      numSkipped, rectangle.width * rectangle.height));
+        }
+    }
+
+    /*
+     * Returns the buffers of the calling thread. They are allocated once for the preferred tile size of the
+     * target product, which covers the smaller tiles at the scene borders as well, and are only replaced by
+     * larger ones if a tile exceeds them. The result flag counter of the thread is kept.
+     */
+    private TileBuffers getTileBuffers(int width, int height) {
+        TileBuffers buffers = tileBuffers.get();
+        if (buffers == null || width > buffers.maxWidth || height > buffers.maxHeight) {
+            int maxWidth = width;
+            int maxHeight = height;
+            final Dimension tileSize = targetProduct.getPreferredTileSize();
+            if (tileSize != null) {
+                maxWidth = Math.max(maxWidth, tileSize.width);
+                maxHeight = Math.max(maxHeight, tileSize.height);
+            }
+            ResultFlagStatistics.Counter counter = resultFlagStatistics.createCounter();
+            if (buffers != null) {
+                maxWidth = Math.max(maxWidth, buffers.maxWidth);
+                maxHeight = Math.max(maxHeight, buffers.maxHeight);
+                counter = buffers.counter;
+            }
+            buffers = new TileBuffers(algorithm, encoding, maxWidth, maxHeight, counter);
+            tileBuffers.set(buffers);
+        }
+        return buffers;
+    }
+
+    /*
+     * The row buffers of the algorithm, the mask and result arrays and the result flag counter of a thread.
+     * The arrays are sized for tiles of up to maxWidth x maxHeight pixels, a tile uses the first
+     * width x height elements, row by row. The results are kept as raw values if they are written as
+     * scaled integers.
+     */
+    private static final class TileBuffers {
+
+        private final int maxWidth;
+        private final int maxHeight;
+        private final WaterProcessorAlgorithm.Row row;
+        private final int[] validMask;
+        private final float[][] results;
+        private final short[][] rawResults;
+        private final int[] resultFlags;
+        private final ResultFlagStatistics.Counter counter;
+
+        private TileBuffers(WaterProcessorAlgorithm algorithm, OutputEncoding encoding, int maxWidth, int maxHeight,
+                            ResultFlagStatistics.Counter counter) {
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+            final int size = maxWidth * maxHeight;
+            row = algorithm.createRow(maxWidth);
+            validMask = new int[size];
+            final int numOutputPlanes = algorithm.getNumOutputPlanes();
+            results = encoding.isScaled() ? null : new float[numOutputPlanes][size];
+            rawResults = encoding.isScaled() ? new short[numOutputPlanes][size] : null;
+            resultFlags = new int[size];
+            this.counter = counter;
+        }
+    }
+
+    public static class Spi extends OperatorSpi {
+
+        public Spi() {
+            super(WaterProcessorTileOp.class);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package wew.water.gpf;
+
+/**
+ * Processes a {@link SyntheticScene} with two variants of the {@link WaterProcessorAlgorithm} and
+ * records the maximum absolute difference per result plane and the number of pixels whose result
+ * flags differ. The results of pixels with differing flags are not compared.
+ */
+class AlgorithmComparison {
+
+    final double[] maxErrors;
+    int flagMismatches;
+
+    AlgorithmComparison(WaterProcessorAlgorithm reference, WaterProcessorAlgorithm variant,
+                        SyntheticScene scene, int height) {
+        final int width = scene.getWidth();
+        final WaterProcessorAlgorithm.Row referenceRow = reference.createRow(width);
+        final WaterProcessorAlgorithm.Row variantRow = variant.createRow(width);
+        maxErrors = new double[reference.getNumOutputPlanes()];
+        for (int y = 0; y < height; y++) {
+            scene.fillRow(referenceRow, y);
+            scene.fillRow(variantRow, y);
+            reference.compute(referenceRow, width);
+            variant.compute(variantRow, width);
+            for (int x = 0; x < width; x++) {
+                if (referenceRow.resultFlags[x] != variantRow.resultFlags[x]) {
+                    flagMismatches++;
+                    continue;
+                }
+                for (int n = 0; n < maxErrors.length; n++) {
+                    final double error = Math.abs(referenceRow.result[n][x] - variantRow.result[n][x]);
+                    maxErrors[n] = Math.max(maxErrors[n], error);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param n the result plane, ordered like the target bands with all bands enabled
+     *
+     * @return whether the plane holds a concentration (CHL, YS, TSM), an AOT or a reflectance
+     */
+    static boolean isConcentration(int n) {
+        return n < 3;
+    }
+
+    static boolean isAot(int n) {
+        return n >= 3 && n < 7;
+    }
+}
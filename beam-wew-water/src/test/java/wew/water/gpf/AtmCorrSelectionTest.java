@@ -0,0 +1,92 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.gpf.OperatorException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a selection of the atmospheric correction outputs yields exactly the values of the
+ * corresponding planes of the full atmospheric correction.
+ */
+public class AtmCorrSelectionTest {
+
+    private static final int WIDTH = 500;
+    private static final int HEIGHT = 20;
+
+    @Test
+    public void testSelectedPlanesAreIdentical() {
+        // aero_opt_thick_550, reflec_2 and reflec_7
+        assertSelectedPlanesAreIdentical(new int[]{1, 5, 10}, false, false);
+        assertSelectedPlanesAreIdentical(new int[]{1, 5, 10}, true, true);
+        // A single reflectance only
+        assertSelectedPlanesAreIdentical(new int[]{11}, false, false);
+    }
+
+    @Test
+    public void testAllOutputsSelected() {
+        final FeedForwardNet net = NN_AtmCorr.getNet();
+        final int[] outputs = new int[net.getNumOutputs()];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = i;
+        }
+        assertSame(net, net.selectOutputs(outputs));
+        assertEquals(2, net.selectOutputs(3, 1).getNumOutputs());
+        assertTrue(net.withSinglePrecision(true).selectOutputs(3, 1).isSinglePrecision());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOutput() {
+        NN_AtmCorr.getNet().selectOutputs(0, NN_AtmCorr.getNet().getNumOutputs());
+    }
+
+    @Test
+    public void testAtmCorrPlanes() {
+        assertArrayEquals(new int[0], WaterProcessorOp.getAtmCorrPlanes(false, new String[]{"reflec_1"}));
+        assertEquals(WaterProcessorAlgorithm.NUM_ATM_CORR_PLANES, WaterProcessorOp.getAtmCorrPlanes(true, null).length);
+        final int[] planes = WaterProcessorOp.getAtmCorrPlanes(true, new String[]{"reflec_2", "aero_opt_thick_550"});
+        assertArrayEquals(new int[]{1, 5}, planes);
+        assertArrayEquals(new String[]{"algal_2", "aero_opt_thick_550", "reflec_2"},
+                          WaterProcessorOp.getOutputBandNames(true, false, false, planes));
+    }
+
+    @Test(expected = OperatorException.class)
+    public void testUnknownAtmCorrBand() {
+        WaterProcessorOp.getAtmCorrPlanes(true, new String[]{"algal_2"});
+    }
+
+    /*
+     * The range check of the selection only refers to the selected outputs, hence the ATM_OUT flag
+     * may be cleared, but no other flag may differ.
+     */
+    private static void assertSelectedPlanesAreIdentical(int[] atmCorrPlanes, boolean fastSigmoid, boolean singlePrecision) {
+        final WaterProcessorSpectralConstants constants = SyntheticScene.createSpectralConstants();
+        final WaterProcessorAlgorithm full = new WaterProcessorAlgorithm(constants, false, false, false, true,
+                                                                         fastSigmoid, singlePrecision);
+        final WaterProcessorAlgorithm selection = new WaterProcessorAlgorithm(constants, false, false, false, atmCorrPlanes,
+                                                                              fastSigmoid, singlePrecision);
+        assertEquals(atmCorrPlanes.length, selection.getNumOutputPlanes());
+
+        final SyntheticScene scene = new SyntheticScene(17, WIDTH);
+        final WaterProcessorAlgorithm.Row fullRow = full.createRow(WIDTH);
+        final WaterProcessorAlgorithm.Row selectionRow = selection.createRow(WIDTH);
+        // ATM_OUT
+        final int atmOut = WaterProcessorOp.RESULT_ERROR_VALUES[8];
+        for (int y = 0; y < HEIGHT; y++) {
+            scene.fillRow(fullRow, y);
+            scene.fillRow(selectionRow, y);
+            full.compute(fullRow, WIDTH);
+            selection.compute(selectionRow, WIDTH);
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(fullRow.resultFlags[x] & ~atmOut, selectionRow.resultFlags[x] & ~atmOut);
+                assertEquals(0, selectionRow.resultFlags[x] & ~fullRow.resultFlags[x]);
+                for (int j = 0; j < atmCorrPlanes.length; j++) {
+                    assertEquals(fullRow.result[atmCorrPlanes[j]][x], selectionRow.result[j][x], 0.0f);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package wew.water.gpf;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the results of the water algorithm with the approximated sigmoid against the exact results.
+ */
+public class FastSigmoidTest {
+
+    private static final int WIDTH = 500;
+    private static final int HEIGHT = 40;
+
+    // Maximum absolute deviations of the concentrations (log10), the AOTs and the reflectances
+    private static final double MAX_CONCENTRATION_ERROR = 1.0e-4;
+    private static final double MAX_AOT_ERROR = 2.0e-5;
+    private static final double MAX_REFLECTANCE_ERROR = 1.0e-6;
+
+    @Test
+    public void testFastSigmoidAgainstExactSigmoid() {
+        final WaterProcessorSpectralConstants constants = SyntheticScene.createSpectralConstants();
+        final WaterProcessorAlgorithm exact = new WaterProcessorAlgorithm(constants, true, true, true, true, false, false);
+        final WaterProcessorAlgorithm fast = new WaterProcessorAlgorithm(constants, true, true, true, true, true, false);
+
+        final AlgorithmComparison comparison = new AlgorithmComparison(exact, fast, new SyntheticScene(4711, WIDTH), HEIGHT);
+
+        // Pixels close to the network range limits may change their output range flags
+        assertTrue("flag mismatches: " + comparison.flagMismatches, comparison.flagMismatches <= WIDTH * HEIGHT / 1000);
+        for (int n = 0; n < comparison.maxErrors.length; n++) {
+            final double maxError = AlgorithmComparison.isConcentration(n) ? MAX_CONCENTRATION_ERROR
+                                    : AlgorithmComparison.isAot(n) ? MAX_AOT_ERROR : MAX_REFLECTANCE_ERROR;
+            assertTrue("plane " + n + ": max error " + comparison.maxErrors[n], comparison.maxErrors[n] <= maxError);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.dataio.ProductIO;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.GPF;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Validation harness for the <code>useFastSigmoid</code> parameter of the FUB.Water operator.
+ * <p/>
+ * Processes the given MERIS L1b reference scenes with the exact and the approximated sigmoid and
+ * reports the maximum absolute deviation per output band together with the number of pixels
+ * whose result flags differ.
+ * <p/>
+ * Usage: <code>FastSigmoidValidation &lt;MERIS L1b product&gt;...</code>
+ */
+public class FastSigmoidValidation {
+
+    private static final String RESULT_FLAGS_NAME = "result_flags";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: FastSigmoidValidation <MERIS L1b product>...");
+            System.exit(1);
+        }
+        for (String path : args) {
+            final Product source = ProductIO.readProduct(path);
+            if (source == null) {
+                System.err.println(path + ": no reader found");
+                continue;
+            }
+            try {
+                validate(path, source);
+            } finally {
+                source.dispose();
+            }
+        }
+    }
+
+    private static void validate(String path, Product source) throws IOException {
+        final Product exact = GPF.createProduct("FUB.Water", createParameters(false), source);
+        final Product fast = GPF.createProduct("FUB.Water", createParameters(true), source);
+        final int width = exact.getSceneRasterWidth();
+        final int height = exact.getSceneRasterHeight();
+
+        final Band exactFlagsBand = exact.getBand(RESULT_FLAGS_NAME);
+        final Band fastFlagsBand = fast.getBand(RESULT_FLAGS_NAME);
+        final int[] exactFlags = new int[width];
+        final int[] fastFlags = new int[width];
+        final boolean[] sameFlags = new boolean[width * height];
+        long flagMismatches = 0;
+        for (int y = 0; y < height; y++) {
+            exactFlagsBand.readPixels(0, y, width, 1, exactFlags);
+            fastFlagsBand.readPixels(0, y, width, 1, fastFlags);
+            for (int x = 0; x < width; x++) {
+                sameFlags[y * width + x] = exactFlags[x] == fastFlags[x];
+                if (!sameFlags[y * width + x]) {
+                    flagMismatches++;
+                }
+            }
+        }
+        System.out.printf("%s: %d of %d pixels with differing result flags%n", path, flagMismatches,
+                          (long) width * height);
+
+        final float[] exactLine = new float[width];
+        final float[] fastLine = new float[width];
+        for (Band exactBand : exact.getBands()) {
+            final String name = exactBand.getName();
+            if (name.equals(RESULT_FLAGS_NAME)) {
+                continue;
+            }
+            final Band fastBand = fast.getBand(name);
+            double maxError = 0.0;
+            for (int y = 0; y < height; y++) {
+                exactBand.readPixels(0, y, width, 1, exactLine);
+                fastBand.readPixels(0, y, width, 1, fastLine);
+                for (int x = 0; x < width; x++) {
+                    if (sameFlags[y * width + x]) {
+                        maxError = Math.max(maxError, Math.abs(exactLine[x] - fastLine[x]));
+                    }
+                }
+            }
+            System.out.printf("  %-24s max abs error %.3e%n", name, maxError);
+        }
+        exact.dispose();
+        fast.dispose();
+    }
+
+    private static Map<String, Object> createParameters(boolean useFastSigmoid) {
+        final Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("computeCHL", true);
+        parameters.put("computeYS", true);
+        parameters.put("computeTSM", true);
+        parameters.put("computeAtmCorr", true);
+        parameters.put("useFastSigmoid", useFastSigmoid);
+        return parameters;
+    }
+}
@@ -0,0 +1,165 @@
+package wew.water.gpf;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the binary network format and the WeW networks loaded from it against
+ * values generated with the former hard-coded network classes.
+ */
+public class FeedForwardNetIOTest {
+
+    @Test
+    public void testChlNetwork() throws Exception {
+        assertRecall(NN_CHL.getNet(), new float[]{1.0f, -19.0f, 1.0f}, new float[][]{
+                {1.6421692f},
+                {1.9256208f},
+                {1.3085883f},
+        });
+    }
+
+    @Test
+    public void testYellowSubstanceNetwork() throws Exception {
+        assertRecall(NN_YellowSubstance.getNet(), new float[]{1.0f, -19.0f, 1.0f}, new float[][]{
+                {-0.123328924f},
+                {0.110461235f},
+                {-0.34131634f},
+        });
+    }
+
+    @Test
+    public void testTsmNetwork() throws Exception {
+        assertRecall(NN_TSM.getNet(), new float[]{1.0f, 1.0f, 1.0f}, new float[][]{
+                {1.6067808f},
+                {1.692801f},
+                {1.4997628f},
+        });
+    }
+
+    @Test
+    public void testAtmCorrNetwork() throws Exception {
+        assertRecall(NN_AtmCorr.getNet(), new float[]{1.0f, 1.0f, 1.0f}, new float[][]{
+                {0.0070884465f, 0.009089778f, 0.018153796f, 0.022200825f, 0.034491166f, 0.031813268f,
+                        0.02330707f, 0.019752389f, 0.9464786f, 0.8749248f, 0.83467406f, 0.7920877f},
+                {0.00514919f, 0.007541143f, 0.017178044f, 0.021999393f, 0.035943836f, 0.033052832f,
+                        0.023858141f, 0.02006529f, 0.96149945f, 0.9023626f, 0.8517642f, 0.7973543f},
+                {0.007855329f, 0.0097219385f, 0.018408783f, 0.022228114f, 0.034286954f, 0.03182461f,
+                        0.023590144f, 0.019394606f, 1.0086747f, 0.93133974f, 0.89326006f, 0.8506981f},
+        });
+    }
+
+    @Test
+    public void testSharedInputScaling() throws Exception {
+        final double[][] inputLimits = NN_General.NODES_INPUT_SCALE_LIMITS;
+        for (FeedForwardNet net : new FeedForwardNet[]{NN_CHL.getNet(), NN_YellowSubstance.getNet(), NN_TSM.getNet()}) {
+            assertEquals(net.getName(), 2 * inputLimits.length, net.getInputLimits().length);
+            for (int i = 0; i < inputLimits.length; i++) {
+                assertEquals(net.getName(), inputLimits[i][0], net.getInputLimits()[2 * i], 0.0);
+                assertEquals(net.getName(), inputLimits[i][1], net.getInputLimits()[2 * i + 1], 0.0);
+            }
+        }
+        final FeedForwardNet[] nets = {NN_CHL.getNet(), NN_YellowSubstance.getNet(), NN_TSM.getNet(), NN_AtmCorr.getNet()};
+        for (FeedForwardNet net : nets) {
+            assertArrayEquals(net.getName(), NN_General.NODES_INPUT_SCALE_OFF, net.getInputScaleOffsets(), 0.0);
+            assertArrayEquals(net.getName(), NN_General.NODES_INPUT_SCALE_FLAG, net.getInputScaleFlags());
+        }
+    }
+
+    @Test
+    public void testWriteAndReadFloat64() throws Exception {
+        final FeedForwardNet net = NN_YellowSubstance.getNet();
+        final FeedForwardNet copy = writeAndRead(net, FeedForwardNetIO.ELEMENT_TYPE_FLOAT64);
+
+        assertEquals(net.getName(), copy.getName());
+        assertEquals(net.getNumInputs(), copy.getNumInputs());
+        assertEquals(net.getNumHidden(), copy.getNumHidden());
+        assertEquals(net.getNumOutputs(), copy.getNumOutputs());
+        assertArrayEquals(net.getInputScaleFlags(), copy.getInputScaleFlags());
+        assertArrayEquals(net.getOutputScaleFlags(), copy.getOutputScaleFlags());
+        assertArrayEquals(net.getInputLimits(), copy.getInputLimits(), 0.0);
+        assertArrayEquals(net.getInputScale(), copy.getInputScale(), 0.0);
+        assertArrayEquals(net.getInputScaleOffsets(), copy.getInputScaleOffsets(), 0.0);
+        assertArrayEquals(net.getPcaEigenvectors(), copy.getPcaEigenvectors(), 0.0);
+        assertArrayEquals(net.getHiddenWeights(), copy.getHiddenWeights(), 0.0);
+        assertArrayEquals(net.getOutputWeights(), copy.getOutputWeights(), 0.0);
+        assertArrayEquals(net.getOutputScale(), copy.getOutputScale(), 0.0);
+        assertArrayEquals(net.getOutputScaleOffsets(), copy.getOutputScaleOffsets(), 0.0);
+        assertArrayEquals(net.getOutputLimits(), copy.getOutputLimits(), 0.0);
+    }
+
+    @Test
+    public void testWriteAndReadFloat32() throws Exception {
+        final FeedForwardNet net = NN_YellowSubstance.getNet();
+        final FeedForwardNet copy = writeAndRead(net, FeedForwardNetIO.ELEMENT_TYPE_FLOAT32);
+
+        final double[] weights = net.getHiddenWeights();
+        final double[] copiedWeights = copy.getHiddenWeights();
+        assertEquals(weights.length, copiedWeights.length);
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals((float) weights[i], copiedWeights[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testReadInvalidFile() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FeedForwardNetIO.write(NN_TSM.getNet(), bytes, FeedForwardNetIO.ELEMENT_TYPE_FLOAT64);
+        final byte[] data = bytes.toByteArray();
+
+        final byte[] truncated = new byte[data.length / 2];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        assertReadFails(truncated);
+
+        final byte[] wrongMagic = data.clone();
+        wrongMagic[0] = 'X';
+        assertReadFails(wrongMagic);
+    }
+
+    /*
+     * The input vectors are placed at 1/2, 1/4 and 3/4 of the input ranges.
+     */
+    private static void assertRecall(FeedForwardNet net, float[] expectedStatus, float[][] expectedOutput) {
+        final int width = expectedStatus.length;
+        final double[] fractions = {0.5, 0.25, 0.75};
+        final double[] limits = net.getInputLimits();
+        final float[][] in = new float[net.getNumInputs()][width];
+        for (int i = 0; i < net.getNumInputs(); i++) {
+            for (int x = 0; x < width; x++) {
+                in[i][x] = (float) (limits[2 * i] + fractions[x] * (limits[2 * i + 1] - limits[2 * i]));
+            }
+        }
+        final float[][] out = new float[net.getNumOutputs()][width];
+        final float[] a = {-1.0f, -1.0f, -1.0f};
+
+        net.compute(in, out, width, new int[width], 0, a, new NN_Workspace());
+
+        assertArrayEquals(expectedStatus, a, 0.0f);
+        for (int x = 0; x < width; x++) {
+            for (int o = 0; o < net.getNumOutputs(); o++) {
+                assertEquals(expectedOutput[x][o], out[o][x], 0.0f);
+            }
+        }
+    }
+
+    private static FeedForwardNet writeAndRead(FeedForwardNet net, int elementType) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FeedForwardNetIO.write(net, bytes, elementType);
+        return FeedForwardNetIO.read(ByteBuffer.wrap(bytes.toByteArray()), "test");
+    }
+
+    private static void assertReadFails(byte[] data) {
+        try {
+            FeedForwardNetIO.read(ByteBuffer.wrap(data), "test");
+            fail("IOException expected");
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OutputEncodingTest {
+
+    private static final double[] RESULT_LIMITS = {-1.3, 1.7, 2.17E-4, 0.0125};
+
+    @Test
+    public void testFloat32() {
+        final OutputEncoding encoding = OutputEncoding.create(OutputEncoding.FLOAT32, RESULT_LIMITS);
+        assertFalse(encoding.isScaled());
+        assertEquals(ProductData.TYPE_FLOAT32, encoding.getDataType());
+        assertEquals(1.0, encoding.getScalingFactor(1), 0.0);
+        assertEquals(0.0, encoding.getScalingOffset(1), 0.0);
+    }
+
+    @Test
+    public void testInt16() {
+        final OutputEncoding encoding = OutputEncoding.create(OutputEncoding.INT16, RESULT_LIMITS);
+        assertTrue(encoding.isScaled());
+        assertEquals(ProductData.TYPE_INT16, encoding.getDataType());
+        for (int n = 0; n < 2; n++) {
+            assertEquals(Short.MIN_VALUE + 1, encoding.encode(n, (float) RESULT_LIMITS[2 * n]));
+            assertUpperLimit(encoding, n, Short.MIN_VALUE + 1, Short.MAX_VALUE);
+            assertEquals(Short.MIN_VALUE, encoding.encode(n, WaterProcessorOp.result_mask_value));
+            assertEquals(Short.MIN_VALUE, encoding.encode(n, Float.NaN));
+            assertRoundTrip(encoding, n, Short.MIN_VALUE + 1, Short.MAX_VALUE);
+        }
+        // Results outside of the limits are clamped
+        assertEquals(Short.MIN_VALUE + 1, encoding.encode(0, -2.0f));
+        assertEquals(Short.MAX_VALUE, encoding.encode(1, 0.1f));
+    }
+
+    @Test
+    public void testUInt16() {
+        final OutputEncoding encoding = OutputEncoding.create(OutputEncoding.UINT16, RESULT_LIMITS);
+        assertEquals(ProductData.TYPE_UINT16, encoding.getDataType());
+        for (int n = 0; n < 2; n++) {
+            assertEquals(0, encoding.encode(n, (float) RESULT_LIMITS[2 * n]));
+            assertUpperLimit(encoding, n, 0, 0xfffe);
+            assertEquals(0xffff, encoding.encode(n, WaterProcessorOp.result_mask_value));
+            assertRoundTrip(encoding, n, 0, 0xfffe);
+        }
+
+        final float[] values = {0.0f, WaterProcessorOp.result_mask_value, 1.0f};
+        final short[] raw = new short[4];
+        encoding.encode(0, values, raw, 1, values.length);
+        assertArrayEquals(new short[]{0, (short) encoding.encode(0, 0.0f), (short) 0xffff, (short) encoding.encode(0, 1.0f)},
+                          raw);
+    }
+
+    @Test
+    public void testResultLimitsOfSelectedPlanes() {
+        final WaterProcessorAlgorithm algorithm =
+                new WaterProcessorAlgorithm(SyntheticScene.createSpectralConstants(), true, false, false,
+                                            new int[]{0, 4}, false, false);
+        final double[] chlLimits = NN_CHL.getNet().getOutputLimits();
+        final double[] atmCorrLimits = NN_AtmCorr.getNet().getOutputLimits();
+        // aero_opt_thick_440 is output node 8, reflec_1 output node 0
+        assertArrayEquals(new double[]{chlLimits[0], chlLimits[1], atmCorrLimits[16], atmCorrLimits[17],
+                                  atmCorrLimits[0], atmCorrLimits[1]},
+                          algorithm.getResultLimits(), 0.0);
+    }
+
+    @Test(expected = OperatorException.class)
+    public void testUnknownDataType() {
+        OutputEncoding.create("int8", RESULT_LIMITS);
+    }
+
+    /*
+     * The upper limit is encoded within the integer range, which it uses at least half of.
+     */
+    private static void assertUpperLimit(OutputEncoding encoding, int n, int rawMin, int rawMax) {
+        final int raw = encoding.encode(n, (float) RESULT_LIMITS[2 * n + 1]);
+        assertTrue(raw <= rawMax);
+        assertTrue(raw - rawMin >= (rawMax - rawMin) / 2);
+    }
+
+    /*
+     * The quantisation error is at most half a step, and the geophysical value set on a target
+     * sample maps back onto the raw value exactly.
+     */
+    private static void assertRoundTrip(OutputEncoding encoding, int n, int rawMin, int rawMax) {
+        final double min = RESULT_LIMITS[2 * n];
+        final double max = RESULT_LIMITS[2 * n + 1];
+        final double factor = encoding.getScalingFactor(n);
+        final double offset = encoding.getScalingOffset(n);
+        assertTrue(factor >= (max - min) / (rawMax - rawMin));
+        assertEquals(1.0, Math.scalb(factor, -Math.getExponent(factor)), 0.0);
+        assertEquals(Math.rint(offset / factor), offset / factor, 0.0);
+        final Random random = new Random(n);
+        for (int i = 0; i < 10000; i++) {
+            final float value = (float) (min + (max - min) * random.nextDouble());
+            final int raw = encoding.encode(n, value);
+            assertEquals(value, offset + raw * factor, 0.5 * factor + 1.0e-7 * Math.abs(value));
+            assertEquals(raw, (encoding.toGeophysical(n, value) - offset) / factor, 0.0);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.MetadataAttribute;
+import org.esa.beam.framework.datamodel.MetadataElement;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResultFlagStatisticsTest {
+
+    @Test
+    public void testCountsOfSeveralThreads() throws InterruptedException {
+        final ResultFlagStatistics statistics = WaterProcessorOp.createResultFlagStatistics();
+        final int numThreads = 4;
+        final int numTiles = 50;
+        final int tileSize = 64 * 64;
+        final int[][] flags = new int[numThreads][numTiles * tileSize];
+        final long[] expectedCounts = new long[WaterProcessorOp.RESULT_ERROR_VALUES.length];
+        final Random random = new Random(5);
+        for (int[] threadFlags : flags) {
+            for (int i = 0; i < threadFlags.length; i++) {
+                threadFlags[i] = random.nextInt(1 << expectedCounts.length);
+                for (int f = 0; f < expectedCounts.length; f++) {
+                    if ((threadFlags[i] & WaterProcessorOp.RESULT_ERROR_VALUES[f]) != 0) {
+                        expectedCounts[f]++;
+                    }
+                }
+            }
+        }
+
+        final Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int[] threadFlags = flags[t];
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    final ResultFlagStatistics.Counter counter = statistics.createCounter();
+                    // Tiles and single pixels alternately
+                    for (int tile = 0; tile < numTiles; tile++) {
+                        if (tile % 2 == 0) {
+                            counter.count(threadFlags, tile * tileSize, tileSize);
+                        } else {
+                            for (int i = tile * tileSize; i < (tile + 1) * tileSize; i++) {
+                                counter.count(threadFlags[i]);
+                            }
+                            counter.publish();
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals((long) numThreads * numTiles * tileSize, statistics.getNumPixels());
+        assertArrayEquals(expectedCounts, statistics.getFlagCounts());
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        final ResultFlagStatistics statistics = new ResultFlagStatistics(new String[]{"MASKED", "CHL_IN"},
+                                                                         new String[]{"masked", "CHL input"},
+                                                                         new int[]{0x01, 0x02});
+        final ResultFlagStatistics.Counter counter = statistics.createCounter();
+        counter.count(new int[]{0x01, 0x02, 0x00, 0x03}, 0, 4);
+        counter.count(0x02);
+        counter.publish();
+
+        final StringWriter writer = new StringWriter();
+        statistics.writeJson(writer, "FUB.Water", "MER_RR__1P \"test\"");
+        assertEquals("{\n" +
+                     "  \"operator\": \"FUB.Water\",\n" +
+                     "  \"product\": \"MER_RR__1P \\\"test\\\"\",\n" +
+                     "  \"num_pixels\": 5,\n" +
+                     "  \"flags\": {\n" +
+                     "    \"MASKED\": {\"value\": 1, \"count\": 2, \"percentage\": 40.0000},\n" +
+                     "    \"CHL_IN\": {\"value\": 2, \"count\": 3, \"percentage\": 60.0000}\n" +
+                     "  }\n" +
+                     "}\n", writer.toString());
+    }
+
+    @Test
+    public void testMetadataElement() {
+        final ResultFlagStatistics statistics = new ResultFlagStatistics(new String[]{"MASKED", "CHL_IN"},
+                                                                         new String[]{"masked", "CHL input"},
+                                                                         new int[]{0x01, 0x02});
+        statistics.createCounter().count(new int[]{0x01, 0x02, 0x00, 0x03}, 0, 4);
+
+        final MetadataElement element = statistics.createMetadataElement();
+        // The counts of large mosaics and batches exceed the int range
+        final MetadataAttribute numPixels = element.getAttribute("num_pixels");
+        assertEquals(ProductData.TYPE_INT64, numPixels.getDataType());
+        assertEquals(4, numPixels.getData().getElemInt());
+        final MetadataAttribute chlInCount = element.getAttribute("CHL_IN");
+        assertEquals(ProductData.TYPE_INT64, chlInCount.getDataType());
+        assertEquals(2, chlInCount.getData().getElemInt());
+        assertEquals(50.0, element.getAttribute("CHL_IN_percentage").getData().getElemDouble(), 0.0);
+    }
+
+    @Test
+    public void testPixelsArePublished() {
+        final ResultFlagStatistics statistics = WaterProcessorOp.createResultFlagStatistics();
+        final ResultFlagStatistics.Counter counter = statistics.createCounter();
+        counter.count(WaterProcessorOp.RESULT_ERROR_VALUES[0]);
+        counter.count(0);
+        assertEquals(0, statistics.getNumPixels());
+        counter.publish();
+        assertEquals(2, statistics.getNumPixels());
+        assertEquals(1, statistics.getFlagCounts()[0]);
+        counter.count(new int[]{0, 0, 0}, 0, 3);
+        assertEquals(5, statistics.getNumPixels());
+    }
+
+    @Test
+    public void testClaimTile() {
+        final ResultFlagStatistics statistics = WaterProcessorOp.createResultFlagStatistics();
+        assertTrue(statistics.claimTile(0, 0));
+        assertTrue(statistics.claimTile(64, 0));
+        assertTrue(statistics.claimTile(0, 64));
+        // A tile computed again
+        assertFalse(statistics.claimTile(64, 0));
+        assertTrue(statistics.claimTile(64, 64));
+    }
+
+    @Test
+    public void testNoPixels() {
+        final ResultFlagStatistics statistics = WaterProcessorOp.createResultFlagStatistics();
+        statistics.createCounter();
+        assertEquals(0, statistics.getNumPixels());
+        for (long count : statistics.getFlagCounts()) {
+            assertEquals(0, count);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFlagValuesMustBeSingleBits() {
+        new ResultFlagStatistics(new String[]{"A"}, new String[]{"a"}, new int[]{0x03});
+    }
+}
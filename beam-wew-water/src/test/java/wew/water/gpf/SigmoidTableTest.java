@@ -0,0 +1,33 @@
+package wew.water.gpf;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SigmoidTableTest {
+
+    @Test
+    public void testMaximumError() {
+        double maxError = 0.0;
+        for (double t = -40.0; t <= 40.0; t += 1.0 / 4096.0) {
+            final double exact = 1.0 / (1.0 + Math.exp(-t));
+            maxError = Math.max(maxError, Math.abs(SigmoidTable.sigmoid(t) - exact));
+        }
+        assertTrue("max error " + maxError, maxError <= SigmoidTable.MAX_ABS_ERROR);
+    }
+
+    @Test
+    public void testSpecialValues() {
+        assertEquals(0.5, SigmoidTable.sigmoid(0.0), 0.0);
+        assertEquals(0.0, SigmoidTable.sigmoid(Double.NEGATIVE_INFINITY), 0.0);
+        assertEquals(1.0, SigmoidTable.sigmoid(Double.POSITIVE_INFINITY), 0.0);
+        assertTrue(Double.isNaN(SigmoidTable.sigmoid(Double.NaN)));
+        // The largest arguments below the range round to its upper end
+        final double below = Math.nextAfter(SigmoidTable.RANGE, 0.0);
+        assertEquals(1.0, SigmoidTable.sigmoid(below), SigmoidTable.MAX_ABS_ERROR);
+        assertEquals(1.0, SigmoidTable.sigmoid(below - 1.0e-15), SigmoidTable.MAX_ABS_ERROR);
+        final double above = Math.nextAfter(-SigmoidTable.RANGE, 0.0);
+        assertEquals(0.0, SigmoidTable.sigmoid(above), SigmoidTable.MAX_ABS_ERROR);
+    }
+}
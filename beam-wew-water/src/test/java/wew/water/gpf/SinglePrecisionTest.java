@@ -0,0 +1,97 @@
+package wew.water.gpf;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bounds the differences between the single and the double precision evaluation of the WeW networks.
+ */
+public class SinglePrecisionTest {
+
+    private static final int WIDTH = 500;
+    private static final int HEIGHT = 40;
+
+    // Maximum absolute deviations of the concentrations (log10), the AOTs and the reflectances
+    private static final double MAX_CONCENTRATION_ERROR = 2.0e-5;
+    private static final double MAX_AOT_ERROR = 1.0e-5;
+    private static final double MAX_REFLECTANCE_ERROR = 5.0e-7;
+    // Maximum deviation of the raw network outputs, relative to the width of the output range
+    private static final double MAX_NET_OUTPUT_ERROR = 1.0e-5;
+
+    @Test
+    public void testVariants() {
+        final FeedForwardNet net = NN_CHL.getNet();
+        assertSame(net, net.withSinglePrecision(false));
+        final FeedForwardNet singleNet = net.withSinglePrecision(true);
+        assertTrue(singleNet.isSinglePrecision());
+        assertSame(singleNet, singleNet.withSinglePrecision(true));
+        final FeedForwardNet fastSingleNet = singleNet.withFastSigmoid(true);
+        assertTrue(fastSingleNet.isSinglePrecision());
+        assertTrue(fastSingleNet.isFastSigmoid());
+    }
+
+    @Test
+    public void testNetworksAgainstDoublePrecision() {
+        assertNetworkError(NN_CHL.getNet());
+        assertNetworkError(NN_YellowSubstance.getNet());
+        assertNetworkError(NN_TSM.getNet());
+        assertNetworkError(NN_AtmCorr.getNet());
+    }
+
+    @Test
+    public void testAlgorithmAgainstDoublePrecision() {
+        final WaterProcessorSpectralConstants constants = SyntheticScene.createSpectralConstants();
+        final WaterProcessorAlgorithm reference = new WaterProcessorAlgorithm(constants, true, true, true, true, false, false);
+        final WaterProcessorAlgorithm single = new WaterProcessorAlgorithm(constants, true, true, true, true, false, true);
+
+        final AlgorithmComparison comparison = new AlgorithmComparison(reference, single, new SyntheticScene(4711, WIDTH), HEIGHT);
+
+        assertTrue("flag mismatches: " + comparison.flagMismatches, comparison.flagMismatches <= WIDTH * HEIGHT / 1000);
+        for (int n = 0; n < comparison.maxErrors.length; n++) {
+            final double maxError = AlgorithmComparison.isConcentration(n) ? MAX_CONCENTRATION_ERROR
+                                    : AlgorithmComparison.isAot(n) ? MAX_AOT_ERROR : MAX_REFLECTANCE_ERROR;
+            assertTrue("plane " + n + ": max error " + comparison.maxErrors[n], comparison.maxErrors[n] <= maxError);
+        }
+    }
+
+    /*
+     * Recalls the network without range checks for random inputs within the input limits.
+     */
+    private static void assertNetworkError(FeedForwardNet net) {
+        final FeedForwardNet singleNet = net.withSinglePrecision(true);
+        final int numInputs = net.getNumInputs();
+        final int numOutputs = net.getNumOutputs();
+        final double[] inputLimits = net.getInputLimits();
+        final double[] outputLimits = net.getOutputLimits();
+        final Random random = new Random(5);
+        final float[][] in = new float[numInputs][WIDTH];
+        for (int i = 0; i < numInputs; i++) {
+            final double min = inputLimits[2 * i];
+            final double max = inputLimits[2 * i + 1];
+            for (int x = 0; x < WIDTH; x++) {
+                in[i][x] = (float) (min + (max - min) * random.nextDouble());
+            }
+        }
+        final float[][] out = new float[numOutputs][WIDTH];
+        final float[][] singleOut = new float[numOutputs][WIDTH];
+        final float[] a = new float[WIDTH];
+        final float[] singleA = new float[WIDTH];
+        Arrays.fill(a, 1.0f);
+        Arrays.fill(singleA, 1.0f);
+        net.compute(in, out, WIDTH, new int[WIDTH], 0, a, new NN_Workspace());
+        singleNet.compute(in, singleOut, WIDTH, new int[WIDTH], 0, singleA, new NN_Workspace());
+
+        for (int i = 0; i < numOutputs; i++) {
+            final double range = outputLimits[2 * i + 1] - outputLimits[2 * i];
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(net.getName() + " output " + i, out[i][x], singleOut[i][x], MAX_NET_OUTPUT_ERROR * range);
+            }
+        }
+    }
+}
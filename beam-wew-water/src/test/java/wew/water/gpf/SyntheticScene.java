@@ -0,0 +1,145 @@
+package wew.water.gpf;
+
+import org.esa.beam.dataio.envisat.EnvisatConstants;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.TiePointGrid;
+
+import java.awt.image.Raster;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic MERIS L1b input for regression tests of the {@link WaterProcessorAlgorithm}.
+ * The TOA radiances, geometries and meteorological data are drawn from ranges typical for case II
+ * waters, about 10 percent of the pixels are marked invalid.
+ */
+class SyntheticScene {
+
+    static final float[] WAVELENGTHS = {
+            412.5f, 442.5f, 490.0f, 510.0f, 560.0f, 620.0f, 665.0f, 681.25f,
+            708.75f, 753.75f, 760.625f, 778.75f, 865.0f, 885.0f, 900.0f
+    };
+    static final float[] SOLAR_FLUXES = {
+            1670.5964f, 1824.1444f, 1874.9883f, 1877.6682f, 1754.7749f, 1606.6401f, 1490.0026f, 1431.8726f,
+            1369.2035f, 1231.7164f, 1220.0767f, 1144.9675f, 932.3497f, 904.8193f, 871.0908f
+    };
+
+    /**
+     * Valid pixel expression for the products created by {@link #createProduct(int)}.
+     */
+    static final String VALID_EXPRESSION = "radiance_1 < 120.0";
+
+    private final long seed;
+    private final int width;
+
+    SyntheticScene(long seed, int width) {
+        this.seed = seed;
+        this.width = width;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    static WaterProcessorSpectralConstants createSpectralConstants() {
+        final Band[] bands = new Band[WAVELENGTHS.length];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = new Band("radiance_" + (i + 1), ProductData.TYPE_FLOAT32, 1, 1);
+            bands[i].setSpectralWavelength(WAVELENGTHS[i]);
+            bands[i].setSolarFlux(SOLAR_FLUXES[i]);
+        }
+        return WaterProcessorSpectralConstants.create(bands, SOLAR_FLUXES);
+    }
+
+    /**
+     * Creates a MERIS L1b product holding the synthetic scene. The tie-point grids vary smoothly,
+     * about 15 percent of the pixels fail the valid pixel expression {@link #VALID_EXPRESSION}.
+     *
+     * @param height the scene height
+     *
+     * @return the product
+     */
+    Product createProduct(int height) {
+        final Product product = new Product("synthetic", "MER_RR__1P", width, height);
+        final Random random = new Random(seed);
+        for (int b = 0; b < WAVELENGTHS.length; b++) {
+            final float[] radiances = new float[width * height];
+            for (int i = 0; i < radiances.length; i++) {
+                final double reflectance = 0.002 + 0.08 * random.nextDouble() * (1.0 - b / 20.0);
+                radiances[i] = (float) (reflectance * SOLAR_FLUXES[b] * (0.95 + 0.1 * random.nextDouble()));
+            }
+            final Band band = new Band("radiance_" + (b + 1), ProductData.TYPE_FLOAT32, width, height);
+            band.setSpectralBandIndex(b);
+            band.setSpectralWavelength(WAVELENGTHS[b]);
+            band.setSolarFlux(SOLAR_FLUXES[b]);
+            band.setRasterData(ProductData.createInstance(radiances));
+            product.addBand(band);
+        }
+        final Band flagsBand = product.addBand(EnvisatConstants.MERIS_L1B_FLAGS_DS_NAME, ProductData.TYPE_UINT8);
+        flagsBand.setRasterData(ProductData.createInstance(ProductData.TYPE_UINT8, width * height));
+
+        final int gridWidth = width / 16 + 2;
+        final int gridHeight = height / 16 + 2;
+        final double[][] tiePointRanges = {
+                {0.0, 90.0}, {-180.0, 180.0},   // latitude, longitude
+                {0.0, 0.0}, {0.0, 0.0},         // dem_alt, dem_rough
+                {0.0, 0.0}, {0.0, 0.0},         // lat_corr, lon_corr
+                {20.0, 70.0}, {-180.0, 180.0},  // sun_zenith, sun_azimuth
+                {0.0, 40.0}, {-180.0, 180.0},   // view_zenith, view_azimuth
+                {-10.0, 10.0}, {-10.0, 10.0},   // zonal_wind, merid_wind
+                {990.0, 1030.0}, {250.0, 400.0} // atm_press, ozone
+        };
+        for (int t = 0; t < tiePointRanges.length; t++) {
+            final double min = tiePointRanges[t][0];
+            final double max = tiePointRanges[t][1];
+            final float[] tiePoints = new float[gridWidth * gridHeight];
+            for (int i = 0; i < tiePoints.length; i++) {
+                tiePoints[i] = (float) (min + (max - min) * random.nextDouble());
+            }
+            product.addTiePointGrid(new TiePointGrid(EnvisatConstants.MERIS_TIE_POINT_GRID_NAMES[t],
+                                                     gridWidth, gridHeight, 0.5f, 0.5f, 16.0f, 16.0f, tiePoints));
+        }
+        return product;
+    }
+
+    /**
+     * Fills the source values of the given scan line into the row.
+     *
+     * @param row the row
+     * @param y   the scan line
+     */
+    void fillRow(WaterProcessorAlgorithm.Row row, int y) {
+        final Random random = new Random(seed + y);
+        for (int x = 0; x < width; x++) {
+            for (int i = 0; i < WaterProcessorSpectralConstants.NN_BAND_INDICES.length; i++) {
+                final int band = WaterProcessorSpectralConstants.NN_BAND_INDICES[i];
+                final double reflectance = 0.002 + 0.08 * random.nextDouble() * (1.0 - band / 20.0);
+                row.toaRadiance[i][x] = (float) (reflectance * SOLAR_FLUXES[band] * (0.95 + 0.1 * random.nextDouble()));
+            }
+            row.sza[x] = (float) (20.0 + 50.0 * random.nextDouble());
+            row.saa[x] = (float) (360.0 * random.nextDouble() - 180.0);
+            row.vza[x] = (float) (40.0 * random.nextDouble());
+            row.vaa[x] = (float) (360.0 * random.nextDouble() - 180.0);
+            row.zonalWind[x] = (float) (10.0 * random.nextGaussian());
+            row.meridWind[x] = (float) (10.0 * random.nextGaussian());
+            row.pressure[x] = (float) (990.0 + 40.0 * random.nextDouble());
+            row.ozone[x] = (float) (250.0 + 150.0 * random.nextDouble());
+            row.valid[x] = random.nextInt(10) != 0;
+        }
+    }
+
+    /**
+     * Returns all samples of a band as they are stored, the raw values of scaled bands.
+     *
+     * @param band the band
+     *
+     * @return the samples, row by row
+     */
+    static float[] getSamples(Band band) {
+        final int width = band.getRasterWidth();
+        final int height = band.getRasterHeight();
+        final Raster data = band.getSourceImage().getData();
+        return data.getSamples(0, 0, width, height, 0, new float[width * height]);
+    }
+}
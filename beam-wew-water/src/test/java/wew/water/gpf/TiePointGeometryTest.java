@@ -0,0 +1,180 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.TiePointGrid;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bounds the error of the geometry interpolated from the tie-point nodes for a MERIS RR like
+ * geometry: 16 x 16 subsampling, the sun moving slowly over the scene, the view zenith growing
+ * across-track from nadir, where the view azimuth jumps by 180 degree.
+ */
+public class TiePointGeometryTest {
+
+    private static final int WIDTH = 1121;
+    private static final int HEIGHT = 161;
+    private static final int SUB_SAMPLING = 16;
+    // Nadir between two tie-point columns
+    private static final double NADIR_X = 567.0;
+
+    // Measured: 5.5E-5 (relative) and 4.5E-5
+    private static final double MAX_AIR_MASS_ERROR = 1.0e-4;
+    private static final double MAX_GEOMETRY_ERROR = 1.0e-4;
+    // Maximum absolute deviations of the concentrations (log10), the AOTs and the reflectances,
+    // measured: 1.6E-4, 2.9E-4 and 1.6E-6
+    private static final double MAX_CONCENTRATION_ERROR = 5.0e-4;
+    private static final double MAX_AOT_ERROR = 1.0e-3;
+    private static final double MAX_REFLECTANCE_ERROR = 5.0e-6;
+
+    @Test
+    public void testInterpolationError() {
+        final TiePointGeometry tiePointGeometry = createTiePointGeometry();
+        final WaterProcessorAlgorithm algorithm = createAlgorithm();
+        final WaterProcessorAlgorithm.Row row = algorithm.createRow(WIDTH);
+        final double[] geometry = new double[WaterProcessorAlgorithm.NUM_GEOMETRY];
+
+        double maxAirMassError = 0.0;
+        double maxGeometryError = 0.0;
+        for (int y = 0; y < HEIGHT; y++) {
+            tiePointGeometry.interpolate(0, y, WIDTH, row);
+            for (int x = 0; x < WIDTH; x++) {
+                final float sza = sza(x + 0.5, y + 0.5);
+                final float saa = saa(x + 0.5, y + 0.5);
+                final float vza = vza(x + 0.5, y + 0.5);
+                final float vaa = vaa(x + 0.5, y + 0.5);
+                final double airMass = WaterProcessorAlgorithm.computeAirMass(sza, vza);
+                maxAirMassError = Math.max(maxAirMassError, Math.abs(row.airMass[x] - airMass) / airMass);
+                WaterProcessorAlgorithm.computeGeometry(sza, saa, vza, vaa, geometry);
+                for (int g = 0; g < geometry.length; g++) {
+                    maxGeometryError = Math.max(maxGeometryError, Math.abs(row.geometry[g][x] - geometry[g]));
+                }
+            }
+        }
+        assertTrue("air mass error " + maxAirMassError, maxAirMassError <= MAX_AIR_MASS_ERROR);
+        assertTrue("geometry error " + maxGeometryError, maxGeometryError <= MAX_GEOMETRY_ERROR);
+    }
+
+    @Test
+    public void testOutputError() {
+        final TiePointGeometry tiePointGeometry = createTiePointGeometry();
+        final WaterProcessorAlgorithm algorithm = createAlgorithm();
+        final WaterProcessorAlgorithm.Row exactRow = algorithm.createRow(WIDTH);
+        final WaterProcessorAlgorithm.Row interpolatedRow = algorithm.createRow(WIDTH);
+        final SyntheticScene scene = new SyntheticScene(11, WIDTH);
+
+        final double[] maxErrors = new double[algorithm.getNumOutputPlanes()];
+        int flagMismatches = 0;
+        for (int y = 0; y < HEIGHT; y += 8) {
+            scene.fillRow(exactRow, y);
+            scene.fillRow(interpolatedRow, y);
+            for (int x = 0; x < WIDTH; x++) {
+                exactRow.sza[x] = sza(x + 0.5, y + 0.5);
+                exactRow.saa[x] = saa(x + 0.5, y + 0.5);
+                exactRow.vza[x] = vza(x + 0.5, y + 0.5);
+                exactRow.vaa[x] = vaa(x + 0.5, y + 0.5);
+            }
+            tiePointGeometry.interpolate(0, y, WIDTH, interpolatedRow);
+            algorithm.compute(exactRow, WIDTH);
+            algorithm.compute(interpolatedRow, WIDTH);
+            for (int x = 0; x < WIDTH; x++) {
+                if (exactRow.resultFlags[x] != interpolatedRow.resultFlags[x]) {
+                    flagMismatches++;
+                    continue;
+                }
+                for (int n = 0; n < maxErrors.length; n++) {
+                    final double error = Math.abs(exactRow.result[n][x] - interpolatedRow.result[n][x]);
+                    maxErrors[n] = Math.max(maxErrors[n], error);
+                }
+            }
+        }
+
+        assertTrue("flag mismatches: " + flagMismatches, flagMismatches <= WIDTH * HEIGHT / 8 / 1000);
+        for (int n = 0; n < maxErrors.length; n++) {
+            final double maxError = AlgorithmComparison.isConcentration(n) ? MAX_CONCENTRATION_ERROR
+                                    : AlgorithmComparison.isAot(n) ? MAX_AOT_ERROR : MAX_REFLECTANCE_ERROR;
+            assertTrue("plane " + n + ": max error " + maxErrors[n], maxErrors[n] <= maxError);
+        }
+    }
+
+    @Test
+    public void testExactOnNodes() {
+        final TiePointGeometry tiePointGeometry = createTiePointGeometry();
+        final WaterProcessorAlgorithm.Row row = createAlgorithm().createRow(WIDTH);
+        final double[] geometry = new double[WaterProcessorAlgorithm.NUM_GEOMETRY];
+        final int y = 3 * SUB_SAMPLING;
+        tiePointGeometry.interpolate(0, y, WIDTH, row);
+        for (int x = 0; x < WIDTH; x += SUB_SAMPLING) {
+            final float sza = sza(x + 0.5, y + 0.5);
+            final float vza = vza(x + 0.5, y + 0.5);
+            WaterProcessorAlgorithm.computeGeometry(sza, saa(x + 0.5, y + 0.5), vza, vaa(x + 0.5, y + 0.5), geometry);
+            assertEquals((float) WaterProcessorAlgorithm.computeAirMass(sza, vza), row.airMass[x], 0.0f);
+            for (int g = 0; g < geometry.length; g++) {
+                assertEquals((float) geometry[g], row.geometry[g][x], 0.0f);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentGridLayouts() {
+        final TiePointGrid sza = createGrid("sun_zenith", 0);
+        final TiePointGrid vza = createGrid("view_zenith", 2);
+        final TiePointGrid other = new TiePointGrid("sun_azimuth", sza.getRasterWidth(), sza.getRasterHeight(),
+                                                    0.5f, 0.5f, 8.0f, 8.0f, sza.getTiePoints());
+        new TiePointGeometry(sza, other, vza, vza);
+    }
+
+    private static WaterProcessorAlgorithm createAlgorithm() {
+        return new WaterProcessorAlgorithm(SyntheticScene.createSpectralConstants(), true, true, true, true, false, false);
+    }
+
+    private static TiePointGeometry createTiePointGeometry() {
+        return new TiePointGeometry(createGrid("sun_zenith", 0), createGrid("sun_azimuth", 1),
+                                    createGrid("view_zenith", 2), createGrid("view_azimuth", 3));
+    }
+
+    private static TiePointGrid createGrid(String name, int angle) {
+        final int gridWidth = (WIDTH - 1) / SUB_SAMPLING + 1;
+        final int gridHeight = (HEIGHT - 1) / SUB_SAMPLING + 1;
+        final float[] tiePoints = new float[gridWidth * gridHeight];
+        for (int j = 0; j < gridHeight; j++) {
+            for (int i = 0; i < gridWidth; i++) {
+                final double u = 0.5 + i * SUB_SAMPLING;
+                final double v = 0.5 + j * SUB_SAMPLING;
+                final float value;
+                switch (angle) {
+                    case 0:
+                        value = sza(u, v);
+                        break;
+                    case 1:
+                        value = saa(u, v);
+                        break;
+                    case 2:
+                        value = vza(u, v);
+                        break;
+                    default:
+                        value = vaa(u, v);
+                }
+                tiePoints[j * gridWidth + i] = value;
+            }
+        }
+        return new TiePointGrid(name, gridWidth, gridHeight, 0.5f, 0.5f, SUB_SAMPLING, SUB_SAMPLING, tiePoints);
+    }
+
+    private static float sza(double u, double v) {
+        return (float) (35.0 + 0.005 * u + 0.02 * v);
+    }
+
+    private static float saa(double u, double v) {
+        return (float) (130.0 + 0.01 * u - 0.02 * v);
+    }
+
+    private static float vza(double u, double v) {
+        return (float) (38.0 * Math.abs(u - NADIR_X) / 560.0);
+    }
+
+    private static float vaa(double u, double v) {
+        return (float) ((u < NADIR_X ? 102.0 : -78.0) + 0.005 * v);
+    }
+}
@@ -0,0 +1,67 @@
+package wew.water.gpf;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WaterProcessorAlgorithmTest {
+
+    private static final int WIDTH = 300;
+
+    @Test
+    public void testInvalidPixelsAreSkipped() {
+        final WaterProcessorAlgorithm algorithm = createAlgorithm();
+        final WaterProcessorAlgorithm.Row allValidRow = algorithm.createRow(WIDTH);
+        final WaterProcessorAlgorithm.Row row = algorithm.createRow(WIDTH);
+        final SyntheticScene scene = new SyntheticScene(17, WIDTH);
+        scene.fillRow(allValidRow, 0);
+        scene.fillRow(row, 0);
+        int numInvalid = 0;
+        for (int x = 0; x < WIDTH; x++) {
+            allValidRow.valid[x] = true;
+            if (!row.valid[x]) {
+                numInvalid++;
+            }
+        }
+
+        assertEquals(0, algorithm.compute(allValidRow, WIDTH));
+        assertEquals(numInvalid, algorithm.compute(row, WIDTH));
+
+        for (int x = 0; x < WIDTH; x++) {
+            if (row.valid[x]) {
+                assertEquals(allValidRow.resultFlags[x], row.resultFlags[x]);
+                for (int n = 0; n < algorithm.getNumOutputPlanes(); n++) {
+                    assertEquals(allValidRow.result[n][x], row.result[n][x], 0.0f);
+                }
+            } else {
+                assertMasked(algorithm, row, x);
+            }
+        }
+    }
+
+    @Test
+    public void testRowWithoutValidPixels() {
+        final WaterProcessorAlgorithm algorithm = createAlgorithm();
+        final WaterProcessorAlgorithm.Row row = algorithm.createRow(WIDTH);
+        new SyntheticScene(17, WIDTH).fillRow(row, 0);
+        for (int x = 0; x < WIDTH; x++) {
+            row.valid[x] = false;
+        }
+
+        assertEquals(WIDTH, algorithm.compute(row, WIDTH));
+        for (int x = 0; x < WIDTH; x++) {
+            assertMasked(algorithm, row, x);
+        }
+    }
+
+    private static WaterProcessorAlgorithm createAlgorithm() {
+        return new WaterProcessorAlgorithm(SyntheticScene.createSpectralConstants(), true, true, true, true, false, false);
+    }
+
+    private static void assertMasked(WaterProcessorAlgorithm algorithm, WaterProcessorAlgorithm.Row row, int x) {
+        assertEquals(WaterProcessorOp.RESULT_ERROR_VALUES[0], row.resultFlags[x]);
+        for (int n = 0; n < algorithm.getNumOutputPlanes(); n++) {
+            assertEquals(WaterProcessorOp.result_mask_value, row.result[n][x], 0.0f);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.dataio.ProductIO;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.MetadataElement;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.GPF;
+import org.esa.beam.util.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WaterProcessorBatchTest {
+
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 30;
+
+    @BeforeClass
+    public static void loadOperatorSpis() {
+        GPF.getDefaultInstance().getOperatorSpiRegistry().loadOperatorSpis();
+    }
+
+    @Test
+    public void testProcessEqualsSingleProducts() throws Exception {
+        final File dir = createTempDir();
+        try {
+            final File[] inputFiles = {
+                    writeSourceProduct(dir, "MER_RR__1P_1", 41),
+                    writeSourceProduct(dir, "MER_RR__1P_2", 42),
+                    writeSourceProduct(dir, "MER_RR__1P_3", 43)
+            };
+            final File outputDir = new File(dir, "output");
+            assertTrue(outputDir.mkdir());
+            // With a single worker the third product is only read when the first one has been written
+            final WaterProcessorBatch batch = new WaterProcessorBatch(outputDir, WaterProcessorBatch.DEFAULT_FORMAT_NAME,
+                                                                      1, false, createParameters());
+            assertEquals(0, batch.process(Arrays.asList(inputFiles)));
+
+            assertOutputEqualsSingleProduct(new File(outputDir, "MER_RR__1P_1_WATER.dim"), 41);
+            assertOutputEqualsSingleProduct(new File(outputDir, "MER_RR__1P_2_WATER.dim"), 42);
+            assertOutputEqualsSingleProduct(new File(outputDir, "MER_RR__1P_3_WATER.dim"), 43);
+        } finally {
+            FileUtils.deleteTree(dir);
+        }
+    }
+
+    @Test
+    public void testProcessReportsFailedProduct() throws Exception {
+        final File dir = createTempDir();
+        final Logger logger = Logger.getLogger(WaterProcessorBatch.class.getName());
+        final List<LogRecord> errors = new ArrayList<LogRecord>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.SEVERE) {
+                    errors.add(record);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        logger.addHandler(handler);
+        try {
+            final File brokenFile = new File(dir, "MER_RR__1P_2.N1");
+            final FileWriter writer = new FileWriter(brokenFile);
+            try {
+                writer.write("not a product");
+            } finally {
+                writer.close();
+            }
+            final List<File> inputFiles = Arrays.asList(writeSourceProduct(dir, "MER_RR__1P_1", 41), brokenFile,
+                                                        writeSourceProduct(dir, "MER_RR__1P_3", 43));
+            final File outputDir = new File(dir, "output");
+            assertTrue(outputDir.mkdir());
+            final WaterProcessorBatch batch = new WaterProcessorBatch(outputDir, WaterProcessorBatch.DEFAULT_FORMAT_NAME,
+                                                                      2, false, createParameters());
+            assertEquals(1, batch.process(inputFiles));
+
+            assertEquals(1, errors.size());
+            assertTrue(errors.get(0).getMessage(), errors.get(0).getMessage().contains(brokenFile.getPath()));
+            assertFalse(new File(outputDir, "MER_RR__1P_2_WATER.dim").exists());
+            // The products before and after the failed one are processed
+            assertOutputEqualsSingleProduct(new File(outputDir, "MER_RR__1P_1_WATER.dim"), 41);
+            assertOutputEqualsSingleProduct(new File(outputDir, "MER_RR__1P_3_WATER.dim"), 43);
+        } finally {
+            logger.removeHandler(handler);
+            FileUtils.deleteTree(dir);
+        }
+    }
+
+    @Test
+    public void testResultFlagStatisticsAreWritten() throws Exception {
+        final File dir = createTempDir();
+        try {
+            final File inputFile = writeSourceProduct(dir, "MER_RR__1P_1", 31);
+            final File outputDir = new File(dir, "output");
+            assertTrue(outputDir.mkdir());
+            final WaterProcessorBatch batch = new WaterProcessorBatch(outputDir, WaterProcessorBatch.DEFAULT_FORMAT_NAME,
+                                                                      1, true, createParameters());
+            assertEquals(0, batch.process(Arrays.asList(inputFile)));
+
+            assertTrue(new File(outputDir, "MER_RR__1P_1_flags.json").isFile());
+            // The statistics are counted while the product is written, they are in the header read back
+            final Product output = ProductIO.readProduct(new File(outputDir, "MER_RR__1P_1_WATER.dim"));
+            assertNotNull(output);
+            final MetadataElement element = output.getMetadataRoot().getElement(ResultFlagStatistics.METADATA_ELEMENT_NAME);
+            assertNotNull(element);
+            assertEquals(WIDTH * HEIGHT, element.getAttribute("num_pixels").getData().getElemInt());
+            output.dispose();
+        } finally {
+            FileUtils.deleteTree(dir);
+        }
+    }
+
+    @Test
+    public void testExpandInputs() throws IOException {
+        final File dir = File.createTempFile("wew-batch", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        try {
+            for (String name : new String[]{"MER_RR__1P_2.N1", "MER_RR__1P_1.N1", "MER_FR__1P_1.N1", "readme.txt"}) {
+                assertTrue(new File(dir, name).createNewFile());
+            }
+            final File other = new File("other.N1");
+            final List<File> files = WaterProcessorBatch.expandInputs(Arrays.asList(new File(dir, "MER_RR__1P*.N1").getPath(),
+                                                                                   other.getPath()));
+            assertEquals(Arrays.asList(new File(dir, "MER_RR__1P_1.N1"), new File(dir, "MER_RR__1P_2.N1"), other), files);
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testParseParameter() {
+        assertEquals(Boolean.TRUE, WaterProcessorBatch.parseParameter("useFastSigmoid", "true"));
+        assertEquals(Boolean.FALSE, WaterProcessorBatch.parseParameter("computeAtmCorr", "FALSE"));
+        assertEquals("not l1_flags.INVALID", WaterProcessorBatch.parseParameter("expression", "not l1_flags.INVALID"));
+        assertEquals(new File("stats.json"), WaterProcessorBatch.parseParameter("statisticsFile", "stats.json"));
+        assertArrayEquals(new String[]{"aero_opt_thick_550", "reflec_5"},
+                          (String[]) WaterProcessorBatch.parseParameter("atmCorrBandNames", "aero_opt_thick_550,reflec_5"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseUnknownParameter() {
+        WaterProcessorBatch.parseParameter("algorithm", "x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidBoolean() {
+        WaterProcessorBatch.parseParameter("computeCHL", "yes");
+    }
+
+    @Test
+    public void testNetworkVariantsAreShared() {
+        final FeedForwardNet net = NN_CHL.getNet();
+        final FeedForwardNet fastSingleNet = net.withFastSigmoid(true).withSinglePrecision(true);
+        assertSame(fastSingleNet, net.withFastSigmoid(true).withSinglePrecision(true));
+        assertSame(net.withSinglePrecision(true), net.withSinglePrecision(true));
+        assertNotSame(fastSingleNet, net.withSinglePrecision(true));
+    }
+
+    @Test
+    public void testSpectralConstantsEquality() {
+        final WaterProcessorSpectralConstants constants = SyntheticScene.createSpectralConstants();
+        assertEquals(constants, SyntheticScene.createSpectralConstants());
+        assertEquals(constants.hashCode(), SyntheticScene.createSpectralConstants().hashCode());
+    }
+
+    /*
+     * Compares the output of the batch with the output of the FUB.Water operator for the same source.
+     */
+    private static void assertOutputEqualsSingleProduct(File outputFile, long seed) throws IOException {
+        final Product source = new SyntheticScene(seed, WIDTH).createProduct(HEIGHT);
+        final WaterProcessorOp op = new WaterProcessorOp();
+        op.setSourceProduct(source);
+        for (Map.Entry<String, Object> entry : createParameters().entrySet()) {
+            op.setParameter(entry.getKey(), entry.getValue());
+        }
+        final Product expected = op.getTargetProduct();
+        final Product actual = ProductIO.readProduct(outputFile);
+        assertNotNull(outputFile.getPath(), actual);
+        final List<String> bandNames = new ArrayList<String>();
+        bandNames.addAll(Arrays.asList(WaterProcessorOp.getOutputBandNames(true, true, true, true)));
+        bandNames.add("result_flags");
+        for (String bandName : bandNames) {
+            final Band actualBand = actual.getBand(bandName);
+            assertNotNull(bandName, actualBand);
+            assertArrayEquals(outputFile.getName() + " " + bandName,
+                              SyntheticScene.getSamples(expected.getBand(bandName)),
+                              SyntheticScene.getSamples(actualBand), 0.0f);
+        }
+        actual.dispose();
+        expected.dispose();
+        source.dispose();
+    }
+
+    private static File createTempDir() throws IOException {
+        final File dir = File.createTempFile("wew-batch", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        return dir;
+    }
+
+    /*
+     * Writes a synthetic MERIS L1b product as BEAM-DIMAP file.
+     */
+    private static File writeSourceProduct(File dir, String name, long seed) throws IOException {
+        final Product product = new SyntheticScene(seed, WIDTH).createProduct(HEIGHT);
+        product.setName(name);
+        final File file = new File(dir, name + ".dim");
+        ProductIO.writeProduct(product, file, WaterProcessorBatch.DEFAULT_FORMAT_NAME, false);
+        product.dispose();
+        return file;
+    }
+
+    private static Map<String, Object> createParameters() {
+        final Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("checkWhetherSuspectIsValid", false);
+        parameters.put("expression", SyntheticScene.VALID_EXPRESSION);
+        return parameters;
+    }
+}
@@ -0,0 +1,101 @@
+package wew.water.gpf;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.Operator;
+import org.junit.Test;
+
+import javax.media.jai.JAI;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WaterProcessorTileOpTest {
+
+    private static final int WIDTH = 90;
+    private static final int HEIGHT = 70;
+
+    @Test
+    public void testTileOpEqualsPixelOp() {
+        assertIdenticalTargets(true, true, true, true);
+    }
+
+    @Test
+    public void testTileOpEqualsPixelOpWithoutAtmCorr() {
+        assertIdenticalTargets(true, false, true, false);
+    }
+
+    @Test
+    public void testRecomputedTilesAreCountedOnce() throws IOException {
+        assertTilesCountedOnce(new WaterProcessorOp());
+        assertTilesCountedOnce(new WaterProcessorTileOp());
+    }
+
+    private static void assertTilesCountedOnce(Operator op) throws IOException {
+        final Product source = new SyntheticScene(29, WIDTH).createProduct(HEIGHT);
+        source.setPreferredTileSize(32, 32);
+        final File statisticsFile = File.createTempFile("wew-flags", ".json");
+        try {
+            op.setParameter("statisticsFile", statisticsFile);
+            final Band flagsBand = createTarget(op, source, true, true, true, true).getBand("result_flags");
+            SyntheticScene.getSamples(flagsBand);
+            // The tiles are computed again
+            JAI.getDefaultInstance().getTileCache().flush();
+            SyntheticScene.getSamples(flagsBand);
+            op.dispose();
+            final String json = new String(Files.readAllBytes(statisticsFile.toPath()), "UTF-8");
+            assertTrue(json, json.contains("\"num_pixels\": " + WIDTH * HEIGHT + ","));
+        } finally {
+            statisticsFile.delete();
+            source.dispose();
+        }
+    }
+
+    private static void assertIdenticalTargets(boolean computeCHL, boolean computeYS, boolean computeTSM,
+                                               boolean computeAtmCorr) {
+        final Product source = new SyntheticScene(23, WIDTH).createProduct(HEIGHT);
+        // Several tiles, including partial tiles at the right and bottom border
+        source.setPreferredTileSize(32, 32);
+        final Product pixelTarget = createTarget(new WaterProcessorOp(), source,
+                                                 computeCHL, computeYS, computeTSM, computeAtmCorr);
+        final Product tileTarget = createTarget(new WaterProcessorTileOp(), source,
+                                                computeCHL, computeYS, computeTSM, computeAtmCorr);
+
+        final String[] bandNames = WaterProcessorOp.getOutputBandNames(computeCHL, computeYS, computeTSM, computeAtmCorr);
+        for (String bandName : bandNames) {
+            final float[] expected = SyntheticScene.getSamples(pixelTarget.getBand(bandName));
+            final float[] actual = SyntheticScene.getSamples(tileTarget.getBand(bandName));
+            assertArrayEquals(bandName, expected, actual, 0.0f);
+        }
+        final float[] expectedFlags = SyntheticScene.getSamples(pixelTarget.getBand("result_flags"));
+        final float[] actualFlags = SyntheticScene.getSamples(tileTarget.getBand("result_flags"));
+        assertArrayEquals("result_flags", expectedFlags, actualFlags, 0.0f);
+
+        // The scene has to cover both, valid and invalid pixels
+        int numInvalid = 0;
+        for (float flags : expectedFlags) {
+            if (((int) flags & WaterProcessorOp.RESULT_ERROR_VALUES[0]) != 0) {
+                numInvalid++;
+            }
+        }
+        assertTrue(numInvalid > 0 && numInvalid < WIDTH * HEIGHT / 2);
+        assertEquals(pixelTarget.getNumBands(), tileTarget.getNumBands());
+        source.dispose();
+    }
+
+    private static Product createTarget(Operator op, Product source, boolean computeCHL, boolean computeYS,
+                                        boolean computeTSM, boolean computeAtmCorr) {
+        op.setSourceProduct(source);
+        op.setParameter("computeCHL", computeCHL);
+        op.setParameter("computeYS", computeYS);
+        op.setParameter("computeTSM", computeTSM);
+        op.setParameter("computeAtmCorr", computeAtmCorr);
+        op.setParameter("checkWhetherSuspectIsValid", false);
+        op.setParameter("expression", SyntheticScene.VALID_EXPRESSION);
+        return op.getTargetProduct();
+    }
+}
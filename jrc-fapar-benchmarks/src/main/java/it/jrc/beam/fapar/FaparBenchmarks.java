@@ -0,0 +1,24 @@
+package it.jrc.beam.fapar;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the FAPAR benchmarks with the GC profiler, which adds the allocation rate
+ * (<code>gc.alloc.rate.norm</code>, bytes per invocation) to the ns/pixel scores.
+ * The usual JMH command line options are accepted, e.g. a benchmark name pattern.
+ */
+public class FaparBenchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                           .parent(commandLineOptions)
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+package it.jrc.beam.fapar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FAPAR algorithm alone, in ns per pixel, without the conversion of radiances into reflectances.
+ * <p/>
+ * The pixels are vegetated and bright surfaces, the only ones for which the anisotropic normalisation
+ * and the atmospheric rectification are computed. {@link #run} measures the algorithm instance used by
+ * earlier versions of the operator, {@link #compute} the stateless algorithm and {@link #legacyRun} the
+ * array based algorithm of the FAPAR processor, which processes all pixels in a single call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaparOpAlgorithmBenchmark {
+
+    static final int NUM_PIXELS = 1024;
+
+    private float[] sza;
+    private float[] saa;
+    private float[] vza;
+    private float[] vaa;
+    private float[] blue;
+    private float[] red;
+    private float[] nir;
+    private int[] process;
+
+    private FaparOpAlgorithm algorithm;
+    private float[] result;
+    private FaparAlgorithm legacyAlgorithm;
+    private int[] legacyProcess;
+
+    @Setup
+    public void setUp() {
+        final float[][] grids = SyntheticMerisScene.createGrids(NUM_PIXELS, 27);
+        sza = grids[SyntheticMerisScene.SZA];
+        saa = grids[SyntheticMerisScene.SAA];
+        vza = grids[SyntheticMerisScene.VZA];
+        vaa = grids[SyntheticMerisScene.VAA];
+        blue = grids[SyntheticMerisScene.BLUE];
+        red = grids[SyntheticMerisScene.RED];
+        nir = grids[SyntheticMerisScene.NIR];
+        process = SyntheticMerisScene.createProcessFlags(grids);
+        algorithm = new FaparOpAlgorithm();
+        result = new float[FaparOpAlgorithm.RESULT_LENGTH];
+        legacyAlgorithm = new FaparAlgorithm();
+        legacyProcess = new int[NUM_PIXELS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void run(Blackhole blackhole) {
+        for (int i = 0; i < NUM_PIXELS; i++) {
+            blackhole.consume(algorithm.run(sza[i], saa[i], vza[i], vaa[i], blue[i], red[i], nir[i], process[i]));
+            blackhole.consume(algorithm.getRedRec());
+            blackhole.consume(algorithm.getNirRec());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void compute(Blackhole blackhole) {
+        for (int i = 0; i < NUM_PIXELS; i++) {
+            blackhole.consume(FaparOpAlgorithm.compute(sza[i], saa[i], vza[i], vaa[i], blue[i], red[i], nir[i],
+                                                       process[i], result));
+            blackhole.consume(result);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void legacyRun(Blackhole blackhole) {
+        // The legacy algorithm updates the process flags in place
+        System.arraycopy(process, 0, legacyProcess, 0, NUM_PIXELS);
+        blackhole.consume(legacyAlgorithm.run(sza, saa, vza, vaa, blue, red, nir, legacyProcess));
+        blackhole.consume(legacyAlgorithm.getRedRec());
+        blackhole.consume(legacyAlgorithm.getNirRec());
+    }
+}
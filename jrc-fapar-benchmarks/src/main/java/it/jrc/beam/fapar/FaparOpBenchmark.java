@@ -0,0 +1,89 @@
+package it.jrc.beam.fapar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-pixel cost of the Fapar operator, in ns per pixel.
+ * <p/>
+ * A single operator is shared by all benchmark threads, like by the tile computing threads of GPF,
+ * each thread feeds its own synthetic MERIS pixels through {@link FaparOp#computePixel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaparOpBenchmark {
+
+    static final int NUM_PIXELS = 1024;
+
+    private FaparOp operator;
+
+    @Setup
+    public void setUp() {
+        operator = new FaparOp();
+        operator.setBlueSolarFlux(1816.5496f);
+        operator.setGreenSolarFlux(1747.469f);
+        operator.setRedSolarFlux(1425.911f);
+        operator.setNirSolarFlux(928.46783f);
+        operator.setGreenBandPresent(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PIXELS)
+    public void computePixel(Pixels pixels, Blackhole blackhole) {
+        final PixelSample[] targetSamples = pixels.targetSamples;
+        for (int i = 0; i < NUM_PIXELS; i++) {
+            operator.computePixel(i, 0, pixels.sourceSamples[i], targetSamples);
+            blackhole.consume(targetSamples[0].getDouble());
+        }
+    }
+
+    /**
+     * The source samples of the pixels and the target samples of a thread. The radiances and angles
+     * are chosen so that most pixels are vegetated, about 15 % are bright, water, cloud or invalid.
+     */
+    @State(Scope.Thread)
+    public static class Pixels {
+
+        final PixelSample[][] sourceSamples = new PixelSample[NUM_PIXELS][9];
+        final PixelSample[] targetSamples = new PixelSample[8];
+
+        @Setup
+        public void setUp() {
+            final Random random = new Random(27);
+            for (PixelSample[] samples : sourceSamples) {
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = new PixelSample();
+                }
+                samples[0].set(20.0 + 50.0 * random.nextDouble());  // blue radiance
+                samples[1].set(20.0 + 40.0 * random.nextDouble());  // green radiance
+                samples[2].set(10.0 + 50.0 * random.nextDouble());  // red radiance
+                samples[3].set(20.0 + 90.0 * random.nextDouble());  // NIR radiance
+                samples[4].set(16);                                  // l1_flags
+                samples[5].set(20.0 + 40.0 * random.nextDouble());  // sun zenith
+                samples[6].set(360.0 * random.nextDouble() - 180.0);
+                samples[7].set(40.0 * random.nextDouble());         // view zenith
+                samples[8].set(360.0 * random.nextDouble() - 180.0);
+            }
+            for (int i = 0; i < targetSamples.length; i++) {
+                targetSamples[i] = new PixelSample();
+            }
+        }
+    }
+}
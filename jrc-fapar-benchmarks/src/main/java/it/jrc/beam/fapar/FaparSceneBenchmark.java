@@ -0,0 +1,80 @@
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.GPF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.media.jai.JAI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete FAPAR operator on a synthetic MERIS scene held in memory, in pixels per second. With the
+ * GC profiler of {@link FaparBenchmarks} <code>gc.alloc.rate.norm</code> is the allocation per pixel.
+ * <p/>
+ * Each invocation creates the target product of the selected operator and computes all of its output
+ * bands, tile by tile, on the calling thread. The output is checked against the output of the baseline
+ * operator by <code>FaparRegressionTest</code> of jrc-fapar, not here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FaparSceneBenchmark {
+
+    static final int SCENE_WIDTH = 1121;
+    static final int SCENE_HEIGHT = 64;
+
+    @Param({"Fapar", "Fapar.Tiled"})
+    String operatorAlias;
+
+    @Param({"false", "true"})
+    boolean outputFaparAsInt;
+
+    private Product sourceProduct;
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setUp() {
+        GPF.getDefaultInstance().getOperatorSpiRegistry().loadOperatorSpis();
+        sourceProduct = MerisTestProducts.createProduct(SCENE_WIDTH, SCENE_HEIGHT, 17);
+        sourceProduct.setPreferredTileSize(SCENE_WIDTH, 16);
+        parameters = new HashMap<String, Object>();
+        parameters.put("outputFaparAsInt", outputFaparAsInt);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sourceProduct.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCENE_WIDTH * SCENE_HEIGHT)
+    public void computeScene(Blackhole blackhole) {
+        final Product targetProduct = GPF.createProduct(operatorAlias, parameters, sourceProduct);
+        // The tiles of all target bands are computed together, the first band triggers the computation
+        for (String bandName : MerisTestProducts.TARGET_BAND_NAMES) {
+            final Band band = targetProduct.getBand(bandName);
+            blackhole.consume(band.getSourceImage().getData());
+        }
+        targetProduct.dispose();
+        JAI.getDefaultInstance().getTileCache().flush();
+    }
+}
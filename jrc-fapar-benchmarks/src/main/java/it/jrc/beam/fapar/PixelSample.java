@@ -0,0 +1,81 @@
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.RasterDataNode;
+import org.esa.beam.framework.gpf.pointop.WritableSample;
+
+/**
+ * A sample which is not bound to a raster, it simply holds the value last set.
+ */
+final class PixelSample implements WritableSample {
+
+    private double value;
+
+    @Override
+    public void set(int bitIndex, boolean v) {
+        if (v) {
+            value = (int) value | (1 << bitIndex);
+        } else {
+            value = (int) value & ~(1 << bitIndex);
+        }
+    }
+
+    @Override
+    public void set(boolean v) {
+        value = v ? 1.0 : 0.0;
+    }
+
+    @Override
+    public void set(int v) {
+        value = v;
+    }
+
+    @Override
+    public void set(float v) {
+        value = v;
+    }
+
+    @Override
+    public void set(double v) {
+        value = v;
+    }
+
+    @Override
+    public RasterDataNode getNode() {
+        return null;
+    }
+
+    @Override
+    public int getIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getDataType() {
+        return 0;
+    }
+
+    @Override
+    public boolean getBit(int bitIndex) {
+        return ((int) value & (1 << bitIndex)) != 0;
+    }
+
+    @Override
+    public boolean getBoolean() {
+        return value != 0.0;
+    }
+
+    @Override
+    public int getInt() {
+        return (int) value;
+    }
+
+    @Override
+    public float getFloat() {
+        return (float) value;
+    }
+
+    @Override
+    public double getDouble() {
+        return value;
+    }
+}
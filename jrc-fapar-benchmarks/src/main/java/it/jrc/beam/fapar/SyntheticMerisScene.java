@@ -0,0 +1,59 @@
+package it.jrc.beam.fapar;
+
+import java.util.Random;
+
+/**
+ * Deterministic synthetic MERIS pixels for the benchmarks of the FAPAR algorithm. The products processed
+ * by the operator benchmarks are created by {@link MerisTestProducts} of the jrc-fapar tests.
+ */
+final class SyntheticMerisScene {
+
+    // Indexes of the grids created by createGrids()
+    static final int SZA = 0;
+    static final int SAA = 1;
+    static final int VZA = 2;
+    static final int VAA = 3;
+    static final int BLUE = 4;
+    static final int RED = 5;
+    static final int NIR = 6;
+
+    private SyntheticMerisScene() {
+    }
+
+    /**
+     * Creates the angles and TOA reflectances of vegetated and bright pixels, the only ones for which
+     * the anisotropic normalisation and the atmospheric rectification are computed.
+     *
+     * @param numPixels the number of pixels
+     * @param seed      the seed of the random numbers
+     *
+     * @return the grids, <code>grids[SZA ... NIR][pixel]</code>
+     */
+    static float[][] createGrids(int numPixels, long seed) {
+        final Random random = new Random(seed);
+        final float[][] grids = new float[NIR + 1][numPixels];
+        for (int i = 0; i < numPixels; i++) {
+            grids[SZA][i] = (float) (20.0 + 40.0 * random.nextDouble());
+            grids[SAA][i] = (float) (360.0 * random.nextDouble() - 180.0);
+            grids[VZA][i] = (float) (40.0 * random.nextDouble());
+            grids[VAA][i] = (float) (360.0 * random.nextDouble() - 180.0);
+            grids[BLUE][i] = (float) (0.05 + 0.1 * random.nextDouble());
+            grids[RED][i] = (float) (0.03 + 0.12 * random.nextDouble());
+            grids[NIR][i] = (float) (0.15 + 0.3 * random.nextDouble());
+        }
+        return grids;
+    }
+
+    /**
+     * @param grids the grids created by {@link #createGrids(int, long)}
+     *
+     * @return the process flags of the pixels, 0 for vegetated and 4 for bright surfaces
+     */
+    static int[] createProcessFlags(float[][] grids) {
+        final int[] process = new int[grids[RED].length];
+        for (int i = 0; i < process.length; i++) {
+            process[i] = grids[NIR][i] <= 1.3 * grids[RED][i] ? 4 : 0;
+        }
+        return process;
+    }
+}
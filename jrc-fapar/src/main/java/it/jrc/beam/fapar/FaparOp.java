@@ -20,6 +20,7 @@ import org.esa.beam.framework.datamodel.Band;
 import org.esa.beam.framework.datamodel.FlagCoding;
 import org.esa.beam.framework.datamodel.Product;
 import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.TiePointGrid;
 import org.esa.beam.framework.gpf.OperatorException;
 import org.esa.beam.framework.gpf.OperatorSpi;
 import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
@@ -31,9 +32,10 @@ import org.esa.beam.framework.gpf.pointop.Sample;
 import org.esa.beam.framework.gpf.pointop.SampleConfigurer;
 import org.esa.beam.framework.gpf.pointop.WritableSample;
 import org.esa.beam.util.ProductUtils;
-import org.esa.beam.util.math.RsMathUtils;
+import org.esa.beam.util.math.MathUtils;
 
 import java.awt.Color;
+import java.util.logging.Logger;
 
 @OperatorMetadata(alias = "Fapar", authors = "Nadine Gobron (JRC), Ralf Quast (BC)",
                   copyright = "Brockmann Consult GmbH", version = "2.3",
@@ -43,21 +45,32 @@ public class FaparOp extends PixelOperator {
     @Parameter(defaultValue = "false", label = "If set to true, Fapar will be multiplied by 10000 and written as int")
     private boolean outputFaparAsInt = false;
 
+    @Parameter(defaultValue = "false", label = "Interpolate anisotropy from tie-points",
+               description = "Expert parameter. Computes the anisotropy factors of the RPV model on the tie-point grid " +
+                             "nodes and interpolates them per pixel, instead of computing them from the interpolated " +
+                             "angles of each pixel. The results differ slightly.")
+    private boolean useTiePointGeometry;
 
-    private static final String SOURCE_BAND_NAME_BLUE = "radiance_2";
-    private static final String SOURCE_BAND_NAME_GREEN = "radiance_5";
-    private static final String SOURCE_BAND_NAME_RED = "radiance_8";
-    private static final String SOURCE_BAND_NAME_NIR = "radiance_13";
-    private static final String SOURCE_BAND_NAME_L1_FLAGS = "l1_flags";
 
-    private static final String TARGET_BAND_NAME_FAPAR = "FAPAR";
-    private static final String TARGET_BAND_NAME_BLUE = "reflectance_TOA_2";
-    private static final String TARGET_BAND_NAME_GREEN = "reflectance_TOA_5";
-    private static final String TARGET_BAND_NAME_RED = "reflectance_TOA_8";
-    private static final String TARGET_BAND_NAME_NIR = "reflectance_TOA_13";
-    private static final String TARGET_BAND_NAME_RECTIFIED_NIR = "rectified_reflectance_13";
-    private static final String TARGET_BAND_NAME_RECTIFIED_RED = "rectified_reflectance_8";
-    private static final String TARGET_BAND_NAME_L2_FLAGS = "l2_flags";
+    static final String SOURCE_BAND_NAME_BLUE = "radiance_2";
+    static final String SOURCE_BAND_NAME_GREEN = "radiance_5";
+    static final String SOURCE_BAND_NAME_RED = "radiance_8";
+    static final String SOURCE_BAND_NAME_NIR = "radiance_13";
+    static final String SOURCE_BAND_NAME_L1_FLAGS = "l1_flags";
+
+    static final String TARGET_BAND_NAME_FAPAR = "FAPAR";
+    static final String TARGET_BAND_NAME_BLUE = "reflectance_TOA_2";
+    static final String TARGET_BAND_NAME_GREEN = "reflectance_TOA_5";
+    static final String TARGET_BAND_NAME_RED = "reflectance_TOA_8";
+    static final String TARGET_BAND_NAME_NIR = "reflectance_TOA_13";
+    static final String TARGET_BAND_NAME_RECTIFIED_NIR = "rectified_reflectance_13";
+    static final String TARGET_BAND_NAME_RECTIFIED_RED = "rectified_reflectance_8";
+    static final String TARGET_BAND_NAME_L2_FLAGS = "l2_flags";
+
+    // Scaling factor of the reflectance bands if written as int16
+    static final double REFLECTANCE_SCALING_FACTOR = 1.0E-4;
+
+    static final String[] ANGLE_RASTER_NAMES = {"sun_zenith", "sun_azimuth", "view_zenith", "view_azimuth"};
 
     private static final String FAPAR_VALID_EXPRESSION = "l2_flags.LAND_OCEAN && !(l2_flags.BRIGHT)";
 
@@ -73,8 +86,10 @@ public class FaparOp extends PixelOperator {
     private Product sourceProduct;
 
     private transient boolean greenBandPresent;
+    // Whether the source product contains the reflectances computed by the MerisReflectanceOp
+    private transient boolean reflectancesPresent;
 
-    private transient ThreadLocal<FaparOpAlgorithm> threadLocalAlgorithm;
+    private transient ThreadLocal<float[]> threadLocalResult;
     private transient float blueSolarFlux = 0.0f;
     private transient float greenSolarFlux = 0.0f;
     private transient float redSolarFlux = 0.0f;
@@ -82,12 +97,14 @@ public class FaparOp extends PixelOperator {
 
     private transient int landOceanFlagMask;
     private transient int brightFlagMask;
+    private transient TiePointAnisotropy tiePointAnisotropy;
 
     public FaparOp() {
-        threadLocalAlgorithm = new ThreadLocal<FaparOpAlgorithm>() {
+        // One result array per computing thread, reused for all of its pixels
+        threadLocalResult = new ThreadLocal<float[]>() {
             @Override
-            public FaparOpAlgorithm get() {
-                return new FaparOpAlgorithm();
+            protected float[] initialValue() {
+                return new float[FaparOpAlgorithm.RESULT_LENGTH];
             }
         };
     }
@@ -298,14 +315,61 @@ public class FaparOp extends PixelOperator {
         final float saa = sourceSamples[6].getFloat();
         final float vza = sourceSamples[7].getFloat();
         final float vaa = sourceSamples[8].getFloat();
-        blue = RsMathUtils.radianceToReflectance(blue, sza, blueSolarFlux);
+        if (reflectancesPresent) {
+            if (greenBandPresent) {
+                green = sourceSamples[1].getFloat();
+            }
+        } else {
+            // The cosine of the sun zenith is shared by all bands
+            final double cosSza = Math.cos(sza * MathUtils.DTOR);
+            blue = MerisReflectanceOp.toReflectance(blue, cosSza, blueSolarFlux);
+            if (greenBandPresent) {
+                green = MerisReflectanceOp.toReflectance(sourceSamples[1].getFloat(), cosSza, greenSolarFlux);
+            }
+            red = MerisReflectanceOp.toReflectance(red, cosSza, redSolarFlux);
+            nir = MerisReflectanceOp.toReflectance(nir, cosSza, nirSolarFlux);
+        }
+
+        int process = getProcess(blue, red, nir, flg, landOceanFlagMask, brightFlagMask);
+        flg = clearLandOceanFlag(flg, process, landOceanFlagMask);
+
+        final float[] result = threadLocalResult.get();
+        if (tiePointAnisotropy != null) {
+            // The result array holds the BRFs until they are rectified
+            tiePointAnisotropy.normalize(x, y, process, blue, red, nir, result);
+            process = FaparOpAlgorithm.computeFromBrf(result[FaparOpAlgorithm.BLUE], result[FaparOpAlgorithm.RED],
+                                                      result[FaparOpAlgorithm.NIR], process, result);
+        } else {
+            process = FaparOpAlgorithm.compute(sza, saa, vza, vaa, blue, red, nir, process, result);
+        }
+
+        if (outputFaparAsInt) {
+            targetSamples[0].set(getFaparAsInt(process, result[FaparOpAlgorithm.FAPAR]));
+        } else {
+            targetSamples[0].set(getFapar(process, result[FaparOpAlgorithm.FAPAR]));
+        }
+        flg = addMgviFlag(flg, process);
+
+        // set above -- targetSamples[0].set(fapar[0]);
+        targetSamples[1].set(blue);
         if (greenBandPresent) {
-            green = RsMathUtils.radianceToReflectance(sourceSamples[1].getFloat(), sza, greenSolarFlux);
+            targetSamples[2].set(green);
         }
-        red = RsMathUtils.radianceToReflectance(red, sza, redSolarFlux);
-        nir = RsMathUtils.radianceToReflectance(nir, sza, nirSolarFlux);
+        targetSamples[3].set(red);
+        targetSamples[4].set(nir);
+        targetSamples[5].set(result[FaparOpAlgorithm.NIR_REC]);
+        targetSamples[6].set(result[FaparOpAlgorithm.RED_REC]);
+        targetSamples[7].set(flg);
+    }
 
-        int process = 0;
+    /**
+     * Classifies a pixel by its TOA reflectances and its L1b flags.
+     *
+     * @return the process flag, 0 for vegetated, 1 for bad, 2 for cloud, snow or ice, 3 for water or deep
+     *         shadow, 4 for bright pixels and 5 for pixels which are not land or bright according to the L1b flags
+     */
+    static int getProcess(float blue, float red, float nir, int l1Flags, int landOceanFlagMask, int brightFlagMask) {
+        int process;
 
         if (blue <= 0 || red <= 0 || nir <= 0) {
             process = 1;
@@ -320,80 +384,99 @@ public class FaparOp extends PixelOperator {
         }
 
         if (brightFlagMask != 0 && landOceanFlagMask != 0) {
-            int isBright = flg & brightFlagMask;
-            int isLand_Ocean = flg & landOceanFlagMask;
+            int isBright = l1Flags & brightFlagMask;
+            int isLand_Ocean = l1Flags & landOceanFlagMask;
             if (isLand_Ocean == 0 || isBright != 0) {
                 process = 5;
             }
         }
+        return process;
+    }
 
+    /**
+     * Clears the LAND_OCEAN flag of pixels which are neither vegetated nor bright.
+     */
+    static int clearLandOceanFlag(int flags, int process, int landOceanFlagMask) {
         if (!(process == 0 || process == 4)) {
-            int isLand_Ocean = flg & landOceanFlagMask;
+            int isLand_Ocean = flags & landOceanFlagMask;
             if (isLand_Ocean != 0) {
-                int newFlagMask = flg ^ landOceanFlagMask;
-                flg = newFlagMask;
+                return flags ^ landOceanFlagMask;
             }
         }
+        return flags;
+    }
 
-        // TODO - write 'run' method using scalars instead of arrays
-        FaparOpAlgorithm algorithm = threadLocalAlgorithm.get();
-        final float fapar = algorithm.run(sza, saa, vza, vaa, blue, red, nir, process);
-        process = algorithm.getProcess();
+    /**
+     * Adds the MGVI flag of the process flag updated by the algorithm, the MGVI flags start at bit 8.
+     */
+    static int addMgviFlag(int flags, int process) {
+        if (process != 0) {
+            flags += 1 << (process - 1 + 8);
+        }
+        return flags;
+    }
 
+    /**
+     * @return the geophysical value of the FAPAR band
+     */
+    static float getFapar(int process, float fapar) {
         switch (process) {
             case 0:
-                if (outputFaparAsInt) {
-                    targetSamples[0].set((int) (fapar * 10000.0f));
-                } else {
-                    targetSamples[0].set(fapar);
-                }
-                break;
+                return fapar;
             case 4:
-                targetSamples[0].set(0.0f);
-                break;
             case 6:
-                targetSamples[0].set(0.0f);
-                break;
+                return 0.0f;
             case 7:
-                targetSamples[0].set(1.0f);
-                break;
+                return 1.0f;
             default:
-                if (outputFaparAsInt) {
-                    targetSamples[0].set(-1);
-                } else {
-                    targetSamples[0].set(-1.0f / 65534.0f);
-                }
+                return -1.0f / 65534.0f;
         }
+    }
 
-        if (process != 0) {
-            flg += Math.pow(2, process - 1) * 256;
+    /**
+     * @return the value of the FAPAR band if the FAPAR is written as int
+     */
+    static int getFaparAsInt(int process, float fapar) {
+        switch (process) {
+            case 0:
+                return (int) (fapar * 10000.0f);
+            case 4:
+            case 6:
+                return 0;
+            case 7:
+                return 1;
+            default:
+                return -1;
         }
+    }
 
-        // set above -- targetSamples[0].set(fapar[0]);
-        targetSamples[1].set(blue);
-        if (greenBandPresent) {
-            targetSamples[2].set(green);
+    /**
+     * @return the raw value of a reflectance band written as int16, the reflectance divided by
+     *         {@link #REFLECTANCE_SCALING_FACTOR}, rounded and limited to the range of int16
+     */
+    static short encodeReflectance(float reflectance) {
+        final long raw = Math.round(reflectance / REFLECTANCE_SCALING_FACTOR);
+        if (raw < Short.MIN_VALUE) {
+            return Short.MIN_VALUE;
         }
-        targetSamples[3].set(red);
-        targetSamples[4].set(nir);
-        targetSamples[5].set(algorithm.getNirRec());
-        targetSamples[6].set(algorithm.getRedRec());
-        targetSamples[7].set(flg);
+        if (raw > Short.MAX_VALUE) {
+            return Short.MAX_VALUE;
+        }
+        return (short) raw;
     }
 
     @Override
     protected void configureSourceSamples(SampleConfigurer sampleConfigurer) throws OperatorException {
-        sampleConfigurer.defineSample(0, SOURCE_BAND_NAME_BLUE);
+        sampleConfigurer.defineSample(0, getSourceBandName(SOURCE_BAND_NAME_BLUE, reflectancesPresent));
         if (greenBandPresent) {
-            sampleConfigurer.defineSample(1, SOURCE_BAND_NAME_GREEN);
+            sampleConfigurer.defineSample(1, getSourceBandName(SOURCE_BAND_NAME_GREEN, reflectancesPresent));
         }
-        sampleConfigurer.defineSample(2, SOURCE_BAND_NAME_RED);
-        sampleConfigurer.defineSample(3, SOURCE_BAND_NAME_NIR);
+        sampleConfigurer.defineSample(2, getSourceBandName(SOURCE_BAND_NAME_RED, reflectancesPresent));
+        sampleConfigurer.defineSample(3, getSourceBandName(SOURCE_BAND_NAME_NIR, reflectancesPresent));
         sampleConfigurer.defineSample(4, SOURCE_BAND_NAME_L1_FLAGS);
-        sampleConfigurer.defineSample(5, "sun_zenith");
-        sampleConfigurer.defineSample(6, "sun_azimuth");
-        sampleConfigurer.defineSample(7, "view_zenith");
-        sampleConfigurer.defineSample(8, "view_azimuth");
+        for (int i = 0; i < ANGLE_RASTER_NAMES.length; i++) {
+            sampleConfigurer.defineSample(5 + i, ANGLE_RASTER_NAMES[i]);
+        }
 
     }
 
@@ -415,6 +498,38 @@ public class FaparOp extends PixelOperator {
         final Product targetProduct = productConfigurer.getTargetProduct();
         targetProduct.setDescription("Fraction of Photosyntheticaly Absorbed radiation computed by the MGVI algorithm");
 
+        final FlagCoding targetFlagCoding = addTargetFlagCoding(sourceProduct, targetProduct);
+
+        productConfigurer.copyMasks();
+
+        addMgviMasks(targetProduct);
+        addFaparBand(targetProduct, outputFaparAsInt);
+        greenBandPresent = addReflectanceTargetBands(sourceProduct, targetProduct);
+        reflectancesPresent = containsReflectanceBands(sourceProduct, greenBandPresent);
+
+        blueSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_BLUE).getSolarFlux();
+        if (greenBandPresent) {
+            greenSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_GREEN).getSolarFlux();
+        }
+        redSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_RED).getSolarFlux();
+        nirSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_NIR).getSolarFlux();
+
+        final Band flagBand = productConfigurer.addBand(TARGET_BAND_NAME_L2_FLAGS, ProductData.TYPE_UINT32);
+        flagBand.setSampleCoding(targetFlagCoding);
+        flagBand.setDescription("Classification and quality flags");
+
+        if (sourceProduct.containsBand("corr_latitude") && sourceProduct.containsBand("corr_longitude")) {
+            productConfigurer.copyBands("corr_latitude", "corr_longitude");
+        }
+        productConfigurer.copyTiePointGrids();
+        productConfigurer.copyGeoCoding();
+        productConfigurer.copyMetadata();
+    }
+
+    /**
+     * Adds the L2 flag coding, the L1b flags extended by the MGVI flags, to the target product.
+     */
+    static FlagCoding addTargetFlagCoding(Product sourceProduct, Product targetProduct) {
         ProductUtils.copyFlagCodings(sourceProduct, targetProduct);
         FlagCoding targetFlagCoding = targetProduct.getFlagCodingGroup().get(SOURCE_BAND_NAME_L1_FLAGS);
         if (targetFlagCoding == null) {
@@ -430,9 +545,10 @@ public class FaparOp extends PixelOperator {
         targetFlagCoding.addFlag("MGVI_INVAL_FAPAR", 0x1000, "Invalid rectification flagged by MGVI processing");
         targetFlagCoding.addFlag("MGVI_NO_VEGETATION", 0x2000, "Vegetation below zero flagged by MGVI processing");
         targetFlagCoding.addFlag("MGVI_VEGETATION_OOB", 0x4000, "Vegetation out out bounds flagged by MGVI processing");
+        return targetFlagCoding;
+    }
 
-        productConfigurer.copyMasks();
-
+    static void addMgviMasks(Product targetProduct) {
         targetProduct.addMask("mgvi_bad", "l2_flags.MGVI_BAD_DATA", "Bad pixel flagged by MGVI processing",
                               new Color(51, 255, 204), 0.5);
         targetProduct.addMask("mgvi_csi", "l2_flags.MGVI_CSI", "Cloud, snow or ice pixel flagged by MGVI processing",
@@ -445,7 +561,9 @@ public class FaparOp extends PixelOperator {
         targetProduct.addMask("mgvi_inval_rec", "l2_flags.MGVI_INVAL_FAPAR",
                               "Invalid rectification flagged by MGVI processing",
                               new Color(255, 102, 255), 0.5);
+    }
 
+    static Band addFaparBand(Product targetProduct, boolean outputFaparAsInt) {
         final Band faparBand = targetProduct.addBand(TARGET_BAND_NAME_FAPAR, ProductData.TYPE_UINT16);
 
         if (outputFaparAsInt) {
@@ -459,48 +577,57 @@ public class FaparOp extends PixelOperator {
         faparBand.setValidPixelExpression(FAPAR_VALID_EXPRESSION);
 
         faparBand.setDescription("Fraction of photosynthetically absorbed radiation computed by the MGVI algorithm");
+        return faparBand;
+    }
 
+    /**
+     * Adds the TOA and the rectified reflectance bands to the target product.
+     *
+     * @return whether the source product contains the green band, the green reflectance band is added only if so
+     */
+    static boolean addReflectanceTargetBands(Product sourceProduct, Product targetProduct) {
+        return addReflectanceTargetBands(sourceProduct, targetProduct, false);
+    }
+
+    /**
+     * Adds the TOA and the rectified reflectance bands to the target product, as float32 or as int16
+     * scaled by {@link #REFLECTANCE_SCALING_FACTOR}.
+     *
+     * @return whether the source product contains the green band, the green reflectance band is added only if so
+     */
+    static boolean addReflectanceTargetBands(Product sourceProduct, Product targetProduct, boolean asInt) {
         addReflectanceTargetBand(sourceProduct, targetProduct, SOURCE_BAND_NAME_BLUE, TARGET_BAND_NAME_BLUE,
-                                 "Top of atmosphere blue reflectance used in the MGVI algorithm");
-        greenBandPresent = addReflectanceTargetBand(sourceProduct, targetProduct, SOURCE_BAND_NAME_GREEN,
-                                                    TARGET_BAND_NAME_GREEN,
-                                                    "Top of atmosphere green reflectance used in the MGVI algorithm");
+                                 "Top of atmosphere blue reflectance used in the MGVI algorithm", asInt);
+        final boolean greenBandPresent = addReflectanceTargetBand(sourceProduct, targetProduct, SOURCE_BAND_NAME_GREEN,
+                                                                  TARGET_BAND_NAME_GREEN,
+                                                                  "Top of atmosphere green reflectance used in the MGVI algorithm",
+                                                                  asInt);
         addReflectanceTargetBand(sourceProduct, targetProduct, SOURCE_BAND_NAME_RED, TARGET_BAND_NAME_RED,
-                                 "Top of atmosphere red reflectance used in the MGVI algorithm");
+                                 "Top of atmosphere red reflectance used in the MGVI algorithm", asInt);
         addReflectanceTargetBand(sourceProduct, targetProduct, SOURCE_BAND_NAME_NIR, TARGET_BAND_NAME_NIR,
-                                 "Top of atmosphere NIR reflectance used in the MGVI algorithm");
+                                 "Top of atmosphere NIR reflectance used in the MGVI algorithm", asInt);
         addReflectanceTargetBand(sourceProduct, targetProduct, SOURCE_BAND_NAME_NIR, TARGET_BAND_NAME_RECTIFIED_NIR,
-                                 "Angular and atmospheric corrected NIR reflectance");
+                                 "Angular and atmospheric corrected NIR reflectance", asInt);
         addReflectanceTargetBand(sourceProduct, targetProduct, SOURCE_BAND_NAME_RED, TARGET_BAND_NAME_RECTIFIED_RED,
-                                 "Angular and atmospheric corrected red reflectance");
-
-        blueSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_BLUE).getSolarFlux();
-        if (greenBandPresent) {
-            greenSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_GREEN).getSolarFlux();
-        }
-        redSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_RED).getSolarFlux();
-        nirSolarFlux = sourceProduct.getBand(SOURCE_BAND_NAME_NIR).getSolarFlux();
-
-        final Band flagBand = productConfigurer.addBand(TARGET_BAND_NAME_L2_FLAGS, ProductData.TYPE_UINT32);
-        flagBand.setSampleCoding(targetFlagCoding);
-        flagBand.setDescription("Classification and quality flags");
-
-        if (sourceProduct.containsBand("corr_latitude") && sourceProduct.containsBand("corr_longitude")) {
-            productConfigurer.copyBands("corr_latitude", "corr_longitude");
-        }
-        productConfigurer.copyTiePointGrids();
-        productConfigurer.copyGeoCoding();
-        productConfigurer.copyMetadata();
+                                 "Angular and atmospheric corrected red reflectance", asInt);
+        return greenBandPresent;
     }
 
-    private boolean addReflectanceTargetBand(Product sourceProduct,
-                                             Product targetProduct,
-                                             String sourceBandName,
-                                             String targetBandName, String targetBandDescription) {
+    private static boolean addReflectanceTargetBand(Product sourceProduct,
+                                                    Product targetProduct,
+                                                    String sourceBandName,
+                                                    String targetBandName, String targetBandDescription,
+                                                    boolean asInt) {
         final Band sourceBand = sourceProduct.getBand(sourceBandName);
         if (sourceBand != null) {
-            final Band targetBand = targetProduct.addBand(targetBandName, ProductData.TYPE_FLOAT32);
-            targetBand.setScalingFactor(1.0);
+            final Band targetBand;
+            if (asInt) {
+                targetBand = targetProduct.addBand(targetBandName, ProductData.TYPE_INT16);
+                targetBand.setScalingFactor(REFLECTANCE_SCALING_FACTOR);
+            } else {
+                targetBand = targetProduct.addBand(targetBandName, ProductData.TYPE_FLOAT32);
+                targetBand.setScalingFactor(1.0);
+            }
             targetBand.setDescription(targetBandDescription);
             targetBand.setSolarFlux(sourceBand.getSolarFlux());
             targetBand.setSpectralBandwidth(sourceBand.getSpectralBandwidth());
@@ -523,6 +650,44 @@ public class FaparOp extends PixelOperator {
             landOceanFlagMask = sourceFlags.getFlagMask("LAND_OCEAN");
             brightFlagMask = sourceFlags.getFlagMask("BRIGHT");
         }
+        tiePointAnisotropy = useTiePointGeometry ? createTiePointAnisotropy(sourceProduct, getLogger()) : null;
+    }
+
+    /**
+     * Tells whether the source product contains the reflectances of all bands used, computed by the
+     * {@link MerisReflectanceOp}. In this case the reflectances are read instead of the radiances.
+     */
+    static boolean containsReflectanceBands(Product sourceProduct, boolean greenBandPresent) {
+        if (greenBandPresent && !MerisReflectanceOp.containsReflectanceBands(sourceProduct, SOURCE_BAND_NAME_GREEN)) {
+            return false;
+        }
+        return MerisReflectanceOp.containsReflectanceBands(sourceProduct, SOURCE_BAND_NAME_BLUE, SOURCE_BAND_NAME_RED,
+                                                           SOURCE_BAND_NAME_NIR);
+    }
+
+    static String getSourceBandName(String radianceBandName, boolean reflectancesPresent) {
+        if (reflectancesPresent) {
+            return MerisReflectanceOp.getReflectanceBandName(radianceBandName);
+        }
+        return radianceBandName;
+    }
+
+    static TiePointAnisotropy createTiePointAnisotropy(Product sourceProduct, Logger logger) {
+        final TiePointGrid[] grids = new TiePointGrid[ANGLE_RASTER_NAMES.length];
+        for (int i = 0; i < grids.length; i++) {
+            grids[i] = sourceProduct.getTiePointGrid(ANGLE_RASTER_NAMES[i]);
+            if (grids[i] == null) {
+                logger.warning(String.format("'%s' is not a tie-point grid, the anisotropy is computed per pixel.",
+                                             ANGLE_RASTER_NAMES[i]));
+                return null;
+            }
+        }
+        try {
+            return new TiePointAnisotropy(grids[0], grids[1], grids[2], grids[3]);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage() + " The anisotropy is computed per pixel.");
+            return null;
+        }
     }
 
     public void setBlueSolarFlux(float v) {
@@ -72,10 +72,31 @@ public final class FaparOpAlgorithm {
 	/**Indice of the nir reflectance in the <code>getBRF()</code> array*/
 	public static final int NIR=2;
 
+	// Result index
+	/**Index of the FAPAR in the result array of <code>compute()</code>*/
+	public static final int FAPAR=0;
+	/**Index of the red rectified reflectance in the result array of <code>compute()</code>*/
+	public static final int RED_REC=1;
+	/**Index of the nir rectified reflectance in the result array of <code>compute()</code>*/
+	public static final int NIR_REC=2;
+	/**Length of the result array of <code>compute()</code>*/
+	public static final int RESULT_LENGTH=3;
+	/**Number of anisotropy factors computed by <code>computeAnisotropyFactors()</code>*/
+	public static final int NUM_ANISOTROPY_FACTORS=6;
+
+	// Value of the rectified reflectances of pixels which are not processed or fail the rectification
+	private static final float INV=-1.0f;
+
+	// Algorithms polynoms coefficients and functions parameters, shared by all instances and never modified
+	private static final double[][][] COEFFICIENTS = createCoefficients();
+	private static final double[][][] PARAMETERS = createParameters();
+
+	// The scratch state below is per instance, an instance must only be used by one thread at a time
+
 	// Algorithms polynoms coefficients
-	private double[][][] _coeff;
+	private final double[][][] _coeff = COEFFICIENTS;
 	// Algorithms functions parameters
-	private double[][][] _param;
+	private final double[][][] _param = PARAMETERS;
 	// Bidirectional Reflectance Factors
 	private float[] _brf;
 
@@ -83,22 +104,15 @@ public final class FaparOpAlgorithm {
 	private float _red_rec;
 	private float _nir_rec;
 
-	private float INV=-1;
-
 	// Flags
 	private int _process;
 
 	/**
 	 * Constructs the object with default parameters.
 	 * <p/>
-	 * Constructs and initializes the parameters and coefficients used in the formulae.
+	 * The parameters and coefficients used in the formulae are shared by all instances.
 	 */
 	public FaparOpAlgorithm() {
-		// Initialize Parameters and Coefficients
-
-		initializeParameters();
-		initializeCoefficients();
-
 		_brf=null;
 		_red_rec=-1.0f;
 		_nir_rec=-1.0f;
@@ -150,9 +164,9 @@ public final class FaparOpAlgorithm {
 	_param[NIR][0]=0.63841;_param[NIR][1]=0.86523;_param[NIR][2]=-0.00123;
     }
 */
-  private void initializeParameters() {
+  private static double[][][] createParameters() {
   
-    _param=new double[5][3][3];  /*rho_HS,ki,theta_HG*/
+    final double[][][] _param=new double[5][3][3];  /*rho_HS,ki,theta_HG*/
 
   // vegetated surface
   
@@ -182,6 +196,7 @@ public final class FaparOpAlgorithm {
     _param[4][NIR][1] =  0.89788;
     _param[4][NIR][2] = -0.01377;
     
+    return _param;
   }
 
     /**
@@ -223,9 +238,9 @@ public final class FaparOpAlgorithm {
 	_coeff[2][6]=_coeff[2][7]=_coeff[2][8]=_coeff[2][9]=_coeff[2][10]=0.0;
     }
 */    
-  private void initializeCoefficients() 
+  private static double[][][] createCoefficients() 
   {
-    _coeff=new double[5][3][11];  //(g1,g2 coeff)
+    final double[][][] _coeff=new double[5][3][11];  //(g1,g2 coeff)
     
     // vegetated surface -> flag = 0
     
@@ -286,6 +301,7 @@ public final class FaparOpAlgorithm {
     _coeff[4][1][10] =  0.0;
   	//No Coeff for g0 if flag = 4
 
+    return _coeff;
   }
 
     /**
@@ -304,69 +320,112 @@ public final class FaparOpAlgorithm {
 // ANDREA: revised in order to take into account also flag = 4   
     public void anisotropicCorrection(float sza, float saa, float vza, float vaa, float blue_reflectance, float red_reflectance, float nir_reflectance)
     {
-    	double f1;	//f1(theta_0,theta_v,ki)
-    	double f2;	//f2(omega,theta_HG)
-    	double f3;	//f3(omega,rho_HS)
-    	double G, cos_g, theta_0, theta_v, theta_0_rad, theta_v_rad, phi;		
-    	// parameters
-    	double rho_HS, ki, theta_HG;
-    	// return value
-    	_brf = new float[3];
-    	
-    	// initialize the brf with the reflectances values
-    	_brf[BLUE] = blue_reflectance;
-        _brf[RED]  = red_reflectance;
-        _brf[NIR]  = nir_reflectance;
-    	
-     	// loop over the 3 reflectance array (blue, red, nir)
-      	for (int p = 0; p < 3; p++)
-      	{
-    			// check for process flag. If set to false we must set the default value for
-    			// invalid pixels and process the next pixel
-// ANDREA: revised in order to take into account also flag = 4			
-  /*			
-    			if (_process[i] != 0) {
-    				continue;
-    			}
-  */			
-    			if (_process != 0 && _process != 4) {
-    				continue;
-    			}
-    			
-      		// Get the parameter for the corresponding reflectance
-      		rho_HS   = _param[_process][p][0];
-      		ki       = _param[_process][p][1];
-      		theta_HG = _param[_process][p][2];
-
-    			// Get some useful temporary values
-    			theta_0     = (double)sza;
-    			theta_v     = (double)vza;
-    			theta_0_rad = MathUtils.DTOR*theta_0; // value in radian
-    			theta_v_rad = MathUtils.DTOR*theta_v;
-    			phi         = (double)saa - (double)vaa; // Relative azimuth angle
-    			
-    			// G
-    			G     = Math.pow( Math.pow( Math.tan( theta_0_rad ), 2) + Math.pow( Math.tan( theta_v_rad ), 2) - 2*Math.tan( theta_0_rad ) * Math.tan( theta_v_rad ) * Math.cos( MathUtils.DTOR * phi), 0.5);
-    			//cos g
-    			cos_g = Math.cos(theta_0_rad)*Math.cos(theta_v_rad)+Math.sin(theta_0_rad)*Math.sin(theta_v_rad)*Math.cos(MathUtils.DTOR * phi);
-    			
-    			// f1
-    			double x = Math.pow(Math.cos(theta_0_rad) * Math.cos(theta_v_rad),ki-1);
-    			double y = Math.pow(Math.cos(theta_0_rad) + Math.cos(theta_v_rad),1-ki);
-    			f1 = x/y;
-    			
-    			// f2
-    			x = 1 - Math.pow(theta_HG,2);
-    			y = Math.pow(1+2*theta_HG*cos_g+Math.pow(theta_HG,2),1.5);
-    			f2 = x/y;
-    			
-    			// f3
-    			x = 1 - rho_HS;
-    			y = 1 + G;
-    			f3 = 1 + x/y;
-    			
-    			_brf[p] = _brf[p]/(float)(f1*f2*f3);
-    		}
+    	// the array is allocated once, and overwritten by each call
+    	if (_brf == null) {
+    		_brf = new float[3];
+    	}
+    	normalize(_process, sza, saa, vza, vaa, blue_reflectance, red_reflectance, nir_reflectance, _brf);
+    }
+
+    /**
+     * Normalizes the reflectances by the anisotropic function (RPV model) of the surface type.
+     *
+     * @param process     	the process flag, only vegetated (0) and bright (4) surfaces are normalized
+     * @param sza         	sun zenith angle in decimal degrees
+     * @param saa         	sun azimuth angle in decimal degrees
+     * @param vza         	view zenith angle in decimal degrees
+     * @param vaa         	view azimuth angle in decimal degrees
+     * @param blue        	blue reflectance
+     * @param red         	red reflectance
+     * @param nir         	nir reflectance
+     * @param brf         	receives the bidirectional reflectance factors, the reflectances themselves for other
+     *                    	surface types
+     */
+    private static void normalize(int process, float sza, float saa, float vza, float vaa, float blue, float red, float nir, float[] brf)
+    {
+    	// check for process flag. If set to false we must keep the reflectance values
+    	if (process != 0 && process != 4) {
+    		brf[BLUE] = blue;
+    		brf[RED]  = red;
+    		brf[NIR]  = nir;
+    		return;
+    	}
+    	// the array holds the anisotropy factors until they are applied
+    	computeAnisotropyFactors(PARAMETERS[process], sza, saa, vza, vaa, brf, 0);
+    	brf[BLUE] = blue / brf[BLUE];
+    	brf[RED]  = red / brf[RED];
+    	brf[NIR]  = nir / brf[NIR];
+    }
+
+    /**
+     * Computes the anisotropy factors, by which the reflectances are divided by the anisotropic normalisation,
+     * of the blue, red and nir band of vegetated surfaces and of bright surfaces, in this order. The factors
+     * depend on the geometry only, hence they can be computed on the nodes of a tie-point grid and be
+     * interpolated.
+     *
+     * @param sza     	sun zenith angle in decimal degrees
+     * @param saa     	sun azimuth angle in decimal degrees
+     * @param vza     	view zenith angle in decimal degrees
+     * @param vaa     	view azimuth angle in decimal degrees
+     * @param factors 	receives the factors, an array of at least {@link #NUM_ANISOTROPY_FACTORS} elements
+     */
+    public static void computeAnisotropyFactors(float sza, float saa, float vza, float vaa, float[] factors)
+    {
+    	computeAnisotropyFactors(PARAMETERS[0], sza, saa, vza, vaa, factors, 0);
+    	computeAnisotropyFactors(PARAMETERS[4], sza, saa, vza, vaa, factors, 3);
+    }
+
+    /*
+     * Computes the anisotropy factors f1 f2 f3 of the three bands for the parameters of a surface type. The
+     * terms which depend on the geometry only are computed once for all bands.
+     */
+    private static void computeAnisotropyFactors(double[][] param, float sza, float saa, float vza, float vaa, float[] factors, int offset)
+    {
+    	// Get some useful temporary values
+    	final double theta_0_rad = MathUtils.DTOR*(double)sza; // value in radian
+    	final double theta_v_rad = MathUtils.DTOR*(double)vza;
+    	final double phi         = (double)saa - (double)vaa; // Relative azimuth angle
+    	final double tan_0       = Math.tan(theta_0_rad);
+    	final double tan_v       = Math.tan(theta_v_rad);
+    	final double cos_0       = Math.cos(theta_0_rad);
+    	final double cos_v       = Math.cos(theta_v_rad);
+    	final double cos_phi     = Math.cos(MathUtils.DTOR * phi);
+
+    	// G, squares are multiplications and the square root is Math.sqrt, which yields the same values as Math.pow
+    	final double G     = Math.sqrt(tan_0 * tan_0 + tan_v * tan_v - 2 * tan_0 * tan_v * cos_phi);
+    	// cos g
+    	final double cos_g = cos_0 * cos_v + Math.sin(theta_0_rad) * Math.sin(theta_v_rad) * cos_phi;
+
+    	for (int p = 0; p < 3; p++) {
+    		factors[offset + p] = (float) anisotropy(param[p], cos_0, cos_v, G, cos_g);
+    	}
+    }
+
+    /*
+     * Computes f1 f2 f3 for the parameters {rho_HS, ki, theta_HG} of a band.
+     */
+    private static double anisotropy(double[] param, double cos_0, double cos_v, double G, double cos_g)
+    {
+    	final double rho_HS   = param[0];
+    	final double ki       = param[1];
+    	final double theta_HG = param[2];
+
+    	// f1(theta_0,theta_v,ki)
+    	double x = Math.pow(cos_0 * cos_v, ki - 1);
+    	double y = Math.pow(cos_0 + cos_v, 1 - ki);
+    	final double f1 = x / y;
+
+    	// f2(omega,theta_HG)
+    	x = 1 - theta_HG * theta_HG;
+    	y = Math.pow(1 + 2 * theta_HG * cos_g + theta_HG * theta_HG, 1.5);
+    	final double f2 = x / y;
+
+    	// f3(omega,rho_HS)
+    	x = 1 - rho_HS;
+    	y = 1 + G;
+    	final double f3 = 1 + x / y;
+
+    	return f1 * f2 * f3;
     }
 
     /**
@@ -379,42 +438,50 @@ public final class FaparOpAlgorithm {
      */
     public void atmosphericRectification(float blue_reflectance, float red_reflectance, float nir_reflectance)
     {
-	    _red_rec=Poly1(blue_reflectance,red_reflectance);
-
-	    _nir_rec=Poly2(blue_reflectance,nir_reflectance);
+	    _red_rec=Poly1(_process,blue_reflectance,red_reflectance);
+	    if (_red_rec == INV && (_process == 0 || _process == 4)) {
+		    _process = 5;
+	    }
+
+	    _nir_rec=Poly2(_process,blue_reflectance,nir_reflectance);
+	    if (_nir_rec == INV && (_process == 0 || _process == 4)) {
+		    _process = 5;
+	    }
     }
     
     /**
      * First Polynom
+     * @param process the process flag
      * @param band1 first brf
      * @param band2 second brf
      *
-     * @return New array result of the formula
+     * @return the result of the formula, <code>INV</code> for other surface types than vegetated and bright
+     * surfaces or if the result is out of range
      */
 // ANDREA: revised in order to take into account also flag = 4     
-    private float Poly1(float band1, float band2)
+    private static float Poly1(int process, float band1, float band2)
     {
 	    float return_r = INV;
 	    double B1, B2;
 		    // check for process flag. If set to false we must set the default value for
 		    // invalid pixels and process the next pixel
-	      if (_process != 0 && _process != 4) {
+	      if (process != 0 && process != 4) {
 			    return INV;
 		    }
+		    final double[] c = COEFFICIENTS[process][0];
 		    B1 = (double)band1;
 		    B2 = (double)band2;
-		    switch (_process)
+		    switch (process)
 		    {
           case 0:
-     		    return_r = (float)(_coeff[_process][0][0] * Math.pow(B1+_coeff[_process][0][1], 2) + _coeff[_process][0][2] * Math.pow(B2+_coeff[_process][0][3], 2) + _coeff[_process][0][4] * B1 * B2);
+     		    return_r = (float)quadratic(c, 0, B1, B2);
      		    break;
           case 4:
-     		    return_r = (float)((_coeff[_process][0][0] * Math.pow(B1+_coeff[_process][0][1], 2) + _coeff[_process][0][2] * Math.pow(B2+_coeff[_process][0][3], 2) + _coeff[_process][0][4] * B1 * B2) / (_coeff[_process][0][5] * Math.pow(B1 + _coeff[_process][0][6], 2) + _coeff[_process][0][7] * Math.pow(B2 + _coeff[_process][0][8], 2) + _coeff[_process][0][9] * B1 * B2));
+     		    return_r = (float)(quadratic(c, 0, B1, B2) / quadratic(c, 5, B1, B2));
      		    break;
         }
 		    if (return_r < 0.0 || return_r > 1.0)
         { 
-          _process = 5;
           return_r = INV;
         }
 	    return return_r;
@@ -422,40 +489,69 @@ public final class FaparOpAlgorithm {
     
     /**
      * Second Polynom
+     * @param process the process flag
      * @param band1 first brf
      * @param band2 second brf
      *
-     * @return New array result of the formula
+     * @return the result of the formula, <code>INV</code> for other surface types than vegetated and bright
+     * surfaces or if the result is out of range
      */
 // ANDREA: revised in order to take into account also flag = 4     
-    private float Poly2(float band1, float band2)
+    private static float Poly2(int process, float band1, float band2)
     {
 	    float return_r = INV;
 	    double B1, B2;
 		    // check for process flag. If set to false we must set the default value for
 		    // invalid pixels and process the next pixel
-		    if (_process != 0 && _process != 4) {
+		    if (process != 0 && process != 4) {
 			    return INV;
 		    }
+		    final double[] c = COEFFICIENTS[process][1];
 		    B1 = (double)band1;
 		    B2 = (double)band2;
-		    switch (_process)
+		    switch (process)
         {
           case 0:
-     		    return_r = (float)((_coeff[_process][1][0] * Math.pow(B1 + _coeff[_process][1][1], 2) + _coeff[_process][1][2] * Math.pow(B2 + _coeff[_process][1][3], 2) + _coeff[_process][1][4] * B1 * B2) / (_coeff[_process][1][5] * Math.pow(B1 + _coeff[_process][1][6], 2) + _coeff[_process][1][7] * Math.pow(B2 + _coeff[_process][1][8], 2) + _coeff[_process][1][9] * B1 * B2 + _coeff[_process][1][10]));
+     		    return_r = (float)(quadratic(c, 0, B1, B2) / (quadratic(c, 5, B1, B2) + c[10]));
             break;
           case 4:
-    		    return_r = (float)((_coeff[_process][1][0] * Math.pow(B1 + _coeff[_process][1][1], 2) + _coeff[_process][1][2] * Math.pow(B2 + _coeff[_process][1][3], 2) + _coeff[_process][1][4] * B1 * B2) / (_coeff[_process][1][5] * Math.pow(B1 + _coeff[_process][1][6], 2) + _coeff[_process][1][7] * Math.pow(B2 + _coeff[_process][1][8], 2) + _coeff[_process][1][9] * B1 * B2));
+    		    return_r = (float)(quadratic(c, 0, B1, B2) / quadratic(c, 5, B1, B2));
     		    break;
         }
 		    if (return_r < 0.0 || return_r > 1.0)
         {
-          _process = 5;
           return_r = INV;
         }
 	    return return_r;
     }
 
+    /**
+     * Evaluates <code>c[i] (B1 + c[i+1])^2 + c[i+2] (B2 + c[i+3])^2 + c[i+4] B1 B2</code>, the squares
+     * are computed as multiplications.
+     */
+    private static double quadratic(double[] c, int i, double B1, double B2)
+    {
+	    final double u = B1 + c[i + 1];
+	    final double v = B2 + c[i + 3];
+	    return c[i] * (u * u) + c[i + 2] * (v * v) + c[i + 4] * B1 * B2;
+    }
+
+    /**
+     * Computes the FAPAR of a vegetated pixel from its rectified reflectances.
+     *
+     * @param red_rec the red rectified reflectance
+     * @param nir_rec the nir rectified reflectance
+     *
+     * @return the FAPAR, not limited to [0, 1]
+     */
+    private static float fapar(float red_rec, float nir_rec)
+    {
+	    final double[] c = COEFFICIENTS[0][2];
+	    final double u = c[3] - red_rec;
+	    final double v = c[4] - nir_rec;
+	    return (float) (c[0] * nir_rec - c[1] * red_rec - c[2]) / (float) (u * u + v * v + c[5]);
+    }
+
 
     /**
      * Performs the FAPAR algorithm.
@@ -492,7 +588,7 @@ public final class FaparOpAlgorithm {
 
         if (_process == 0) {
             // Compute the fapar
-            r_return = (float) (_coeff[0][2][0] * _nir_rec - _coeff[0][2][1] * _red_rec - _coeff[0][2][2]) / (float) (Math.pow(_coeff[0][2][3] - _red_rec, 2) + Math.pow(_coeff[0][2][4] - _nir_rec, 2) + _coeff[0][2][5]);
+            r_return = fapar(_red_rec, _nir_rec);
             // If fapar has a bad value set the flag
             if (r_return < 0.0) {
                 r_return = 0.0f;
@@ -504,4 +600,86 @@ public final class FaparOpAlgorithm {
         }
         return r_return;
     }
+
+    /**
+     * Performs the FAPAR algorithm for a single pixel like {@link #run}, without any state and without allocating
+     * memory. The method can be called by any number of threads concurrently.
+     *
+     * @param sza            	sun zenith angle in decimal degrees
+     * @param saa            	sun azimuth angle in decimal degrees
+     * @param vza            	view zenith angle in decimal degrees
+     * @param vaa            	view azimuth angle in decimal degrees
+     * @param blueReflectance	blue reflectance
+     * @param redReflectance 	red reflectance
+     * @param nirReflectance 	nir reflectance
+     * @param process        	the process flag of the pixel, only vegetated (0) and bright (4) pixels are processed
+     * @param result         	receives the FAPAR and the red and nir rectified reflectances at the indexes
+     *                       	{@link #FAPAR}, {@link #RED_REC} and {@link #NIR_REC}, an array of at least
+     *                       	{@link #RESULT_LENGTH} elements
+     *
+     * @return the process flag updated by the algorithm, like {@link #getProcess()}
+     */
+    public static int compute(float sza, float saa, float vza, float vaa, float blueReflectance, float redReflectance, float nirReflectance, int process, float[] result) {
+
+        if (process == 0 || process == 4) {
+            // Apply the anisotropic normalisation, the result array holds the BRFs until they are rectified
+            normalize(process, sza, saa, vza, vaa, blueReflectance, redReflectance, nirReflectance, result);
+            return computeFromBrf(result[BLUE], result[RED], result[NIR], process, result);
+        }
+        result[FAPAR] = -1.0f;
+        result[RED_REC] = INV;
+        result[NIR_REC] = INV;
+        return process;
+    }
+
+    /**
+     * Performs the FAPAR algorithm for a single pixel like {@link #compute}, but for reflectances which have
+     * already been normalized by the anisotropic function, for instance with anisotropy factors interpolated
+     * from {@link #computeAnisotropyFactors}.
+     *
+     * @param blueBrf 	blue bidirectional reflectance factor
+     * @param redBrf  	red bidirectional reflectance factor
+     * @param nirBrf  	nir bidirectional reflectance factor
+     * @param process 	the process flag of the pixel, only vegetated (0) and bright (4) pixels are processed
+     * @param result  	receives the FAPAR and the red and nir rectified reflectances, may be the array holding
+     *                	the BRFs
+     *
+     * @return the process flag updated by the algorithm
+     */
+    public static int computeFromBrf(float blueBrf, float redBrf, float nirBrf, int process, float[] result) {
+
+        float fapar = -1.0f;
+        float red_rec = INV;
+        float nir_rec = INV;
+
+        if (process == 0 || process == 4) {
+            // Apply the atmospheric rectification, the nir rectification is skipped if the red one has failed
+            red_rec = Poly1(process, blueBrf, redBrf);
+            if (red_rec == INV) {
+                process = 5;
+            } else {
+                nir_rec = Poly2(process, blueBrf, nirBrf);
+                if (nir_rec == INV) {
+                    process = 5;
+                }
+            }
+
+            if (process == 0) {
+                // Compute the fapar, if it has a bad value set the flag
+                fapar = fapar(red_rec, nir_rec);
+                if (fapar < 0.0) {
+                    fapar = 0.0f;
+                    process = 6;
+                } else if (fapar > 1.0) {
+                    fapar = 1.0f;
+                    process = 7;
+                }
+            }
+        }
+
+        result[FAPAR] = fapar;
+        result[RED_REC] = red_rec;
+        result[NIR_REC] = nir_rec;
+        return process;
+    }
 }
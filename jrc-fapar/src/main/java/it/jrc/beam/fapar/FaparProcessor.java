@@ -73,7 +73,6 @@ import org.esa.beam.framework.processor.ProductRef;
 import org.esa.beam.framework.processor.Request;
 import org.esa.beam.framework.processor.ui.ProcessorUI;
 import org.esa.beam.framework.datamodel.MetadataElement;
-import org.esa.beam.util.math.RsMathUtils;
 import org.esa.beam.framework.processor.ProcessorUtils;
 import org.esa.beam.framework.datamodel.FlagCoding;
 
@@ -82,6 +81,13 @@ import org.esa.beam.framework.datamodel.MetadataAttribute;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.awt.Color;
 
@@ -182,6 +188,12 @@ public class FaparProcessor extends Processor {
     private static final int _red = 1;
     private static final int _nir = 2;
 
+    /**
+     * The default number of scan lines read, processed and written at once. Only the memory for a single
+     * strip is allocated, independent of the scene height.
+     */
+    static final int STRIP_HEIGHT = 64;
+
 
     // Members attributs definition
     // the Products needed
@@ -229,6 +241,12 @@ public class FaparProcessor extends Processor {
     //Flag to set if input data are AMORGOS output, i.e. there are corrected lat/long fields
     private boolean _AmorgosData;
 
+    // The number of threads computing the strips
+    private int _numThreads = 1;
+
+    // The number of scan lines of a strip
+    private int _stripHeight = STRIP_HEIGHT;
+
     /**
      * Constructs the object with default parameters.
      * <p/>
@@ -277,15 +295,59 @@ public class FaparProcessor extends Processor {
 
             _logger.info(ProcessorConstants.LOG_MSG_SUCCESS);
 
-            _outputProduct.closeProductWriter();
-            _outputProduct.dispose();
-            _outputProduct = null;
+            closeOutputProduct();
         } catch (IOException e) {
             // catch all exceptions expect ProcessorException and throw ProcessorException
             throw new ProcessorException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Sets the number of threads computing the FAPAR. With a single thread, the default, the strips of scan
+     * lines are read, computed and written one after the other. The results do not depend on the number of threads.
+     *
+     * @param numThreads the number of threads
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        }
+        _numThreads = numThreads;
+    }
+
+    /**
+     * Sets the number of scan lines read, computed and written at once, {@link #STRIP_HEIGHT} by default.
+     * The results do not depend on the strip height.
+     *
+     * @param stripHeight the number of scan lines of a strip
+     */
+    void setStripHeight(int stripHeight) {
+        if (stripHeight < 1) {
+            throw new IllegalArgumentException("The strip height must be positive.");
+        }
+        _stripHeight = stripHeight;
+    }
+
+    /**
+     * Processes an input product without a request, writing the output product with the given writer.
+     *
+     * @param inputProduct the input product
+     * @param writer       the writer of the output product
+     * @param outputFile   the output file
+     * @param pm           the progress monitor
+     *
+     * @throws ProcessorException if a band or tie point grid is not found
+     * @throws IOException        if the input product cannot be read or the output product cannot be written
+     */
+    void processProduct(Product inputProduct, ProductWriter writer, File outputFile,
+                        ProgressMonitor pm) throws ProcessorException, IOException {
+        _inputProduct = inputProduct;
+        loadInputBands();
+        createOutputProduct(writer, outputFile);
+        processFapar(pm);
+        closeOutputProduct();
+    }
+
     /**
      * Retrieves the request element factory for the FAPAR processor
      */
@@ -339,7 +401,16 @@ public class FaparProcessor extends Processor {
      */
     private void loadInputProduct() throws ProcessorException, IOException {
         _inputProduct = loadInputProduct(0);
+        loadInputBands();
+    }
 
+    /**
+     * Retrieves all bands and tie point grids needed to process the fapar from the input product.
+     *
+     * @throws org.esa.beam.framework.processor.ProcessorException
+     *          if a band or tie point grid is not found
+     */
+    private void loadInputBands() throws ProcessorException {
         // try to retrieve the bands needed
         // --------------------------------
         _blueInputBand = _inputProduct.getBand(INPUT_BAND_NAME_BLUE);
@@ -430,11 +501,6 @@ public class FaparProcessor extends Processor {
         // -----------------------------------
         Request request = getRequest();
 
-        // get the scene size from the input product
-        // -----------------------------------------
-        int sceneWidth = _inputProduct.getSceneRasterWidth();
-        int sceneHeight = _inputProduct.getSceneRasterHeight();
-
         // get the output product from the request. The request holds objects of
         // type ProductRef which contain all the information needed here
         // --------------------------------------------------------------------
@@ -446,6 +512,29 @@ public class FaparProcessor extends Processor {
             throw new ProcessorException("No output product in request");
         }
 
+        // retrieve the default disk writer from the ProductIO package
+        // this is the BEAM_DIMAP format, the toolbox native file format
+        // --------------------------------------------------------------
+        ProductWriter writer;
+
+        writer = ProcessorUtils.createProductWriter(outputRef);
+        //writer = ProductIO.getProductWriter(ProductIO.DEFAULT_FORMAT_NAME);
+
+        createOutputProduct(writer, new File(outputRef.getFilePath()));
+    }
+
+    /**
+     * Creates the output product skeleton, attaches the writer to it and initializes its disk representation.
+     *
+     * @param writer     the writer of the output product
+     * @param outputFile the output file
+     */
+    private void createOutputProduct(ProductWriter writer, File outputFile) throws ProcessorException, IOException {
+        // get the scene size from the input product
+        // -----------------------------------------
+        int sceneWidth = _inputProduct.getSceneRasterWidth();
+        int sceneHeight = _inputProduct.getSceneRasterHeight();
+
         // create the in memory represenation of the output product
         // ---------------------------------------------------------
         // the product itself
@@ -635,24 +724,27 @@ public class FaparProcessor extends Processor {
         // ------------------------------------------------
         copyMetadataToOutput();
 
-        // retrieve the default disk writer from the ProductIO package
-        // this is the BEAM_DIMAP format, the toolbox native file format
-        // and attach to the writer to the output product
-        // --------------------------------------------------------------
-        ProductWriter writer;
-
-        writer = ProcessorUtils.createProductWriter(outputRef);
-        //writer = ProductIO.getProductWriter(ProductIO.DEFAULT_FORMAT_NAME);
+        // attach the writer to the output product
+        // ---------------------------------------
         _outputProduct.setProductWriter(writer);
 
         // and initialize the disk representation
         // -------------------------------------
-        writer.writeProductNodes(_outputProduct, new File(outputRef.getFilePath()));
+        writer.writeProductNodes(_outputProduct, outputFile);
 
         _logger.info("Created output product");
 
     }
 
+    /*
+     * Closes the writer of the output product and disposes it.
+     */
+    private void closeOutputProduct() throws IOException {
+        _outputProduct.closeProductWriter();
+        _outputProduct.dispose();
+        _outputProduct = null;
+    }
+
     private boolean isNotGeometryMask(Mask sourceMask) {
         return !Mask.VectorDataType.TYPE_NAME.equals(sourceMask.getImageType().getName());
     }
@@ -791,56 +883,20 @@ public class FaparProcessor extends Processor {
     }
 
     /**
-     * Performs the actual processing of the output product. Reads input bands line by line, calculates the fapar
-     * and writes the result to the output bands
+     * Performs the actual processing of the output product. Reads input bands in strips of scan lines, by default
+     * {@link #STRIP_HEIGHT}, calculates the fapar and writes the strip to all output bands, including the green
+     * reflectance and the flags. The memory needed depends on the scene width and the number of threads only.
+     * <p/>
+     * With more than one thread the strips are computed by a pool of workers, each with its own
+     * {@link FaparAlgorithm}. The strips are read and written by the calling thread, in the order of the scan
+     * lines, while the workers compute the strips read ahead. At most one strip per worker plus the one read
+     * ahead are held in memory.
      */
     private void processFapar(ProgressMonitor pm) throws IOException {
 
-        // first of all - allocate memory for a single scan line
-        // -----------------------------------------------------
         int width = _inputProduct.getSceneRasterWidth();
         int height = _inputProduct.getSceneRasterHeight();
 
-        // Reflectances
-        float[] blue_reflectance = new float[width];
-        float[] red_reflectance = new float[width];
-        float[] nir_reflectance = new float[width];
-        float[] green_reflectance = new float[width * height];
-
-        // MC ++
-        float[] corrlatitude = new float[width];
-        float[] corrlongitude = new float[width];
-        // MC --
-
-        //float green_sun_flux;
-
-        // Flags
-        int[] process = new int[width];
-        //int[][] flg=new int[height][width];	// flg is initialize only once (not line by line)
-        int[] flg = new int[height * width];
-        if (_inFlag != null)            // only if there was flags in the input product
-        //for (int h=0;h<height;h++)
-        //    _inFlag.readPixels(0,h,width, 1, flg[h]);
-        {
-            _inFlag.readPixels(0, 0, width, height, flg, ProgressMonitor.NULL);
-        }
-
-// ANDREA: flags to be processed. 		
-
-        int[] flgPerLine = new int[width];
-
-
-        // variable used to read the radiance
-        float[] radiance = new float[width];
-        float[] green_radiance = new float[width * height];
-        float[] green_sza = new float[width * height];
-
-        // Angles
-        float[] sza = new float[width];
-        float[] saa = new float[width];
-        float[] vza = new float[width];
-        float[] vaa = new float[width];
-
         // progress bar init
         // -----------------
 //	    fireProcessStarted("Processing FAPAR.", 0, height);
@@ -853,22 +909,6 @@ public class FaparProcessor extends Processor {
         _sun_spec[_red] = _redInputBand.getSolarFlux();
         _sun_spec[_nir] = _nirInputBand.getSolarFlux();
 
-        // Get the green radiance
-        if (_greenInputBand != null) {
-            //green_sun_flux = _greenInputBand.getSolarFlux();
-            _szaBand.readPixels(0, 0, width, height, green_sza, ProgressMonitor.NULL);
-            green_radiance = _greenInputBand.readPixels(0, 0, width, height, green_radiance, ProgressMonitor.NULL);
-            green_reflectance = RsMathUtils.radianceToReflectance(green_radiance, green_sza,
-                                                                  _greenInputBand.getSolarFlux(), null);
-            // MC 22.11.07 - debug - System.out.println (width);
-            // MC 22.11.07 - debug - System.out.println (height);
-            _reflectanceGreenBand.writePixels(0, 0, width, height, green_reflectance, ProgressMonitor.NULL);
-            // MC 22.11.07 - debug - _logger.info("coucou 2");
-            green_radiance = null;
-            green_reflectance = null;
-
-        }
-
 // ANDREA: added two variables, storing the coding of flags LAND_OCEAN and BRIGHT. In case one or both of such flags are missing, the value of the variables is set to 0.
 // These two variables are used later, in order to detect cloud pixel over land which have not been detected by MGVI processing.
 
@@ -882,195 +922,332 @@ public class FaparProcessor extends Processor {
 
 // ANDREA: END
 
+        _logger.info("Processing FAPAR with " + _numThreads + " thread(s)");
 
-        // Loop over every line
-        // --------------------
-        pm.beginTask("Processing FAPAR...", height - 1);
+        // Loop over every strip
+        // ---------------------
+        pm.beginTask("Processing FAPAR...", height);
         try {
-            for (int y = 0; y < height; y++) {
+            boolean completed;
+            if (_numThreads == 1) {
+                completed = processStrips(width, height, Land_Ocean_flagMask, Bright_flagMask, pm);
+            } else {
+                completed = processStripsConcurrently(width, height, Land_Ocean_flagMask, Bright_flagMask, pm);
+            }
+            if (!completed) {
+                // Processing terminated!
+                // --> Completely remove output product
+                _outputProduct.getProductWriter().deleteOutput();
+                // Immediately terminate now
+                _logger.info(ProcessorConstants.LOG_MSG_PROC_CANCELED);
+                _logger.info("The output product is completely removed.");
+                setCurrentStatus(ProcessorConstants.STATUS_ABORTED);
+                return;
+            }
+        } finally {
+            pm.done();
+        }
+
+        _logger.info(ProcessorConstants.LOG_MSG_PROC_SUCCESS);
+
+    }
+
+    /*
+     * Reads, computes and writes the strips one after the other. Returns false if the processing is canceled.
+     */
+    private boolean processStrips(int width, int height, int landOceanFlagMask, int brightFlagMask,
+                                  ProgressMonitor pm) throws IOException {
+        for (int y = 0; y < height; y += _stripHeight) {
+            Strip strip = readStrip(width, y, Math.min(_stripHeight, height - y));
+            computeStrip(strip, _algorithm, landOceanFlagMask, brightFlagMask);
+            writeStrip(strip);
+
+            // Notify process listeners about processing progress and
+            // check whether or not processing shall be terminated
+            pm.worked(strip.height);
+            if (pm.isCanceled()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Reads and writes the strips in order, while a pool of workers computes them. Returns false if the
+     * processing is canceled.
+     */
+    private boolean processStripsConcurrently(int width, int height, final int landOceanFlagMask,
+                                              final int brightFlagMask, ProgressMonitor pm) throws IOException {
+        final ThreadLocal<FaparAlgorithm> algorithms = new ThreadLocal<FaparAlgorithm>() {
+            @Override
+            protected FaparAlgorithm initialValue() {
+                return new FaparAlgorithm();
+            }
+        };
+        ExecutorService workers = Executors.newFixedThreadPool(_numThreads);
+        // Strips read but not yet written: one per worker and the one read ahead
+        Deque<Future<Strip>> pending = new ArrayDeque<Future<Strip>>(_numThreads + 1);
+        try {
+            int y = 0;
+            while (y < height || !pending.isEmpty()) {
+                if (y < height && pending.size() <= _numThreads) {
+                    final Strip strip = readStrip(width, y, Math.min(_stripHeight, height - y));
+                    pending.add(workers.submit(new Callable<Strip>() {
+                        @Override
+                        public Strip call() {
+                            computeStrip(strip, algorithms.get(), landOceanFlagMask, brightFlagMask);
+                            return strip;
+                        }
+                    }));
+                    y += strip.height;
+                    continue;
+                }
+                Strip strip = getComputedStrip(pending.remove());
+                writeStrip(strip);
+
+                // Notify process listeners about processing progress and
+                // check whether or not processing shall be terminated
+                pm.worked(strip.height);
+                if (pm.isCanceled()) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static Strip getComputedStrip(Future<Strip> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Processing FAPAR has been interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Processing FAPAR has failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /*
+     * Reads the flags, angles and radiances of a strip of scan lines. The radiances are stored in the
+     * reflectance arrays, they are converted by computeStrip().
+     */
+    private Strip readStrip(int width, int y, int h) throws IOException {
+        Strip strip = new Strip(y, h, width * h);
 
 // ANDREA: Read flags of the current line.
 
-                _inFlag.readPixels(0, y, width, 1, flgPerLine, ProgressMonitor.NULL);
+        if (_inFlag != null) {            // only if there was flags in the input product
+            _inFlag.readPixels(0, y, width, h, strip.flg, ProgressMonitor.NULL);
+        }
 
 // ANDREA: END
 
 
-                // Read the angles values for the line
-                _szaBand.readPixels(0, y, width, 1, sza, ProgressMonitor.NULL);
-                _saaBand.readPixels(0, y, width, 1, saa, ProgressMonitor.NULL);
-                _vzaBand.readPixels(0, y, width, 1, vza, ProgressMonitor.NULL);
-                _vaaBand.readPixels(0, y, width, 1, vaa, ProgressMonitor.NULL);
-
-                // Get the blue radiance
-                // if exception is thrown, it is transfered
-                // all reflectances may contain valules <0 or >1
-                radiance = _blueInputBand.readPixels(0, y, width, 1, radiance, ProgressMonitor.NULL);
-                blue_reflectance = RsMathUtils.radianceToReflectance(radiance, sza, _blueInputBand.getSolarFlux(),
-                                                                     null);
-
-                // Get the red radiance
-                radiance = _redInputBand.readPixels(0, y, width, 1, radiance, ProgressMonitor.NULL);
-                red_reflectance = RsMathUtils.radianceToReflectance(radiance, sza, _redInputBand.getSolarFlux(), null);
-
-                // Get the nir radiance
-                radiance = _nirInputBand.readPixels(0, y, width, 1, radiance, ProgressMonitor.NULL);
-                nir_reflectance = RsMathUtils.radianceToReflectance(radiance, sza, _nirInputBand.getSolarFlux(), null);
-
-                // MC ++
-                if (_AmorgosData) {
-                    // Get the corr Latitude
-                    corrlatitude = _corrlatitudeInputBand.readPixels(0, y, width, 1, corrlatitude,
-                                                                     ProgressMonitor.NULL);
-                    // Get the corr Longitude
-                    corrlongitude = _corrlongitudeInputBand.readPixels(0, y, width, 1, corrlongitude,
-                                                                       ProgressMonitor.NULL);
-                }
-                // MC --
-
-                // Initialize the flag values for each pixel of the line
-                // 1=Bad, 2=Cloud,snow,ice, 3=water, deep shadow, 4=bright surface
-                for (int i = 0; i < width; i++) {
-                    if (blue_reflectance[i] <= 0 || red_reflectance[i] <= 0 || nir_reflectance[i] <= 0) {
-                        process[i] = 1;
-                    } else if (blue_reflectance[i] >= 0.3 || red_reflectance[i] >= 0.5 || nir_reflectance[i] >= 0.7) {
-                        process[i] = 2;
-                    } else if (blue_reflectance[i] > nir_reflectance[i]) {
-                        process[i] = 3;
-                    }
+        // Read the angles values for the strip
+        _szaBand.readPixels(0, y, width, h, strip.sza, ProgressMonitor.NULL);
+        _saaBand.readPixels(0, y, width, h, strip.saa, ProgressMonitor.NULL);
+        _vzaBand.readPixels(0, y, width, h, strip.vza, ProgressMonitor.NULL);
+        _vaaBand.readPixels(0, y, width, h, strip.vaa, ProgressMonitor.NULL);
+
+        // Get the radiances
+        // if exception is thrown, it is transfered
+        _blueInputBand.readPixels(0, y, width, h, strip.blue_reflectance, ProgressMonitor.NULL);
+        _redInputBand.readPixels(0, y, width, h, strip.red_reflectance, ProgressMonitor.NULL);
+        _nirInputBand.readPixels(0, y, width, h, strip.nir_reflectance, ProgressMonitor.NULL);
+        // Get the green radiance, it is converted and written only
+        if (_greenInputBand != null) {
+            _greenInputBand.readPixels(0, y, width, h, strip.green_reflectance, ProgressMonitor.NULL);
+        }
+
+        // MC ++
+        if (_AmorgosData) {
+            // Get the corr Latitude
+            _corrlatitudeInputBand.readPixels(0, y, width, h, strip.corrlatitude, ProgressMonitor.NULL);
+            // Get the corr Longitude
+            _corrlongitudeInputBand.readPixels(0, y, width, h, strip.corrlongitude, ProgressMonitor.NULL);
+        }
+        // MC --
+
+        return strip;
+    }
+
+    /*
+     * Computes the fapar of a strip with the given algorithm. Touches neither the products nor the
+     * algorithm of the processor, so that strips can be computed concurrently with distinct algorithms.
+     */
+    private void computeStrip(Strip strip, FaparAlgorithm algorithm, int Land_Ocean_flagMask, int Bright_flagMask) {
+        int n = strip.flg.length;
+        int[] process = new int[n];
+        int[] flg = strip.flg;
+        int[] fapar_i = strip.fapar_i;
+
+        // Convert the radiances in place, with the cosine of the sun zenith shared by all bands
+        // all reflectances may contain valules <0 or >1
+        double[] cosSza = new double[n];
+        MerisReflectanceOp.computeCosSunZenith(strip.sza, 0, n, cosSza);
+        float[] blue_reflectance = strip.blue_reflectance;
+        float[] red_reflectance = strip.red_reflectance;
+        float[] nir_reflectance = strip.nir_reflectance;
+        MerisReflectanceOp.toReflectances(blue_reflectance, cosSza, _blueInputBand.getSolarFlux(), 0, n);
+        MerisReflectanceOp.toReflectances(red_reflectance, cosSza, _redInputBand.getSolarFlux(), 0, n);
+        MerisReflectanceOp.toReflectances(nir_reflectance, cosSza, _nirInputBand.getSolarFlux(), 0, n);
+        if (_greenInputBand != null) {
+            MerisReflectanceOp.toReflectances(strip.green_reflectance, cosSza, _greenInputBand.getSolarFlux(), 0, n);
+        }
+
+        // Initialize the flag values for each pixel of the strip
+        // 1=Bad, 2=Cloud,snow,ice, 3=water, deep shadow, 4=bright surface
+        for (int i = 0; i < n; i++) {
+            if (blue_reflectance[i] <= 0 || red_reflectance[i] <= 0 || nir_reflectance[i] <= 0) {
+                process[i] = 1;
+            } else if (blue_reflectance[i] >= 0.3 || red_reflectance[i] >= 0.5 || nir_reflectance[i] >= 0.7) {
+                process[i] = 2;
+            } else if (blue_reflectance[i] > nir_reflectance[i]) {
+                process[i] = 3;
+            }
 // ANDREA: replaced 1.25 with 1.3				    
 //			    else if (nir_reflectance[i]<=1.25*red_reflectance[i])
-                    else if (nir_reflectance[i] <= 1.3 * red_reflectance[i])
+            else if (nir_reflectance[i] <= 1.3 * red_reflectance[i])
 // ANDREA: END			    
-                    {
-                        process[i] = 4;
-                    } else {
-                        process[i] = 0;
-                    }
+            {
+                process[i] = 4;
+            } else {
+                process[i] = 0;
+            }
 
 // ANDREA: check cloud pixel over land which have not been detected by MGVI processing.
 
-                    if (Bright_flagMask != 0 && Land_Ocean_flagMask != 0) {
-                        int isBright = flgPerLine[i] & Bright_flagMask;
-                        int isLand_Ocean = flgPerLine[i] & Land_Ocean_flagMask;
-                        if (isLand_Ocean == 0 || isBright != 0) {
-                            process[i] = 5;
-                        }
-                    }
-
-// ANDREA: END			    
+            if (Bright_flagMask != 0 && Land_Ocean_flagMask != 0) {
+                int isBright = flg[i] & Bright_flagMask;
+                int isLand_Ocean = flg[i] & Land_Ocean_flagMask;
+                if (isLand_Ocean == 0 || isBright != 0) {
+                    process[i] = 5;
                 }
+            }
 
-                for (int i = 0; i < width; i++) {
-                    if (!(process[i] == 0 || process[i] == 4)) {
-                        int isLand_Ocean = flgPerLine[i] & Land_Ocean_flagMask;
-                        if (isLand_Ocean != 0) {
-                            int newFlagMask = flgPerLine[i] ^ Land_Ocean_flagMask;
-                            flgPerLine[i] = newFlagMask;
-                        }
-                    }
-                }
-
-//		    _inFlag.setPixels(0, y, width, 1, flgPerLine);
-
-                // Compute the fapar calling the algorithm
-                // ---------------------------------------
-                float[] fapar = _algorithm.run(sza, saa, vza, vaa, blue_reflectance, red_reflectance, nir_reflectance,
-                                               process);
-
-                // Variable used to write the data in type INT
-                int[] fapar_i = new int[width];
+// ANDREA: END			    
+        }
 
+        // Compute the fapar calling the algorithm
+        // ---------------------------------------
+        float[] fapar = algorithm.run(strip.sza, strip.saa, strip.vza, strip.vaa, blue_reflectance, red_reflectance,
+                                      nir_reflectance, process);
+        strip.red_rec = algorithm.getRedRec();
+        strip.nir_rec = algorithm.getNirRec();
 
-                // Check the flags and modify the wrong values of Fapar
-                // Mapp the values between 0 and 250 + 251-255 for the flags
-                // ---------------------------------------------------------
-                for (int i = 0; i < width; i++) {
+        // Check the flags and modify the wrong values of Fapar
+        // Mapp the values between 0 and 250 + 251-255 for the flags
+        // ---------------------------------------------------------
+        for (int i = 0; i < n; i++) {
 // ANDREA: replaced "if ... else ..." with "switch", and updated FAPAR values.		      
-/*		      
-			    if (process[i]==0)	
-			    {
-
-				    fapar_i[i]=Math.round(fapar[i]*250);
-				    //fapar[i]*=250;
-			    }	
-			    else
-			    {
-				    fapar_i[i]=process[i]+250;
-//				    //fapar[i]=process[i]+250;
-           
-				    flg[i+y*width]+=Math.pow(2,process[i]-1)*256;
-			    }
-*/
-                    switch (process[i]) {
-                        case 0:
-                            fapar_i[i] = Math.round(fapar[i] * 254 + 1);
-                            break;
-                        case 4:
-                            fapar_i[i] = 1;
-                            break;
-                        default:
-                            fapar_i[i] = 0;
-                    }
-
-                    if (process[i] != 0) {
-                        flg[i + y * width] += Math.pow(2, process[i] - 1) * 256;
-                    }
-                }
+            switch (process[i]) {
+                case 0:
+                    fapar_i[i] = Math.round(fapar[i] * 254 + 1);
+                    break;
+                case 4:
+                    fapar_i[i] = 1;
+                    break;
+                default:
+                    fapar_i[i] = 0;
+            }
 
-                // Write data
-                // ----------
+            if (process[i] != 0) {
+                flg[i] += 1 << (process[i] - 1 + 8);
+            }
+        }
+    }
+
+    /*
+     * Writes a computed strip to the output bands.
+     */
+    private void writeStrip(Strip strip) throws IOException {
+        int width = _inputProduct.getSceneRasterWidth();
+        int y = strip.y;
+        int h = strip.height;
 
-                // Write the fapar values to the output fapar band
-                // The values have already been mapped between 0 and 250 so the scaling factor must be 1 for the writting
-                _faparBand.setScalingFactor(1.0);
-                _faparBand.writePixels(0, y, width, 1, fapar_i, ProgressMonitor.NULL);
-                //_faparBand.writePixels(0, y, width, 1, fapar);
+        // Write the fapar values to the output fapar band
+        // The values have already been mapped between 0 and 250 so the scaling factor must be 1 for the writting
+        _faparBand.setScalingFactor(1.0);
+        _faparBand.writePixels(0, y, width, h, strip.fapar_i, ProgressMonitor.NULL);
 
 // ANDREA: updated scaling factor
 //		    _faparBand.setScalingFactor(1.0/250.0);
-                _faparBand.setScalingFactor(1.0 / 254.0);
+        _faparBand.setScalingFactor(1.0 / 254.0);
 // ANDREA: added offset
-                _faparBand.setScalingOffset(-1.0 / 254.0);
+        _faparBand.setScalingOffset(-1.0 / 254.0);
 
-                // Write the rectified values to the output bands
-                _redRecBand.writePixels(0, y, width, 1, _algorithm.getRedRec(), ProgressMonitor.NULL);
-                _nirRecBand.writePixels(0, y, width, 1, _algorithm.getNirRec(), ProgressMonitor.NULL);
+        // Write the rectified values to the output bands
+        _redRecBand.writePixels(0, y, width, h, strip.red_rec, ProgressMonitor.NULL);
+        _nirRecBand.writePixels(0, y, width, h, strip.nir_rec, ProgressMonitor.NULL);
 
-                //Write all the other bands
-                _reflectanceBlueBand.writePixels(0, y, width, 1, blue_reflectance, ProgressMonitor.NULL);
-                _reflectanceRedBand.writePixels(0, y, width, 1, red_reflectance, ProgressMonitor.NULL);
-                _reflectanceNirBand.writePixels(0, y, width, 1, nir_reflectance, ProgressMonitor.NULL);
+        //Write all the other bands
+        _reflectanceBlueBand.writePixels(0, y, width, h, strip.blue_reflectance, ProgressMonitor.NULL);
+        _reflectanceRedBand.writePixels(0, y, width, h, strip.red_reflectance, ProgressMonitor.NULL);
+        _reflectanceNirBand.writePixels(0, y, width, h, strip.nir_reflectance, ProgressMonitor.NULL);
+        if (_greenInputBand != null) {
+            _reflectanceGreenBand.writePixels(0, y, width, h, strip.green_reflectance, ProgressMonitor.NULL);
+        }
+        _flag.writePixels(0, y, width, h, strip.flg, ProgressMonitor.NULL);
 
-                // MC ++
-                if (_AmorgosData) {
-                    _corrlatitude.writePixels(0, y, width, 1, corrlatitude, ProgressMonitor.NULL);
-                    _corrlongitude.writePixels(0, y, width, 1, corrlongitude, ProgressMonitor.NULL);
-                }
-                // MC --
+        // MC ++
+        if (_AmorgosData) {
+            _corrlatitude.writePixels(0, y, width, h, strip.corrlatitude, ProgressMonitor.NULL);
+            _corrlongitude.writePixels(0, y, width, h, strip.corrlongitude, ProgressMonitor.NULL);
+        }
+        // MC --
+    }
 
-                // Notify process listeners about processing progress and
-                // check whether or not processing shall be terminated
-                pm.worked(1);
-                if (pm.isCanceled()) {
-                    // Processing terminated!
-                    // --> Completely remove output product
-                    _outputProduct.getProductWriter().deleteOutput();
-                    // Immediately terminate now
-                    _logger.info(ProcessorConstants.LOG_MSG_PROC_CANCELED);
-                    _logger.info("The output product is completely removed.");
-                    setCurrentStatus(ProcessorConstants.STATUS_ABORTED);
-                    return;
-                }
+    /**
+     * The data of a strip of scan lines, from reading to writing.
+     */
+    private static final class Strip {
 
-            }
-        } finally {
-            pm.done();
-        }
+        private final int y;
+        private final int height;
 
-        _flag.writePixels(0, 0, width, height, flg, ProgressMonitor.NULL);
-        _logger.info(ProcessorConstants.LOG_MSG_PROC_SUCCESS);
+        // Angles
+        private final float[] sza;
+        private final float[] saa;
+        private final float[] vza;
+        private final float[] vaa;
 
+        // Radiances, converted into reflectances in place
+        private final float[] blue_reflectance;
+        private final float[] red_reflectance;
+        private final float[] nir_reflectance;
+        private final float[] green_reflectance;
+
+        // MC ++
+        private final float[] corrlatitude;
+        private final float[] corrlongitude;
+        // MC --
+
+        // the input flags, written to the output together with the MGVI flags
+        private final int[] flg;
+
+        // Results
+        private final int[] fapar_i;
+        private float[] red_rec;
+        private float[] nir_rec;
+
+        private Strip(int y, int height, int size) {
+            this.y = y;
+            this.height = height;
+            sza = new float[size];
+            saa = new float[size];
+            vza = new float[size];
+            vaa = new float[size];
+            blue_reflectance = new float[size];
+            red_reflectance = new float[size];
+            nir_reflectance = new float[size];
+            green_reflectance = new float[size];
+            corrlatitude = new float[size];
+            corrlongitude = new float[size];
+            flg = new int[size];
+            fapar_i = new int[size];
+        }
     }
 }
 
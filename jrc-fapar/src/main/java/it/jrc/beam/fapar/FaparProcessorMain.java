@@ -56,21 +56,59 @@ package it.jrc.beam.fapar;
 
 import org.esa.beam.framework.processor.ProcessorRunner;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This class is the entry point for the BEAM Fapar Processor when invoked from the command line. The command
  * line arguments that can be understood by the processor are: <ul> <li>-i or --interactive (optional): open the user
  * interface for this Fapar Processor</li> <li>-d or --debug (optional): swicth the BEAM framework into debugging mode.
- * This will give a wealth of additional state information logged to the console window</li> <li>the path to a request
- * file (mandatory)</li> </ul>
+ * This will give a wealth of additional state information logged to the console window</li> <li>-t or --threads
+ * followed by a number (optional): the number of threads computing the FAPAR</li> <li>the path to a request file
+ * (mandatory)</li> </ul>
+ * <p/>
+ * By default the FAPAR is computed with as many threads as there are available processors. Earlier versions
+ * computed it sequentially, <code>-t 1</code> restores this behaviour.
  */
 public class FaparProcessorMain {
 
+    private static final String USAGE =
+            "Usage: FaparProcessorMain [-i | --interactive] [-d | --debug] [-t | --threads <number>] <request file>";
+
     /**
      * Runs this module as stand-alone application
      *
      * @param args the command-line arguments
      */
     public static void main(String[] args) {
-        ProcessorRunner.runProcessor(args, new FaparProcessor());
+        FaparProcessor processor = new FaparProcessor();
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        List<String> runnerArgs = new ArrayList<String>(args.length);
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-t") || args[i].equals("--threads")) {
+                if (i + 1 == args.length) {
+                    exitWithUsage("The number of threads is missing: " + args[i]);
+                }
+                try {
+                    numThreads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    exitWithUsage("The number of threads must be an integer: " + args[i]);
+                }
+            } else {
+                runnerArgs.add(args[i]);
+            }
+        }
+        try {
+            processor.setNumThreads(numThreads);
+        } catch (IllegalArgumentException e) {
+            exitWithUsage(e.getMessage());
+        }
+        ProcessorRunner.runProcessor(runnerArgs.toArray(new String[runnerArgs.size()]), processor);
+    }
+
+    private static void exitWithUsage(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(1);
     }
 }
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2012 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package it.jrc.beam.fapar;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.FlagCoding;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.RasterDataNode;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.esa.beam.framework.gpf.OperatorSpi;
+import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
+import org.esa.beam.framework.gpf.annotations.Parameter;
+import org.esa.beam.framework.gpf.annotations.SourceProduct;
+import org.esa.beam.framework.gpf.annotations.TargetProduct;
+import org.esa.beam.util.ProductUtils;
+
+import java.awt.Rectangle;
+import java.util.Map;
+
+/**
+ * Tile based variant of the {@link FaparOp}.
+ * <p/>
+ * The source samples of a tile are fetched as primitive arrays, one per source raster, and each row of
+ * the tile is processed in stages, each of them a loop over the row: the conversion of the radiances
+ * into reflectances, the classification of the pixels, the FAPAR algorithm and the conversion of its
+ * results into the target values. All eight target bands of the tile are written in one pass, the float
+ * bands each from a primitive array in a single call. The operator has the same parameters and creates the
+ * same target product with identical values as the pixel based operator.
+ * <p/>
+ * Integer target values are written row by row directly into the data buffers of the target tiles: the
+ * L2 flags, the FAPAR if written as int and, if <code>outputReflectancesAsInt</code> is set, the
+ * reflectances encoded as int16. The latter option is not available with the pixel based operator.
+ */
+@OperatorMetadata(alias = "Fapar.Tiled", authors = "Nadine Gobron (JRC), Ralf Quast (BC)",
+                  copyright = "Brockmann Consult GmbH", version = "2.3",
+                  description = "Computes FAPAR from MERIS products, processing whole tile rows at once.")
+public class FaparTileOp extends Operator {
+
+    @SourceProduct(alias = "source",
+                   description = "The path of the MERIS source product",
+                   label = "MERIS source product",
+                   bands = {
+                           FaparOp.SOURCE_BAND_NAME_BLUE,
+                           FaparOp.SOURCE_BAND_NAME_RED,
+                           FaparOp.SOURCE_BAND_NAME_NIR
+                   })
+    private Product sourceProduct;
+
+    @TargetProduct
+    private Product targetProduct;
+
+    @Parameter(defaultValue = "false", label = "If set to true, Fapar will be multiplied by 10000 and written as int")
+    private boolean outputFaparAsInt;
+
+    @Parameter(defaultValue = "false",
+               label = "If set to true, the reflectances will be multiplied by 10000 and written as int16")
+    private boolean outputReflectancesAsInt;
+
+    @Parameter(defaultValue = "false", label = "Interpolate anisotropy from tie-points",
+               description = "Expert parameter. Computes the anisotropy factors of the RPV model on the tie-point grid " +
+                             "nodes and interpolates them per pixel, instead of computing them from the interpolated " +
+                             "angles of each pixel. The results differ slightly.")
+    private boolean useTiePointGeometry;
+
+    private boolean greenBandPresent;
+    private boolean reflectancesPresent;
+    private float blueSolarFlux;
+    private float greenSolarFlux;
+    private float redSolarFlux;
+    private float nirSolarFlux;
+    private int landOceanFlagMask;
+    private int brightFlagMask;
+    private TiePointAnisotropy tiePointAnisotropy;
+
+    private Band blueRaster;
+    private Band greenRaster;
+    private Band redRaster;
+    private Band nirRaster;
+    private RasterDataNode flagRaster;
+    private RasterDataNode[] angleRasters;
+
+    private Band faparBand;
+    private Band blueBand;
+    private Band greenBand;
+    private Band redBand;
+    private Band nirBand;
+    private Band rectifiedNirBand;
+    private Band rectifiedRedBand;
+    private Band flagBand;
+
+    @Override
+    public void initialize() throws OperatorException {
+        blueRaster = sourceProduct.getBand(FaparOp.SOURCE_BAND_NAME_BLUE);
+        greenRaster = sourceProduct.getBand(FaparOp.SOURCE_BAND_NAME_GREEN);
+        redRaster = sourceProduct.getBand(FaparOp.SOURCE_BAND_NAME_RED);
+        nirRaster = sourceProduct.getBand(FaparOp.SOURCE_BAND_NAME_NIR);
+        flagRaster = sourceProduct.getRasterDataNode(FaparOp.SOURCE_BAND_NAME_L1_FLAGS);
+        if (flagRaster == null) {
+            throw new OperatorException(String.format("Missing input raster '%s'.", FaparOp.SOURCE_BAND_NAME_L1_FLAGS));
+        }
+        angleRasters = new RasterDataNode[FaparOp.ANGLE_RASTER_NAMES.length];
+        for (int i = 0; i < FaparOp.ANGLE_RASTER_NAMES.length; i++) {
+            angleRasters[i] = sourceProduct.getRasterDataNode(FaparOp.ANGLE_RASTER_NAMES[i]);
+            if (angleRasters[i] == null) {
+                throw new OperatorException(String.format("Missing input raster '%s'.", FaparOp.ANGLE_RASTER_NAMES[i]));
+            }
+        }
+
+        landOceanFlagMask = 0;
+        brightFlagMask = 0;
+        final FlagCoding sourceFlags = sourceProduct.getFlagCodingGroup().get(FaparOp.SOURCE_BAND_NAME_L1_FLAGS);
+        if (sourceFlags != null) {
+            landOceanFlagMask = sourceFlags.getFlagMask("LAND_OCEAN");
+            brightFlagMask = sourceFlags.getFlagMask("BRIGHT");
+        }
+        if (useTiePointGeometry) {
+            tiePointAnisotropy = FaparOp.createTiePointAnisotropy(sourceProduct, getLogger());
+        }
+
+        createTargetProduct();
+    }
+
+    private void createTargetProduct() {
+        targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                    sourceProduct.getSceneRasterWidth(), sourceProduct.getSceneRasterHeight());
+        targetProduct.setStartTime(sourceProduct.getStartTime());
+        targetProduct.setEndTime(sourceProduct.getEndTime());
+        targetProduct.setDescription("Fraction of Photosyntheticaly Absorbed radiation computed by the MGVI algorithm");
+
+        final FlagCoding targetFlagCoding = FaparOp.addTargetFlagCoding(sourceProduct, targetProduct);
+
+        ProductUtils.copyMasks(sourceProduct, targetProduct);
+
+        FaparOp.addMgviMasks(targetProduct);
+        faparBand = FaparOp.addFaparBand(targetProduct, outputFaparAsInt);
+        greenBandPresent = FaparOp.addReflectanceTargetBands(sourceProduct, targetProduct, outputReflectancesAsInt);
+        blueBand = targetProduct.getBand(FaparOp.TARGET_BAND_NAME_BLUE);
+        greenBand = targetProduct.getBand(FaparOp.TARGET_BAND_NAME_GREEN);
+        redBand = targetProduct.getBand(FaparOp.TARGET_BAND_NAME_RED);
+        nirBand = targetProduct.getBand(FaparOp.TARGET_BAND_NAME_NIR);
+        rectifiedNirBand = targetProduct.getBand(FaparOp.TARGET_BAND_NAME_RECTIFIED_NIR);
+        rectifiedRedBand = targetProduct.getBand(FaparOp.TARGET_BAND_NAME_RECTIFIED_RED);
+
+        // The reflectances computed by the MerisReflectanceOp replace the radiances, if present
+        reflectancesPresent = FaparOp.containsReflectanceBands(sourceProduct, greenBandPresent);
+        if (reflectancesPresent) {
+            blueRaster = sourceProduct.getBand(FaparOp.getSourceBandName(FaparOp.SOURCE_BAND_NAME_BLUE, true));
+            greenRaster = sourceProduct.getBand(FaparOp.getSourceBandName(FaparOp.SOURCE_BAND_NAME_GREEN, true));
+            redRaster = sourceProduct.getBand(FaparOp.getSourceBandName(FaparOp.SOURCE_BAND_NAME_RED, true));
+            nirRaster = sourceProduct.getBand(FaparOp.getSourceBandName(FaparOp.SOURCE_BAND_NAME_NIR, true));
+        }
+        blueSolarFlux = blueRaster.getSolarFlux();
+        if (greenBandPresent) {
+            greenSolarFlux = greenRaster.getSolarFlux();
+        }
+        redSolarFlux = redRaster.getSolarFlux();
+        nirSolarFlux = nirRaster.getSolarFlux();
+
+        flagBand = targetProduct.addBand(FaparOp.TARGET_BAND_NAME_L2_FLAGS, ProductData.TYPE_UINT32);
+        flagBand.setSampleCoding(targetFlagCoding);
+        flagBand.setDescription("Classification and quality flags");
+
+        if (sourceProduct.containsBand("corr_latitude") && sourceProduct.containsBand("corr_longitude")) {
+            ProductUtils.copyBand("corr_latitude", sourceProduct, targetProduct, true);
+            ProductUtils.copyBand("corr_longitude", sourceProduct, targetProduct, true);
+        }
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
+    }
+
+    @Override
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        pm.beginTask("Processing FAPAR...", targetRectangle.height);
+        try {
+            final int width = targetRectangle.width;
+            final int height = targetRectangle.height;
+
+            // All source samples of the tile as geophysical values, row by row. The radiance
+            // arrays are overwritten by the reflectances, unless the source product contains the
+            // reflectances already, which are written to the target
+            // tiles, and the flag array by the L2 flags.
+            final float[] blue = getSourceTile(blueRaster, targetRectangle).getSamplesFloat();
+            final float[] green = greenBandPresent ? getSourceTile(greenRaster, targetRectangle).getSamplesFloat() : null;
+            final float[] red = getSourceTile(redRaster, targetRectangle).getSamplesFloat();
+            final float[] nir = getSourceTile(nirRaster, targetRectangle).getSamplesFloat();
+            final int[] flags = getSourceTile(flagRaster, targetRectangle).getSamplesInt();
+            final float[] sza = getSourceTile(angleRasters[0], targetRectangle).getSamplesFloat();
+            // The other angles are not needed if the anisotropy is interpolated from the tie-points
+            float[] saa = null;
+            float[] vza = null;
+            float[] vaa = null;
+            if (tiePointAnisotropy == null) {
+                saa = getSourceTile(angleRasters[1], targetRectangle).getSamplesFloat();
+                vza = getSourceTile(angleRasters[2], targetRectangle).getSamplesFloat();
+                vaa = getSourceTile(angleRasters[3], targetRectangle).getSamplesFloat();
+            }
+
+            final int[] process = new int[width];
+            final float[] fapar = new float[width * height];
+            final float[] rectifiedRed = new float[width * height];
+            final float[] rectifiedNir = new float[width * height];
+            final float[] result = new float[FaparOpAlgorithm.RESULT_LENGTH];
+            final double[] cosSza = reflectancesPresent ? null : new double[width * height];
+
+            final Tile faparTile = targetTiles.get(faparBand);
+            final Tile flagTile = targetTiles.get(flagBand);
+            final Tile[] reflectanceTiles = {
+                    targetTiles.get(blueBand), green != null ? targetTiles.get(greenBand) : null,
+                    targetTiles.get(redBand), targetTiles.get(nirBand),
+                    targetTiles.get(rectifiedNirBand), targetTiles.get(rectifiedRedBand)
+            };
+            final float[][] reflectances = {blue, green, red, nir, rectifiedNir, rectifiedRed};
+
+            for (int j = 0; j < height; j++) {
+                checkForCancellation();
+                final int offset = j * width;
+                final int end = offset + width;
+
+                if (cosSza != null) {
+                    MerisReflectanceOp.computeCosSunZenith(sza, offset, end, cosSza);
+                    MerisReflectanceOp.toReflectances(blue, cosSza, blueSolarFlux, offset, end);
+                    if (green != null) {
+                        MerisReflectanceOp.toReflectances(green, cosSza, greenSolarFlux, offset, end);
+                    }
+                    MerisReflectanceOp.toReflectances(red, cosSza, redSolarFlux, offset, end);
+                    MerisReflectanceOp.toReflectances(nir, cosSza, nirSolarFlux, offset, end);
+                }
+
+                for (int i = offset; i < end; i++) {
+                    process[i - offset] = FaparOp.getProcess(blue[i], red[i], nir[i], flags[i],
+                                                             landOceanFlagMask, brightFlagMask);
+                }
+                for (int i = offset; i < end; i++) {
+                    flags[i] = FaparOp.clearLandOceanFlag(flags[i], process[i - offset], landOceanFlagMask);
+                }
+
+                if (tiePointAnisotropy != null) {
+                    // The result array holds the BRFs until they are rectified
+                    final int y = targetRectangle.y + j;
+                    for (int i = offset; i < end; i++) {
+                        tiePointAnisotropy.normalize(targetRectangle.x + i - offset, y, process[i - offset],
+                                                     blue[i], red[i], nir[i], result);
+                        process[i - offset] = FaparOpAlgorithm.computeFromBrf(result[FaparOpAlgorithm.BLUE],
+                                                                              result[FaparOpAlgorithm.RED],
+                                                                              result[FaparOpAlgorithm.NIR],
+                                                                              process[i - offset], result);
+                        fapar[i] = result[FaparOpAlgorithm.FAPAR];
+                        rectifiedRed[i] = result[FaparOpAlgorithm.RED_REC];
+                        rectifiedNir[i] = result[FaparOpAlgorithm.NIR_REC];
+                    }
+                } else {
+                    for (int i = offset; i < end; i++) {
+                        process[i - offset] = FaparOpAlgorithm.compute(sza[i], saa[i], vza[i], vaa[i],
+                                                                       blue[i], red[i], nir[i], process[i - offset],
+                                                                       result);
+                        fapar[i] = result[FaparOpAlgorithm.FAPAR];
+                        rectifiedRed[i] = result[FaparOpAlgorithm.RED_REC];
+                        rectifiedNir[i] = result[FaparOpAlgorithm.NIR_REC];
+                    }
+                }
+
+                if (outputFaparAsInt) {
+                    if (faparTile != null) {
+                        final short[] faparData = faparTile.getDataBufferShort();
+                        final int k = getDataBufferIndex(faparTile, j) - offset;
+                        for (int i = offset; i < end; i++) {
+                            faparData[k + i] = (short) FaparOp.getFaparAsInt(process[i - offset], fapar[i]);
+                        }
+                    }
+                } else {
+                    for (int i = offset; i < end; i++) {
+                        fapar[i] = FaparOp.getFapar(process[i - offset], fapar[i]);
+                    }
+                }
+                for (int i = offset; i < end; i++) {
+                    flags[i] = FaparOp.addMgviFlag(flags[i], process[i - offset]);
+                }
+                if (flagTile != null) {
+                    System.arraycopy(flags, offset, flagTile.getDataBufferInt(), getDataBufferIndex(flagTile, j),
+                                     width);
+                }
+                if (outputReflectancesAsInt) {
+                    for (int r = 0; r < reflectanceTiles.length; r++) {
+                        if (reflectanceTiles[r] != null) {
+                            encodeReflectances(reflectances[r], offset, end, reflectanceTiles[r], j);
+                        }
+                    }
+                }
+                pm.worked(1);
+            }
+
+            if (!outputFaparAsInt) {
+                setTargetSamples(targetTiles, faparBand, fapar);
+            }
+            if (!outputReflectancesAsInt) {
+                setTargetSamples(targetTiles, blueBand, blue);
+                if (green != null) {
+                    setTargetSamples(targetTiles, greenBand, green);
+                }
+                setTargetSamples(targetTiles, redBand, red);
+                setTargetSamples(targetTiles, nirBand, nir);
+                setTargetSamples(targetTiles, rectifiedNirBand, rectifiedNir);
+                setTargetSamples(targetTiles, rectifiedRedBand, rectifiedRed);
+            }
+        } finally {
+            pm.done();
+        }
+    }
+
+    /*
+     * Returns the index of the first pixel of a tile row in the data buffer of the tile.
+     */
+    private static int getDataBufferIndex(Tile tile, int j) {
+        return tile.getScanlineOffset() + j * tile.getScanlineStride();
+    }
+
+    /*
+     * Writes the reflectances of a tile row as int16 into the data buffer of the target tile.
+     */
+    private static void encodeReflectances(float[] samples, int offset, int end, Tile tile, int j) {
+        final short[] data = tile.getDataBufferShort();
+        final int k = getDataBufferIndex(tile, j) - offset;
+        for (int i = offset; i < end; i++) {
+            data[k + i] = FaparOp.encodeReflectance(samples[i]);
+        }
+    }
+
+    private static void setTargetSamples(Map<Band, Tile> targetTiles, Band band, float[] samples) {
+        final Tile tile = targetTiles.get(band);
+        if (tile != null) {
+            tile.setSamples(samples);
+        }
+    }
+
+
+    public static class Spi extends OperatorSpi {
+
+        public Spi() {
+            super(FaparTileOp.class);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2012 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package it.jrc.beam.fapar;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.RasterDataNode;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.framework.gpf.OperatorException;
+import org.esa.beam.framework.gpf.OperatorSpi;
+import org.esa.beam.framework.gpf.Tile;
+import org.esa.beam.framework.gpf.annotations.OperatorMetadata;
+import org.esa.beam.framework.gpf.annotations.Parameter;
+import org.esa.beam.framework.gpf.annotations.SourceProduct;
+import org.esa.beam.framework.gpf.annotations.TargetProduct;
+import org.esa.beam.util.ProductUtils;
+import org.esa.beam.util.math.MathUtils;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the radiances of a MERIS L1b product into TOA reflectances, once for all processors chained
+ * on the same product.
+ * <p/>
+ * The target product contains the source product unchanged plus a reflectance band <code>reflec_n</code>
+ * for each radiance band <code>radiance_n</code>. The cosine of the sun zenith angle is computed once
+ * per pixel for all bands of a tile. The {@link FaparOp}, the {@link FaparTileOp} and the TOA-VEG
+ * operator use the reflectance bands instead of the radiances if their source product contains them,
+ * so that a chain of these operators on a single instance of this operator reads the radiances and
+ * computes the reflectances only once per tile. The reflectances are identical to those computed by
+ * {@link org.esa.beam.util.math.RsMathUtils#radianceToReflectance(float, float, float)}.
+ */
+@OperatorMetadata(alias = "Meris.Reflectance", authors = "Ralf Quast (BC)",
+                  copyright = "Brockmann Consult GmbH", version = "1.0",
+                  description = "Converts the radiances of MERIS L1b products into TOA reflectances.")
+public class MerisReflectanceOp extends Operator {
+
+    static final String RADIANCE_BAND_NAME_PREFIX = "radiance_";
+    static final String REFLECTANCE_BAND_NAME_PREFIX = "reflec_";
+
+    private static final String SZA_RASTER_NAME = "sun_zenith";
+
+    @SourceProduct(alias = "source",
+                   description = "The path of the MERIS source product",
+                   label = "MERIS source product")
+    private Product sourceProduct;
+
+    @TargetProduct
+    private Product targetProduct;
+
+    @Parameter(label = "Radiance bands",
+               description = "The radiance bands converted into reflectances. All radiance bands if not given.")
+    private String[] radianceBandNames;
+
+    private RasterDataNode szaRaster;
+    private Band[] radianceBands;
+    private Band[] reflectanceBands;
+
+    @Override
+    public void initialize() throws OperatorException {
+        szaRaster = sourceProduct.getRasterDataNode(SZA_RASTER_NAME);
+        if (szaRaster == null) {
+            throw new OperatorException(String.format("Missing input raster '%s'.", SZA_RASTER_NAME));
+        }
+        final List<Band> bands = new ArrayList<Band>();
+        if (radianceBandNames == null || radianceBandNames.length == 0) {
+            for (Band band : sourceProduct.getBands()) {
+                if (band.getName().startsWith(RADIANCE_BAND_NAME_PREFIX)) {
+                    bands.add(band);
+                }
+            }
+        } else {
+            for (String bandName : radianceBandNames) {
+                final Band band = sourceProduct.getBand(bandName);
+                if (band == null || !bandName.startsWith(RADIANCE_BAND_NAME_PREFIX)) {
+                    throw new OperatorException(String.format("Missing radiance band '%s'.", bandName));
+                }
+                bands.add(band);
+            }
+        }
+        radianceBands = bands.toArray(new Band[bands.size()]);
+
+        createTargetProduct();
+    }
+
+    private void createTargetProduct() {
+        targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                    sourceProduct.getSceneRasterWidth(), sourceProduct.getSceneRasterHeight());
+        targetProduct.setStartTime(sourceProduct.getStartTime());
+        targetProduct.setEndTime(sourceProduct.getEndTime());
+        targetProduct.setDescription(sourceProduct.getDescription());
+
+        // The source bands are passed through, they are not computed by this operator
+        ProductUtils.copyFlagBands(sourceProduct, targetProduct, true);
+        for (Band band : sourceProduct.getBands()) {
+            if (!targetProduct.containsBand(band.getName())) {
+                ProductUtils.copyBand(band.getName(), sourceProduct, targetProduct, true);
+            }
+        }
+
+        reflectanceBands = new Band[radianceBands.length];
+        for (int i = 0; i < radianceBands.length; i++) {
+            final Band radianceBand = radianceBands[i];
+            final Band reflectanceBand = targetProduct.addBand(getReflectanceBandName(radianceBand.getName()),
+                                                               ProductData.TYPE_FLOAT32);
+            reflectanceBand.setDescription("TOA reflectance of " + radianceBand.getName());
+            reflectanceBand.setUnit("dl");
+            reflectanceBand.setSpectralBandIndex(radianceBand.getSpectralBandIndex());
+            reflectanceBand.setSpectralWavelength(radianceBand.getSpectralWavelength());
+            reflectanceBand.setSpectralBandwidth(radianceBand.getSpectralBandwidth());
+            reflectanceBand.setSolarFlux(radianceBand.getSolarFlux());
+            reflectanceBand.setValidPixelExpression(radianceBand.getValidPixelExpression());
+            reflectanceBands[i] = reflectanceBand;
+        }
+
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
+        ProductUtils.copyMasks(sourceProduct, targetProduct);
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
+    }
+
+    @Override
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        pm.beginTask("Computing reflectances...", reflectanceBands.length + 1);
+        try {
+            final float[] sza = getSourceTile(szaRaster, targetRectangle).getSamplesFloat();
+            final double[] cosSza = new double[sza.length];
+            computeCosSunZenith(sza, 0, sza.length, cosSza);
+            pm.worked(1);
+
+            for (int i = 0; i < reflectanceBands.length; i++) {
+                checkForCancellation();
+                final Tile targetTile = targetTiles.get(reflectanceBands[i]);
+                if (targetTile != null) {
+                    final float[] samples = getSourceTile(radianceBands[i], targetRectangle).getSamplesFloat();
+                    toReflectances(samples, cosSza, radianceBands[i].getSolarFlux(), 0, samples.length);
+                    targetTile.setSamples(samples);
+                }
+                pm.worked(1);
+            }
+        } finally {
+            pm.done();
+        }
+    }
+
+    /**
+     * Returns the name of the reflectance band of a radiance band, <code>reflec_n</code> for
+     * <code>radiance_n</code>.
+     *
+     * @param radianceBandName the name of the radiance band
+     *
+     * @return the name of the reflectance band
+     */
+    static String getReflectanceBandName(String radianceBandName) {
+        return REFLECTANCE_BAND_NAME_PREFIX + radianceBandName.substring(RADIANCE_BAND_NAME_PREFIX.length());
+    }
+
+    /**
+     * Tells whether a product contains the reflectance bands of all the given radiance bands.
+     *
+     * @param product           the product
+     * @param radianceBandNames the names of the radiance bands
+     *
+     * @return true if the product contains all reflectance bands
+     */
+    static boolean containsReflectanceBands(Product product, String... radianceBandNames) {
+        for (String radianceBandName : radianceBandNames) {
+            if (!product.containsBand(getReflectanceBandName(radianceBandName))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the cosines of the sun zenith angles, shared by the conversion of all bands of a pixel.
+     *
+     * @param sza    the sun zenith angles in degrees
+     * @param offset the index of the first pixel
+     * @param end    the index after the last pixel
+     * @param cosSza receives the cosines
+     */
+    static void computeCosSunZenith(float[] sza, int offset, int end, double[] cosSza) {
+        for (int i = offset; i < end; i++) {
+            cosSza[i] = Math.cos(sza[i] * MathUtils.DTOR);
+        }
+    }
+
+    /**
+     * Converts radiances into reflectances, in place.
+     *
+     * @param samples   the radiances, replaced by the reflectances
+     * @param cosSza    the cosines of the sun zenith angles
+     * @param solarFlux the solar flux of the band
+     * @param offset    the index of the first pixel
+     * @param end       the index after the last pixel
+     */
+    static void toReflectances(float[] samples, double[] cosSza, float solarFlux, int offset, int end) {
+        for (int i = offset; i < end; i++) {
+            samples[i] = toReflectance(samples[i], cosSza[i], solarFlux);
+        }
+    }
+
+    /**
+     * Converts a radiance into a reflectance. For <code>cosSza = cos(sza * DTOR)</code> the result is
+     * identical to {@link org.esa.beam.util.math.RsMathUtils#radianceToReflectance(float, float, float)}.
+     *
+     * @param radiance  the radiance
+     * @param cosSza    the cosine of the sun zenith angle
+     * @param solarFlux the solar flux
+     *
+     * @return the reflectance
+     */
+    static float toReflectance(float radiance, double cosSza, float solarFlux) {
+        return (float) ((radiance * Math.PI) / (solarFlux * cosSza));
+    }
+
+    public static class Spi extends OperatorSpi {
+
+        public Spi() {
+            super(MerisReflectanceOp.class);
+        }
+    }
+}
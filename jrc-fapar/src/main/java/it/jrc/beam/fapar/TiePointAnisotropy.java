@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2012 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.TiePointGrid;
+
+/**
+ * The six anisotropy factors of the RPV model, for the blue, red and nir band of vegetated surfaces and
+ * of bright surfaces, computed on the tie-point nodes of the MERIS geometry grids and bilinearly
+ * interpolated per pixel.
+ * <p/>
+ * The anisotropic normalisation divides the reflectances of a pixel by the factors of its surface type.
+ * The factors are smooth functions of the sun and view angles, so interpolating the factors instead of
+ * the angles costs three bilinear interpolations per pixel instead of the trigonometric functions and
+ * powers of the RPV model. On the nodes the factors equal those of the per pixel computation. Between
+ * the nodes the BRFs deviate by up to 1.3E-4 relative for MERIS RR geometries, which changes the FAPAR
+ * by up to 5.3E-5 and may flip the rectification outcome of pixels close to its thresholds
+ * (see TiePointAnisotropyTest). Water, cloud and invalid pixels are not normalised.
+ * <p/>
+ * The factors of all nodes are computed by the constructor, {@link #normalize} only reads them, so one
+ * instance serves all tiles of an operator.
+ */
+final class TiePointAnisotropy {
+
+    private final int gridWidth;
+    private final int gridHeight;
+    private final double offsetX;
+    private final double offsetY;
+    private final double subSamplingX;
+    private final double subSamplingY;
+    // nodes[factor][j * gridWidth + i], the factors of vegetated surfaces followed by those of bright surfaces
+    private final float[][] nodes;
+
+    /**
+     * @param sza the sun zenith tie-point grid
+     * @param saa the sun azimuth tie-point grid
+     * @param vza the view zenith tie-point grid
+     * @param vaa the view azimuth tie-point grid
+     *
+     * @throws IllegalArgumentException if the grids differ in their layout
+     */
+    TiePointAnisotropy(TiePointGrid sza, TiePointGrid saa, TiePointGrid vza, TiePointGrid vaa) {
+        gridWidth = sza.getRasterWidth();
+        gridHeight = sza.getRasterHeight();
+        offsetX = sza.getOffsetX();
+        offsetY = sza.getOffsetY();
+        subSamplingX = sza.getSubSamplingX();
+        subSamplingY = sza.getSubSamplingY();
+        for (TiePointGrid grid : new TiePointGrid[]{saa, vza, vaa}) {
+            if (grid.getRasterWidth() != gridWidth || grid.getRasterHeight() != gridHeight
+                || grid.getOffsetX() != offsetX || grid.getOffsetY() != offsetY
+                || grid.getSubSamplingX() != subSamplingX || grid.getSubSamplingY() != subSamplingY) {
+                throw new IllegalArgumentException(String.format("Tie-point grid '%s' differs in its layout from '%s'.",
+                                                                 grid.getName(), sza.getName()));
+            }
+        }
+        if (gridWidth < 2 || gridHeight < 2) {
+            throw new IllegalArgumentException(String.format("Tie-point grid '%s' has less than 2 x 2 nodes.",
+                                                             sza.getName()));
+        }
+
+        final float[] szaNodes = sza.getTiePoints();
+        final float[] saaNodes = saa.getTiePoints();
+        final float[] vzaNodes = vza.getTiePoints();
+        final float[] vaaNodes = vaa.getTiePoints();
+        final int numNodes = gridWidth * gridHeight;
+        nodes = new float[FaparOpAlgorithm.NUM_ANISOTROPY_FACTORS][numNodes];
+        final float[] factors = new float[FaparOpAlgorithm.NUM_ANISOTROPY_FACTORS];
+        for (int n = 0; n < numNodes; n++) {
+            FaparOpAlgorithm.computeAnisotropyFactors(szaNodes[n], saaNodes[n], vzaNodes[n], vaaNodes[n], factors);
+            for (int f = 0; f < factors.length; f++) {
+                nodes[f][n] = factors[f];
+            }
+        }
+    }
+
+    /**
+     * Normalizes the reflectances of a pixel by the interpolated anisotropy factors of its surface type. The
+     * pixel is located like a pixel of a {@link TiePointGrid}, outside of the grid the factors are extrapolated.
+     *
+     * @param x       the x coordinate of the pixel
+     * @param y       the y coordinate of the pixel
+     * @param process the process flag of the pixel, only vegetated (0) and bright (4) pixels are normalized
+     * @param blue    the blue reflectance
+     * @param red     the red reflectance
+     * @param nir     the nir reflectance
+     * @param brf     receives the bidirectional reflectance factors at the indexes {@link FaparOpAlgorithm#BLUE},
+     *                {@link FaparOpAlgorithm#RED} and {@link FaparOpAlgorithm#NIR}, the reflectances themselves
+     *                for other surface types
+     */
+    void normalize(int x, int y, int process, float blue, float red, float nir, float[] brf) {
+        if (process != 0 && process != 4) {
+            brf[FaparOpAlgorithm.BLUE] = blue;
+            brf[FaparOpAlgorithm.RED] = red;
+            brf[FaparOpAlgorithm.NIR] = nir;
+            return;
+        }
+        final double fi = (x + 0.5 - offsetX) / subSamplingX;
+        final double fj = (y + 0.5 - offsetY) / subSamplingY;
+        final int i0 = clamp((int) Math.floor(fi), gridWidth);
+        final int j0 = clamp((int) Math.floor(fj), gridHeight);
+        final float wi = (float) (fi - i0);
+        final float wj = (float) (fj - j0);
+        final int n00 = j0 * gridWidth + i0;
+        final int n01 = n00 + gridWidth;
+        final int f = process == 0 ? 0 : 3;
+        brf[FaparOpAlgorithm.BLUE] = blue / interpolate(nodes[f + FaparOpAlgorithm.BLUE], n00, n01, wi, wj);
+        brf[FaparOpAlgorithm.RED] = red / interpolate(nodes[f + FaparOpAlgorithm.RED], n00, n01, wi, wj);
+        brf[FaparOpAlgorithm.NIR] = nir / interpolate(nodes[f + FaparOpAlgorithm.NIR], n00, n01, wi, wj);
+    }
+
+    private static float interpolate(float[] values, int n00, int n01, float wi, float wj) {
+        final float v00 = values[n00];
+        final float v10 = values[n00 + 1];
+        final float v01 = values[n01];
+        final float v11 = values[n01 + 1];
+        return v00 + wi * (v10 - v00) + wj * (v01 - v00) + wi * wj * (v11 + v00 - v01 - v10);
+    }
+
+    /*
+     * Limits the index of the lower node to 0 ... size - 2, so that the border cells extrapolate.
+     */
+    private static int clamp(int i, int size) {
+        if (i < 0) {
+            return 0;
+        }
+        if (i > size - 2) {
+            return size - 2;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,87 @@
+package it.jrc.beam.fapar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the FAPAR algorithm against values generated with the algorithm before the powers in its formulae
+ * were replaced by multiplications.
+ */
+public class FaparOpAlgorithmTest {
+
+    // sza, saa, vza, vaa, blue, red and nir reflectance, process
+    private static final float[][] INPUTS = {
+            {58.5f, -154.4f, 4.0f, 96.5f, 0.068f, 0.33f, 0.565f, 3},
+            {8.8f, -138.0f, 19.2f, 17.8f, 0.113f, 0.179f, 0.096f, 0},
+            {4.3f, 143.8f, 43.9f, 21.0f, 0.066f, 0.024f, 0.072f, 4},
+            {76.9f, -117.1f, 41.9f, 122.3f, 0.262f, 0.305f, 0.046f, 4},
+            {19.6f, -113.2f, 2.4f, -31.6f, 0.175f, 0.146f, 0.484f, 0},
+            {71.2f, 80.6f, 7.2f, -138.7f, 0.225f, 0.138f, 0.129f, 0},
+            {32.0f, -155.9f, 3.6f, 93.4f, 0.267f, 0.366f, 0.671f, 0},
+            {20.9f, -166.7f, 12.2f, 24.8f, 0.213f, 0.061f, 0.485f, 0},
+            {2.6f, -132.5f, 34.0f, -10.2f, 0.166f, 0.015f, 0.331f, 4},
+            {20.0f, -154.1f, 4.3f, 153.2f, 0.258f, 0.273f, 0.007f, 4},
+            {46.6f, 58.6f, 56.1f, -87.7f, 0.157f, 0.041f, 0.497f, 0},
+    };
+
+    // FAPAR, red and nir rectified reflectance, updated process
+    private static final float[][] EXPECTED_RESULTS = {
+            {-1.0f, -1.0f, -1.0f, 3},
+            {0.0f, 0.16909839f, 0.090227045f, 6},
+            {-1.0f, 0.048923396f, 0.069818266f, 4},
+            {-1.0f, 0.2392135f, 0.00849137f, 4},
+            {0.49608225f, 0.09649404f, 0.46918052f, 0},
+            {0.04220891f, 0.073663965f, 0.10334348f, 0},
+            {0.010040067f, 0.49532753f, 0.6059418f, 0},
+            {-1.0f, -1.0f, -1.0f, 5},
+            {-1.0f, -1.0f, -1.0f, 5},
+            {-1.0f, 0.27751634f, -1.0f, 5},
+            {1.0f, 0.0015307355f, 0.43885863f, 7},
+    };
+
+    private static final float EPS = 1.0e-6f;
+
+    @Test
+    public void testRun() {
+        final FaparOpAlgorithm algorithm = new FaparOpAlgorithm();
+        for (int i = 0; i < INPUTS.length; i++) {
+            final float[] in = INPUTS[i];
+            final float fapar = algorithm.run(in[0], in[1], in[2], in[3], in[4], in[5], in[6], (int) in[7]);
+
+            final String message = "pixel " + i;
+            assertEquals(message, EXPECTED_RESULTS[i][0], fapar, EPS);
+            assertEquals(message, EXPECTED_RESULTS[i][1], algorithm.getRedRec(), EPS);
+            assertEquals(message, EXPECTED_RESULTS[i][2], algorithm.getNirRec(), EPS);
+            assertEquals(message, (int) EXPECTED_RESULTS[i][3], algorithm.getProcess());
+        }
+    }
+
+    @Test
+    public void testCompute() {
+        // the result array is reused for all pixels, like by the operator
+        final float[] result = new float[FaparOpAlgorithm.RESULT_LENGTH];
+        for (int i = 0; i < INPUTS.length; i++) {
+            final float[] in = INPUTS[i];
+            final int process = FaparOpAlgorithm.compute(in[0], in[1], in[2], in[3], in[4], in[5], in[6], (int) in[7],
+                                                         result);
+
+            final String message = "pixel " + i;
+            assertEquals(message, EXPECTED_RESULTS[i][0], result[FaparOpAlgorithm.FAPAR], EPS);
+            assertEquals(message, EXPECTED_RESULTS[i][1], result[FaparOpAlgorithm.RED_REC], EPS);
+            assertEquals(message, EXPECTED_RESULTS[i][2], result[FaparOpAlgorithm.NIR_REC], EPS);
+            assertEquals(message, (int) EXPECTED_RESULTS[i][3], process);
+        }
+    }
+
+    @Test
+    public void testBrfOfPixelsNotProcessed() {
+        final FaparOpAlgorithm algorithm = new FaparOpAlgorithm();
+        algorithm.run(58.5f, -154.4f, 4.0f, 96.5f, 0.068f, 0.33f, 0.565f, 2);
+
+        final float[] brf = algorithm.getBRF();
+        assertEquals(0.068f, brf[FaparOpAlgorithm.BLUE], 0.0f);
+        assertEquals(0.33f, brf[FaparOpAlgorithm.RED], 0.0f);
+        assertEquals(0.565f, brf[FaparOpAlgorithm.NIR], 0.0f);
+    }
+}
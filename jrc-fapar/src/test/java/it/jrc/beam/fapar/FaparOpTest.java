@@ -52,6 +52,16 @@ public class FaparOpTest {
         assertEquals(16, targetSamples[7].getInt());
     }
 
+    @Test
+    public void testEncodeReflectance() {
+        assertEquals(0, FaparOp.encodeReflectance(0.0f));
+        assertEquals(1235, FaparOp.encodeReflectance(0.12345f));
+        assertEquals(-500, FaparOp.encodeReflectance(-0.05f));
+        assertEquals(10000, FaparOp.encodeReflectance(1.0f));
+        assertEquals(Short.MAX_VALUE, FaparOp.encodeReflectance(4.0f));
+        assertEquals(Short.MIN_VALUE, FaparOp.encodeReflectance(-4.0f));
+    }
+
     class MyWritableSample implements WritableSample {
         double value;
 
@@ -0,0 +1,201 @@
+package it.jrc.beam.fapar;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.beam.dataio.dimap.DimapProductConstants;
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.FlagCoding;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.RasterDataNode;
+import org.esa.beam.framework.dataio.ProductIO;
+import org.esa.beam.util.io.FileUtils;
+import org.esa.beam.util.math.RsMathUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FaparProcessorTest {
+
+    private static final int WIDTH = 45;
+    // Strips of 4, 4 and 2 scan lines
+    private static final int HEIGHT = 10;
+    private static final int STRIP_HEIGHT = 4;
+
+    // The processor writes the bands of the FAPAR operator
+    private static final String FAPAR = FaparOp.TARGET_BAND_NAME_FAPAR;
+    private static final String BLUE = FaparOp.TARGET_BAND_NAME_BLUE;
+    private static final String GREEN = FaparOp.TARGET_BAND_NAME_GREEN;
+    private static final String RED = FaparOp.TARGET_BAND_NAME_RED;
+    private static final String NIR = FaparOp.TARGET_BAND_NAME_NIR;
+    private static final String RECTIFIED_NIR = FaparOp.TARGET_BAND_NAME_RECTIFIED_NIR;
+    private static final String RECTIFIED_RED = FaparOp.TARGET_BAND_NAME_RECTIFIED_RED;
+    private static final String FLAGS = FaparOp.TARGET_BAND_NAME_L2_FLAGS;
+
+    private File outputDir;
+
+    @Before
+    public void setUp() throws IOException {
+        outputDir = File.createTempFile("fapar", "");
+        assertTrue(outputDir.delete() && outputDir.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteTree(outputDir);
+    }
+
+    @Test
+    public void testStrips() throws Exception {
+        final Product input = MerisTestProducts.createProduct(WIDTH, HEIGHT, 31);
+        final Map<String, ProductData> output = process(input, STRIP_HEIGHT, 1);
+        final int[] numPixels = assertExpectedOutput(input, output);
+        // Vegetated, bright and other pixels, including land pixels flagged as bright or water by the L1b flags
+        assertTrue(numPixels[0] > 0 && numPixels[4] > 0 && numPixels[5] > 0);
+        input.dispose();
+    }
+
+    @Test
+    public void testStripsWithoutFlags() throws Exception {
+        final Product input = MerisTestProducts.createProduct(WIDTH, HEIGHT, 37);
+        input.removeBand(input.getBand(MerisTestProducts.L1_FLAGS_BAND_NAME));
+        input.getFlagCodingGroup().remove(input.getFlagCodingGroup().get(MerisTestProducts.L1_FLAGS_BAND_NAME));
+        final Map<String, ProductData> output = process(input, STRIP_HEIGHT, 1);
+        final int[] numPixels = assertExpectedOutput(input, output);
+        assertTrue(numPixels[0] > 0 && numPixels[4] > 0);
+        // Only the MGVI flags are set
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            assertEquals(0, output.get(FLAGS).getElemIntAt(i) & 0xff);
+        }
+        input.dispose();
+    }
+
+    @Test
+    public void testConcurrentStripsEqualSequentialStrips() throws Exception {
+        // 8 strips, the last one short, more than the 3 workers and the strip read ahead
+        final Product input = MerisTestProducts.createProduct(WIDTH, 30, 41);
+        final Map<String, ProductData> expected = process(input, STRIP_HEIGHT, 1);
+        final Map<String, ProductData> actual = process(input, STRIP_HEIGHT, 3);
+        for (String bandName : MerisTestProducts.TARGET_BAND_NAMES) {
+            final ProductData expectedData = expected.get(bandName);
+            final ProductData actualData = actual.get(bandName);
+            assertEquals(bandName, expectedData.getNumElems(), actualData.getNumElems());
+            for (int i = 0; i < expectedData.getNumElems(); i++) {
+                assertEquals(bandName + " at pixel " + i, Float.floatToIntBits(expectedData.getElemFloatAt(i)),
+                             Float.floatToIntBits(actualData.getElemFloatAt(i)));
+            }
+        }
+        input.dispose();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStripHeight() {
+        new FaparProcessor().setStripHeight(0);
+    }
+
+    /*
+     * Processes the input product and reads the raw data of the output bands.
+     */
+    private Map<String, ProductData> process(Product input, int stripHeight, int numThreads) throws Exception {
+        final File outputFile = new File(outputDir, "fapar_" + stripHeight + "_" + numThreads + ".dim");
+        final FaparProcessor processor = new FaparProcessor();
+        processor.setStripHeight(stripHeight);
+        processor.setNumThreads(numThreads);
+        processor.processProduct(input, ProductIO.getProductWriter(DimapProductConstants.DIMAP_FORMAT_NAME),
+                                 outputFile, ProgressMonitor.NULL);
+
+        final Product output = ProductIO.readProduct(outputFile);
+        assertNotNull(output);
+        final Map<String, ProductData> data = new HashMap<String, ProductData>();
+        for (String bandName : MerisTestProducts.TARGET_BAND_NAMES) {
+            final Band band = output.getBand(bandName);
+            assertNotNull(bandName, band);
+            band.readRasterDataFully(ProgressMonitor.NULL);
+            data.put(bandName, band.getRasterData());
+        }
+        output.dispose();
+        return data;
+    }
+
+    /*
+     * Compares the output with the FAPAR algorithm applied pixel by pixel. Returns the number of pixels
+     * by MGVI process flag.
+     */
+    private static int[] assertExpectedOutput(Product input, Map<String, ProductData> output) throws IOException {
+        final int n = WIDTH * HEIGHT;
+        final float[] sza = readPixels(input.getTiePointGrid("sun_zenith"));
+        final float[] saa = readPixels(input.getTiePointGrid("sun_azimuth"));
+        final float[] vza = readPixels(input.getTiePointGrid("view_zenith"));
+        final float[] vaa = readPixels(input.getTiePointGrid("view_azimuth"));
+        final float[][] radiances = new float[MerisTestProducts.RADIANCE_BAND_NAMES.length][];
+        for (int b = 0; b < radiances.length; b++) {
+            radiances[b] = readPixels(input.getBand(MerisTestProducts.RADIANCE_BAND_NAMES[b]));
+        }
+        final Band flagsBand = input.getBand(MerisTestProducts.L1_FLAGS_BAND_NAME);
+        final int[] flags = new int[n];
+        int landOceanMask = 0;
+        int brightMask = 0;
+        if (flagsBand != null) {
+            flagsBand.readPixels(0, 0, WIDTH, HEIGHT, flags, ProgressMonitor.NULL);
+            final FlagCoding flagCoding = input.getFlagCodingGroup().get(MerisTestProducts.L1_FLAGS_BAND_NAME);
+            landOceanMask = flagCoding.getFlagMask("LAND_OCEAN");
+            brightMask = flagCoding.getFlagMask("BRIGHT");
+        }
+
+        final FaparAlgorithm algorithm = new FaparAlgorithm();
+        final int[] numPixels = new int[6];
+        for (int i = 0; i < n; i++) {
+            final float[] reflectances = new float[radiances.length];
+            for (int b = 0; b < reflectances.length; b++) {
+                reflectances[b] = RsMathUtils.radianceToReflectance(radiances[b][i], sza[i],
+                                                                    MerisTestProducts.SOLAR_FLUXES[b]);
+            }
+            final float blue = reflectances[0];
+            final float red = reflectances[2];
+            final float nir = reflectances[3];
+            final int[] process = new int[1];
+            if (blue <= 0 || red <= 0 || nir <= 0) {
+                process[0] = 1;
+            } else if (blue >= 0.3 || red >= 0.5 || nir >= 0.7) {
+                process[0] = 2;
+            } else if (blue > nir) {
+                process[0] = 3;
+            } else if (nir <= 1.3 * red) {
+                process[0] = 4;
+            }
+            if (landOceanMask != 0 && brightMask != 0
+                && ((flags[i] & landOceanMask) == 0 || (flags[i] & brightMask) != 0)) {
+                process[0] = 5;
+            }
+            final float fapar = algorithm.run(new float[]{sza[i]}, new float[]{saa[i]}, new float[]{vza[i]},
+                                              new float[]{vaa[i]}, new float[]{blue}, new float[]{red},
+                                              new float[]{nir}, process)[0];
+            numPixels[process[0]]++;
+
+            final String pixel = " at pixel " + i;
+            final int expectedFapar = process[0] == 0 ? Math.round(fapar * 254 + 1) : process[0] == 4 ? 1 : 0;
+            assertEquals(FAPAR + pixel, expectedFapar, output.get(FAPAR).getElemIntAt(i));
+            final int expectedFlags = process[0] == 0 ? flags[i] : flags[i] + (1 << (process[0] - 1 + 8));
+            assertEquals(FLAGS + pixel, expectedFlags, output.get(FLAGS).getElemIntAt(i));
+            assertEquals(BLUE + pixel, blue, output.get(BLUE).getElemFloatAt(i), 0.0f);
+            assertEquals(GREEN + pixel, reflectances[1], output.get(GREEN).getElemFloatAt(i), 0.0f);
+            assertEquals(RED + pixel, red, output.get(RED).getElemFloatAt(i), 0.0f);
+            assertEquals(NIR + pixel, nir, output.get(NIR).getElemFloatAt(i), 0.0f);
+            assertEquals(RECTIFIED_RED + pixel, algorithm.getRedRec()[0], output.get(RECTIFIED_RED).getElemFloatAt(i), 0.0f);
+            assertEquals(RECTIFIED_NIR + pixel, algorithm.getNirRec()[0], output.get(RECTIFIED_NIR).getElemFloatAt(i), 0.0f);
+        }
+        return numPixels;
+    }
+
+    private static float[] readPixels(RasterDataNode raster) throws IOException {
+        return raster.readPixels(0, 0, WIDTH, HEIGHT, new float[WIDTH * HEIGHT], ProgressMonitor.NULL);
+    }
+}
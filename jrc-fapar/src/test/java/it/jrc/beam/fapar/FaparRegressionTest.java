@@ -0,0 +1,124 @@
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.gpf.Operator;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static it.jrc.beam.fapar.MerisTestProducts.TARGET_BAND_NAMES;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Regression test of the FAPAR operators against the output of the baseline FAPAR operator, the accepted
+ * version before the performance changes, which must not change the output.
+ * <p/>
+ * All target bands are compared as raw samples, as they are stored. Written as float, FAPAR is stored as
+ * 16 bit integer scaled by 1/65534 with an offset of -1/65534, the raw sample of a FAPAR value
+ * <code>f</code> is <code>(int) (float) ((f + 1/65534) * 65534)</code>, computed in double precision.
+ * The scene has a tie-point for each pixel, so that the angles do not depend on the interpolation of the
+ * grids.
+ * <p/>
+ * The golden pixels cover each MGVI process outcome of the scene, their values can be checked by hand
+ * against the baseline algorithm. The checksums, the <code>Arrays.hashCode()</code> of the raw samples of
+ * a band, cover all other pixels.
+ */
+public class FaparRegressionTest {
+
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 40;
+    private static final long SEED = 43;
+
+    // Columns of the golden pixels
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int PROCESS = 2;
+    private static final int FAPAR_AS_FLOAT = 3;
+    private static final int FAPAR_AS_INT = 4;
+    // The raw samples of the bands following FAPAR, the same for FAPAR as float and as int
+    private static final int BLUE = 5;
+
+    private static final float[][] GOLDEN_PIXELS = {
+            // x, y, MGVI process, FAPAR as float, FAPAR as int, blue, green, red, NIR, rectified NIR,
+            // rectified red, l2_flags
+            {1, 0, 0, 27827, 4246, 0.13227314f, 0.088034905f, 0.13178094f, 0.42693818f, 0.3529754f, 0.08578912f, 16},
+            {3, 0, 0, 20274, 3093, 0.04850717f, 0.04455444f, 0.13474795f, 0.33636156f, 0.25981537f, 0.07493087f, 16},
+            // Rounded to float, (f + 1/65534) * 65534 = 13120.99998778 is stored as 13121
+            {119, 15, 0, 13121, 2002, 0.14813209f, 0.06401355f, 0.1420639f, 0.2856175f, 0.26236483f, 0.112218395f, 16},
+            // Water or deep shadow, blue brighter than NIR
+            {19, 0, 3, 0, 65535, 0.14278936f, 0.10307785f, 0.067730986f, 0.1306387f, -1.0f, -1.0f, 1024},
+            {59, 0, 3, 0, 65535, 0.11608321f, 0.10450963f, 0.060331356f, 0.11352849f, -1.0f, -1.0f, 1024},
+            // Bright, NIR at most 1.3 times red
+            {2, 0, 4, 1, 0, 0.13505287f, 0.04679635f, 0.14850937f, 0.19132726f, 0.14607596f, 0.11215911f, 2064},
+            {5, 0, 4, 1, 0, 0.10310452f, 0.08151461f, 0.14874505f, 0.13465679f, 0.1046834f, 0.11686059f, 2064},
+            // Not processed, water or bright according to the L1b flags
+            {0, 0, 5, 0, 65535, 0.11903675f, 0.0949897f, 0.041097682f, 0.30872557f, -1.0f, -1.0f, 4128},
+            {39, 0, 5, 0, 65535, 0.13027121f, 0.09928289f, 0.037184455f, 0.31866968f, -1.0f, -1.0f, 4128},
+            // Vegetation out of bounds, FAPAR is 1
+            {63, 4, 7, 65535, 1, 0.120462686f, 0.09844168f, 0.03167241f, 0.4412375f, 0.41221195f, 0.0033169475f, 16400},
+            {61, 15, 7, 65535, 1, 0.12837152f, 0.05582684f, 0.036589194f, 0.44746584f, 0.42074f, 0.0026338345f, 16400},
+    };
+
+    // Checksums of the raw samples of the bands, in the order of the band names
+    private static final int[] CHECKSUMS = {
+            0x947e0101,
+            0x1298b90a,
+            0x730aed61,
+            0xd1836df7,
+            0x465b4aa7,
+            0x596d526f,
+            0xb7b5c467,
+            0x7f76e801
+    };
+    private static final int FAPAR_AS_INT_CHECKSUM = 0x020d0601;
+
+    @Test
+    public void testPixelOp() {
+        assertBaselineOutput(new FaparOp(), false);
+    }
+
+    @Test
+    public void testPixelOpWithFaparAsInt() {
+        assertBaselineOutput(new FaparOp(), true);
+    }
+
+    @Test
+    public void testTileOp() {
+        assertBaselineOutput(new FaparTileOp(), false);
+    }
+
+    @Test
+    public void testTileOpWithFaparAsInt() {
+        assertBaselineOutput(new FaparTileOp(), true);
+    }
+
+    private static void assertBaselineOutput(Operator op, boolean outputFaparAsInt) {
+        final Product source = MerisTestProducts.createProduct(WIDTH, HEIGHT, 1, SEED);
+        // Several tiles, including partial tiles at the right and bottom border
+        source.setPreferredTileSize(32, 32);
+        op.setSourceProduct(source);
+        op.setParameter("outputFaparAsInt", outputFaparAsInt);
+        final Product target = op.getTargetProduct();
+
+        final float[][] samples = new float[TARGET_BAND_NAMES.length][];
+        for (int b = 0; b < TARGET_BAND_NAMES.length; b++) {
+            samples[b] = MerisTestProducts.getSamples(target.getBand(TARGET_BAND_NAMES[b]));
+        }
+        for (float[] pixel : GOLDEN_PIXELS) {
+            final int i = (int) pixel[Y] * WIDTH + (int) pixel[X];
+            final String at = String.format(" at pixel (%d, %d), MGVI process %d", (int) pixel[X], (int) pixel[Y],
+                                            (int) pixel[PROCESS]);
+            final float fapar = pixel[outputFaparAsInt ? FAPAR_AS_INT : FAPAR_AS_FLOAT];
+            assertEquals(TARGET_BAND_NAMES[0] + at, fapar, samples[0][i], 0.0f);
+            for (int b = 1; b < TARGET_BAND_NAMES.length; b++) {
+                assertEquals(TARGET_BAND_NAMES[b] + at, pixel[BLUE + b - 1], samples[b][i], 0.0f);
+            }
+        }
+        for (int b = 0; b < TARGET_BAND_NAMES.length; b++) {
+            final int checksum = b == 0 && outputFaparAsInt ? FAPAR_AS_INT_CHECKSUM : CHECKSUMS[b];
+            assertEquals(TARGET_BAND_NAMES[b] + " checksum", checksum, Arrays.hashCode(samples[b]));
+        }
+        target.dispose();
+        source.dispose();
+    }
+}
@@ -0,0 +1,95 @@
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.Operator;
+import org.junit.Test;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FaparTileOpTest {
+
+    private static final int WIDTH = 90;
+    private static final int HEIGHT = 70;
+
+    @Test
+    public void testTileOpEqualsPixelOp() {
+        assertIdenticalTargets(false);
+    }
+
+    @Test
+    public void testTileOpEqualsPixelOpWithFaparAsInt() {
+        assertIdenticalTargets(true);
+    }
+
+    @Test
+    public void testReflectancesAsInt() {
+        final Product source = MerisTestProducts.createProduct(WIDTH, HEIGHT, 19);
+        source.setPreferredTileSize(32, 32);
+        final Product pixelTarget = createTarget(new FaparOp(), source, true);
+        final FaparTileOp tileOp = new FaparTileOp();
+        tileOp.setParameter("outputReflectancesAsInt", true);
+        final Product tileTarget = createTarget(tileOp, source, true);
+
+        final String[] reflectanceBandNames = {
+                FaparOp.TARGET_BAND_NAME_BLUE,
+                FaparOp.TARGET_BAND_NAME_GREEN,
+                FaparOp.TARGET_BAND_NAME_RED,
+                FaparOp.TARGET_BAND_NAME_NIR,
+                FaparOp.TARGET_BAND_NAME_RECTIFIED_NIR,
+                FaparOp.TARGET_BAND_NAME_RECTIFIED_RED
+        };
+        for (String bandName : reflectanceBandNames) {
+            final Band band = tileTarget.getBand(bandName);
+            assertEquals(ProductData.TYPE_INT16, band.getDataType());
+            assertEquals(FaparOp.REFLECTANCE_SCALING_FACTOR, band.getScalingFactor(), 0.0);
+            // The source image holds the raw values
+            final float[] reflectances = MerisTestProducts.getSamples(pixelTarget.getBand(bandName));
+            final float[] raw = MerisTestProducts.getSamples(band);
+            for (int i = 0; i < reflectances.length; i++) {
+                assertEquals(bandName, FaparOp.encodeReflectance(reflectances[i]), raw[i], 0.0f);
+            }
+        }
+        for (String bandName : new String[]{FaparOp.TARGET_BAND_NAME_FAPAR, FaparOp.TARGET_BAND_NAME_L2_FLAGS}) {
+            assertArrayEquals(bandName, MerisTestProducts.getSamples(pixelTarget.getBand(bandName)),
+                              MerisTestProducts.getSamples(tileTarget.getBand(bandName)), 0.0f);
+        }
+        source.dispose();
+    }
+
+    private static void assertIdenticalTargets(boolean outputFaparAsInt) {
+        final Product source = MerisTestProducts.createProduct(WIDTH, HEIGHT, 17);
+        // Several tiles, including partial tiles at the right and bottom border
+        source.setPreferredTileSize(32, 32);
+        final Product pixelTarget = createTarget(new FaparOp(), source, outputFaparAsInt);
+        final Product tileTarget = createTarget(new FaparTileOp(), source, outputFaparAsInt);
+
+        for (String bandName : MerisTestProducts.TARGET_BAND_NAMES) {
+            final float[] expected = MerisTestProducts.getSamples(pixelTarget.getBand(bandName));
+            final float[] actual = MerisTestProducts.getSamples(tileTarget.getBand(bandName));
+            assertArrayEquals(bandName, expected, actual, 0.0f);
+        }
+
+        // The scene has to cover vegetated pixels as well as pixels not processed
+        final float[] flags = MerisTestProducts.getSamples(pixelTarget.getBand(FaparOp.TARGET_BAND_NAME_L2_FLAGS));
+        int numVegetated = 0;
+        for (float flag : flags) {
+            if (((int) flag & 0xff00) == 0) {
+                numVegetated++;
+            }
+        }
+        assertTrue(numVegetated > WIDTH * HEIGHT / 2 && numVegetated < WIDTH * HEIGHT);
+        assertEquals(pixelTarget.getNumBands(), tileTarget.getNumBands());
+        source.dispose();
+    }
+
+    private static Product createTarget(Operator op, Product source, boolean outputFaparAsInt) {
+        op.setSourceProduct(source);
+        op.setParameter("outputFaparAsInt", outputFaparAsInt);
+        return op.getTargetProduct();
+    }
+}
@@ -0,0 +1,132 @@
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.gpf.Operator;
+import org.esa.beam.util.math.RsMathUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MerisReflectanceOpTest {
+
+    private static final int WIDTH = 60;
+    private static final int HEIGHT = 50;
+
+    private static final String[] RADIANCE_BAND_NAMES = MerisTestProducts.RADIANCE_BAND_NAMES;
+    private static final float[] SOLAR_FLUXES = MerisTestProducts.SOLAR_FLUXES;
+
+    @Test
+    public void testToReflectanceEqualsRsMathUtils() {
+        final Random random = new Random(11);
+        final float[] sza = new float[1000];
+        final float[] radiances = new float[sza.length];
+        for (int i = 0; i < sza.length; i++) {
+            sza[i] = (float) (80.0 * random.nextDouble());
+            radiances[i] = (float) (10.0 + 100.0 * random.nextDouble());
+        }
+        final double[] cosSza = new double[sza.length];
+        MerisReflectanceOp.computeCosSunZenith(sza, 0, sza.length, cosSza);
+
+        for (float solarFlux : SOLAR_FLUXES) {
+            final float[] reflectances = radiances.clone();
+            MerisReflectanceOp.toReflectances(reflectances, cosSza, solarFlux, 0, reflectances.length);
+            for (int i = 0; i < sza.length; i++) {
+                assertEquals(RsMathUtils.radianceToReflectance(radiances[i], sza[i], solarFlux), reflectances[i], 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testToReflectancesEqualsRsMathUtilsArrays() {
+        final Random random = new Random(13);
+        final float[] sza = new float[1000];
+        final float[] radiances = new float[sza.length];
+        for (int i = 0; i < sza.length; i++) {
+            sza[i] = (float) (80.0 * random.nextDouble());
+            radiances[i] = (float) (10.0 + 100.0 * random.nextDouble());
+        }
+        final double[] cosSza = new double[sza.length];
+        MerisReflectanceOp.computeCosSunZenith(sza, 0, sza.length, cosSza);
+
+        // The FAPAR processor converted the radiances of a line by the array variant
+        for (float solarFlux : SOLAR_FLUXES) {
+            final float[] expected = RsMathUtils.radianceToReflectance(radiances, sza, solarFlux, null);
+            final float[] reflectances = radiances.clone();
+            MerisReflectanceOp.toReflectances(reflectances, cosSza, solarFlux, 0, reflectances.length);
+            assertArrayEquals(expected, reflectances, 0.0f);
+
+            // Only the given range is converted
+            final float[] part = radiances.clone();
+            MerisReflectanceOp.toReflectances(part, cosSza, solarFlux, 100, 200);
+            for (int i = 0; i < part.length; i++) {
+                assertEquals(i >= 100 && i < 200 ? expected[i] : radiances[i], part[i], 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testReflectanceBandNames() {
+        assertEquals("reflec_13", MerisReflectanceOp.getReflectanceBandName("radiance_13"));
+
+        final Product product = new Product("test", "MER_RR__1P", 2, 2);
+        product.addBand("reflec_2", ProductData.TYPE_FLOAT32);
+        product.addBand("reflec_8", ProductData.TYPE_FLOAT32);
+        assertTrue(MerisReflectanceOp.containsReflectanceBands(product, "radiance_2", "radiance_8"));
+        assertFalse(MerisReflectanceOp.containsReflectanceBands(product, "radiance_2", "radiance_13"));
+        assertFalse(FaparOp.containsReflectanceBands(product, false));
+    }
+
+    @Test
+    public void testReflectances() {
+        final Product source = MerisTestProducts.createProduct(WIDTH, HEIGHT, 23);
+        final Operator op = new MerisReflectanceOp();
+        op.setSourceProduct(source);
+        final Product target = op.getTargetProduct();
+
+        final float[] sza = MerisTestProducts.getSamples(target.getRasterDataNode("sun_zenith"));
+        for (int b = 0; b < RADIANCE_BAND_NAMES.length; b++) {
+            final float[] radiances = MerisTestProducts.getSamples(target.getBand(RADIANCE_BAND_NAMES[b]));
+            final Band reflectanceBand = target.getBand(MerisReflectanceOp.getReflectanceBandName(RADIANCE_BAND_NAMES[b]));
+            assertEquals(SOLAR_FLUXES[b], reflectanceBand.getSolarFlux(), 0.0f);
+            final float[] reflectances = MerisTestProducts.getSamples(reflectanceBand);
+            for (int i = 0; i < reflectances.length; i++) {
+                final float expected = RsMathUtils.radianceToReflectance(radiances[i], sza[i], SOLAR_FLUXES[b]);
+                assertEquals(expected, reflectances[i], 0.0f);
+            }
+        }
+        source.dispose();
+    }
+
+    @Test
+    public void testFaparOpsOnReflectances() {
+        final Product source = MerisTestProducts.createProduct(WIDTH, HEIGHT, 29);
+        source.setPreferredTileSize(32, 32);
+        final Operator reflectanceOp = new MerisReflectanceOp();
+        reflectanceOp.setSourceProduct(source);
+        final Product reflectanceProduct = reflectanceOp.getTargetProduct();
+        assertTrue(FaparOp.containsReflectanceBands(reflectanceProduct, true));
+
+        final Product expected = createTarget(new FaparOp(), source);
+        final Product pixelTarget = createTarget(new FaparOp(), reflectanceProduct);
+        final Product tileTarget = createTarget(new FaparTileOp(), reflectanceProduct);
+
+        for (String bandName : MerisTestProducts.TARGET_BAND_NAMES) {
+            final float[] expectedSamples = MerisTestProducts.getSamples(expected.getBand(bandName));
+            assertArrayEquals(bandName, expectedSamples, MerisTestProducts.getSamples(pixelTarget.getBand(bandName)), 0.0f);
+            assertArrayEquals(bandName, expectedSamples, MerisTestProducts.getSamples(tileTarget.getBand(bandName)), 0.0f);
+        }
+        source.dispose();
+    }
+
+    private static Product createTarget(Operator op, Product source) {
+        op.setSourceProduct(source);
+        return op.getTargetProduct();
+    }
+}
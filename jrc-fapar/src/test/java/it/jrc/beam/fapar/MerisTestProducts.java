@@ -0,0 +1,148 @@
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.Band;
+import org.esa.beam.framework.datamodel.FlagCoding;
+import org.esa.beam.framework.datamodel.Product;
+import org.esa.beam.framework.datamodel.ProductData;
+import org.esa.beam.framework.datamodel.RasterDataNode;
+import org.esa.beam.framework.datamodel.TiePointGrid;
+
+import java.awt.image.Raster;
+import java.util.Random;
+
+/**
+ * Synthetic MERIS L1b products held in memory, the input of the FAPAR tests and benchmarks.
+ */
+final class MerisTestProducts {
+
+    // The band names are literals, so that the products can be processed by earlier versions of the operators
+    static final String[] RADIANCE_BAND_NAMES = {"radiance_2", "radiance_5", "radiance_8", "radiance_13"};
+    static final float[] SOLAR_FLUXES = {1816.5496f, 1747.469f, 1425.911f, 928.46783f};
+    static final double[][] RADIANCE_RANGES = {{20.0, 70.0}, {20.0, 60.0}, {10.0, 60.0}, {20.0, 110.0}};
+
+    static final String L1_FLAGS_BAND_NAME = "l1_flags";
+    static final int LAND_OCEAN = 0x10;
+    static final int BRIGHT = 0x20;
+
+    // The constants are inlined, hence earlier versions of the operators do not need to declare them
+    static final String[] TARGET_BAND_NAMES = {
+            FaparOp.TARGET_BAND_NAME_FAPAR,
+            FaparOp.TARGET_BAND_NAME_BLUE,
+            FaparOp.TARGET_BAND_NAME_GREEN,
+            FaparOp.TARGET_BAND_NAME_RED,
+            FaparOp.TARGET_BAND_NAME_NIR,
+            FaparOp.TARGET_BAND_NAME_RECTIFIED_NIR,
+            FaparOp.TARGET_BAND_NAME_RECTIFIED_RED,
+            FaparOp.TARGET_BAND_NAME_L2_FLAGS
+    };
+
+    private static final String[] ANGLE_GRID_NAMES = {"sun_zenith", "sun_azimuth", "view_zenith", "view_azimuth"};
+    private static final int SUB_SAMPLING = 16;
+
+    private MerisTestProducts() {
+    }
+
+    /**
+     * Creates a MERIS L1b product with the bands and tie-point grids used by the FAPAR operators and the
+     * FAPAR processor, with tie-points every 16 pixels.
+     *
+     * @param width  the product width
+     * @param height the product height
+     * @param seed   the seed of the random radiances and flags
+     *
+     * @return the product
+     *
+     * @see #createProduct(int, int, int, long)
+     */
+    static Product createProduct(int width, int height, long seed) {
+        return createProduct(width, height, SUB_SAMPLING, seed);
+    }
+
+    /**
+     * Creates a MERIS L1b product with the bands and tie-point grids used by the FAPAR operators and the
+     * FAPAR processor. The radiances are random, most pixels are land according to the L1b flags, some are
+     * bright or water. The geometry resembles MERIS RR: the sun moves slowly over the scene, the view zenith
+     * grows across-track from nadir, where the view azimuth jumps by 180 degree.
+     *
+     * @param width       the product width
+     * @param height      the product height
+     * @param subSampling the sub-sampling of the tie-point grids, with 1 each pixel is a tie-point
+     * @param seed        the seed of the random radiances and flags
+     *
+     * @return the product
+     */
+    static Product createProduct(int width, int height, int subSampling, long seed) {
+        final Product product = new Product("synthetic", "MER_RR__1P", width, height);
+        final Random random = new Random(seed);
+        for (int b = 0; b < RADIANCE_BAND_NAMES.length; b++) {
+            final double min = RADIANCE_RANGES[b][0];
+            final double max = RADIANCE_RANGES[b][1];
+            final float[] radiances = new float[width * height];
+            for (int i = 0; i < radiances.length; i++) {
+                radiances[i] = (float) (min + (max - min) * random.nextDouble());
+            }
+            final Band band = new Band(RADIANCE_BAND_NAMES[b], ProductData.TYPE_FLOAT32, width, height);
+            band.setSolarFlux(SOLAR_FLUXES[b]);
+            band.setRasterData(ProductData.createInstance(radiances));
+            product.addBand(band);
+        }
+
+        final FlagCoding flagCoding = new FlagCoding(L1_FLAGS_BAND_NAME);
+        flagCoding.addFlag("LAND_OCEAN", LAND_OCEAN, "Land");
+        flagCoding.addFlag("BRIGHT", BRIGHT, "Bright");
+        product.getFlagCodingGroup().add(flagCoding);
+        final byte[] flags = new byte[width * height];
+        for (int i = 0; i < flags.length; i++) {
+            final double p = random.nextDouble();
+            flags[i] = (byte) (p < 0.9 ? LAND_OCEAN : p < 0.95 ? LAND_OCEAN | BRIGHT : 0);
+        }
+        final Band flagsBand = product.addBand(L1_FLAGS_BAND_NAME, ProductData.TYPE_UINT8);
+        flagsBand.setSampleCoding(flagCoding);
+        flagsBand.setRasterData(ProductData.createInstance(ProductData.TYPE_UINT8, flags));
+
+        final int gridWidth = (width - 1) / subSampling + 2;
+        final int gridHeight = (height - 1) / subSampling + 2;
+        final double nadirX = 0.5 * width;
+        for (int t = 0; t < ANGLE_GRID_NAMES.length; t++) {
+            final float[] tiePoints = new float[gridWidth * gridHeight];
+            for (int j = 0; j < gridHeight; j++) {
+                for (int i = 0; i < gridWidth; i++) {
+                    final double u = 0.5 + i * subSampling;
+                    final double v = 0.5 + j * subSampling;
+                    final double value;
+                    switch (t) {
+                        case 0:
+                            value = 35.0 + 0.005 * u + 0.02 * v;
+                            break;
+                        case 1:
+                            value = 130.0 + 0.01 * u - 0.02 * v;
+                            break;
+                        case 2:
+                            value = 38.0 * Math.abs(u - nadirX) / nadirX;
+                            break;
+                        default:
+                            value = (u < nadirX ? 102.0 : -78.0) + 0.005 * v;
+                    }
+                    tiePoints[j * gridWidth + i] = (float) value;
+                }
+            }
+            product.addTiePointGrid(new TiePointGrid(ANGLE_GRID_NAMES[t], gridWidth, gridHeight,
+                                                     0.5f, 0.5f, subSampling, subSampling, tiePoints));
+        }
+        return product;
+    }
+
+    /**
+     * Returns all samples of a band or tie-point grid as they are stored, the raw values of scaled bands.
+     *
+     * @param raster the band or tie-point grid
+     *
+     * @return the samples, row by row
+     */
+    static float[] getSamples(RasterDataNode raster) {
+        final int width = raster.getRasterWidth();
+        final int height = raster.getRasterHeight();
+        final Raster data = raster.getSourceImage().getData();
+        return data.getSamples(0, 0, width, height, 0, new float[width * height]);
+    }
+}
@@ -0,0 +1,181 @@
+package it.jrc.beam.fapar;
+
+import org.esa.beam.framework.datamodel.TiePointGrid;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bounds the error of the anisotropy factors interpolated from the tie-point nodes for a MERIS RR like
+ * geometry: 16 x 16 subsampling, the sun moving slowly over the scene, the view zenith growing
+ * across-track from nadir, where the view azimuth jumps by 180 degree.
+ */
+public class TiePointAnisotropyTest {
+
+    private static final int WIDTH = 1121;
+    private static final int HEIGHT = 161;
+    private static final int SUB_SAMPLING = 16;
+    // Nadir between two tie-point columns
+    private static final double NADIR_X = 567.0;
+
+    // Maximum relative deviation of the BRFs, measured: 1.26E-4
+    private static final double MAX_BRF_ERROR = 2.0e-4;
+    // Maximum absolute deviations of the FAPAR and of the rectified reflectances, measured: 5.3E-5 and 2.3E-5
+    private static final double MAX_FAPAR_ERROR = 1.0e-4;
+    private static final double MAX_RECTIFIED_ERROR = 5.0e-5;
+
+    @Test
+    public void testInterpolationError() {
+        final TiePointAnisotropy tiePointAnisotropy = createTiePointAnisotropy();
+        final float[] exact = new float[FaparOpAlgorithm.NUM_ANISOTROPY_FACTORS];
+        final float[] brf = new float[3];
+
+        double maxError = 0.0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                FaparOpAlgorithm.computeAnisotropyFactors(sza(x + 0.5, y + 0.5), saa(x + 0.5, y + 0.5),
+                                                          vza(x + 0.5, y + 0.5), vaa(x + 0.5, y + 0.5), exact);
+                for (int process = 0; process <= 4; process += 4) {
+                    tiePointAnisotropy.normalize(x, y, process, 1.0f, 1.0f, 1.0f, brf);
+                    final int offset = process == 0 ? 0 : 3;
+                    for (int p = 0; p < brf.length; p++) {
+                        maxError = Math.max(maxError, Math.abs(brf[p] * exact[offset + p] - 1.0));
+                    }
+                }
+            }
+        }
+        assertTrue("BRF error " + maxError, maxError <= MAX_BRF_ERROR);
+    }
+
+    @Test
+    public void testOutputError() {
+        final TiePointAnisotropy tiePointAnisotropy = createTiePointAnisotropy();
+        final float[] exact = new float[FaparOpAlgorithm.RESULT_LENGTH];
+        final float[] interpolated = new float[FaparOpAlgorithm.RESULT_LENGTH];
+        final Random random = new Random(5);
+
+        double maxFaparError = 0.0;
+        double maxRectifiedError = 0.0;
+        int numPixels = 0;
+        int processMismatches = 0;
+        for (int y = 0; y < HEIGHT; y += 4) {
+            for (int x = 0; x < WIDTH; x++) {
+                final float blue = (float) (0.05 + 0.1 * random.nextDouble());
+                final float red = (float) (0.03 + 0.12 * random.nextDouble());
+                final float nir = (float) (0.15 + 0.3 * random.nextDouble());
+                final int process = nir <= 1.3 * red ? 4 : 0;
+                final int exactProcess = FaparOpAlgorithm.compute(sza(x + 0.5, y + 0.5), saa(x + 0.5, y + 0.5),
+                                                                  vza(x + 0.5, y + 0.5), vaa(x + 0.5, y + 0.5),
+                                                                  blue, red, nir, process, exact);
+                tiePointAnisotropy.normalize(x, y, process, blue, red, nir, interpolated);
+                final int interpolatedProcess = FaparOpAlgorithm.computeFromBrf(interpolated[FaparOpAlgorithm.BLUE],
+                                                                                interpolated[FaparOpAlgorithm.RED],
+                                                                                interpolated[FaparOpAlgorithm.NIR],
+                                                                                process, interpolated);
+                numPixels++;
+                if (exactProcess != interpolatedProcess) {
+                    processMismatches++;
+                    continue;
+                }
+                maxFaparError = Math.max(maxFaparError, Math.abs(exact[FaparOpAlgorithm.FAPAR] -
+                                                                 interpolated[FaparOpAlgorithm.FAPAR]));
+                maxRectifiedError = Math.max(maxRectifiedError, Math.abs(exact[FaparOpAlgorithm.RED_REC] -
+                                                                         interpolated[FaparOpAlgorithm.RED_REC]));
+                maxRectifiedError = Math.max(maxRectifiedError, Math.abs(exact[FaparOpAlgorithm.NIR_REC] -
+                                                                         interpolated[FaparOpAlgorithm.NIR_REC]));
+            }
+        }
+
+        assertTrue("process mismatches: " + processMismatches, processMismatches <= numPixels / 1000);
+        assertTrue("FAPAR error " + maxFaparError, maxFaparError <= MAX_FAPAR_ERROR);
+        assertTrue("rectified reflectance error " + maxRectifiedError, maxRectifiedError <= MAX_RECTIFIED_ERROR);
+    }
+
+    @Test
+    public void testExactOnNodes() {
+        final TiePointAnisotropy tiePointAnisotropy = createTiePointAnisotropy();
+        final float[] exact = new float[FaparOpAlgorithm.RESULT_LENGTH];
+        final float[] interpolated = new float[FaparOpAlgorithm.RESULT_LENGTH];
+        final int y = 3 * SUB_SAMPLING;
+        for (int x = 0; x < WIDTH; x += SUB_SAMPLING) {
+            FaparOpAlgorithm.compute(sza(x + 0.5, y + 0.5), saa(x + 0.5, y + 0.5), vza(x + 0.5, y + 0.5),
+                                     vaa(x + 0.5, y + 0.5), 0.1f, 0.08f, 0.3f, 0, exact);
+            tiePointAnisotropy.normalize(x, y, 0, 0.1f, 0.08f, 0.3f, interpolated);
+            FaparOpAlgorithm.computeFromBrf(interpolated[FaparOpAlgorithm.BLUE], interpolated[FaparOpAlgorithm.RED],
+                                            interpolated[FaparOpAlgorithm.NIR], 0, interpolated);
+            assertEquals(exact[FaparOpAlgorithm.FAPAR], interpolated[FaparOpAlgorithm.FAPAR], 0.0f);
+            assertEquals(exact[FaparOpAlgorithm.RED_REC], interpolated[FaparOpAlgorithm.RED_REC], 0.0f);
+            assertEquals(exact[FaparOpAlgorithm.NIR_REC], interpolated[FaparOpAlgorithm.NIR_REC], 0.0f);
+        }
+    }
+
+    @Test
+    public void testPixelsNotProcessed() {
+        final float[] brf = new float[3];
+        createTiePointAnisotropy().normalize(10, 10, 3, 0.1f, 0.08f, 0.3f, brf);
+        assertEquals(0.1f, brf[FaparOpAlgorithm.BLUE], 0.0f);
+        assertEquals(0.08f, brf[FaparOpAlgorithm.RED], 0.0f);
+        assertEquals(0.3f, brf[FaparOpAlgorithm.NIR], 0.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentGridLayouts() {
+        final TiePointGrid sza = createGrid("sun_zenith", 0);
+        final TiePointGrid vza = createGrid("view_zenith", 2);
+        final TiePointGrid other = new TiePointGrid("sun_azimuth", sza.getRasterWidth(), sza.getRasterHeight(),
+                                                    0.5f, 0.5f, 8.0f, 8.0f, sza.getTiePoints());
+        new TiePointAnisotropy(sza, other, vza, vza);
+    }
+
+    private static TiePointAnisotropy createTiePointAnisotropy() {
+        return new TiePointAnisotropy(createGrid("sun_zenith", 0), createGrid("sun_azimuth", 1),
+                                      createGrid("view_zenith", 2), createGrid("view_azimuth", 3));
+    }
+
+    private static TiePointGrid createGrid(String name, int angle) {
+        final int gridWidth = (WIDTH - 1) / SUB_SAMPLING + 1;
+        final int gridHeight = (HEIGHT - 1) / SUB_SAMPLING + 1;
+        final float[] tiePoints = new float[gridWidth * gridHeight];
+        for (int j = 0; j < gridHeight; j++) {
+            for (int i = 0; i < gridWidth; i++) {
+                final double u = 0.5 + i * SUB_SAMPLING;
+                final double v = 0.5 + j * SUB_SAMPLING;
+                final float value;
+                switch (angle) {
+                    case 0:
+                        value = sza(u, v);
+                        break;
+                    case 1:
+                        value = saa(u, v);
+                        break;
+                    case 2:
+                        value = vza(u, v);
+                        break;
+                    default:
+                        value = vaa(u, v);
+                }
+                tiePoints[j * gridWidth + i] = value;
+            }
+        }
+        return new TiePointGrid(name, gridWidth, gridHeight, 0.5f, 0.5f, SUB_SAMPLING, SUB_SAMPLING, tiePoints);
+    }
+
+    private static float sza(double u, double v) {
+        return (float) (35.0 + 0.005 * u + 0.02 * v);
+    }
+
+    private static float saa(double u, double v) {
+        return (float) (130.0 + 0.01 * u - 0.02 * v);
+    }
+
+    private static float vza(double u, double v) {
+        return (float) (38.0 * Math.abs(u - NADIR_X) / 560.0);
+    }
+
+    private static float vaa(double u, double v) {
+        return (float) ((u < NADIR_X ? 102.0 : -78.0) + 0.005 * v);
+    }
+}